@@ -0,0 +1,21 @@
+import madkit.kernel.Madkit;
+import modules.simulation.DmasBatch;
+import org.orekit.errors.OrekitException;
+
+public class BatchDriver extends DmasBatch {
+
+    /**
+     * Headless driver for DMAS3 parameter sweeps.
+     * Takes the name of a sweep file within the /inputs folder as its only argument
+     */
+    public static void main(String[] args) throws OrekitException {
+        sweepFile = args.length > 0 ? args[0] : "sweepTemplate.json";
+        executeThisAgent(1, false,
+                Madkit.BooleanOption.desktop.toString(), "false",
+                Madkit.BooleanOption.noAgentConsoleLog.toString(), "true",
+                Madkit.LevelOption.madkitLogLevel.toString(), "OFF",
+                Madkit.LevelOption.kernelLogLevel.toString(), "OFF",
+                Madkit.LevelOption.guiLogLevel.toString(), "OFF",
+                Madkit.LevelOption.agentLogLevel.toString(), "OFF");
+    }
+}
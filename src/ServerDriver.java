@@ -0,0 +1,19 @@
+import madkit.kernel.Madkit;
+import modules.simulation.SimServer;
+import org.orekit.errors.OrekitException;
+
+public class ServerDriver extends SimServer {
+
+    /**
+     * Driver for a persistent DMAS3 server.
+     * Takes the port to listen on and the number of scenarios kept in memory as optional arguments. Input files can
+     * then be submitted with SimServer.Client
+     */
+    public static void main(String[] args) throws OrekitException {
+        port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        maxScenarios = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SCENARIOS;
+        executeThisAgent(1, false,
+                Madkit.BooleanOption.desktop.toString(), "false",
+                Madkit.BooleanOption.noAgentConsoleLog.toString(), "true");
+    }
+}
@@ -10,6 +10,7 @@ public class JSONFields {
         public static final String END_DATE = "endDate";
         public static final String CRSSLNKS = "crossLinks";
         public static final String N_SIMS = "n_sims";
+        public static final String SEED = "seed";
 
     public static final String PLNR = "planner";
         public static final String PLNR_NAME = "name";
@@ -25,4 +26,16 @@ public class JSONFields {
         public static final String PRINT = "printResults";
         public static final String LEVEL = "loggerLevel";
         public static final String DEBUG = "debug";
+        public static final String CACHE_SIZE = "coverageCacheSize";
+        public static final String EPHEMERIS_STEP = "ephemerisStep";
+        public static final String CROSS_LINK_MODEL = "crossLinkModel";
+        public static final String TRAJ_COMPRESS = "compressTrajectories";
+        public static final String TRAJ_CSV = "exportTrajectoryCSV";
+        public static final String COVERAGE_THREADS = "coverageThreads";
+        public static final String TIME_ADVANCE = "timeAdvance";
+        public static final String COARSE_STEP = "coarseDt";
+        public static final String AGENT_THREADS = "agentThreads";
+        public static final String CONCURRENT_RUNS = "concurrentRuns";
+        public static final String CHECKPOINT_INTERVAL = "checkpointInterval";
+        public static final String ACCESS_WINDOW = "accessWindow";
 }
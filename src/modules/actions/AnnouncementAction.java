@@ -13,8 +13,9 @@ public class AnnouncementAction extends SimulationAction {
     private final Satellite target;
     private final Message announcement;
 
-    public AnnouncementAction(AbstractAgent agent, Satellite target, Message announcement, AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, startDate, endDate);
+    public AnnouncementAction(AbstractAgent agent, Satellite target, Message announcement,
+                              AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, simStartDate, startTime, endTime);
         this.target = target;
         this.announcement = announcement;
     }
@@ -18,8 +18,8 @@ public class ManeuverAction extends SimulationAction{
     private final double duration;
 
     protected ManeuverAction(AbstractAgent agent, Attitude attitude, double initialRollAngle, double finalRollAngle,
-                             AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, startDate, endDate);
+                             AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, simStartDate, startTime, endTime);
         this.initialRollAngle = initialRollAngle;
         this.finalRollAngle = finalRollAngle;
         this.duration = Math.sqrt( 8.0 * Math.abs(initialRollAngle - finalRollAngle)
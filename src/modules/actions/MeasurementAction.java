@@ -15,8 +15,8 @@ public class MeasurementAction extends SimulationAction{
     private final String type;
 
     public MeasurementAction(AbstractAgent agent, Instrument instrument, MeasurementRequest request,
-                             AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, startDate, endDate);
+                             AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, simStartDate, startTime, endTime);
 
         this.request = request;
         this.targetCovDef = request.getCovDef();
@@ -26,8 +26,9 @@ public class MeasurementAction extends SimulationAction{
     }
 
     public MeasurementAction(AbstractAgent agent, Instrument instrument, CoverageDefinition targetCovDef,
-                             TopocentricFrame target, String type, AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, startDate, endDate);
+                             TopocentricFrame target, String type,
+                             AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, simStartDate, startTime, endTime);
         this.request = null;
         this.targetCovDef = targetCovDef;
         this.target = target;
@@ -9,8 +9,9 @@ public class MessageAction extends SimulationAction {
     private final Message message;
     private final AgentAddress target;
 
-    public MessageAction(AbstractAgent agent, AgentAddress target, Message message, AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, startDate, endDate);
+    public MessageAction(AbstractAgent agent, AgentAddress target, Message message,
+                         AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, simStartDate, startTime, endTime);
 
         this.message = message;
         this.target = target;
@@ -10,8 +10,8 @@ import seakers.orekit.object.Instrument;
 public class NominalAction extends MeasurementAction{
     protected NominalAction(AbstractAgent agent, CoverageDefinition targetCovDef,
                             TopocentricFrame target, Instrument instrument,
-                            String measurementType, AbsoluteDate startDate,
-                            AbsoluteDate endDate) {
-        super(agent, instrument, null, startDate, endDate);
+                            String measurementType, AbsoluteDate simStartDate,
+                            double startTime, double endTime) {
+        super(agent, instrument, null, simStartDate, startTime, endTime);
     }
 }
@@ -4,22 +4,55 @@ import madkit.kernel.AbstractAgent;
 import madkit.kernel.Agent;
 import org.orekit.time.AbsoluteDate;
 
-public abstract class SimulationAction {
-    private final AbsoluteDate startDate;
-    private final AbsoluteDate endDate;
+import java.io.Serializable;
+import java.util.Collection;
+
+public abstract class SimulationAction implements Serializable {
+    /**
+     * Start and end times of the action in seconds from the simulation start date
+     */
+    private final double startTime;
+    private final double endTime;
+
+    /**
+     * Simulation start date. Only used to convert action times to dates when reporting them.
+     */
+    private final AbsoluteDate simStartDate;
     private final AbstractAgent agent;
 
-    protected SimulationAction(AbstractAgent agent, AbsoluteDate startDate, AbsoluteDate endDate) {
+    protected SimulationAction(AbstractAgent agent, AbsoluteDate simStartDate, double startTime, double endTime) {
         this.agent = agent;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.simStartDate = simStartDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
     }
 
     /**
      * Getters
      * @return
      */
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public AbsoluteDate getStartDate() { return simStartDate.shiftedBy(startTime); }
+    public AbsoluteDate getEndDate() { return simStartDate.shiftedBy(endTime); }
     public AbstractAgent getAgent() { return agent; }
+
+    /**
+     * Returns the earliest start or end time of a list of actions that comes after a given time
+     * @param actions   : actions to be searched
+     * @param t         : current time in seconds from the simulation start date
+     * @return next start or end time, or infinity if all actions have already ended
+     */
+    public static double nextEventTime(Collection<? extends SimulationAction> actions, double t){
+        double next = Double.POSITIVE_INFINITY;
+        for(SimulationAction action : actions){
+            double event;
+            if(action.getStartTime() > t) event = action.getStartTime();
+            else if(action.getEndTime() > t) event = action.getEndTime();
+            else continue;
+
+            if(event < next) next = event;
+        }
+        return next;
+    }
 }
@@ -10,7 +10,7 @@ import seakers.orekit.object.Instrument;
 public class UrgentAction extends  MeasurementAction{
     protected UrgentAction(AbstractAgent agent, MeasurementRequest request,
                            Instrument instrument,
-                           AbsoluteDate startDate, AbsoluteDate endDate) {
-        super(agent, instrument, request, startDate, endDate);
+                           AbsoluteDate simStartDate, double startTime, double endTime) {
+        super(agent, instrument, request, simStartDate, startTime, endTime);
     }
 }
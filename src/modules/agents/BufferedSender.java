@@ -0,0 +1,14 @@
+package modules.agents;
+
+/**
+ * Agent whose outgoing messages are held back until the end of the simulation phase in which they were sent. This
+ * allows agents to run a phase concurrently while still delivering messages in a reproducible order.
+ *
+ * @author a.aguilar
+ */
+public interface BufferedSender {
+    /**
+     * Delivers all messages held back by the agent in the order in which they were sent
+     */
+    void flushMessages();
+}
@@ -0,0 +1,44 @@
+package modules.agents;
+
+import madkit.kernel.AgentAddress;
+import madkit.kernel.Message;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+/**
+ * Agent whose state can be saved to and restored from a simulation checkpoint. State is written between two time
+ * steps, when no agent is running and every outgoing message has already been delivered.
+ *
+ * @author a.aguilar
+ */
+public interface Checkpointable {
+    /**
+     * Writes every part of the agent's state that changes during the simulation
+     * @param out checkpoint stream
+     * @throws IOException
+     */
+    void writeState(ObjectOutputStream out) throws IOException;
+
+    /**
+     * Replaces the agent's state with one written by writeState
+     * @param in checkpoint stream
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    void readState(ObjectInputStream in) throws IOException, ClassNotFoundException;
+
+    /**
+     * Removes and returns every unread message in the agent's mailbox
+     */
+    List<Message> drainMailbox();
+
+    /**
+     * Sends a message to another agent right away, bypassing any outbox. Used to deliver unread messages again
+     * @param target : address of target agent
+     * @param message : message sent by this agent
+     */
+    void deliver(AgentAddress target, Message message);
+}
@@ -55,13 +55,16 @@ public class CommsSatellite extends SatelliteAgent {
     public void think() throws Exception {
         getLogger().finest("\t Hello! This is " + this.getName() + ". I am thinking...");
 
+        // plan over any accesses loaded since the last think phase
+        updateAccessWindow();
+
         // package received messages and send to planner
         HashMap<String, ArrayList<Message>> messages = new HashMap<>();
         messages.put(MeasurementRequestMessage.class.toString(), requestMessages);
         messages.put(RelayMessage.class.toString(), relayMessages);
 
         // update plan
-        this.plan = this.planner.makePlan(messages, this, environment.getCurrentDate());
+        this.plan = this.planner.makePlan(messages, this, environment.getGVT());
 
         // empty planner message arrays
         emptyMessages();
@@ -74,9 +77,10 @@ public class CommsSatellite extends SatelliteAgent {
     public void execute() throws Exception {
         getLogger().finest("\t Hello! This is " + this.getName() + ". I am executing...");
 
+        double currentTime = environment.getGVT();
         while(!plan.isEmpty()
-                && environment.getCurrentDate().compareTo(plan.getFirst().getStartDate()) >= 0
-                && environment.getCurrentDate().compareTo(plan.getFirst().getEndDate()) <= 0){
+                && currentTime >= plan.getFirst().getStartTime()
+                && currentTime <= plan.getFirst().getEndTime()){
 
             // retrieve action and target
             MessageAction action = (MessageAction) plan.poll();
@@ -87,16 +91,19 @@ public class CommsSatellite extends SatelliteAgent {
             MeasurementRequestMessage message = (MeasurementRequestMessage) action.getMessage();
 
             // send it to the target agent
-            sendMessage(targetAddress,message);
+            send(targetAddress,message);
 
             // send a copy of the message to sim scheduler for comms book-keeping
             AgentAddress envAddress = getAgentWithRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.ENVIRONMENT);
             BookkeepingMessage envMessage = new BookkeepingMessage(targetAddress, getCurrentDate(), message);
-            sendMessage(envAddress,envMessage);
+            send(envAddress,envMessage);
+            environment.scheduleNextStep();
 
             // log to terminal
             logMessageSent(targetAddress, message);
         }
+
+        scheduleWakeUp();
     }
 
     /**
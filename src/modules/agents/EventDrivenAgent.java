@@ -0,0 +1,15 @@
+package modules.agents;
+
+/**
+ * Agent that can be skipped by the simulation scheduler at time steps in which it has no work to do
+ *
+ * @author a.aguilar
+ */
+public interface EventDrivenAgent {
+    /**
+     * Checks if the agent has work to do at the current time step. Once evaluated, the result must not change
+     * until the next time step so that the agent goes through all of its behaviours or none of them.
+     * @return true if the agent must be activated
+     */
+    boolean isAwake();
+}
@@ -14,15 +14,18 @@ import modules.messages.MeasurementMessage;
 import modules.messages.MeasurementRequestMessage;
 import modules.messages.filters.MeasurementRequestMessageFilter;
 import modules.messages.filters.SatFilter;
+import modules.orbitData.AccessTable;
 import modules.orbitData.GndAccess;
 import modules.orbitData.OrbitData;
 import modules.simulation.SimGroups;
+import modules.utils.Intervals;
 import org.orekit.time.AbsoluteDate;
-import seakers.orekit.coverage.access.RiseSetTime;
-import seakers.orekit.coverage.access.TimeIntervalArray;
 import seakers.orekit.object.GndStation;
 import seakers.orekit.object.Satellite;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -34,7 +37,7 @@ import java.util.logging.Level;
  *
  * @author a.aguilar
  */
-public class GndStationAgent extends AbstractAgent {
+public class GndStationAgent extends AbstractAgent implements EventDrivenAgent, BufferedSender, Checkpointable {
     /**
      * Ground station assigned to this agent
      */
@@ -51,15 +54,20 @@ public class GndStationAgent extends AbstractAgent {
     private final SimGroups myGroups;
 
     /**
-     * Stores the accesses of each satellite with this ground station
+     * Id of this ground station in the access tables of the coverage data
      */
-    private final HashMap<Satellite, TimeIntervalArray> satAccesses;
+    private final int stationId;
 
     /**
      * current plan to be performed
      */
     private LinkedList<SimulationAction> plan;
 
+    /**
+     * End of the access window last announced for, in seconds from the simulation start date
+     */
+    private double plannedUntil = Double.NEGATIVE_INFINITY;
+
     /**
      * Environment in which this agent exists in.
      */
@@ -72,6 +80,20 @@ public class GndStationAgent extends AbstractAgent {
     private HashMap<GndStation, AgentAddress> gndAddresses;
     protected AgentAddress envAddress;
 
+    /**
+     * Time in seconds from the simulation start date at which this agent next has work to do. Until then, the
+     * agent is only activated if it receives messages.
+     */
+    private double wakeUpTime = 0.0;
+    private long awakeStep = -1;
+    private boolean awake;
+
+    /**
+     * Messages sent during the current simulation phase, delivered once the phase ends
+     */
+    private final ArrayList<AgentAddress> outboxTargets = new ArrayList<>();
+    private final ArrayList<Message> outbox = new ArrayList<>();
+
     /**
      * Creates an instance of a ground station
      * @param gnd : ground station represented by this agent
@@ -85,11 +107,7 @@ public class GndStationAgent extends AbstractAgent {
         this.orbitData = orbitData;
         this.myGroups = myGroups;
 
-        this.satAccesses = new HashMap<>();
-        for(Satellite sat : orbitData.getAccessesGS().keySet()){
-            TimeIntervalArray arr = orbitData.getAccessesGS().get(sat).get(gnd);
-            this.satAccesses.put(sat, arr);
-        }
+        this.stationId = orbitData.getStationId(gnd);
 
         getLogger().setLevel(loggerLevel);
     }
@@ -112,24 +130,32 @@ public class GndStationAgent extends AbstractAgent {
     }
 
     /**
-     * Does nothing after initial broadcast plan has been made. Initial plan does not change throughout simulation.
+     * Makes the initial broadcast plan, and adds announcements for the accesses of every access window loaded after
+     * it. Planned announcements do not change throughout simulation.
      */
     public void think(){
-        if(plan == null) this.plan = this.initPlan();
+        if(plan == null) this.plan = new LinkedList<>();
+
+        double windowEnd = environment.getAccesses().getWindowEnd();
+        if(windowEnd > plannedUntil){
+            this.plan.addAll( this.initPlan(plannedUntil, windowEnd) );
+            plannedUntil = windowEnd;
+        }
     }
 
     /**
      * Sends measurement request announcements according to initial plan.
      */
     public void execute(){
+        double prevTime = environment.getPreviousGVT();
+        double currentTime = environment.getGVT();
+
         // if the scheduled time is reached for next actions in plan, perform actions
         while(!plan.isEmpty()
             && (
-                (environment.getCurrentDate().shiftedBy(-environment.getDt()).compareTo(plan.getFirst().getStartDate()) < 0
-                && environment.getCurrentDate().compareTo(plan.getFirst().getStartDate()) <= 0)
+                (prevTime < plan.getFirst().getStartTime() && currentTime <= plan.getFirst().getStartTime())
                 ||
-                (environment.getCurrentDate().shiftedBy(-environment.getDt()).compareTo(plan.getFirst().getEndDate()) < 0
-                && environment.getCurrentDate().compareTo(plan.getFirst().getEndDate()) <= 0)
+                (prevTime < plan.getFirst().getEndTime() && currentTime <= plan.getFirst().getEndTime())
             )
         ){
 
@@ -142,13 +168,80 @@ public class GndStationAgent extends AbstractAgent {
             MeasurementRequestMessage message = (MeasurementRequestMessage) action.getMessage();
 
             // send it to the target agent
-            sendMessage(targetAddress,message);
+            send(targetAddress,message);
 
             // send a copy of the message to sim scheduler for comms book-keeping
             AgentAddress envAddress = getAgentWithRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.ENVIRONMENT);
             BookkeepingMessage envMessage = new BookkeepingMessage(targetAddress, getCurrentDate(), message);
-            sendMessage(envAddress,envMessage);
+            send(envAddress,envMessage);
+            environment.scheduleNextStep();
         }
+
+        scheduleWakeUp();
+    }
+
+    /**
+     * Checks if this ground station has an announcement due or unread messages at the current time step
+     */
+    @Override
+    public boolean isAwake(){
+        if(awakeStep != environment.getStep()){
+            awakeStep = environment.getStep();
+            awake = environment.isDue(wakeUpTime, !isMessageBoxEmpty());
+        }
+        return awake;
+    }
+
+    /**
+     * Asks the environment to wake this ground station up at the start or end of its next planned action
+     */
+    private void scheduleWakeUp(){
+        wakeUpTime = Math.min(SimulationAction.nextEventTime(plan, environment.getGVT()),
+                environment.getAccesses().getRefreshTime());
+        environment.scheduleEvent(wakeUpTime);
+    }
+
+    /**
+     * Queues a message to be delivered to its target at the end of the current simulation phase
+     * @param targetAddress : address of target agent
+     * @param message : message being sent to target
+     */
+    private void send(AgentAddress targetAddress, Message message){
+        outboxTargets.add(targetAddress);
+        outbox.add(message);
+    }
+
+    @Override
+    public void flushMessages(){
+        for(int i = 0; i < outbox.size(); i++) sendMessage(outboxTargets.get(i), outbox.get(i));
+        outboxTargets.clear();
+        outbox.clear();
+    }
+
+    @Override
+    public void deliver(AgentAddress target, Message message){
+        sendMessage(target, message);
+    }
+
+    @Override
+    public List<Message> drainMailbox(){
+        return nextMessages(null);
+    }
+
+    @Override
+    public void writeState(ObjectOutputStream out) throws IOException {
+        out.writeObject(plan);
+        out.writeDouble(wakeUpTime);
+        out.writeDouble(plannedUntil);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readState(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        plan = (LinkedList<SimulationAction>) in.readObject();
+        wakeUpTime = in.readDouble();
+        plannedUntil = in.readDouble();
+        awakeStep = -1;
     }
 
     /**
@@ -187,31 +280,26 @@ public class GndStationAgent extends AbstractAgent {
     /**
      * Initiates final plan for ground station, which consists of sending messages to accessing satellites
      * announcing urgent measurement requests.
+     * @param from : start of the time span of accesses to be planned for, exclusive
+     * @param to : end of the time span of accesses to be planned for, inclusive
      * @return plan : linked list of actions to be performed during execute phase
      */
-    private LinkedList<SimulationAction> initPlan(){
+    private LinkedList<SimulationAction> initPlan(double from, double to){
         LinkedList<SimulationAction> plan = new LinkedList<>();
-        ArrayList<GndAccess> orderedAccesses = this.orderSatAccesses();
+        ArrayList<GndAccess> orderedAccesses = this.orderSatAccesses(from, to);
 
         for(GndAccess acc : orderedAccesses){
-            LinkedList<MeasurementRequest> accessAnnouncements = environment.getAvailableRequests( acc.getStartDate(), acc.getEndDate() );
+            LinkedList<MeasurementRequest> accessAnnouncements = environment.getAvailableRequests( acc.getStartTime(), acc.getEndTime() );
 
             for(MeasurementRequest req : accessAnnouncements) {
-                AbsoluteDate startDate;
-                AbsoluteDate endDate;
-
-                if(req.getStartDate().compareTo(acc.getStartDate()) >= 0)
-                    startDate = req.getStartDate();
-                else startDate = acc.getStartDate();
-
-                if(req.getEndDate().compareTo(acc.getEndDate()) <= 0)
-                    endDate = req.getEndDate();
-                else endDate = acc.getEndDate();
+                double startTime = Math.max(req.getStartTime(), acc.getStartTime());
+                double endTime = Math.min(req.getEndTime(), acc.getEndTime());
 
                 AgentAddress target = satAddresses.get(acc.getSat());
                 MeasurementRequestMessage announcement = new MeasurementRequestMessage(req, target);
 
-                MessageAction action = new MessageAction(this, target, announcement, startDate, endDate);
+                MessageAction action = new MessageAction(this, target, announcement,
+                        orbitData.getStartDate(), startTime, endTime);
                 plan.add(action);
             }
         }
@@ -220,54 +308,40 @@ public class GndStationAgent extends AbstractAgent {
     }
 
     /**
-     * Collects satellite access data and orders it in chronological order
+     * Collects satellite access data of the loaded access window and orders it in chronological order
+     * @param from : accesses are only included if they start after this time
+     * @param to : accesses are only included if they start at or before this time
      * @return ordered : array list containing ordered accesses with all satellites
      */
-    private ArrayList<GndAccess> orderSatAccesses(){
-        ArrayList<GndAccess> ordered = new ArrayList();
-        HashMap<Satellite, ArrayList<GndAccess>> unordered = new HashMap<>();
-
-        for(Satellite sat : satAccesses.keySet()){
-            TimeIntervalArray arr = satAccesses.get(sat);
-            double t_0 = 0.0;
-            double t_f = 0.0;
-
-            ArrayList<GndAccess> accesses = new ArrayList<>();
-            for(int i = 0 ; i < arr.getRiseSetTimes().size(); i++){
-                RiseSetTime setTime = arr.getRiseSetTimes().get(i);
+    private ArrayList<GndAccess> orderSatAccesses(double from, double to){
+        AccessTable accessGS = environment.getAccesses().getAccessesGS();
 
-                if(setTime.isRise()) {
-                    t_0 = setTime.getTime();
-                }
-                else {
-                    t_f = setTime.getTime();
-
-                    AbsoluteDate startDate = orbitData.getStartDate().shiftedBy(t_0);
-                    AbsoluteDate endDate = orbitData.getStartDate().shiftedBy(t_f);
+        // gather the access windows of every satellite with this station
+        int n = 0;
+        for(int satId = 0; satId < accessGS.numSources(); satId++){
+            n += accessGS.numIntervals(satId, stationId);
+        }
 
-                    GndAccess access = new GndAccess(sat, this.gnd, startDate, endDate);
-                    accesses.add(access);
-                }
+        double[] rise = new double[n];
+        double[] set = new double[n];
+        int[] satIds = new int[n];
+        int k = 0;
+        for(int satId = 0; satId < accessGS.numSources(); satId++){
+            int pair = accessGS.getPair(satId, stationId);
+            if(pair < 0) continue;
+
+            for (int i = accessGS.intervalsStart(pair); i < accessGS.intervalsEnd(pair); i++) {
+                if(accessGS.getRise(i) <= from || accessGS.getRise(i) > to) continue;
+                rise[k] = accessGS.getRise(i);
+                set[k] = accessGS.getSet(i);
+                satIds[k] = satId;
+                k++;
             }
-
-            unordered.put(sat, accesses);
         }
 
-
-        for(Satellite sat : unordered.keySet()) {
-            for(GndAccess acc : unordered.get(sat)){
-                if(ordered.size() == 0){
-                    ordered.add(acc);
-                    continue;
-                }
-
-                int i = 0;
-                for(GndAccess accOrd : ordered){
-                    if(acc.getStartDate().compareTo(accOrd.getStartDate()) <= 0) break;
-                    i++;
-                }
-                ordered.add(i,acc);
-            }
+        ArrayList<GndAccess> ordered = new ArrayList<>(k);
+        for(int i : Intervals.order(rise, set, k)){
+            ordered.add(new GndAccess(orbitData.getSat(satIds[i]), this.gnd, orbitData.getStartDate(), rise[i], set[i]));
         }
 
         return ordered;
@@ -15,12 +15,14 @@ import modules.messages.filters.GndFilter;
 import modules.orbitData.*;
 import modules.planner.AbstractPlanner;
 import modules.simulation.SimGroups;
+import modules.utils.Intervals;
 import org.orekit.frames.TopocentricFrame;
 import org.orekit.time.AbsoluteDate;
-import seakers.orekit.coverage.access.RiseSetTime;
-import seakers.orekit.coverage.access.TimeIntervalArray;
 import seakers.orekit.object.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -33,7 +35,7 @@ import java.util.logging.Level;
  *
  * @author a.aguilar
  */
-public abstract class SatelliteAgent extends AbstractAgent {
+public abstract class SatelliteAgent extends AbstractAgent implements EventDrivenAgent, BufferedSender, Checkpointable {
     /**
      * orekit satellite represented by this agent
      */
@@ -45,13 +47,14 @@ public abstract class SatelliteAgent extends AbstractAgent {
     protected Attitude attitude;
 
     /**
-     * ground point coverage, station overage, and cross-link access times for this satellite
+     * coverage data of the scenario and id of this satellite in its access tables. Ground point coverage,
+     * station coverage, and cross-link access times are read from the shared tables instead of being copied.
+     * Ground station accesses are ordered up to plannedUntil, the end of the access window last given to the planner.
      */
-    protected HashMap<Satellite, TimeIntervalArray> accessesCL;
-    protected HashMap<TopocentricFrame, TimeIntervalArray> accessGP;
-    protected HashMap<Instrument, HashMap<CoverageDefinition, HashMap<TopocentricFrame, TimeIntervalArray>>> accessGPInst;
-    HashMap<GndStation, TimeIntervalArray> accessGS;
+    protected final OrbitData orbitData;
+    protected final int satId;
     ArrayList<GndAccess> orderedGndAccesses;
+    private double plannedUntil = Double.NEGATIVE_INFINITY;
 
     /**
      * list of measurements performed by spacecraft pending to be downloaded to a the next visible ground station
@@ -99,6 +102,21 @@ public abstract class SatelliteAgent extends AbstractAgent {
     protected ArrayList<Message> requestMessages;
     protected ArrayList<Message> plannerMessages;
 
+    /**
+     * Time in seconds from the simulation start date at which this agent next has work to do, and index of the
+     * next ground station access to wake up for. Until then, the agent is only activated if it receives messages.
+     */
+    protected double wakeUpTime = 0.0;
+    private int nextGndAccess = 0;
+    private long awakeStep = -1;
+    private boolean awake;
+
+    /**
+     * Messages sent during the current simulation phase, delivered once the phase ends
+     */
+    private final ArrayList<AgentAddress> outboxTargets = new ArrayList<>();
+    private final ArrayList<Message> outbox = new ArrayList<>();
+
     /**
      * Creates an instance of a satellite agent. Requires a planner to already be created
      * and this must have the same orekit satellite assignment to this agent.
@@ -113,19 +131,8 @@ public abstract class SatelliteAgent extends AbstractAgent {
         this.sat = sat;
         this.attitude = attitude;
 
-        this.accessesCL = new HashMap<>( orbitData.getAccessesCL().get(cons).get(sat) );
-        this.accessGP = new HashMap<>();
-        for(CoverageDefinition covDef : orbitData.getCovDefs()){
-            accessGP.putAll( orbitData.getAccessesGP().get(covDef).get(sat) );
-        }
-        this.accessGPInst = new HashMap<>();
-        for(Instrument ins : sat.getPayload()){
-            accessGPInst.put(ins, new HashMap<>());
-            for(CoverageDefinition covDef : orbitData.getCovDefs()){
-                accessGPInst.get(ins).put(covDef, new HashMap<>(orbitData.getAccessesGPIns().get(covDef).get(sat).get(ins)));
-                }
-        }
-        this.accessGS = new HashMap<>( orbitData.getAccessesGS().get(sat) );
+        this.orbitData = orbitData;
+        this.satId = orbitData.getSatId(sat);
 
         this.planner = planner;
         this.plan = new LinkedList<>();
@@ -146,9 +153,6 @@ public abstract class SatelliteAgent extends AbstractAgent {
         // request role as a satellite agent
         requestRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE);
 
-        // order ground station accesses chronologically for later use
-        this.orderedGndAccesses = orderGndAccesses();
-
         // assign oneself to planner
         this.planner.setParentAgent(this);
     }
@@ -157,9 +161,31 @@ public abstract class SatelliteAgent extends AbstractAgent {
      * ask planner for initial plan to be done at t = 0
      */
     public void initPlanner(){
+        // order ground station accesses of the loaded access window chronologically for later use
+        double windowEnd = getAccesses().getWindowEnd();
+        this.orderedGndAccesses = orderGndAccesses(Double.NEGATIVE_INFINITY, windowEnd);
+        this.nextGndAccess = 0;
+        this.plannedUntil = windowEnd;
+
         this.plan = planner.initPlan();
     }
 
+    /**
+     * Adds the accesses of a newly loaded access window to the list of ground station accesses and to the planner.
+     * Ground station accesses that have already started are dropped. Called at the start of every think phase.
+     */
+    protected void updateAccessWindow(){
+        double windowEnd = getAccesses().getWindowEnd();
+        if(windowEnd <= plannedUntil) return;
+
+        orderedGndAccesses.subList(0, nextGndAccess).clear();
+        nextGndAccess = 0;
+        orderedGndAccesses.addAll(orderGndAccesses(plannedUntil, windowEnd));
+
+        planner.extendPlan(plannedUntil);
+        plannedUntil = windowEnd;
+    }
+
     /**
      * Reads messages from other satellites or ground stations. Performs measurements if specified by plan.
      */
@@ -176,63 +202,141 @@ public abstract class SatelliteAgent extends AbstractAgent {
     abstract public void execute() throws Exception;
 
     /**
-     * Returns the next access with the target satellite
-     * @param sat : target satellite
-     * @return Array with the first element being the start date and the second being the end date
+     * Checks if this satellite has a planned action due, a ground station coming into view, or unread messages
+     * at the current time step
      */
-    public ArrayList<AbsoluteDate> getNextAccess(Satellite sat){
-        ArrayList<AbsoluteDate> access = new ArrayList<>();
+    @Override
+    public boolean isAwake(){
+        if(awakeStep != environment.getStep()){
+            awakeStep = environment.getStep();
+            awake = environment.isDue(wakeUpTime, !isMessageBoxEmpty());
+        }
+        return awake;
+    }
 
-        AbsoluteDate currDate = environment.getCurrentDate();
+    /**
+     * Finds the next time at which this satellite needs to act and asks the environment to wake it up then.
+     * Called at the end of every execute phase.
+     */
+    protected void scheduleWakeUp(){
+        double currentTime = environment.getGVT();
+        double next = Math.min(planner.nextEventTime(currentTime), SimulationAction.nextEventTime(plan, currentTime));
+
+        while(nextGndAccess < orderedGndAccesses.size()
+                && orderedGndAccesses.get(nextGndAccess).getStartTime() <= currentTime) nextGndAccess++;
+        if(nextGndAccess < orderedGndAccesses.size()){
+            next = Math.min(next, orderedGndAccesses.get(nextGndAccess).getStartTime());
+        }
+        next = Math.min(next, getAccesses().getRefreshTime());
 
-        for(int i = 0; i < accessesCL.get(sat).getRiseSetTimes().size(); i+=2){
-            RiseSetTime riseTime = accessesCL.get(sat).getRiseSetTimes().get(i);
-            RiseSetTime setTime = accessesCL.get(sat).getRiseSetTimes().get(i+1);
+        wakeUpTime = next;
+        environment.scheduleEvent(wakeUpTime);
+    }
 
-            AbsoluteDate riseDate = environment.getStartDate().shiftedBy(riseTime.getTime());
-            AbsoluteDate setDate = environment.getStartDate().shiftedBy(setTime.getTime());
+    /**
+     * Queues a message to be delivered to its target at the end of the current simulation phase
+     * @param targetAddress : address of target agent
+     * @param message : message being sent to target
+     */
+    protected void send(AgentAddress targetAddress, Message message){
+        outboxTargets.add(targetAddress);
+        outbox.add(message);
+    }
 
-            if(setDate.compareTo(currDate) < 0) continue;
+    @Override
+    public void flushMessages(){
+        for(int i = 0; i < outbox.size(); i++) sendMessage(outboxTargets.get(i), outbox.get(i));
+        outboxTargets.clear();
+        outbox.clear();
+    }
 
-            access.add(riseDate); access.add(setDate);
-            return access;
-        }
+    @Override
+    public void deliver(AgentAddress target, Message message){
+        sendMessage(target, message);
+    }
+
+    @Override
+    public List<Message> drainMailbox(){
+        return nextMessages(null);
+    }
 
-        return new ArrayList<>();
+    @Override
+    public void writeState(ObjectOutputStream out) throws IOException {
+        out.writeObject(planner);
+        out.writeObject(plan);
+        out.writeObject(attitude);
+        out.writeObject(measurementsPendingDownload);
+        out.writeObject(measurementsDone);
+        out.writeObject(relayMessages);
+        out.writeObject(requestMessages);
+        out.writeObject(plannerMessages);
+        out.writeDouble(wakeUpTime);
+        out.writeDouble(plannedUntil);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readState(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        planner = (AbstractPlanner) in.readObject();
+        plan = (LinkedList<SimulationAction>) in.readObject();
+        attitude = (Attitude) in.readObject();
+        measurementsPendingDownload = (ArrayList<Measurement>) in.readObject();
+        measurementsDone = (ArrayList<Measurement>) in.readObject();
+        relayMessages = (ArrayList<Message>) in.readObject();
+        requestMessages = (ArrayList<Message>) in.readObject();
+        plannerMessages = (ArrayList<Message>) in.readObject();
+        wakeUpTime = in.readDouble();
+        plannedUntil = in.readDouble();
+        awakeStep = -1;
+
+        // ground station accesses are rebuilt from the access window reloaded by the environment
+        orderedGndAccesses = orderGndAccesses(environment.getGVT(), plannedUntil);
+        nextGndAccess = 0;
+    }
+
+    /**
+     * Returns the next access with the target satellite
+     * @param sat : target satellite
+     * @return Array with the first element being the start time and the second being the end time
+     */
+    public ArrayList<Double> getNextAccess(Satellite sat){
+        return getNextAccess(getAccesses().getAccessesCL(), orbitData.getSatId(sat));
     }
 
     /**
      * Returns the next access with the target ground station
      * @param gndStation : target ground station
-     * @return Array with the first element being the start date and the second being the end date
+     * @return Array with the first element being the start time and the second being the end time
      */
-    public ArrayList<AbsoluteDate> getNextAccess(GndStation gndStation){
-        ArrayList<AbsoluteDate> access = new ArrayList<>();
-
-        AbsoluteDate currDate = environment.getCurrentDate();
-
-        for(int i = 0; i < accessGS.get(gndStation).getRiseSetTimes().size(); i+=2){
-            RiseSetTime riseTime = accessGS.get(gndStation).getRiseSetTimes().get(i);
-            RiseSetTime setTime = accessGS.get(gndStation).getRiseSetTimes().get(i+1);
-
-            AbsoluteDate riseDate = environment.getStartDate().shiftedBy(riseTime.getTime());
-            AbsoluteDate setDate = environment.getStartDate().shiftedBy(setTime.getTime());
+    public ArrayList<Double> getNextAccess(GndStation gndStation){
+        return getNextAccess(getAccesses().getAccessesGS(), orbitData.getStationId(gndStation));
+    }
 
-            if(setDate.compareTo(currDate) < 0) continue;
+    /**
+     * Returns the next access window of this satellite with a target of an access table that has not
+     * ended yet
+     * @param accesses : access table with this satellite as a source
+     * @param targetId : id of the target in the table
+     * @return Array with the first element being the start time and the second being the end time, in seconds from
+     * the simulation start date
+     */
+    private ArrayList<Double> getNextAccess(AccessTable accesses, int targetId){
+        ArrayList<Double> access = new ArrayList<>();
 
-            access.add(riseDate); access.add(setDate);
-            return access;
-        }
+        int i = accesses.nextWindow(satId, targetId, environment.getGVT());
+        if(i < 0) return access;
 
-        return new ArrayList<>();
+        access.add(accesses.getRise(i));
+        access.add(accesses.getSet(i));
+        return access;
     }
 
     /**
      * Returns the next access with the target address
      * @param address : target agent address
-     * @return Array with the first element being the start date and the second being the end date
+     * @return Array with the first element being the start time and the second being the end time
      */
-    public ArrayList<AbsoluteDate> getNextAccess(AgentAddress address){
+    public ArrayList<Double> getNextAccess(AgentAddress address){
         for(Satellite target : satAddresses.keySet()){
             if(satAddresses.get(target).equals(address)) return getNextAccess(target);
         }
@@ -254,6 +358,8 @@ public abstract class SatelliteAgent extends AbstractAgent {
         return sat.getName();
     }
     public Satellite getSat(){return sat; }
+    public OrbitData getOrbitData(){ return orbitData; }
+    public Attitude getAttitude(){ return attitude; }
     public AgentAddress getMyAddress(){return this.satAddresses.get(this.sat);}
     public HashMap<Satellite, AgentAddress> getSatAddresses(){ return this.satAddresses; }
     public LinkedList<SimulationAction> getPlan(){ return this.plan; }
@@ -399,79 +505,79 @@ public abstract class SatelliteAgent extends AbstractAgent {
     }
 
     public GndStation getNextGndAccessPoint(){
-        return getNextGndAccessPoint(environment.getCurrentDate());
+        return getNextGndAccessPoint(environment.getGVT());
     }
 
-    private GndStation getNextGndAccessPoint(AbsoluteDate currDate){
-        HashMap<GndStation, AbsoluteDate> nextAccessTimes = new HashMap<>();
-        double t_curr = currDate.durationFrom( environment.getStartDate() );
+    private GndStation getNextGndAccessPoint(double t_curr){
+        AccessTable accessGS = getAccesses().getAccessesGS();
 
-        for(GndStation gnd : accessGS.keySet()){
-            RiseSetTime earliest = null;
-            for(RiseSetTime t : accessGS.get(gnd).getRiseSetTimes()){
-                if(!t.isRise()) continue;
-
-                if(t_curr < t.getTime()){
-                    earliest = t;
+        GndStation gndEarliest = null;
+        double earliest = Double.POSITIVE_INFINITY;
+        for(int pair = accessGS.pairsStart(satId); pair < accessGS.pairsEnd(satId); pair++){
+            for(int i = accessGS.intervalsStart(pair); i < accessGS.intervalsEnd(pair); i++){
+                if(t_curr < accessGS.getRise(i)){
+                    if(accessGS.getRise(i) < earliest){
+                        earliest = accessGS.getRise(i);
+                        gndEarliest = orbitData.getStation(accessGS.getTarget(pair));
+                    }
                     break;
                 }
             }
-            nextAccessTimes.put(gnd, environment.getStartDate().shiftedBy(earliest.getTime()));
-        }
-
-        GndStation gndEarliest = null;
-        for(GndStation gnd : nextAccessTimes.keySet()){
-            if(gndEarliest == null) {
-                gndEarliest = gnd;
-                continue;
-            }
-
-            AbsoluteDate dateEarliest = nextAccessTimes.get(gndEarliest);
-            AbsoluteDate date = nextAccessTimes.get(gnd);
-            if(dateEarliest.compareTo(date) > 0) dateEarliest = date;
         }
 
         return gndEarliest;
     }
 
     public ArrayList<GPAccess> orderGPAccesses(){
-        ArrayList<GPAccess> unordered = new ArrayList<>();
-        ArrayList<GPAccess> ordered = new ArrayList<>();
-
-        for(Instrument ins : accessGPInst.keySet()){
-            for(CoverageDefinition covDef : accessGPInst.get(ins).keySet()) {
-                for (TopocentricFrame point : accessGPInst.get(ins).get(covDef).keySet()) {
-                    double t_0 = 0.0;
-                    double t_f = 0.0;
-
-                    for (RiseSetTime setTime : accessGPInst.get(ins).get(covDef).get(point).getRiseSetTimes()) {
-                        if (setTime.isRise()) {
-                            t_0 = setTime.getTime();
-                        } else {
-                            t_f = setTime.getTime();
-
-                            AbsoluteDate startDate = this.getStartDate().shiftedBy(t_0);
-                            AbsoluteDate endDate = this.getStartDate().shiftedBy(t_f);
-
-                            unordered.add(new GPAccess(this.sat, covDef, point, ins, startDate, endDate));
-                        }
-                    }
-                }
-            }
+        return orderGPAccesses(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Lists the ground point accesses of this satellite's instruments in the loaded access window that start
+     * within a time span
+     * @param from : start of the time span, exclusive, in seconds from the simulation start date
+     * @param to : end of the time span, inclusive, in seconds from the simulation start date
+     * @return chronologically ordered accesses
+     */
+    public ArrayList<GPAccess> orderGPAccesses(double from, double to){
+        AccessTable accessGPInst = getAccesses().getAccessesGPIns();
+        List<Instrument> payload = sat.getPayload();
+
+        // gather the access windows of every sensor of this satellite
+        int n = 0;
+        for(Instrument ins : payload){
+            int sensorId = orbitData.getSensorId(sat, ins);
+            if(sensorId < 0 || accessGPInst.pairsStart(sensorId) == accessGPInst.pairsEnd(sensorId)) continue;
+            n += accessGPInst.intervalsStart(accessGPInst.pairsEnd(sensorId))
+                    - accessGPInst.intervalsStart(accessGPInst.pairsStart(sensorId));
         }
 
-        for(GPAccess acc : unordered){
-            if(ordered.size() == 0){
-                ordered.add(acc);
-                continue;
+        double[] rise = new double[n];
+        double[] set = new double[n];
+        int[] pointIds = new int[n];
+        Instrument[] instruments = new Instrument[n];
+        int k = 0;
+        for(Instrument ins : payload){
+            int sensorId = orbitData.getSensorId(sat, ins);
+            if(sensorId < 0) continue;
+
+            for(int pair = accessGPInst.pairsStart(sensorId); pair < accessGPInst.pairsEnd(sensorId); pair++) {
+                for (int i = accessGPInst.intervalsStart(pair); i < accessGPInst.intervalsEnd(pair); i++) {
+                    if(accessGPInst.getRise(i) <= from || accessGPInst.getRise(i) > to) continue;
+                    rise[k] = accessGPInst.getRise(i);
+                    set[k] = accessGPInst.getSet(i);
+                    pointIds[k] = accessGPInst.getTarget(pair);
+                    instruments[k] = ins;
+                    k++;
+                }
             }
+        }
 
-            int i = 0;
-            for(GPAccess accOrd : ordered){
-                if(acc.getStartDate().compareTo(accOrd.getStartDate()) <= 0) break;
-                i++;
-            }
-            ordered.add(i,acc);
+        ArrayList<GPAccess> ordered = new ArrayList<>(k);
+        for(int i : Intervals.order(rise, set, k)){
+            TopocentricFrame point = orbitData.getPoint(pointIds[i]);
+            CoverageDefinition covDef = orbitData.getPointCovDef(pointIds[i]);
+            ordered.add(new GPAccess(this.sat, covDef, point, instruments[i], this.getStartDate(), rise[i], set[i]));
         }
 
         return ordered;
@@ -490,48 +596,29 @@ public abstract class SatelliteAgent extends AbstractAgent {
 //        return null;
 //    }
 
-    private ArrayList<GndAccess> orderGndAccesses(){
-        ArrayList<GndAccess> unordered = new ArrayList<>();
-        ArrayList<GndAccess> ordered = new ArrayList<>();
-
-        for(GndStation gnd : accessGS.keySet()){
-            double t_0 = 0.0;
-            double t_f = 0.0;
-
-            for(RiseSetTime setTime : accessGS.get(gnd).getRiseSetTimes()){
-                if(setTime.isRise()) {
-                    t_0 = setTime.getTime();
-                }
-                else {
-                    t_f = setTime.getTime();
-
-                    AbsoluteDate startDate = this.getStartDate().shiftedBy(t_0);
-                    AbsoluteDate endDate = this.getStartDate().shiftedBy(t_f);
+    private ArrayList<GndAccess> orderGndAccesses(double from, double to){
+        AccessTable accessGS = getAccesses().getAccessesGS();
+        int[] order = accessGS.chronologicalOrder(satId);
 
-                    unordered.add(new GndAccess(this.sat, gnd, startDate, endDate));
-                }
-            }
-        }
-
-        for(GndAccess acc : unordered){
-            if(ordered.size() == 0){
-                ordered.add(acc);
-                continue;
-            }
-
-            int i = 0;
-            for(GndAccess accOrd : ordered){
-                if(acc.getStartDate().compareTo(accOrd.getStartDate()) <= 0) break;
-                i++;
-            }
-            ordered.add(i,acc);
+        ArrayList<GndAccess> ordered = new ArrayList<>(order.length);
+        for(int i : order){
+            if(accessGS.getRise(i) <= from || accessGS.getRise(i) > to) continue;
+            GndStation gnd = orbitData.getStation(accessGS.getTarget(accessGS.getPairOfInterval(i)));
+            ordered.add(new GndAccess(this.sat, gnd, this.getStartDate(), accessGS.getRise(i), accessGS.getSet(i)));
         }
 
         return ordered;
     }
 
     public ArrayList<CLAccess> orderCLAccesses(Satellite sender, Satellite receiver) throws Exception {
-        return environment.getOrbitData().orderCLAccesses(sender,receiver);
+        return environment.getOrbitData().orderCLAccesses(sender,receiver, getAccesses().getAccessesCL());
+    }
+
+    /**
+     * Returns the accesses currently loaded by the environment
+     */
+    public AccessProvider getAccesses(){
+        return environment.getAccesses();
     }
 
     public boolean isCommsSat(Satellite sat){
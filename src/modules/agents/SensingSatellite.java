@@ -65,6 +65,9 @@ public class SensingSatellite extends SatelliteAgent {
     public void think() throws Exception {
         getLogger().finest("\t Hello! This is " + this.getName() + ". I am thinking...");
 
+        // plan over any accesses loaded since the last think phase
+        updateAccessWindow();
+
         // package received messages and send to planner
         HashMap<String, ArrayList<Message>> messages = new HashMap<>();
         messages.put(MeasurementRequestMessage.class.toString(), requestMessages);
@@ -72,7 +75,7 @@ public class SensingSatellite extends SatelliteAgent {
         messages.put(PlannerMessage.class.toString(), plannerMessages);
 
         // update plan
-        this.plan = this.planner.makePlan(messages, this, environment.getCurrentDate());
+        this.plan = this.planner.makePlan(messages, this, environment.getGVT());
 
         // empty planner message arrays
         emptyMessages();
@@ -85,14 +88,15 @@ public class SensingSatellite extends SatelliteAgent {
     public void execute() throws Exception {
         getLogger().finest("\t Hello! This is " + this.getName() + ". I am executing...");
 
+        double prevTime = environment.getPreviousGVT();
+        double currentTime = environment.getGVT();
+
         // make a measurement if stated in planner
         while(!plan.isEmpty()
                 && (
-                    (environment.getCurrentDate().shiftedBy(-environment.getDt()).compareTo(plan.getFirst().getStartDate()) < 0
-                    && environment.getCurrentDate().compareTo(plan.getFirst().getStartDate()) <= 0)
+                    (prevTime < plan.getFirst().getStartTime() && currentTime <= plan.getFirst().getStartTime())
                     ||
-                    (environment.getCurrentDate().shiftedBy(-environment.getDt()).compareTo(plan.getFirst().getEndDate()) < 0
-                    && environment.getCurrentDate().compareTo(plan.getFirst().getEndDate()) <= 0)
+                    (prevTime < plan.getFirst().getEndTime() && currentTime <= plan.getFirst().getEndTime())
                 )
         ){
 
@@ -143,12 +147,13 @@ public class SensingSatellite extends SatelliteAgent {
                 }
 
                 // send it to the target agent
-                sendMessage(targetAddress,message);
+                send(targetAddress,message);
 
                 // send a copy of the message to sim scheduler for comms book-keeping
                 AgentAddress envAddress = getAgentWithRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.ENVIRONMENT);
                 BookkeepingMessage envMessage = new BookkeepingMessage(targetAddress, getCurrentDate(), message);
-                sendMessage(envAddress,envMessage);
+                send(envAddress,envMessage);
+                environment.scheduleNextStep();
 
                 // log to terminal
                 logMessageSent(targetAddress, message);
@@ -171,6 +176,8 @@ public class SensingSatellite extends SatelliteAgent {
                         + plan.getFirst().getClass() + " not yet supported.");
             }
         }
+
+        scheduleWakeUp();
     }
 
     /**
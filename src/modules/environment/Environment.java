@@ -10,6 +10,7 @@ import madkit.kernel.AgentAddress;
 import madkit.kernel.Message;
 import madkit.kernel.Watcher;
 import madkit.simulation.probe.PropertyProbe;
+import modules.agents.Checkpointable;
 import modules.agents.SatelliteAgent;
 import modules.instruments.SAR;
 import modules.measurements.*;
@@ -17,28 +18,27 @@ import modules.messages.BookkeepingMessage;
 import modules.messages.MeasurementMessage;
 import modules.messages.filters.MeasurementFilter;
 import modules.messages.filters.PauseFilter;
+import modules.orbitData.AccessProvider;
+import modules.orbitData.AccessWindow;
 import modules.orbitData.OrbitData;
 import modules.planner.NominalPlanner;
 import modules.simulation.SimGroups;
 import modules.simulation.Simulation;
 import modules.utils.Statistics;
 import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.json.simple.JSONObject;
 import org.orekit.frames.TopocentricFrame;
 import org.orekit.orbits.Orbit;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.Constants;
-import seakers.orekit.coverage.access.RiseSetTime;
-import seakers.orekit.coverage.access.TimeIntervalArray;
 import seakers.orekit.object.*;
 import seakers.orekit.propagation.PropagatorFactory;
 import seakers.orekit.propagation.PropagatorType;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
 import java.util.*;
 
 import static constants.JSONFields.*;
@@ -48,7 +48,19 @@ import static constants.JSONFields.*;
  *
  * @author a.aguilar
  */
-public class Environment extends Watcher {
+public class Environment extends Watcher implements Checkpointable {
+    /**
+     * Accepted time advance modes
+     */
+    public static final String FIXED_STEP = "fixed";
+    public static final String EVENT_DRIVEN = "event";
+    public static final String ADAPTIVE = "adaptive";
+
+    /**
+     * Default coarse time step of adaptive simulations in seconds
+     */
+    public static final double DEFAULT_COARSE_STEP = 60.0;
+
     /**
      * Name of the environment
      */
@@ -64,6 +76,12 @@ public class Environment extends Watcher {
      */
     private final OrbitData orbitData;
 
+    /**
+     * Accesses visible to agents and planners. Either every access of the scenario, or a window around the current
+     * simulation time when an access window margin is set
+     */
+    private final AccessProvider accesses;
+
     /**
      * Simulation start and end dates
      */
@@ -101,9 +119,11 @@ public class Environment extends Watcher {
     private ArrayList<Measurement> measurements;
 
     /**
-     * Simulation Global Time
+     * Simulation Global Time, number of time steps taken to reach it, and time of the previous step
      */
     private double GVT;
+    private long step;
+    private double prevGVT;
 
     /**
      * Simulation fixed time-step*
@@ -111,6 +131,30 @@ public class Environment extends Watcher {
      */
     private final double dt;
 
+    /**
+     * Toggle for event-driven time advance. If on, time jumps straight to the time step of the next scheduled
+     * event instead of visiting every time step, and only agents with work to do are activated.
+     */
+    private final boolean eventDriven;
+
+    /**
+     * Toggle for adaptive time advance. If on, time advances in coarse steps of coarseSteps time steps whenever no
+     * event or access starts or ends within the next coarse step, and one time step at a time otherwise.
+     */
+    private final boolean adaptive;
+    private final long coarseSteps;
+
+    /**
+     * Start and end times of every loaded access, and index of the first one after the current time
+     */
+    private double[] accessTimes;
+    private int nextAccessTime;
+
+    /**
+     * Times in seconds from the start date at which agents have asked to be woken up
+     */
+    private final PriorityQueue<Double> events;
+
     /**
      * Simulation of which this environment is a part of
      */
@@ -122,6 +166,17 @@ public class Environment extends Watcher {
     private HashMap<Satellite, AgentAddress> satAddresses;
     private HashMap<GndStation, AgentAddress> gndAddresses;
 
+    /**
+     * Random number generator used to create measurement requests, seeded by the parent simulation
+     */
+    private RandomGenerator rng;
+
+    /**
+     * Number of agent behaviors triggered and skipped by the scheduler during the run
+     */
+    private long activations;
+    private long skippedActivations;
+
     /**
      * Creates an instance of and Environment to be simulated
      * @param input : JSON input file for simulation
@@ -139,10 +194,37 @@ public class Environment extends Watcher {
         this.endDate = orbitData.getEndDate();
         this.myGroups = myGroups;
         this.simDirectoryAddress = simDirectoryAddress;
-        this.GVT = orbitData.getStartDate().durationFrom(orbitData.getStartDate().getDate());
         this.dt = Double.parseDouble( ((JSONObject) input.get(SETTINGS)).get(TIMESTEP).toString() );
+        this.step = 0;
+        this.GVT = 0.0;
+        this.prevGVT = -dt;
+
+        Object advanceSetting = ((JSONObject) input.get(SETTINGS)).get(TIME_ADVANCE);
+        String timeAdvance = advanceSetting == null ? FIXED_STEP : advanceSetting.toString();
+        if(!timeAdvance.equals(FIXED_STEP) && !timeAdvance.equals(EVENT_DRIVEN) && !timeAdvance.equals(ADAPTIVE))
+            throw new InputMismatchException("Time advance mode " + timeAdvance + " not yet supported");
+        this.eventDriven = timeAdvance.equals(EVENT_DRIVEN);
+        this.adaptive = timeAdvance.equals(ADAPTIVE);
+
+        Object coarseSetting = ((JSONObject) input.get(SETTINGS)).get(COARSE_STEP);
+        double coarseStep = coarseSetting == null ? DEFAULT_COARSE_STEP : Double.parseDouble(coarseSetting.toString());
+        this.coarseSteps = Math.max(Math.round(coarseStep / dt), 1);
+
+        Object windowSetting = ((JSONObject) input.get(SETTINGS)).get(ACCESS_WINDOW);
+        double windowMargin = windowSetting == null ? 0.0 : Double.parseDouble(windowSetting.toString());
+        if(windowMargin > 0){
+            Object horizonSetting = ((JSONObject) input.get(PLNR)).get(PLN_HRZN);
+            double planningHorizon = horizonSetting == null ? 0.0 : Double.parseDouble(horizonSetting.toString());
+            this.accesses = new AccessWindow(orbitData, windowMargin, planningHorizon);
+        }
+        else this.accesses = orbitData;
+        this.accessTimes = adaptive ? accesses.accessTimes() : new double[0];
+        this.nextAccessTime = 0;
+
+        this.events = new PriorityQueue<>();
         this.measurements = new ArrayList<>();
         this.parentSimulation = parentSimulation;
+        this.rng = new Well19937c(parentSimulation.getSeed());
     }
 
     /**
@@ -157,20 +239,24 @@ public class Environment extends Watcher {
 
         try {
             // load scenario data
-            String scenarioDir = orbitData.getScenarioDir();
-            String scenarioStr = ((JSONObject) input.get(SIM)).get(SCENARIO).toString();
-            Workbook scenarioWorkbook = Workbook.getWorkbook(new File( scenarioDir + scenarioStr + ".xls"));
+            Workbook scenarioWorkbook = loadScenarioWorkbook();
 
             // load requirements
             this.measurementTypes = loadRequirements(scenarioWorkbook);
 
             // generate measurement requests
-            this.requests = generateRequests(scenarioWorkbook);
+            this.requests = generateRequests(scenarioWorkbook, new ArrayList<>(), 0.0);
             this.orderedRequests = getOrderedRequests();
 
             // print measurement requests
             printRequests();
 
+            // wake agents up whenever a request is announced
+            for(MeasurementRequest request : orderedRequests) scheduleEvent(request.getAnnounceTime());
+
+            // and whenever a new access window is loaded
+            scheduleEvent(accesses.getRefreshTime());
+
             // request my role so that the viewers can probe me
             requestRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.ENVIRONMENT);
 
@@ -184,20 +270,33 @@ public class Environment extends Watcher {
         }
     }
 
+    /**
+     * Opens the excel sheet workbook of the chosen scenario
+     */
+    private Workbook loadScenarioWorkbook() throws Exception {
+        String scenarioDir = orbitData.getScenarioDir();
+        String scenarioStr = ((JSONObject) input.get(SIM)).get(SCENARIO).toString();
+        return Workbook.getWorkbook(new File( scenarioDir + scenarioStr + ".xls"));
+    }
+
     /**
      * Creates list of measurement requests to be made in the duration of the simulation
      * @param scenarioWorkbook : open excel sheet workbook containing scenario information
+     * @param requests : requests already generated, in order of announcement. New requests are appended to it
+     * @param t : time in seconds from the simulation start date after which the first new request is announced
      * @return requests : ArrayList containing generated measurement requests
      */
-    private ArrayList<MeasurementRequest> generateRequests(Workbook scenarioWorkbook) throws Exception {
-        ArrayList<MeasurementRequest> requests = new ArrayList<>();
+    private ArrayList<MeasurementRequest> generateRequests(Workbook scenarioWorkbook,
+                                                           ArrayList<MeasurementRequest> requests,
+                                                           double t) throws Exception {
+        int numGenerated = requests.size();
 
         double arrivalRate = Double.parseDouble(((JSONObject) input.get(PLNR)).get(TASK_ARRIVAL_R).toString());
         double meanInterval = Double.parseDouble(((JSONObject) input.get(PLNR)).get(MEAN_INTERVAL_R).toString());
         double planningHorizon = Double.parseDouble(((JSONObject) input.get(PLNR)).get(PLN_HRZN).toString());
         double numReqs = endDate.durationFrom(startDate)*arrivalRate;
 
-        for(int i = 0; i < numReqs; i++){
+        for(int i = numGenerated; i < numReqs; i++){
             CoverageDefinition covDef = randomCovDef();
             assert covDef != null;
             CoveragePoint location = randomPoint(covDef);
@@ -205,19 +304,14 @@ public class Environment extends Watcher {
             String type = covDefMeasurementType(covDef, scenarioWorkbook);
             HashMap<String, Requirement> requirements = this.measurementTypes.get(type);
 
-            ArrayList<AbsoluteDate> dates;
-            if(i==0){
-                dates = randomDates(requirements.get("Temporal"), null, planningHorizon, arrivalRate, meanInterval);
-            }
-            else {
-                dates = randomDates(requirements.get("Temporal"), requests.get(i-1), planningHorizon, arrivalRate, meanInterval);
-            }
-            AbsoluteDate announceDate = dates.get(0);
-            AbsoluteDate startDate = dates.get(1);
-            AbsoluteDate endDate = dates.get(2);
+            double previousTime = i == numGenerated ? t : requests.get(i-1).getAnnounceTime();
+            double[] times = randomTimes(requirements.get("Temporal"), previousTime, planningHorizon, arrivalRate, meanInterval);
+            double announceTime = times[0];
+            double startTime = times[1];
+            double endTime = times[2];
 
             MeasurementRequest request = new MeasurementRequest(i, covDef, location,
-                    announceDate, startDate, endDate, type,
+                    announceTime, startTime, endTime, type,
                     requirements, orbitData.getStartDate(), 100);
             requests.add(request);
         }
@@ -240,19 +334,17 @@ public class Environment extends Watcher {
     }
 
     /**
-     * Generates random dates for the announcement, start, and ending of a measurement request.
+     * Generates random times for the announcement, start, and ending of a measurement request.
      * Duration determined by temporal requirement of measurement.
      * @param tempRequirement : temporal requirement for measurement
-     * @return dates : array of dates containing when the request starts, when it can be announced,
-     * and when it stops being available.
+     * @param previousTime : announcement time of the previous request in seconds from the simulation start date
+     * @return times : array of times in seconds from the simulation start date containing when the request
+     * starts, when it can be announced, and when it stops being available.
      */
-    private ArrayList<AbsoluteDate> randomDates(Requirement tempRequirement,
-                                                MeasurementRequest request,
-                                                double planningHorizon,
-                                                double arrivalRate, double meanInterval){
-        AbsoluteDate simStartDate = orbitData.getStartDate();
-        AbsoluteDate simEndDate = orbitData.getEndDate();
-        double simDuration = simEndDate.durationFrom(simStartDate);
+    private double[] randomTimes(Requirement tempRequirement,
+                                 double previousTime,
+                                 double planningHorizon,
+                                 double arrivalRate, double meanInterval){
 
         double availability = tempRequirement.getThreshold();
         if(tempRequirement.getUnits().equals("hrs")){
@@ -266,30 +358,18 @@ public class Environment extends Watcher {
         }
 
 
-        ExponentialDistribution startDist = new ExponentialDistribution(1/arrivalRate);
-        ExponentialDistribution intervalDist = new ExponentialDistribution(planningHorizon*meanInterval);
+        ExponentialDistribution startDist = new ExponentialDistribution(rng, 1/arrivalRate);
+        ExponentialDistribution intervalDist = new ExponentialDistribution(rng, planningHorizon*meanInterval);
 
         double dt_start = startDist.sample();
         double dt_interval = intervalDist.sample();
 
-        AbsoluteDate startDate;
-        AbsoluteDate announceDate;
-
-        if(request == null){
-            startDate = simStartDate.shiftedBy(dt_start);
-            announceDate = startDate.shiftedBy(dt_interval);
-        }
-        else{
-            startDate = request.getAnnounceDate().shiftedBy(dt_start);
-            announceDate = startDate.shiftedBy(dt_interval);
-        }
-
-        AbsoluteDate endDate = startDate.shiftedBy(availability);
+        double startTime = previousTime + dt_start;
+        double announceTime = startTime + dt_interval;
 
-        ArrayList<AbsoluteDate> dates = new ArrayList<>();
-        dates.add(startDate); dates.add(announceDate); dates.add(endDate);
+        double endTime = startTime + availability;
 
-        return dates;
+        return new double[]{startTime, announceTime, endTime};
     }
 
     /**
@@ -298,7 +378,7 @@ public class Environment extends Watcher {
      * @return pt : a random coverage definition belonging to the scenario
      */
     private CoverageDefinition randomCovDef(){
-        int i_rand = (int) (Math.random()*orbitData.getCovDefs().size());
+        int i_rand = (int) (rng.nextDouble()*orbitData.getCovDefs().size());
         int i = 0;
 
         for(CoverageDefinition covDef : orbitData.getCovDefs()){
@@ -316,7 +396,7 @@ public class Environment extends Watcher {
      * @return pt : a coverage point belonging to covDef
      */
     private CoveragePoint randomPoint(CoverageDefinition covDef){
-        int i_rand = (int) (Math.random()*covDef.getNumberOfPoints());
+        int i_rand = (int) (rng.nextDouble()*covDef.getNumberOfPoints());
         int i = 0;
 
         for(CoveragePoint pt : covDef.getPoints()){
@@ -447,7 +527,7 @@ public class Environment extends Watcher {
 
             int i = 0;
             for(MeasurementRequest reqOrd : orderedRequests){
-                if(req.getStartDate().compareTo(reqOrd.getStartDate()) <= 0) break;
+                if(req.getStartTime() <= reqOrd.getStartTime()) break;
                 i += 1;
             }
             orderedRequests.add(i,req);
@@ -467,8 +547,7 @@ public class Environment extends Watcher {
         LinkedList<MeasurementRequest> availableRequests = new LinkedList<>();
 
         for(MeasurementRequest request : this.orderedRequests){
-            if(this.getCurrentDate().compareTo(request.getAnnounceDate()) >= 0
-                    && this.getCurrentDate().compareTo(request.getEndDate()) <= 0){
+            if(GVT >= request.getAnnounceTime() && GVT <= request.getEndTime()){
                 availableRequests.add(request);
             }
         }
@@ -479,13 +558,14 @@ public class Environment extends Watcher {
     /**
      * Returns the list of all available measurements requests within a given time window and
      * returns them in chronological order
+     * @param startTime : start of the window in seconds from the simulation start date
+     * @param endTime : end of the window in seconds from the simulation start date
      */
-    public LinkedList<MeasurementRequest> getAvailableRequests(AbsoluteDate startDate, AbsoluteDate endDate){
+    public LinkedList<MeasurementRequest> getAvailableRequests(double startTime, double endTime){
         LinkedList<MeasurementRequest> availableRequests = new LinkedList<>();
 
         for(MeasurementRequest request : this.orderedRequests){
-            if(request.getEndDate().compareTo(startDate) >= 0 &&
-                request.getAnnounceDate().compareTo(endDate) <= 0){
+            if(request.getEndTime() >= startTime && request.getAnnounceTime() <= endTime){
                 availableRequests.add(request);
             }
         }
@@ -493,7 +573,15 @@ public class Environment extends Watcher {
         return availableRequests;
     }
 
-    public void registerMeasurements(ArrayList<Measurement> measurements){
+    /**
+     * Saves the number of agent behaviors triggered and skipped by the scheduler, to be reported in the results
+     */
+    public void registerActivations(long activations, long skipped){
+        this.activations = activations;
+        this.skippedActivations = skipped;
+    }
+
+    public synchronized void registerMeasurements(ArrayList<Measurement> measurements){
         this.measurements.addAll(measurements);
     }
 
@@ -637,17 +725,178 @@ public class Environment extends Watcher {
      * Updates simulation time
      */
     public void tic(){
-        // TODO  allow for time to step forward to next action performed by a ground station,
-        //  satellite, or comms satellite
         List<Message> pauseMessages = nextMessages( new PauseFilter());
 
-        if(pauseMessages.size() == 0) this.GVT += this.dt;
+        if(pauseMessages.size() == 0) {
+            // time is always a whole number of time steps so that all time advance modes visit the same epochs
+            this.prevGVT = this.GVT;
+            if(eventDriven) this.step = nextEventStep();
+            else if(adaptive) this.step = nextAdaptiveStep();
+            else this.step = step + 1;
+            this.GVT = step * dt;
+
+            if(accesses.advance(GVT)){
+                if(adaptive) this.accessTimes = accesses.accessTimes();
+                this.nextAccessTime = 0;
+                scheduleEvent(accesses.getRefreshTime());
+                getLogger().finer("Loaded accesses until " + accesses.getWindowEnd() + " s");
+            }
+        }
         else getLogger().finer("Pause message received. Stopping time for one simulation step");
 
         getLogger().finest("Current simulation epoch: " + this.GVT);
     }
 
-    public void printResults() throws Exception {
+    /**
+     * Finds the first time step at or after the earliest pending event. If no events are pending, time skips
+     * to the end of the simulation.
+     * @return index of the next time step
+     */
+    private synchronized long nextEventStep(){
+        double t = endDate.durationFrom(startDate);
+        while(!events.isEmpty()){
+            double event = events.poll();
+            if(event > GVT){
+                t = Math.min(event, t);
+                break;
+            }
+        }
+
+        long next = Math.max((long) Math.ceil(t / dt), step + 1);
+        while(next * dt < t) next++;
+        return next;
+    }
+
+    /**
+     * Chooses the size of the next time step. Takes a coarse step if no pending event and no access start or end
+     * falls within it, and a single time step otherwise. Skipped time steps have nothing due, so the same actions
+     * are executed at the same epochs as in fixed step simulations.
+     * @return index of the next time step
+     */
+    private synchronized long nextAdaptiveStep(){
+        while(!events.isEmpty() && events.peek() <= GVT) events.poll();
+        while(nextAccessTime < accessTimes.length && accessTimes[nextAccessTime] <= GVT) nextAccessTime++;
+
+        long endStep = (long) Math.ceil(endDate.durationFrom(startDate) / dt);
+        long coarse = Math.max(Math.min(step + coarseSteps, endStep), step + 1);
+        double horizon = coarse * dt;
+
+        boolean eventDue = !events.isEmpty() && events.peek() <= horizon;
+        boolean accessDue = nextAccessTime < accessTimes.length && accessTimes[nextAccessTime] <= horizon;
+        return eventDue || accessDue ? step + 1 : coarse;
+    }
+
+    /**
+     * Asks the environment to visit the time step containing a given date. Ignored in fixed step simulations.
+     * @param date : date at which an agent needs to act
+     */
+    public void scheduleEvent(AbsoluteDate date){
+        scheduleEvent(date.durationFrom(startDate));
+    }
+
+    /**
+     * Asks the environment to visit the time step containing a given time. Ignored in fixed step simulations.
+     * @param t : time in seconds from the simulation start date
+     */
+    public synchronized void scheduleEvent(double t){
+        if((eventDriven || adaptive) && t > GVT && !Double.isInfinite(t)) events.add(t);
+    }
+
+    /**
+     * Asks the environment to visit the next time step so that messages sent during this step are read
+     */
+    public void scheduleNextStep(){
+        scheduleEvent(GVT + dt);
+    }
+
+    /**
+     * Checks if an agent needs to be activated at the current time step. Agents with nothing due and no unread
+     * messages are skipped in both time advance modes.
+     * @param wakeUpTime : time in seconds from the simulation start date at which the agent next has work to do
+     * @param hasMessages : true if the agent has unread messages
+     * @return true if the agent has work to do
+     */
+    public boolean isDue(double wakeUpTime, boolean hasMessages){
+        return GVT >= wakeUpTime || hasMessages;
+    }
+
+    @Override
+    public void writeState(ObjectOutputStream out) throws IOException {
+        out.writeObject(measurementTypes);
+        out.writeObject(requests);
+        out.writeObject(orderedRequests);
+        out.writeObject(measurements);
+        out.writeDouble(GVT);
+        out.writeDouble(prevGVT);
+        out.writeObject(new ArrayList<>(events));
+        out.writeObject(rng);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readState(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        measurementTypes = (HashMap<String, HashMap<String, Requirement>>) in.readObject();
+        requests = (ArrayList<MeasurementRequest>) in.readObject();
+        orderedRequests = (ArrayList<MeasurementRequest>) in.readObject();
+        measurements = (ArrayList<Measurement>) in.readObject();
+        GVT = in.readDouble();
+        prevGVT = in.readDouble();
+        events.clear();
+        events.addAll((ArrayList<Double>) in.readObject());
+        rng = (RandomGenerator) in.readObject();
+
+        // runs may be resumed with a different time step as long as the checkpoint falls on one of its steps
+        step = Math.round(GVT / dt);
+        if(Math.abs(step * dt - GVT) > 1e-6)
+            throw new InputMismatchException("Checkpoint time " + GVT + " s is not a multiple of time step " + dt);
+
+        // reload the access window around the restored time
+        accesses.advance(GVT);
+        if(adaptive) this.accessTimes = accesses.accessTimes();
+        this.nextAccessTime = 0;
+        scheduleEvent(accesses.getRefreshTime());
+    }
+
+    /**
+     * Gives a run restored from the checkpoint of another run a future of its own. Reseeds the random generator with
+     * this run's seed and replaces every request not yet announced at the restored time with newly generated ones,
+     * so that runs forked from the same checkpoint only share their history up to it.
+     * @throws Exception
+     */
+    public void fork() throws Exception {
+        rng = new Well19937c(parentSimulation.getSeed());
+
+        ArrayList<MeasurementRequest> announced = new ArrayList<>();
+        for(MeasurementRequest request : requests){
+            if(request.getAnnounceTime() <= GVT) announced.add(request);
+            else events.remove(request.getAnnounceTime());
+        }
+
+        requests = generateRequests(loadScenarioWorkbook(), announced, GVT);
+        orderedRequests = getOrderedRequests();
+        for(int i = announced.size(); i < requests.size(); i++) scheduleEvent(requests.get(i).getAnnounceTime());
+
+        // replace the requests printed when the run was launched
+        new File(simDirectoryAddress + "/" + "requests.csv").delete();
+        printRequests();
+    }
+
+    @Override
+    public List<Message> drainMailbox(){
+        return nextMessages(null);
+    }
+
+    @Override
+    public void deliver(AgentAddress target, Message message){
+        sendMessage(target, message);
+    }
+
+    /**
+     * Saves the performance, measurements, and messages of this run
+     * @return performance of this run
+     * @throws Exception
+     */
+    public JSONObject printResults() throws Exception {
         List<Message> measurementMessages = nextMessages( new MeasurementFilter() );
         List<Message> bookKeepingMessages = nextMessages(null);
 
@@ -657,6 +906,8 @@ public class Environment extends Watcher {
         printPerformance(simPerformance);
         printMeasurements(measurements);
         printMessages(measurementMessages, bookKeepingMessages);
+
+        return simPerformance;
     }
 
     private void printMessages(List<Message> measurementMessages, List<Message> bookKeepingMessages) throws Exception {
@@ -714,6 +965,8 @@ public class Environment extends Watcher {
         JSONObject inputs = parentSimulation.getInput();
 
         out.put("name", parentSimulation.getName());
+        out.put("seed", parentSimulation.getSeed());
+        out.put("directory", simDirectoryAddress);
         out.put("planer", ((JSONObject) inputs.get(PLNR)).get(PLNR_NAME).toString());
         JSONObject dates = new JSONObject();
             dates.put("start", startDate.toString());
@@ -728,6 +981,11 @@ public class Environment extends Watcher {
         resultsJSON.put("utility", this.utilityStats(measurements));
         resultsJSON.put("coalitionStats", this.coalStats(measurements));
 
+        JSONObject activationsJSON = new JSONObject();
+        activationsJSON.put("performed", activations);
+        activationsJSON.put("skipped", skippedActivations);
+        resultsJSON.put("activations", activationsJSON);
+
         out.put("results", resultsJSON);
 
         return out;
@@ -805,23 +1063,12 @@ public class Environment extends Watcher {
         double availableUtility = 0.0;
 
         // Calculate the total utility that would be achieved if agents only did nominal measurements
-        for(CoverageDefinition covDef : orbitData.getAccessesGPIns().keySet()){
-            for(Satellite sat : orbitData.getAccessesGPIns().get(covDef).keySet()){
-                if(orbitData.isCommsSat(sat)) continue;
-                for(Instrument ins : orbitData.getAccessesGPIns().get(covDef).get(sat).keySet()){
-                    if(ins.getName().contains("FOR")) continue;
-
-                    for(TopocentricFrame point : orbitData.getAccessesGPIns().get(covDef).get(sat).get(ins).keySet()){
-                        for(RiseSetTime time : orbitData.getAccessesGPIns().get(covDef).get(sat).get(ins)
-                                .get(point).getRiseSetTimes()){
-
-                            if(time.isRise()){
-                                availableUtility += NominalPlanner.NominalUtility;
-                            }
-                        }
-                    }
-                }
-            }
+        int[] sensorAccesses = orbitData.countSensorAccesses();
+        for(int sensor = 0; sensor < sensorAccesses.length; sensor++){
+            if(orbitData.isCommsSat(orbitData.getSensorSat(sensor))) continue;
+            if(orbitData.getSensorInstrument(sensor).getName().contains("FOR")) continue;
+
+            availableUtility += sensorAccesses[sensor] * NominalPlanner.NominalUtility;
         }
 
         // calculate the total maximum utility available from measurement requests
@@ -950,9 +1197,15 @@ public class Environment extends Watcher {
      * General property getters
      */
     public double getGVT(){ return this.GVT; }
+    public double getPreviousGVT(){ return this.prevGVT; }
     public double getDt(){ return dt; }
+    public long getStep(){ return step; }
+    public boolean isEventDriven(){ return eventDriven; }
     public AbsoluteDate getStartDate(){return this.startDate;}
     public AbsoluteDate getEndDate(){return this.endDate;}
     public AbsoluteDate getCurrentDate(){ return this.startDate.shiftedBy(this.GVT); }
+    public AbsoluteDate getPreviousDate(){ return this.startDate.shiftedBy(this.prevGVT); }
     public OrbitData getOrbitData(){ return this.orbitData; }
+    public AccessProvider getAccesses(){ return this.accesses; }
+    public Simulation getParentSimulation(){ return this.parentSimulation; }
 }
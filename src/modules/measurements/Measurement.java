@@ -7,9 +7,10 @@ import seakers.orekit.object.CoverageDefinition;
 import seakers.orekit.object.GndStation;
 import seakers.orekit.object.Instrument;
 
+import java.io.Serializable;
 import java.util.HashMap;
 
-public class Measurement {
+public class Measurement implements Serializable {
     private final AbstractAgent measuringAgent;
     private GndStation gndReceiver;
     private final Instrument instrumentUsed;
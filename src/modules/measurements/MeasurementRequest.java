@@ -5,27 +5,32 @@ import org.orekit.time.AbsoluteDate;
 import seakers.orekit.object.CoverageDefinition;
 import seakers.orekit.object.CoveragePoint;
 
+import java.io.Serializable;
 import java.util.HashMap;
 
-public class MeasurementRequest {
+public class MeasurementRequest implements Serializable {
     private final int id;
     private final CoverageDefinition covDef;
     private final CoveragePoint location;
     private final AbsoluteDate simStartDate;
-    private final AbsoluteDate announceDate;
-    private final AbsoluteDate startDate;
-    private final AbsoluteDate endDate;
+
+    /**
+     * Announcement, start, and end times of the request in seconds from the simulation start date
+     */
+    private final double announceTime;
+    private final double startTime;
+    private final double endTime;
     private final String type;
     private final HashMap<String, Requirement> requirements;
     private final double maxUtility;
 
-    public MeasurementRequest(int id, CoverageDefinition covDef, CoveragePoint location, AbsoluteDate announceDate, AbsoluteDate startDate, AbsoluteDate endDate, String type, HashMap<String, Requirement> requirements, AbsoluteDate simStartDate, double maxUtility){
+    public MeasurementRequest(int id, CoverageDefinition covDef, CoveragePoint location, double announceTime, double startTime, double endTime, String type, HashMap<String, Requirement> requirements, AbsoluteDate simStartDate, double maxUtility){
         this.id = id;
         this.covDef = covDef;
         this.location = location;
-        this.announceDate = announceDate;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.announceTime = announceTime;
+        this.startTime = startTime;
+        this.endTime = endTime;
         this.type = type;
         this.requirements = new HashMap<>(requirements);
         this.simStartDate = simStartDate;
@@ -33,7 +38,7 @@ public class MeasurementRequest {
     }
 
     public MeasurementRequest copy(){
-        return new MeasurementRequest(id, covDef, location, announceDate, startDate, endDate, type, requirements, simStartDate, maxUtility);
+        return new MeasurementRequest(id, covDef, location, announceTime, startTime, endTime, type, requirements, simStartDate, maxUtility);
     }
 
     public String toString(){
@@ -44,9 +49,9 @@ public class MeasurementRequest {
         CoveragePoint location = this.getLocation();
         double lat = FastMath.toDegrees( location.getPoint().getLatitude() );
         double lon = FastMath.toDegrees( location.getPoint().getLongitude() );
-        double announceDate = this.getAnnounceDate().durationFrom( this.simStartDate );
-        double startDate = this.getStartDate().durationFrom( this.simStartDate );
-        double endDate = this.getEndDate().durationFrom( this.simStartDate);
+        double announceDate = this.getAnnounceTime();
+        double startDate = this.getStartTime();
+        double endDate = this.getEndTime();
 
         HashMap<String, Requirement> requirements = this.getRequirements();
 
@@ -75,9 +80,12 @@ public class MeasurementRequest {
     public int getId() { return id; }
     public CoverageDefinition getCovDef(){return covDef;}
     public CoveragePoint getLocation() { return location; }
-    public AbsoluteDate getAnnounceDate() { return announceDate; }
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
+    public double getAnnounceTime() { return announceTime; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public AbsoluteDate getAnnounceDate() { return simStartDate.shiftedBy(announceTime); }
+    public AbsoluteDate getStartDate() { return simStartDate.shiftedBy(startTime); }
+    public AbsoluteDate getEndDate() { return simStartDate.shiftedBy(endTime); }
     public String getType() { return type; }
     public HashMap<String, Requirement> getRequirements() { return requirements; }
     public double getMaxUtility(){return maxUtility;}
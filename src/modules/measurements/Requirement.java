@@ -1,8 +1,9 @@
 package modules.measurements;
 
+import java.io.Serializable;
 import java.util.InputMismatchException;
 
-public class Requirement {
+public class Requirement implements Serializable {
     public static final String SPATIAL = "spatial";
     public static final String TEMPORAL = "temporal";
     public static final String ACCURACY = "accuracy";
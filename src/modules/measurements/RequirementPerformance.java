@@ -1,6 +1,8 @@
 package modules.measurements;
 
-public class RequirementPerformance {
+import java.io.Serializable;
+
+public class RequirementPerformance implements Serializable {
     private final Requirement parentRequirement;
     private final double value;
     private final String units;
@@ -18,8 +18,8 @@ public class MeasurementRequestMessage extends Message {
     }
 
     public MeasurementRequest getRequest(){return this.request;}
-    public void addReceiver(AgentAddress address) { this.receivers.add(address); }
-    public boolean receivedBy(AgentAddress address){ return this.receivers.contains(address); }
+    public synchronized void addReceiver(AgentAddress address) { this.receivers.add(address); }
+    public synchronized boolean receivedBy(AgentAddress address){ return this.receivers.contains(address); }
     public AgentAddress getFirstReceiver(){return firstReceiver;}
 
     public boolean equals(MeasurementRequestMessage message) {
@@ -1,9 +1,26 @@
 package modules.messages;
 
-import madkit.kernel.AgentAddress;
 import madkit.kernel.Message;
-import org.orekit.time.AbsoluteDate;
+import modules.planner.CCBBA.SubtaskResult;
 
+import java.util.ArrayList;
+
+/**
+ * Consensus message between planners. Only carries the rows of the sender's bid table that changed since its
+ * previous message.
+ */
 public class PlannerMessage extends Message {
-    private AbsoluteDate dateSent;
+    private final int senderId;
+    private final double timeSent;
+    private final ArrayList<SubtaskResult> results;
+
+    public PlannerMessage(int senderId, double timeSent, ArrayList<SubtaskResult> results){
+        this.senderId = senderId;
+        this.timeSent = timeSent;
+        this.results = results;
+    }
+
+    public int getSenderId() { return senderId; }
+    public double getTimeSent() { return timeSent; }
+    public ArrayList<SubtaskResult> getResults() { return results; }
 }
@@ -0,0 +1,342 @@
+package modules.orbitData;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.InputMismatchException;
+
+/**
+ * Binary storage of pre-calculated coverage accesses. Satellite, coverage definition, ground point, instrument
+ * and ground station names are interned into integer ids, and every access section is stored as columns of ids
+ * followed by row offsets and packed rise/set epochs.
+ *
+ * File layout (big endian):
+ *   int magic, int version, double duration
+ *   name tables: satellites, coverage definitions, ground points (covDef id + name), instruments, ground stations
+ *   sections CL, GP, GP_INST, GS: int nRows, int nKeys, int[nKeys*nRows] ids, int[nRows+1] offsets,
+ *   double[2*nIntervals] rise/set epochs
+ *
+ * The file is read back through a memory mapped buffer so large scenarios can be loaded with bulk copies instead
+ * of being parsed line by line. Files can also be opened with their rise/set epochs left in the mapped buffer, in
+ * which case only names, ids, and row offsets are copied to the heap and epochs are paged in by the operating
+ * system as they are read.
+ */
+public class AccessFile {
+    public static final String FILE_NAME = "Accesses.bin";
+    public static final int MAGIC = 0x444D4143;
+    public static final int VERSION = 2;
+
+    /**
+     * Access sections and the ids stored in each of their rows
+     * CL      : (sat, target sat)
+     * GP      : (sat, ground point)
+     * GP_INST : (sat, instrument, ground point)
+     * GS      : (sat, ground station)
+     */
+    public static final int CL = 0;
+    public static final int GP = 1;
+    public static final int GP_INST = 2;
+    public static final int GS = 3;
+    private static final int[] SECTION_KEYS = {2, 2, 3, 2};
+
+    /**
+     * Interned name tables
+     */
+    private final NameTable sats;
+    private final NameTable covDefs;
+    private final NameTable points;
+    private final NameTable instruments;
+    private final NameTable stations;
+    private int[] pointCovDef;
+
+    /**
+     * Access sections
+     */
+    private final Section[] sections;
+
+    /**
+     * Length of the time span covered by the accesses, in seconds from the simulation start date
+     */
+    private double duration;
+
+    public AccessFile(){
+        sats = new NameTable();
+        covDefs = new NameTable();
+        points = new NameTable();
+        instruments = new NameTable();
+        stations = new NameTable();
+        pointCovDef = new int[16];
+
+        sections = new Section[SECTION_KEYS.length];
+        for(int i = 0; i < sections.length; i++) sections[i] = new Section(SECTION_KEYS[i]);
+        duration = 0.0;
+    }
+
+    /**
+     * Name interning
+     */
+    public int internSat(String name){ return sats.intern(name); }
+    public int internCovDef(String name){ return covDefs.intern(name); }
+    public int internInstrument(String name){ return instruments.intern(name); }
+    public int internStation(String name){ return stations.intern(name); }
+    public int internPoint(int covDef, String name){
+        int id = points.intern(covDef + "/" + name);
+        if(id >= pointCovDef.length) pointCovDef = Arrays.copyOf(pointCovDef, 2*pointCovDef.length);
+        pointCovDef[id] = covDef;
+        return id;
+    }
+
+    /**
+     * Adds all intervals of a source-target pair of an access table as a new row of a given section
+     * @param section id of the section to be added to
+     * @param table access table containing the intervals
+     * @param pair index of the source-target pair in the table
+     * @param keys ids identifying the row
+     */
+    public void addRow(int section, AccessTable table, int pair, int... keys){
+        if(keys.length != SECTION_KEYS[section])
+            throw new InputMismatchException("Access section " + section + " requires "
+                    + SECTION_KEYS[section] + " ids per row");
+
+        Section sec = sections[section];
+        int start = sec.nIntervals;
+        for(int i = table.intervalsStart(pair); i < table.intervalsEnd(pair); i++){
+            sec.addInterval(table.getRise(i), table.getSet(i));
+        }
+
+        if(sec.nIntervals > start) sec.closeRow(keys);
+    }
+
+    /**
+     * Getters for name tables
+     */
+    public String getSatName(int id){ return sats.get(id); }
+    public String getCovDefName(int id){ return covDefs.get(id); }
+    public String getInstrumentName(int id){ return instruments.get(id); }
+    public String getStationName(int id){ return stations.get(id); }
+    public int getPointCovDef(int id){ return pointCovDef[id]; }
+    public String getPointName(int id){
+        String name = points.get(id);
+        return name.substring(name.indexOf('/') + 1);
+    }
+    public int numSats(){ return sats.size(); }
+    public int numCovDefs(){ return covDefs.size(); }
+    public int numPoints(){ return points.size(); }
+    public int numInstruments(){ return instruments.size(); }
+    public int numStations(){ return stations.size(); }
+    public double getDuration(){ return duration; }
+    public void setDuration(double duration){ this.duration = duration; }
+
+    /**
+     * Getters for access sections
+     */
+    public int numRows(int section){ return sections[section].nRows; }
+    public int getKey(int section, int row, int column){
+        Section sec = sections[section];
+        return sec.keys[row*sec.nKeys + column];
+    }
+    public int rowStart(int section, int row){ return sections[section].offsets[row]; }
+    public int rowEnd(int section, int row){ return sections[section].offsets[row+1]; }
+    public double getRise(int section, int interval){ return sections[section].getTime(2*interval); }
+    public double getSet(int section, int interval){ return sections[section].getTime(2*interval + 1); }
+
+    /**
+     * Writes access tables to a file. Data is first written to a temporary file and then moved into place so
+     * that an interrupted run never leaves a partial file behind.
+     * @param file destination file
+     * @throws IOException
+     */
+    public void write(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(duration);
+
+            sats.write(out);
+            covDefs.write(out);
+            points.write(out);
+            for(int i = 0; i < points.size(); i++) out.writeInt(pointCovDef[i]);
+            instruments.write(out);
+            stations.write(out);
+
+            for(Section sec : sections) sec.write(out);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads access tables from a memory mapped file
+     * @param file file previously written by write()
+     * @return loaded access tables
+     * @throws IOException if the file is missing, corrupted, or was written with a different format version
+     */
+    public static AccessFile read(File file) throws IOException {
+        return read(file, false);
+    }
+
+    /**
+     * Opens access tables from a memory mapped file without copying their rise/set epochs to the heap. The mapping
+     * stays valid after this method returns.
+     * @param file file previously written by write()
+     * @return access tables backed by the mapped file
+     * @throws IOException if the file is missing, corrupted, or was written with a different format version
+     */
+    public static AccessFile map(File file) throws IOException {
+        return read(file, true);
+    }
+
+    private static AccessFile read(File file, boolean mapTimes) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.getInt() != MAGIC)
+                throw new IOException("File " + file.getPath() + " is not a coverage access file");
+            int version = buffer.getInt();
+            if(version != VERSION)
+                throw new IOException("Coverage access file " + file.getPath() + " has version " + version
+                        + ", expected version " + VERSION);
+
+            AccessFile accessFile = new AccessFile();
+            accessFile.duration = buffer.getDouble();
+            accessFile.sats.read(buffer);
+            accessFile.covDefs.read(buffer);
+            accessFile.points.read(buffer);
+            accessFile.pointCovDef = readInts(buffer, accessFile.points.size());
+            accessFile.instruments.read(buffer);
+            accessFile.stations.read(buffer);
+
+            for(Section sec : accessFile.sections) sec.read(buffer, mapTimes);
+
+            return accessFile;
+        }
+    }
+
+    private static int[] readInts(MappedByteBuffer buffer, int n){
+        int[] out = new int[n];
+        buffer.asIntBuffer().get(out);
+        buffer.position(buffer.position() + 4*n);
+        return out;
+    }
+
+    private static double[] readDoubles(MappedByteBuffer buffer, int n){
+        double[] out = new double[n];
+        buffer.asDoubleBuffer().get(out);
+        buffer.position(buffer.position() + 8*n);
+        return out;
+    }
+
+    /**
+     * List of unique names indexed by their order of insertion
+     */
+    private static class NameTable {
+        private final ArrayList<String> names = new ArrayList<>();
+        private final HashMap<String, Integer> ids = new HashMap<>();
+
+        int intern(String name){
+            Integer id = ids.get(name);
+            if(id == null){
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+
+        String get(int id){ return names.get(id); }
+        int size(){ return names.size(); }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(names.size());
+            for(String name : names){
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void read(MappedByteBuffer buffer){
+            int n = buffer.getInt();
+            for(int i = 0; i < n; i++){
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Columnar storage of the rows of one access section
+     */
+    private static class Section {
+        private final int nKeys;
+        private int nRows = 0;
+        private int nIntervals = 0;
+        private int[] keys;
+        private int[] offsets;
+        private double[] times;
+        private DoubleBuffer mappedTimes;
+
+        Section(int nKeys){
+            this.nKeys = nKeys;
+            this.keys = new int[16*nKeys];
+            this.offsets = new int[17];
+            this.times = new double[64];
+        }
+
+        double getTime(int i){
+            return mappedTimes != null ? mappedTimes.get(i) : times[i];
+        }
+
+        void addInterval(double rise, double set){
+            if(2*nIntervals + 2 > times.length) times = Arrays.copyOf(times, 2*times.length);
+            times[2*nIntervals] = rise;
+            times[2*nIntervals + 1] = set;
+            nIntervals++;
+        }
+
+        void closeRow(int[] rowKeys){
+            if((nRows+1)*nKeys > keys.length) keys = Arrays.copyOf(keys, 2*keys.length);
+            if(nRows + 2 > offsets.length) offsets = Arrays.copyOf(offsets, 2*offsets.length);
+            System.arraycopy(rowKeys, 0, keys, nRows*nKeys, nKeys);
+            nRows++;
+            offsets[nRows] = nIntervals;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(nRows);
+            out.writeInt(nKeys);
+            for(int i = 0; i < nRows*nKeys; i++) out.writeInt(keys[i]);
+            for(int i = 0; i <= nRows; i++) out.writeInt(offsets[i]);
+            for(int i = 0; i < 2*nIntervals; i++) out.writeDouble(getTime(i));
+        }
+
+        void read(MappedByteBuffer buffer, boolean mapTimes) throws IOException {
+            nRows = buffer.getInt();
+            if(buffer.getInt() != nKeys) throw new IOException("Coverage access file section has unexpected format");
+            keys = readInts(buffer, nRows*nKeys);
+            offsets = readInts(buffer, nRows+1);
+            nIntervals = offsets[nRows];
+
+            if(mapTimes){
+                ByteBuffer slice = buffer.slice();
+                slice.limit(16*nIntervals);
+                mappedTimes = slice.asDoubleBuffer();
+                times = null;
+                buffer.position(buffer.position() + 16*nIntervals);
+            }
+            else{
+                times = readDoubles(buffer, 2*nIntervals);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package modules.orbitData;
+
+/**
+ * Source of the access tables queried by agents and planners during a simulation. Tables may cover the whole
+ * simulation span, or only a window around the current simulation time that is replaced as time advances.
+ *
+ * Tables hold every access that overlaps the loaded span. Accesses that start after the end of the span are not
+ * included until the span moves past them.
+ */
+public interface AccessProvider {
+    /**
+     * Access tables of the loaded span, indexed as in OrbitData
+     */
+    AccessTable getAccessesCL();
+    AccessTable getAccessesGP();
+    AccessTable getAccessesGPIns();
+    AccessTable getAccessesGS();
+
+    /**
+     * Lists the start and end times of every access in the loaded tables
+     * @return access start and end times in seconds from the simulation start date, in chronological order
+     */
+    double[] accessTimes();
+
+    /**
+     * Moves the loaded span to a given simulation time
+     * @param t time in seconds from the simulation start date
+     * @return true if new tables were loaded
+     */
+    boolean advance(double t);
+
+    /**
+     * @return end of the loaded span in seconds from the simulation start date
+     */
+    double getWindowEnd();
+
+    /**
+     * @return time in seconds from the simulation start date at which advance() will load new tables, or infinity
+     * if the loaded span already reaches the end of the simulation
+     */
+    double getRefreshTime();
+}
@@ -0,0 +1,332 @@
+package modules.orbitData;
+
+import modules.utils.Intervals;
+
+import java.util.Arrays;
+
+/**
+ * Compressed storage of access intervals between a set of sources (satellites or sensors) and a set of targets
+ * (satellites, ground points, or ground stations), both identified by dense integer ids.
+ *
+ * Intervals are stored in CSR form: each source owns a range of (source, target) pairs sorted by target id,
+ * and each pair owns a range of chronologically ordered intervals in contiguous rise and set arrays. Pairs
+ * without any accesses are not stored, so memory scales with the number of intervals rather than with the
+ * number of possible source-target combinations.
+ */
+public class AccessTable {
+    private final int nSources;
+    private final int nTargets;
+
+    /**
+     * sourcePtr[src] to sourcePtr[src+1] : pairs belonging to source src
+     * pairTarget[pair] : target id of a pair
+     * pairPtr[pair] to pairPtr[pair+1] : intervals belonging to a pair
+     */
+    private final int[] sourcePtr;
+    private final int[] pairTarget;
+    private final int[] pairPtr;
+
+    /**
+     * Rise and set times of every interval, in seconds from the simulation start date
+     */
+    private final double[] rise;
+    private final double[] set;
+
+    private AccessTable(int nSources, int nTargets, int[] sourcePtr, int[] pairTarget, int[] pairPtr,
+                        double[] rise, double[] set){
+        this.nSources = nSources;
+        this.nTargets = nTargets;
+        this.sourcePtr = sourcePtr;
+        this.pairTarget = pairTarget;
+        this.pairPtr = pairPtr;
+        this.rise = rise;
+        this.set = set;
+    }
+
+    /**
+     * Returns the pair index of a source and a target
+     * @param src source id
+     * @param tgt target id
+     * @return index of the pair, or -1 if the source never accesses the target
+     */
+    public int getPair(int src, int tgt){
+        if(src < 0 || tgt < 0) return -1;
+        int i = Arrays.binarySearch(pairTarget, sourcePtr[src], sourcePtr[src+1], tgt);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Returns the index of the next access window between a source and a target that has not yet ended at time t
+     * @param src source id
+     * @param tgt target id
+     * @param t time in seconds from the simulation start date
+     * @return interval index, or -1 if no such window exists
+     */
+    public int nextWindow(int src, int tgt, double t){
+        int pair = getPair(src, tgt);
+        if(pair < 0) return -1;
+
+        int i = firstSetAfter(pairPtr[pair], pairPtr[pair+1], t);
+        return i < pairPtr[pair+1] ? i : -1;
+    }
+
+    /**
+     * Returns the index of the first access window between a source and a target that ends at or after time a.
+     * Together with overlapEnd() it bounds all windows overlapping an interval [a,b].
+     * @param src source id
+     * @param tgt target id
+     * @param a start of the interval in seconds from the simulation start date
+     * @return interval index
+     */
+    public int overlapStart(int src, int tgt, double a){
+        int pair = getPair(src, tgt);
+        if(pair < 0) return 0;
+        return firstSetAfter(pairPtr[pair], pairPtr[pair+1], a);
+    }
+
+    /**
+     * Returns one past the index of the last access window between a source and a target that starts at or before
+     * time b.
+     * @param src source id
+     * @param tgt target id
+     * @param b end of the interval in seconds from the simulation start date
+     * @return interval index
+     */
+    public int overlapEnd(int src, int tgt, double b){
+        int pair = getPair(src, tgt);
+        if(pair < 0) return 0;
+        return firstRiseAfter(pairPtr[pair], pairPtr[pair+1], b);
+    }
+
+    /**
+     * Returns the union of all access windows of a source across all of its targets
+     * @param src source id
+     * @return disjoint intervals in chronological order. Sources of the returned intervals are interval indices of
+     * this table.
+     */
+    public Intervals union(int src){
+        return Intervals.union(rise, set, pairPtr[sourcePtr[src]], pairPtr[sourcePtr[src+1]]);
+    }
+
+    /**
+     * Returns the access windows between a source and a target
+     * @param src source id
+     * @param tgt target id
+     * @return disjoint intervals in chronological order, empty if the source never accesses the target
+     */
+    public Intervals windows(int src, int tgt){
+        int pair = getPair(src, tgt);
+        if(pair < 0) return Intervals.union(rise, set, 0, 0);
+        return Intervals.union(rise, set, pairPtr[pair], pairPtr[pair+1]);
+    }
+
+    /**
+     * Returns all access windows of a source across all of its targets in chronological order
+     * @param src source id
+     * @return interval indices
+     */
+    public int[] chronologicalOrder(int src){
+        return Intervals.order(rise, set, pairPtr[sourcePtr[src]], pairPtr[sourcePtr[src+1]]);
+    }
+
+    /**
+     * Returns the pair an interval belongs to
+     * @param interval interval index
+     * @return pair index
+     * @throws IndexOutOfBoundsException if the table has no such interval
+     */
+    public int getPairOfInterval(int interval){
+        if(interval < 0 || interval >= rise.length)
+            throw new IndexOutOfBoundsException("Interval " + interval + " outside of table with "
+                    + rise.length + " intervals");
+
+        int lo = 0;
+        int hi = pairTarget.length - 1;
+        while(lo < hi){
+            int mid = (lo + hi + 1) >>> 1;
+            if(pairPtr[mid] <= interval) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private int firstSetAfter(int lo, int hi, double t){
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(set[mid] < t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int firstRiseAfter(int lo, int hi, double t){
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(rise[mid] <= t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Getters
+     */
+    public int numSources(){ return nSources; }
+    public int numTargets(){ return nTargets; }
+    public int numPairs(){ return pairTarget.length; }
+    public int numIntervals(){ return rise.length; }
+    public int pairsStart(int src){ return sourcePtr[src]; }
+    public int pairsEnd(int src){ return sourcePtr[src+1]; }
+    public int getTarget(int pair){ return pairTarget[pair]; }
+    public int intervalsStart(int pair){ return pairPtr[pair]; }
+    public int intervalsEnd(int pair){ return pairPtr[pair+1]; }
+    public double getRise(int interval){ return rise[interval]; }
+    public double getSet(int interval){ return set[interval]; }
+    public int numIntervals(int src, int tgt){
+        int pair = getPair(src, tgt);
+        return pair < 0 ? 0 : pairPtr[pair+1] - pairPtr[pair];
+    }
+
+    /**
+     * Collects intervals in any order and sorts them into an access table
+     */
+    public static class Builder {
+        private static final double SEAM_TOLERANCE = 1e-6;
+
+        private final int nSources;
+        private final int nTargets;
+        private int size;
+        private int[] src;
+        private int[] tgt;
+        private double[] rise;
+        private double[] set;
+        private double seam;
+
+        public Builder(int nSources, int nTargets){
+            this.nSources = nSources;
+            this.nTargets = nTargets;
+            this.size = 0;
+            this.src = new int[64];
+            this.tgt = new int[64];
+            this.rise = new double[64];
+            this.set = new double[64];
+            this.seam = Double.NaN;
+        }
+
+        /**
+         * Joins intervals that end and start at a given time when the table is built. Used when stitching
+         * accesses calculated over consecutive time spans, where a window open at the boundary between both spans
+         * is reported as two intervals.
+         * @param seam boundary between the two time spans in seconds from the simulation start date
+         */
+        public Builder joinAt(double seam){
+            this.seam = seam;
+            return this;
+        }
+
+        public Builder add(int source, int target, double riseTime, double setTime){
+            if(source < 0 || source >= nSources || target < 0 || target >= nTargets)
+                throw new IndexOutOfBoundsException("Access (" + source + ", " + target + ") outside of table bounds");
+
+            if(size == src.length){
+                src = Arrays.copyOf(src, 2*size);
+                tgt = Arrays.copyOf(tgt, 2*size);
+                rise = Arrays.copyOf(rise, 2*size);
+                set = Arrays.copyOf(set, 2*size);
+            }
+            src[size] = source;
+            tgt[size] = target;
+            rise[size] = riseTime;
+            set[size] = setTime;
+            size++;
+            return this;
+        }
+
+        public AccessTable build(){
+            // order intervals by source and then by target with two stable counting sorts
+            int[] order = new int[size];
+            for(int i = 0; i < size; i++) order[i] = i;
+            order = countingSort(order, tgt, nTargets);
+            order = countingSort(order, src, nSources);
+
+            int[] sourcePtr = new int[nSources + 1];
+            int[] pairTarget = new int[size];
+            int[] pairPtr = new int[size + 1];
+            double[] riseOut = new double[size];
+            double[] setOut = new double[size];
+
+            int nPairs = 0;
+            for(int i = 0; i < size; i++){
+                int k = order[i];
+                riseOut[i] = rise[k];
+                setOut[i] = set[k];
+
+                if(i == 0 || src[k] != src[order[i-1]] || tgt[k] != tgt[order[i-1]]){
+                    pairTarget[nPairs] = tgt[k];
+                    pairPtr[nPairs] = i;
+                    sourcePtr[src[k] + 1]++;
+                    nPairs++;
+                }
+            }
+            pairPtr[nPairs] = size;
+            for(int s = 0; s < nSources; s++) sourcePtr[s+1] += sourcePtr[s];
+
+            // order intervals of each pair chronologically
+            for(int p = 0; p < nPairs; p++) sortByRise(riseOut, setOut, pairPtr[p], pairPtr[p+1]);
+
+            if(!Double.isNaN(seam)){
+                // join intervals split at the seam, shifting the remaining intervals of the table forward
+                int n = 0;
+                for(int p = 0; p < nPairs; p++){
+                    int start = pairPtr[p];
+                    int end = pairPtr[p+1];
+                    pairPtr[p] = n;
+                    for(int i = start; i < end; i++){
+                        if(n > pairPtr[p] && Math.abs(setOut[n-1] - seam) <= SEAM_TOLERANCE
+                                && Math.abs(riseOut[i] - seam) <= SEAM_TOLERANCE){
+                            setOut[n-1] = setOut[i];
+                        }
+                        else{
+                            riseOut[n] = riseOut[i];
+                            setOut[n] = setOut[i];
+                            n++;
+                        }
+                    }
+                }
+                pairPtr[nPairs] = n;
+                riseOut = Arrays.copyOf(riseOut, n);
+                setOut = Arrays.copyOf(setOut, n);
+            }
+
+            return new AccessTable(nSources, nTargets, sourcePtr, Arrays.copyOf(pairTarget, nPairs),
+                    Arrays.copyOf(pairPtr, nPairs + 1), riseOut, setOut);
+        }
+
+        private int[] countingSort(int[] in, int[] keys, int range){
+            int[] count = new int[range + 1];
+            for(int i : in) count[keys[i] + 1]++;
+            for(int r = 0; r < range; r++) count[r+1] += count[r];
+
+            int[] out = new int[in.length];
+            for(int i : in) out[count[keys[i]]++] = i;
+            return out;
+        }
+
+        private void sortByRise(double[] rise, double[] set, int lo, int hi){
+            // intervals are usually added in chronological order already
+            boolean sorted = true;
+            for(int i = lo + 1; i < hi && sorted; i++) sorted = rise[i-1] <= rise[i];
+            if(sorted) return;
+
+            int[] order = Intervals.order(rise, set, lo, hi);
+            double[] r = new double[order.length];
+            double[] s = new double[order.length];
+            for(int i = 0; i < order.length; i++){
+                r[i] = rise[order[i]];
+                s[i] = set[order[i]];
+            }
+            System.arraycopy(r, 0, rise, lo, r.length);
+            System.arraycopy(s, 0, set, lo, s.length);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package modules.orbitData;
+
+import java.util.Arrays;
+
+/**
+ * Access provider that only keeps in memory the accesses overlapping [t - margin, t + horizon + margin] around the
+ * current simulation time t. Later windows are copied out of the scenario's access files as the simulation advances,
+ * so memory use is bounded by the length of the window instead of the length of the simulation.
+ *
+ * A new window is loaded once the simulation time gets within one margin of the end of the planning horizon, which
+ * means windows are loaded every margin seconds and planners always see at least one full planning horizon ahead.
+ */
+public class AccessWindow implements AccessProvider {
+    /**
+     * Loads the accesses of the scenario that overlap a time span, and duration of the simulation in seconds
+     */
+    private final Loader loader;
+    private final double duration;
+
+    /**
+     * Time kept before the current time, and time planners look ahead of it, in seconds
+     */
+    private final double margin;
+    private final double horizon;
+
+    /**
+     * Loaded span and access tables, indexed by access file section
+     */
+    private double start;
+    private double end;
+    private double refresh;
+    private AccessTable[] tables;
+    private double[] accessTimes;
+
+    /**
+     * Creates an access window and loads the accesses around the start of the simulation
+     * @param orbitData scenario the accesses are loaded from
+     * @param margin time kept before the current time in seconds. Must be positive.
+     * @param horizon planning horizon in seconds
+     */
+    public AccessWindow(OrbitData orbitData, double margin, double horizon){
+        this(orbitData::loadAccesses, orbitData.getDuration(), margin, horizon);
+    }
+
+    AccessWindow(Loader loader, double duration, double margin, double horizon){
+        if(margin <= 0) throw new IllegalArgumentException("Access window margin must be positive");
+
+        this.loader = loader;
+        this.duration = duration;
+        this.margin = margin;
+        this.horizon = Math.max(horizon, 0.0);
+        page(0.0);
+    }
+
+    @Override
+    public boolean advance(double t){
+        // the window start is clamped to the start of the simulation, so it is compared against the clamped time
+        if(t < refresh && Math.max(t - margin, 0.0) >= start) return false;
+        page(t);
+        return true;
+    }
+
+    /**
+     * Loads the window around a given simulation time
+     * @param t time in seconds from the simulation start date
+     */
+    private void page(double t){
+        start = Math.max(t - margin, 0.0);
+        end = Math.min(t + horizon + 2*margin, duration);
+        refresh = end >= duration ? Double.POSITIVE_INFINITY : end - horizon - margin;
+
+        tables = loader.load(start, end);
+
+        int n = 0;
+        for(AccessTable table : tables) n += 2*table.numIntervals();
+
+        double[] times = new double[n];
+        int k = 0;
+        for(AccessTable table : tables){
+            for(int i = 0; i < table.numIntervals(); i++){
+                times[k++] = table.getRise(i);
+                times[k++] = table.getSet(i);
+            }
+        }
+        Arrays.sort(times);
+        accessTimes = times;
+    }
+
+    /**
+     * Loads the accesses that overlap a time span, as OrbitData.loadAccesses()
+     */
+    interface Loader {
+        AccessTable[] load(double from, double to);
+    }
+
+    /**
+     * Getters
+     */
+    @Override
+    public AccessTable getAccessesCL() { return tables[AccessFile.CL]; }
+    @Override
+    public AccessTable getAccessesGP() { return tables[AccessFile.GP]; }
+    @Override
+    public AccessTable getAccessesGPIns() { return tables[AccessFile.GP_INST]; }
+    @Override
+    public AccessTable getAccessesGS() { return tables[AccessFile.GS]; }
+    @Override
+    public double[] accessTimes() { return accessTimes; }
+    @Override
+    public double getWindowEnd() { return end; }
+    @Override
+    public double getRefreshTime() { return refresh; }
+    public double getWindowStart() { return start; }
+}
@@ -4,6 +4,7 @@ import modules.actions.ManeuverAction;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.time.AbsoluteDate;
 
+import java.io.Serializable;
 import java.util.InputMismatchException;
 
 /**
@@ -18,7 +19,7 @@ import java.util.InputMismatchException;
  *
  * @author a.aguilar
  */
-public class Attitude {
+public class Attitude implements Serializable {
     /**
      * Attitude x, y, and z axis vectors expressed in the Orbit Frame
      */
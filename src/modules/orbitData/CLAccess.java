@@ -9,20 +9,30 @@ import seakers.orekit.object.Satellite;
 public class CLAccess{
     private final Satellite sat;
     private final Satellite target;
-    private AbsoluteDate startDate;
-    private AbsoluteDate endDate;
+    private final AbsoluteDate simStartDate;
+    private double startTime;
+    private double endTime;
 
-    public CLAccess(Satellite sat, Satellite target, AbsoluteDate startDate, AbsoluteDate endDate) {
+    /**
+     * Creates a cross-link access
+     * @param simStartDate : simulation start date
+     * @param startTime : rise time in seconds from the simulation start date
+     * @param endTime : set time in seconds from the simulation start date
+     */
+    public CLAccess(Satellite sat, Satellite target, AbsoluteDate simStartDate, double startTime, double endTime) {
         this.sat = sat;
         this.target = target;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.simStartDate = simStartDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
 }
 
     public Satellite getSat() { return sat; }
     public Satellite getTarget() { return target; }
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
-    public void setStartDate(AbsoluteDate startDate) { this.startDate = startDate; }
-    public void setEndDate(AbsoluteDate endDate) { this.endDate = endDate; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public AbsoluteDate getStartDate() { return simStartDate.shiftedBy(startTime); }
+    public AbsoluteDate getEndDate() { return simStartDate.shiftedBy(endTime); }
+    public void setStartTime(double startTime) { this.startTime = startTime; }
+    public void setEndTime(double endTime) { this.endTime = endTime; }
 }
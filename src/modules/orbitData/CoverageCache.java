@@ -0,0 +1,273 @@
+package modules.orbitData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of pre-calculated coverage data. Every entry is a directory in the coverage data
+ * directory named after the hash of the physical definition of the calculation that produced it, so that runs
+ * of identical scenarios share results and any change in the inputs results in a new entry. Shards of entries
+ * are kept in their own subdirectory and share the size cap of the store.
+ *
+ * Looking an entry up has no side effects. Entries are leased before they are read or written: leasing creates
+ * the entry, timestamps it, and holds a shared lock on its lock file until the lease is released. Once the total
+ * size of the store exceeds its cap, the least recently used entries that no process holds a lease on are deleted.
+ */
+public class CoverageCache {
+    /**
+     * Format version of cached data. Changing it invalidates all existing entries.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Subdirectory of the coverage data directory holding shards
+     */
+    public static final String SHARDS_DIR = "shards/";
+
+    /**
+     * Name of the file within each entry that leases are locked on
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * Format of entry names generated by Key. Other directories in the coverage data directory are never evicted.
+     */
+    private static final Pattern ENTRY_NAME = Pattern.compile("[a-z]+_[0-9a-f]{32}");
+
+    /**
+     * Coverage data directory and maximum size in bytes. A size cap of 0 or less disables eviction.
+     */
+    private final String coverageDir;
+    private final long maxSize;
+
+    /**
+     * Leases held by this store, by entry directory
+     */
+    private final HashMap<File, FileLock> leases;
+
+    public CoverageCache(String coverageDir, long maxSize){
+        this.coverageDir = coverageDir;
+        this.maxSize = maxSize;
+        this.leases = new HashMap<>();
+    }
+
+    /**
+     * Returns the directory of the entry with a given key. The entry is not created or leased.
+     * @param key hash of the contents of the entry
+     * @return entry directory, which may not exist
+     */
+    public File getEntry(String key){
+        return new File(coverageDir, key);
+    }
+
+    /**
+     * Returns the directory of the shard with a given key. The shard is not created or leased.
+     * @param key hash of the contents of the shard
+     * @return shard directory, which may not exist
+     */
+    public File getShard(String key){
+        return new File(coverageDir + SHARDS_DIR, key);
+    }
+
+    /**
+     * Leases an entry or shard so that it is not evicted while in use, creating it if it does not exist yet and
+     * marking it as recently used. Leases are held until release() is called or the process exits.
+     * @param entry entry or shard directory
+     * @return entry directory
+     * @throws IOException if the entry can not be created or locked
+     */
+    public synchronized File lease(File entry) throws IOException {
+        if(!leases.containsKey(entry)) {
+            while (true) {
+                if (!entry.isDirectory() && !entry.mkdirs() && !entry.isDirectory()) {
+                    throw new IOException("Could not create coverage data entry " + entry);
+                }
+
+                File lockFile = new File(entry, LOCK_FILE);
+                FileChannel channel = new RandomAccessFile(lockFile, "rw").getChannel();
+                FileLock lock;
+                try {
+                    lock = channel.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+
+                // the entry may have been evicted by another process while waiting for the lock
+                if (lockFile.exists()) {
+                    leases.put(entry, lock);
+                    break;
+                }
+                channel.close();
+            }
+        }
+
+        entry.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    /**
+     * Releases every lease held by this store
+     */
+    public synchronized void release(){
+        for(FileLock lock : leases.values()){
+            try {
+                lock.channel().close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        leases.clear();
+    }
+
+    /**
+     * Deletes least recently used entries and shards until the store fits within its size cap. Entries leased by
+     * any process are skipped.
+     */
+    public synchronized void evict(){
+        if(maxSize <= 0) return;
+
+        ArrayList<File> entries = new ArrayList<>();
+        listEntries(new File(coverageDir), entries);
+        listEntries(new File(coverageDir + SHARDS_DIR), entries);
+
+        HashMap<File, Long> sizes = new HashMap<>();
+        long totalSize = 0;
+        for(File entry : entries){
+            long size = sizeOf(entry.toPath());
+            sizes.put(entry, size);
+            totalSize += size;
+        }
+
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        for(File entry : entries){
+            if(totalSize <= maxSize) break;
+            if(leases.containsKey(entry)) continue;
+
+            if(deleteUnleased(entry)){
+                totalSize -= sizes.get(entry);
+                Logger.getGlobal().fine("Evicted coverage data entry " + entry.getName());
+            }
+        }
+    }
+
+    private void listEntries(File dir, ArrayList<File> entries){
+        File[] found = dir.listFiles(f -> f.isDirectory() && ENTRY_NAME.matcher(f.getName()).matches());
+        if(found != null) entries.addAll(Arrays.asList(found));
+    }
+
+    /**
+     * Deletes an entry if no process holds a lease on it
+     * @return true if the entry was deleted
+     */
+    private boolean deleteUnleased(File entry){
+        File lockFile = new File(entry, LOCK_FILE);
+        try(FileChannel channel = new RandomAccessFile(lockFile, "rw").getChannel()){
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // leased by another store of this process
+                return false;
+            }
+            if(lock == null) return false;
+
+            // the lock file goes last, so the entry stays locked until its contents are gone
+            return delete(entry.toPath(), lockFile.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private long sizeOf(Path dir){
+        try(Stream<Path> paths = Files.walk(dir)){
+            return paths.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private boolean delete(Path dir, Path lockFile){
+        try(Stream<Path> paths = Files.walk(dir)){
+            ArrayList<Path> contents = new ArrayList<>();
+            paths.forEach(contents::add);
+            Collections.reverse(contents);
+            contents.remove(lockFile);
+            contents.remove(dir);
+            for(Path p : contents) Files.delete(p);
+            Files.delete(lockFile);
+            Files.delete(dir);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Hash of the inputs of a coverage calculation. Values are appended in a fixed order and digested with
+     * SHA-256; doubles are hashed by their exact bit pattern.
+     */
+    public static class Key {
+        private final String type;
+        private final MessageDigest digest;
+
+        public Key(String type){
+            this.type = type;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            add(VERSION);
+            add(type);
+        }
+
+        public Key add(String value){
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            add(bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+
+        public Key add(long value){
+            for(int i = 7; i >= 0; i--) digest.update((byte) (value >>> (8*i)));
+            return this;
+        }
+
+        public Key add(double value){
+            return add(Double.doubleToLongBits(value));
+        }
+
+        public Key add(double[] values){
+            add(values.length);
+            for(double value : values) add(value);
+            return this;
+        }
+
+        /**
+         * @return type of the entry followed by the first 128 bits of the digest in hexadecimal
+         */
+        public String build(){
+            byte[] hash = digest.digest();
+            StringBuilder out = new StringBuilder(type + "_");
+            for(int i = 0; i < 16; i++) out.append(String.format("%02x", hash[i]));
+            return out.toString();
+        }
+    }
+}
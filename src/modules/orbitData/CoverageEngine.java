@@ -0,0 +1,109 @@
+package modules.orbitData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs independent units of coverage work on a fork-join pool. Units are submitted all at once and may finish in
+ * any order, but their results are always returned in the order in which the units were given so that merging
+ * them produces the same access tables regardless of scheduling.
+ */
+public class CoverageEngine {
+    /**
+     * Pool on which units are executed
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a coverage engine
+     * @param nThreads number of worker threads. If 0 or less, one thread per available core is used.
+     */
+    public CoverageEngine(int nThreads){
+        if(nThreads <= 0) nThreads = Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(nThreads);
+    }
+
+    /**
+     * Executes a list of work units and waits for all of them to finish
+     * @param name name of the calculation, used for progress reports
+     * @param units units to be executed
+     * @return results of every unit, in the same order as the units
+     * @throws Exception if any unit fails
+     */
+    public <T> ArrayList<T> run(String name, List<Unit<T>> units) throws Exception {
+        int nUnits = units.size();
+        AtomicInteger completed = new AtomicInteger(0);
+        int reportInterval = Math.max(nUnits / 10, 1);
+        long tic = System.nanoTime();
+
+        Logger.getGlobal().info(name + ": running " + nUnits + " units on " + pool.getParallelism() + " threads...");
+
+        ArrayList<Future<T>> tasks = new ArrayList<>(nUnits);
+        for(Unit<T> unit : units){
+            tasks.add(pool.submit(() -> {
+                long start = System.nanoTime();
+                T result = unit.call();
+                double runtime = (System.nanoTime() - start) / 1e9;
+
+                int done = completed.incrementAndGet();
+                Logger.getGlobal().finer(String.format("%s: unit %s took %.4f sec", name, unit.getName(), runtime));
+                if(done % reportInterval == 0 || done == nUnits)
+                    Logger.getGlobal().info(String.format("%s: %d/%d units completed", name, done, nUnits));
+                return result;
+            }));
+        }
+
+        ArrayList<T> results = new ArrayList<>(nUnits);
+        try {
+            for (int i = 0; i < nUnits; i++) {
+                try {
+                    results.add(tasks.get(i).get());
+                } catch (ExecutionException e) {
+                    for (Future<T> task : tasks) task.cancel(true);
+                    throw new Exception(name + ": unit " + units.get(i).getName() + " failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<T> task : tasks) task.cancel(true);
+            throw e;
+        }
+
+        Logger.getGlobal().fine(String.format("%s: took %.4f sec", name, (System.nanoTime() - tic) / 1e9));
+        return results;
+    }
+
+    public int getParallelism(){ return pool.getParallelism(); }
+
+    public void shutdown(){
+        pool.shutdownNow();
+    }
+
+    /**
+     * Independent unit of coverage work
+     */
+    public interface Unit<T> extends Callable<T> {
+        /**
+         * @return description of the unit used in progress reports
+         */
+        String getName();
+
+        /**
+         * Creates a named unit from a task
+         */
+        static <T> Unit<T> of(String name, Callable<T> task){
+            return new Unit<T>() {
+                @Override
+                public String getName() { return name; }
+
+                @Override
+                public T call() throws Exception { return task.call(); }
+            };
+        }
+    }
+}
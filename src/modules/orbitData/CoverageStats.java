@@ -1,87 +1,93 @@
 package modules.orbitData;
 
-import modules.utils.Statistics;
-import org.orekit.frames.TopocentricFrame;
-import org.orekit.time.AbsoluteDate;
-import seakers.orekit.coverage.access.TimeIntervalArray;
-import seakers.orekit.object.*;
+import modules.utils.Intervals;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
- * Describes the coverage statistics of a given scenario
+ * Describes the coverage statistics of a given scenario. Accesses are added one span of the simulation at a time, so
+ * that statistics of long simulations never need every access of the scenario in memory at once.
  */
 public class CoverageStats {
-    private final double maxRevTime;
-    private final double minRevTime;
-    private final double avgRevTime;
-    private final double stdRevTime;
-    private final double cvgPtg;
-
-    private HashMap<TopocentricFrame, ArrayList<GPAccess>> orderedAccesses;
-    private ArrayList<Double> revTimes;
-
-    public CoverageStats( OrbitData orbitData ){
-        orderedAccesses = orbitData.orderGPAccesses();
-        revTimes = calcRevTimes(orbitData.getStartDate());
-        maxRevTime = calcMaxRevTime();
-        minRevTime = calcMinRevTime();
-        avgRevTime = calcAvgRevTime();
-        stdRevTime = calcStdRevTime();
-        cvgPtg = calcCoveragePercentage();
+    private final int nPoints;
+    private int nCovered;
+
+    /**
+     * End of the last access added for every ground point, or NaN if the point has not been covered yet
+     */
+    private final double[] lastEnd;
+
+    /**
+     * Running statistics of the revisit times added so far
+     */
+    private long nRevisits;
+    private double maxRevTime;
+    private double minRevTime;
+    private double avgRevTime;
+    private double sqDevRevTime;
+
+    public CoverageStats( int nPoints ){
+        this.nPoints = nPoints;
+        this.nCovered = 0;
+        this.lastEnd = new double[nPoints];
+        Arrays.fill(lastEnd, Double.NaN);
+
+        this.nRevisits = 0;
+        this.maxRevTime = Double.NEGATIVE_INFINITY;
+        this.minRevTime = Double.POSITIVE_INFINITY;
+        this.avgRevTime = 0.0;
+        this.sqDevRevTime = 0.0;
     }
 
-    private ArrayList<Double> calcRevTimes(AbsoluteDate startDate){
-        ArrayList<Double> revTimes = new ArrayList<>();
-
-        for(TopocentricFrame point : orderedAccesses.keySet()){
-            for(int i = 0; i < orderedAccesses.get(point).size()-1; i++){
-
-                GPAccess acc_i = orderedAccesses.get(point).get(i);
-                GPAccess acc_ip = orderedAccesses.get(point).get(i+1);
-                AbsoluteDate acc_iEnd = acc_i.getEndDate();
-                AbsoluteDate acc_ipStart = acc_ip.getStartDate();
-
-                double duration = acc_ipStart.durationFrom(acc_iEnd);
-
-                revTimes.add(duration);
+    /**
+     * Merges the accesses of every ground point across all sensing satellites and collects the gaps between them.
+     * Spans must be added in chronological order, and accesses overlapping two consecutive spans may be added with
+     * both of them.
+     * @param byPoint ground point accesses overlapping a span of the simulation, indexed by (point id, sat id)
+     */
+    public void add(AccessTable byPoint){
+        for(int pointId = 0; pointId < byPoint.numSources(); pointId++){
+            if(byPoint.pairsStart(pointId) == byPoint.pairsEnd(pointId)) continue;
+
+            Intervals coverage = byPoint.union(pointId);
+            for(int k = 0; k < coverage.size(); k++){
+                double start = coverage.getStart(k);
+                double end = coverage.getEnd(k);
+
+                if(Double.isNaN(lastEnd[pointId])){
+                    nCovered++;
+                    lastEnd[pointId] = end;
+                }
+                else if(start <= lastEnd[pointId]){
+                    lastEnd[pointId] = Math.max(lastEnd[pointId], end);
+                }
+                else{
+                    addRevisit(start - lastEnd[pointId]);
+                    lastEnd[pointId] = end;
+                }
             }
         }
-
-        return revTimes;
-    }
-
-    private double calcMaxRevTime(){
-        return Statistics.getMax(revTimes);
     }
 
-    private double calcMinRevTime(){
-        return Statistics.getMin(revTimes);
+    /**
+     * Updates the running mean and squared deviation of the revisit times with Welford's method
+     */
+    private void addRevisit(double revTime){
+        nRevisits++;
+        maxRevTime = Math.max(maxRevTime, revTime);
+        minRevTime = Math.min(minRevTime, revTime);
+
+        double delta = revTime - avgRevTime;
+        avgRevTime += delta / nRevisits;
+        sqDevRevTime += delta * (revTime - avgRevTime);
     }
 
-    private double calcAvgRevTime(){
-        return Statistics.getMean(revTimes);
+    public double getMaxRevTime() { return nRevisits == 0 ? Double.NaN : maxRevTime; }
+    public double getMinRevTime() { return nRevisits == 0 ? Double.NaN : minRevTime; }
+    public double getAvgRevTime() { return nRevisits == 0 ? Double.NaN : avgRevTime; }
+    public double getStdRevTime() { return nRevisits == 0 ? Double.NaN : Math.sqrt(sqDevRevTime / nRevisits); }
+    public double getCoveragePercentage(){
+        if(nPoints == 0) return 0.0;
+        return ((double) nCovered) / nPoints;
     }
-
-    private double calcStdRevTime(){
-        return Statistics.getStd(revTimes);
-    }
-
-    private double calcCoveragePercentage(){
-        double n_acc = 0.0;
-        double n_total = orderedAccesses.keySet().size();
-
-        for(TopocentricFrame point : orderedAccesses.keySet()){
-            if(orderedAccesses.get(point).size() > 0) n_acc++;
-        }
-
-        return n_acc/n_total;
-    }
-
-    public double getMaxRevTime() { return maxRevTime; }
-    public double getMinRevTime() { return minRevTime; }
-    public double getAvgRevTime() { return avgRevTime; }
-    public double getStdRevTime() { return stdRevTime; }
-    public double getCoveragePercentage(){ return cvgPtg; }
 }
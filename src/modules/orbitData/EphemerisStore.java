@@ -0,0 +1,243 @@
+package modules.orbitData;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.Propagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Pre-computed satellite ephemerides. Every satellite is propagated once over the simulation span on a fixed time
+ * grid and its Earth-fixed position and velocity at each node are stored in primitive arrays. Queries at arbitrary
+ * times are answered with cubic Hermite interpolation between the two surrounding nodes, which matches both the
+ * position and velocity at the nodes.
+ *
+ * Instances are immutable once built and can be shared by all simulations running on the same scenario.
+ */
+public class EphemerisStore {
+    /**
+     * Precision of line of sight rise and set times in seconds
+     */
+    private static final double LOS_TOLERANCE = 1e-3;
+
+    /**
+     * Time between grid nodes and number of nodes per satellite
+     */
+    private final double step;
+    private final int nNodes;
+
+    /**
+     * pv[sat][6*node + k] : k = 0,1,2 position and k = 3,4,5 velocity in the Earth frame [m, m/s]
+     */
+    private final double[][] pv;
+
+    private EphemerisStore(double step, int nNodes, double[][] pv){
+        this.step = step;
+        this.nNodes = nNodes;
+        this.pv = pv;
+    }
+
+    /**
+     * Propagates a list of satellites over a time span and stores their ephemerides
+     * @param propagators propagator of each satellite, indexed by satellite id
+     * @param startDate start date of the simulation
+     * @param duration length of the simulation in seconds
+     * @param step time between grid nodes in seconds
+     * @param earthFrame frame in which ephemerides are stored
+     * @return ephemeris store covering [0, duration]
+     */
+    public static EphemerisStore propagate(List<Propagator> propagators, AbsoluteDate startDate, double duration,
+                                           double step, Frame earthFrame){
+        if(step <= 0) throw new IllegalArgumentException("Ephemeris step must be positive");
+
+        int nNodes = Math.max((int) Math.ceil(duration / step), 1) + 1;
+        double[][] pv = new double[propagators.size()][];
+
+        // satellites are propagated independently of each other, so they are spread across all available cores
+        IntStream.range(0, propagators.size()).parallel().forEach(sat -> {
+            Propagator prop = propagators.get(sat);
+            double[] satPV = new double[6*nNodes];
+
+            for(int node = 0; node < nNodes; node++){
+                PVCoordinates state = prop.propagate(startDate.shiftedBy(node*step)).getPVCoordinates(earthFrame);
+                Vector3D pos = state.getPosition();
+                Vector3D vel = state.getVelocity();
+
+                int i = 6*node;
+                satPV[i]     = pos.getX();
+                satPV[i + 1] = pos.getY();
+                satPV[i + 2] = pos.getZ();
+                satPV[i + 3] = vel.getX();
+                satPV[i + 4] = vel.getY();
+                satPV[i + 5] = vel.getZ();
+            }
+            pv[sat] = satPV;
+        });
+
+        return new EphemerisStore(step, nNodes, pv);
+    }
+
+    /**
+     * Checks if a time is covered by the stored ephemerides
+     * @param t time in seconds from the simulation start date
+     */
+    public boolean contains(double t){
+        return t >= 0 && t <= (nNodes - 1)*step;
+    }
+
+    /**
+     * Interpolates the position and velocity of a satellite
+     * @param sat satellite id
+     * @param t time in seconds from the simulation start date
+     * @param out array of length 6 where position and velocity will be written to
+     */
+    public void getPV(int sat, double t, double[] out){
+        double[] satPV = pv[sat];
+        int node = interval(t);
+        double u = (t - node*step) / step;
+        int i0 = 6*node;
+        int i1 = i0 + 6;
+
+        // cubic Hermite basis functions and their derivatives
+        double u2 = u*u;
+        double u3 = u2*u;
+        double h00 = 2*u3 - 3*u2 + 1;
+        double h10 = u3 - 2*u2 + u;
+        double h01 = -2*u3 + 3*u2;
+        double h11 = u3 - u2;
+        double d00 = (6*u2 - 6*u) / step;
+        double d10 = 3*u2 - 4*u + 1;
+        double d01 = (-6*u2 + 6*u) / step;
+        double d11 = 3*u2 - 2*u;
+
+        for(int k = 0; k < 3; k++){
+            double p0 = satPV[i0 + k];
+            double v0 = satPV[i0 + 3 + k];
+            double p1 = satPV[i1 + k];
+            double v1 = satPV[i1 + 3 + k];
+
+            out[k] = h00*p0 + h10*step*v0 + h01*p1 + h11*step*v1;
+            out[k + 3] = d00*p0 + d10*v0 + d01*p1 + d11*v1;
+        }
+    }
+
+    public Vector3D getPosition(int sat, double t){
+        double[] satPV = pv[sat];
+        int node = interval(t);
+        double u = (t - node*step) / step;
+        int i0 = 6*node;
+        int i1 = i0 + 6;
+
+        double u2 = u*u;
+        double u3 = u2*u;
+        double h00 = 2*u3 - 3*u2 + 1;
+        double h10 = (u3 - 2*u2 + u)*step;
+        double h01 = -2*u3 + 3*u2;
+        double h11 = (u3 - u2)*step;
+
+        return new Vector3D(
+                h00*satPV[i0]     + h10*satPV[i0 + 3] + h01*satPV[i1]     + h11*satPV[i1 + 3],
+                h00*satPV[i0 + 1] + h10*satPV[i0 + 4] + h01*satPV[i1 + 1] + h11*satPV[i1 + 4],
+                h00*satPV[i0 + 2] + h10*satPV[i0 + 5] + h01*satPV[i1 + 2] + h11*satPV[i1 + 5]);
+    }
+
+    public Vector3D getVelocity(int sat, double t){
+        double[] out = new double[6];
+        getPV(sat, t, out);
+        return new Vector3D(out[3], out[4], out[5]);
+    }
+
+    /**
+     * Finds the windows in which two satellites are in line of sight of each other, that is, in which the segment
+     * between them does not cross a sphere of a given radius centered at the Earth's center. Line of sight is
+     * evaluated at the grid nodes and every change between two nodes is refined by bisection on the interpolated
+     * positions, so no orbit is propagated. Windows shorter than the grid step may be missed.
+     * @param sat satellite id
+     * @param target satellite id of the target
+     * @param start start of the time span in seconds from the simulation start date
+     * @param end end of the time span in seconds from the simulation start date
+     * @param radius radius of the occulting sphere in meters
+     * @return rise and set times of every window in chronological order, alternating. Windows open at the start or
+     * end of the time span are cut at them.
+     */
+    public double[] lineOfSight(int sat, int target, double start, double end, double radius){
+        double[] a = new double[6];
+        double[] b = new double[6];
+        double[] out = new double[16];
+        int n = 0;
+        if(end <= start) return new double[0];
+
+        double prevTime = start;
+        boolean prevVisible = clearance(sat, target, start, radius, a, b) >= 0;
+        if(prevVisible) out[n++] = start;
+
+        for(int node = (int) (start / step) + 1; prevTime < end; node++){
+            double t = Math.min(node*step, end);
+            boolean visible = clearance(sat, target, t, radius, a, b) >= 0;
+
+            if(visible != prevVisible){
+                // bisect the change of visibility between the two samples
+                double lo = prevTime;
+                double hi = t;
+                while(hi - lo > LOS_TOLERANCE){
+                    double mid = 0.5*(lo + hi);
+                    if((clearance(sat, target, mid, radius, a, b) >= 0) == prevVisible) lo = mid;
+                    else hi = mid;
+                }
+
+                if(n == out.length) out = Arrays.copyOf(out, 2*n);
+                out[n++] = visible ? hi : lo;
+            }
+            prevTime = t;
+            prevVisible = visible;
+        }
+
+        if(prevVisible){
+            if(n == out.length) out = Arrays.copyOf(out, n + 1);
+            out[n++] = end;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Distance between the occulting sphere and the point of the segment between two satellites closest to its
+     * center. Positive if the satellites are in line of sight.
+     */
+    private double clearance(int sat, int target, double t, double radius, double[] a, double[] b){
+        getPV(sat, t, a);
+        getPV(target, t, b);
+
+        double dx = b[0] - a[0];
+        double dy = b[1] - a[1];
+        double dz = b[2] - a[2];
+        double d2 = dx*dx + dy*dy + dz*dz;
+        double s = d2 > 0 ? -(a[0]*dx + a[1]*dy + a[2]*dz) / d2 : 0.0;
+        s = Math.max(0.0, Math.min(1.0, s));
+
+        double x = a[0] + s*dx;
+        double y = a[1] + s*dy;
+        double z = a[2] + s*dz;
+        return Math.sqrt(x*x + y*y + z*z) - radius;
+    }
+
+    /**
+     * Returns the index of the grid node at the start of the interval containing time t
+     */
+    private int interval(double t){
+        if(!contains(t))
+            throw new IndexOutOfBoundsException("Time " + t + " s outside of stored ephemeris span");
+        return Math.min((int) (t / step), nNodes - 2);
+    }
+
+    /**
+     * Getters
+     */
+    public double getStep(){ return step; }
+    public int numNodes(){ return nNodes; }
+    public int numSats(){ return pv.length; }
+    public double getDuration(){ return (nNodes - 1)*step; }
+}
@@ -12,24 +12,35 @@ public class GPAccess {
     private final CoverageDefinition targetCovDef;
     private final TopocentricFrame target;
     private final Instrument instrument;
-    private AbsoluteDate startDate;
-    private AbsoluteDate endDate;
+    private final AbsoluteDate simStartDate;
+    private double startTime;
+    private double endTime;
 
-    public GPAccess(Satellite sat, CoverageDefinition targetCovDef, TopocentricFrame target, Instrument instrument, AbsoluteDate startDate, AbsoluteDate endDate) {
+    /**
+     * Creates a ground point access
+     * @param simStartDate : simulation start date
+     * @param startTime : rise time in seconds from the simulation start date
+     * @param endTime : set time in seconds from the simulation start date
+     */
+    public GPAccess(Satellite sat, CoverageDefinition targetCovDef, TopocentricFrame target, Instrument instrument,
+                    AbsoluteDate simStartDate, double startTime, double endTime) {
         this.sat = sat;
         this.targetCovDef = targetCovDef;
         this.target = target;
         this.instrument = instrument;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.simStartDate = simStartDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
     }
 
     public Satellite getSat() { return sat; }
     public CoverageDefinition getTargetCovDef(){return targetCovDef;}
     public TopocentricFrame getTarget() { return target; }
     public Instrument getInstrument(){return instrument;}
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
-    public void setStartDate(AbsoluteDate startDate) { this.startDate = startDate; }
-    public void setEndDate(AbsoluteDate endDate) { this.endDate = endDate; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public AbsoluteDate getStartDate() { return simStartDate.shiftedBy(startTime); }
+    public AbsoluteDate getEndDate() { return simStartDate.shiftedBy(endTime); }
+    public void setStartTime(double startTime) { this.startTime = startTime; }
+    public void setEndTime(double endTime) { this.endTime = endTime; }
 }
@@ -7,18 +7,28 @@ import seakers.orekit.object.Satellite;
 public class GndAccess {
     private final Satellite sat;
     private final GndStation gnd;
-    private final AbsoluteDate startDate;
-    private final AbsoluteDate endDate;
+    private final AbsoluteDate simStartDate;
+    private final double startTime;
+    private final double endTime;
 
-    public GndAccess(Satellite sat, GndStation gnd, AbsoluteDate startDate, AbsoluteDate endDate) {
+    /**
+     * Creates a ground station access
+     * @param simStartDate : simulation start date
+     * @param startTime : rise time in seconds from the simulation start date
+     * @param endTime : set time in seconds from the simulation start date
+     */
+    public GndAccess(Satellite sat, GndStation gnd, AbsoluteDate simStartDate, double startTime, double endTime) {
         this.sat = sat;
         this.gnd = gnd;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.simStartDate = simStartDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
     }
 
     public Satellite getSat() { return sat; }
     public GndStation getGnd() { return gnd; }
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public AbsoluteDate getStartDate() { return simStartDate.shiftedBy(startTime); }
+    public AbsoluteDate getEndDate() { return simStartDate.shiftedBy(endTime); }
 }
@@ -9,7 +9,7 @@ import modules.agents.SatelliteAgent;
 import modules.antennas.AbstractAntenna;
 import modules.antennas.ParabolicAntenna;
 import modules.instruments.SAR;
-import modules.simulation.Dmas;
+import modules.utils.Intervals;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
 import org.json.simple.JSONObject;
@@ -32,7 +32,6 @@ import org.orekit.time.TimeScale;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
-import org.orekit.utils.PVCoordinates;
 import seakers.orekit.analysis.Analysis;
 import seakers.orekit.coverage.access.RiseSetTime;
 import seakers.orekit.coverage.access.TimeIntervalArray;
@@ -53,13 +52,17 @@ import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static constants.JSONFields.*;
 
-public class OrbitData {
+public class OrbitData implements AccessProvider {
     /**
      * Directories containing information about the constellation selected and previous coverage calculations
      */
@@ -109,24 +112,100 @@ public class OrbitData {
 //     */
     private final HashMap<String, Instrument> instrumentList;
 
+    /**
+     * Resolved field of regard, coverage grid and ground station parameters used to identify coverage data
+     * @param instrumentFOVs : instrument name -> {off-nadir angle, cross-track half angle, along-track half angle} [rad]
+     * @param covDefParameters : coverage definition name -> {granularity, min lat, max lat, min lon, max lon} [deg]
+     * @param stationParameters : ground station id -> {lat, lon, min elevation} [rad]
+     */
+    private final HashMap<String, double[]> instrumentFOVs;
+    private final HashMap<String, double[]> covDefParameters;
+    private final HashMap<String, double[]> stationParameters;
+
+    /**
+     * Store of previously calculated coverage data, and of per-satellite and per-satellite-pair shards of it
+     */
+    private final CoverageCache cache;
+
     /**
      * Propagator used in coverage and trajectory calculations
      */
+    private final Properties propertiesPropagator;
     private final PropagatorFactory pfJ2;
     private final PropagatorFactory pfKep;
 
+    /**
+     * Satellite ephemerides interpolated by position and velocity queries, indexed by sat id, and default time
+     * between ephemeris grid nodes in seconds
+     */
+    private EphemerisStore ephemeris;
+
+    /**
+     * Coverage statistics of the scenario, shared by all simulation runs once evaluated
+     */
+    private JSONObject coverageStats;
+
+    /**
+     * Start and end times of every access of the scenario in chronological order, shared by all simulation runs
+     * once evaluated
+     */
+    private double[] accessTimes;
+    private static final double EPHEMERIS_DEFAULT_STEP = 60.0;
+
+    /**
+     * Models used to calculate cross links: Orekit's event analysis on the propagated orbits, or line of sight
+     * sampled on the scenario's ephemerides with the Earth as a sphere of its equatorial radius. The sampled model
+     * does not propagate each satellite once per pair, but may miss windows shorter than the ephemeris step.
+     */
+    public static final String OREKIT_CROSS_LINKS = "orekit";
+    public static final String EPHEMERIS_CROSS_LINKS = "ephemeris";
+
+    /**
+     * Maximum number of ground points evaluated by a single unit of coverage work
+     */
+    private static final int COVERAGE_POINTS_PER_UNIT = 500;
+
+    /**
+     * Name of the empty coverage definition of units that only calculate ground station accesses
+     */
+    private static final String GND_STATION_UNIT = "GndStations";
+
     /**
      * Coverage results from propagation
-     * @param accessesCL : Cross Link access opportunity
-     * @param accessesGP : Ground Point access opportunity
-     * @param accessesGS : Ground Station access opportunity
+     * @param accessesCL : Cross Link access opportunity, indexed by (sat id, target sat id)
+     * @param accessesGP : Ground Point access opportunity, indexed by (sat id, point id)
+     * @param accessesGPInst : Ground Point access opportunity per instrument, indexed by (sensor id, point id)
+     * @param accessesGS : Ground Station access opportunity, indexed by (sat id, station id)
      */
-    private HashMap<Constellation, HashMap<Satellite, HashMap<Satellite, TimeIntervalArray>>> accessesCL;
-    private HashMap<CoverageDefinition, HashMap<Satellite,
-            HashMap<TopocentricFrame, TimeIntervalArray>>> accessesGP;
-    private HashMap<CoverageDefinition, HashMap<Satellite, HashMap<Instrument,
-            HashMap<TopocentricFrame, TimeIntervalArray>>>> accessesGPInst;
-    private HashMap<Satellite, HashMap<GndStation, TimeIntervalArray>> accessesGS;
+    private AccessTable accessesCL;
+    private AccessTable accessesGP;
+    private AccessTable accessesGPInst;
+    private AccessTable accessesGS;
+
+    /**
+     * When simulations read accesses through an access window, the cached access files are kept memory mapped
+     * instead of being loaded into the tables above, and each window is copied out of them. Indexed by section.
+     * Statistics over the whole simulation then read the mapped files one access window margin, in seconds, at a
+     * time, and full span tables are only loaded if they are asked for.
+     */
+    private final double accessWindow;
+    private MappedSection[] mappedSections;
+    private final AccessTable[] fullSpanTables;
+
+    /**
+     * Dense ids of the satellites, ground points, sensors (satellite-instrument pairs), and ground stations
+     * used to index access tables
+     */
+    private final ArrayList<Satellite> satList;
+    private final HashMap<Satellite, Integer> satIds;
+    private final ArrayList<CoveragePoint> pointList;
+    private final ArrayList<CoverageDefinition> pointCovDefs;
+    private final HashMap<TopocentricFrame, Integer> pointIds;
+    private final ArrayList<Satellite> sensorSats;
+    private final ArrayList<Instrument> sensorInstruments;
+    private final HashMap<Satellite, HashMap<Instrument, Integer>> sensorIds;
+    private final ArrayList<GndStation> stationList;
+    private final HashMap<GndStation, Integer> stationIds;
 
     /**
      *  Constellations of sensing and communication satellites chosen for simulation
@@ -182,56 +261,45 @@ public class OrbitData {
         startDate = stringToDate(startDateStr);
         endDate = stringToDate(endDateStr);
 
-        String yyyy_s = String.valueOf(startDate.getComponents(utc).getDate().getYear());
-        String mm_s = String.valueOf(startDate.getComponents(utc).getDate().getMonth());
-        String dd_s = String.valueOf(startDate.getComponents(utc).getDate().getDay());
-
-        if(Integer.parseInt(mm_s) < 10) mm_s = "0" + mm_s;
-        if(Integer.parseInt(dd_s) < 10) dd_s = "0" + dd_s;
-
-        String HH_s = String.valueOf(startDate.getComponents(utc).getTime().getHour());
-        String MM_s = String.valueOf(startDate.getComponents(utc).getTime().getMinute());
-        String SS_s = String.valueOf(startDate.getComponents(utc).getTime().getSecond());
-
-        if(Integer.parseInt(HH_s) < 10) HH_s = "0" + HH_s;
-        if(Integer.parseInt(MM_s) < 10) MM_s = "0" + MM_s;
-        if(Double.parseDouble(SS_s) < 10.0) SS_s = "0" + SS_s;
-
-        String startDateStrDir =  yyyy_s + mm_s + dd_s + "-" + HH_s + MM_s + SS_s.replace(".","");
-
-        String yyyy_e = String.valueOf(startDate.getComponents(utc).getDate().getYear());
-        String mm_e = String.valueOf(startDate.getComponents(utc).getDate().getMonth());
-        String dd_e = String.valueOf(startDate.getComponents(utc).getDate().getDay());
-
-        if(Integer.parseInt(mm_e) < 10) mm_e = "0" + mm_e;
-        if(Integer.parseInt(dd_e) < 10) dd_e = "0" + dd_e;
-
-        String HH_e = String.valueOf(startDate.getComponents(utc).getTime().getHour());
-        String MM_e = String.valueOf(startDate.getComponents(utc).getTime().getMinute());
-        String SS_e = String.valueOf(startDate.getComponents(utc).getTime().getSecond());
-
-        if(Integer.parseInt(HH_e) < 10) HH_e = "0" + HH_e;
-        if(Integer.parseInt(MM_e) < 10) MM_e = "0" + MM_e;
-        if(Double.parseDouble(SS_e) < 10.0) SS_e = "0" + SS_e;
-
-        String endDateStrDir =  yyyy_e + mm_e + dd_e + "-" + HH_e + MM_e + SS_e.replace(".","");
-
-        // if data has been calculated before, import data
-        String dirName = consStr + "_" + gsNetworkStr + "_" + scenarioStr + "_" + startDateStrDir + "_" + endDateStrDir;
-        directoryAddress = coverageDir + dirName;
-
         // Initialize Instrument database
         instrumentList = new HashMap<>();
+        instrumentFOVs = new HashMap<>();
+        covDefParameters = new HashMap<>();
+        stationParameters = new HashMap<>();
 
         // Read scenario information from excel data and generate orbital parameters and coverage definitions
         constellations = loadConstellation(consStr, startDate, endDate);
         covDefs = loadCoverageDefinitions(scenarioStr, constellations);
         stationAssignment = loadGroundStations(gsNetworkStr, constellations);
 
+        // Assign ids to simulation objects
+        satList = new ArrayList<>();
+        satIds = new HashMap<>();
+        pointList = new ArrayList<>();
+        pointCovDefs = new ArrayList<>();
+        pointIds = new HashMap<>();
+        sensorSats = new ArrayList<>();
+        sensorInstruments = new ArrayList<>();
+        sensorIds = new HashMap<>();
+        stationList = new ArrayList<>();
+        stationIds = new HashMap<>();
+        assignIds();
+
         // Create and set up propagator
-        Properties propertiesPropagator = setPropagatorProperties();
+        propertiesPropagator = setPropagatorProperties();
         pfJ2 = new PropagatorFactory(PropagatorType.J2,propertiesPropagator);
         pfKep = new PropagatorFactory(PropagatorType.KEPLERIAN,propertiesPropagator);
+
+        // Find previously calculated coverage data matching this scenario
+        Object cacheSize = ((JSONObject) input.get(SETTINGS)).get(CACHE_SIZE);
+        long maxCacheSize = cacheSize == null ? 0 : (long) (Double.parseDouble(cacheSize.toString()) * 1e6);
+        cache = new CoverageCache(coverageDir, maxCacheSize);
+
+        directoryAddress = cache.getEntry(scenarioKey()).getPath();
+
+        Object windowSetting = ((JSONObject) input.get(SETTINGS)).get(ACCESS_WINDOW);
+        accessWindow = windowSetting == null ? 0.0 : Double.parseDouble(windowSetting.toString());
+        fullSpanTables = new AccessTable[4];
     }
 
 
@@ -240,7 +308,9 @@ public class OrbitData {
      * Prints csv file of all ground points of all desired coverage definitions to be used for plotting
      * All in lat-lon
      */
-    public void printGP(){
+    public void printGP() throws IOException {
+        cache.lease(new File(directoryAddress));
+
         FileWriter fileWriter = null;
         PrintWriter printWriter;
         String outAddress = directoryAddress + "/" + "CovDefs.csv";
@@ -279,108 +349,145 @@ public class OrbitData {
     }
 
     /**
-     * Propagates orbit and saves position vector and ground track lat-lon to csv file
+     * Propagates orbits and saves position vector and ground track lat-lon of every satellite to a binary trajectory
+     * file, optionally exporting it to csv. Satellites are processed in parallel and samples are streamed to disk
+     * as they are generated. If satellite ephemerides were already calculated, samples are interpolated from them.
      * All in the Earth Frame
      */
-    public void trajectoryCalc(){
-        double timestep = Double.parseDouble( ((JSONObject) input.get(SETTINGS)).get(TIMESTEP).toString() );
+    public void trajectoryCalc() throws Exception {
+        JSONObject settings = (JSONObject) input.get(SETTINGS);
+        double timestep = Double.parseDouble( settings.get(TIMESTEP).toString() );
+        boolean compressed = settings.get(TRAJ_COMPRESS) != null && settings.get(TRAJ_COMPRESS).equals(true);
+        boolean exportCSV = settings.get(TRAJ_CSV) != null && settings.get(TRAJ_CSV).equals(true);
+        cache.lease(new File(directoryAddress));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ArrayList<Future<?>> tasks = new ArrayList<>();
+            for (Satellite sat : satList) {
+                tasks.add(executor.submit(() -> {
+                    File binFile = new File(directoryAddress, sat.getName() + TrajectoryFile.EXTENSION);
+                    if (!binFile.exists()) trajectoryCalc(sat, timestep, binFile, compressed);
+
+                    File csvFile = new File(directoryAddress, sat.getName() + "_pv.csv");
+                    if (exportCSV && !csvFile.exists()) TrajectoryFile.toCSV(binFile, csvFile);
+                    return null;
+                }));
+            }
 
-        for(Constellation cons : constellations){
-            for(Satellite sat : cons.getSatellites()){
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw new Exception("Trajectory calculation failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                FileWriter fileWriter = null;
-                PrintWriter printWriter;
-                String outAddress = directoryAddress + "/" + sat.getName() + "_pv.csv";
-                File f = new File(outAddress);
-                fileWriter = null;
-
-                if(!f.exists()) {
-                    // calc trajectory data
-                    Propagator prop = null;
-                    if(Math.abs( sat.getOrbit().getI() ) <= 0.1){
-                        // if orbit is equatorial, use Keplerian propagator
-                        prop = pfKep.createPropagator(sat.getOrbit(), sat.getGrossMass());
-                    }
-                    else{
-                        // else use J2 propagator
-                        prop = pfJ2.createPropagator(sat.getOrbit(), sat.getGrossMass());
-                    }
+    /**
+     * Samples the trajectory of a single satellite and streams it into a trajectory file
+     */
+    private void trajectoryCalc(Satellite sat, double timestep, File file, boolean compressed) throws IOException {
+        int satId = satIds.get(sat);
+        double duration = endDate.durationFrom(startDate);
+        Propagator prop = ephemeris == null ? createPropagator(sat) : null;
+        double[] pv = new double[6];
+
+        try(TrajectoryFile.Writer writer = new TrajectoryFile.Writer(file, compressed)) {
+            for (double t = 0; t < duration; t += timestep) {
+                double x, y, z;
+                if (prop == null) {
+                    ephemeris.getPV(satId, t, pv);
+                    x = pv[0];
+                    y = pv[1];
+                    z = pv[2];
+                }
+                else {
+                    Vector3D pos = prop.propagate(startDate.shiftedBy(t)).getPVCoordinates(earthFrame).getPosition();
+                    x = pos.getX();
+                    y = pos.getY();
+                    z = pos.getZ();
+                }
 
-                    ArrayList<PVCoordinates> pvSat = new ArrayList<>();
-                    ArrayList<GeodeticPoint> gtSat = new ArrayList<>();
-                    ArrayList<Double> time = new ArrayList<>();
-                    for (double t = 0; t < endDate.durationFrom(startDate); t += timestep) {
+                double lat = FastMath.atan2(z, FastMath.sqrt(x * x + y * y));
+                double lon = FastMath.atan2(y, x);
+                writer.add(t, x, y, z, FastMath.toDegrees(lat), FastMath.toDegrees(lon));
+            }
+        }
+    }
 
-                        try {
-                            SpacecraftState stat = prop.propagate(startDate.shiftedBy(t));
-                            pvSat.add(stat.getPVCoordinates(earthFrame));
+    /**
+     * Propagates every satellite over the simulation span and stores their ephemerides so that position and
+     * velocity queries can be interpolated instead of re-propagated. Ephemerides are only propagated once, even if
+     * they were already needed by the coverage calculation.
+     */
+    public void ephemerisCalc(){
+        if(ephemeris != null) return;
+        double step = ephemerisStep();
 
-                            Vector3D pos = stat.getPVCoordinates(earthFrame).getPosition().normalize();
-                            double lat = FastMath.atan2(pos.getZ(), FastMath.sqrt(pos.getX() * pos.getX() + pos.getY() * pos.getY()));
-                            double lon = FastMath.atan2(pos.getY(), pos.getX());
-                            gtSat.add(new GeodeticPoint(lat, lon, 0.0));
+        ArrayList<Propagator> propagators = new ArrayList<>();
+        for(Satellite sat : satList) propagators.add(createPropagator(sat));
 
-                            time.add(t);
-                        } catch (OrekitException | NullPointerException e) {
-                            e.printStackTrace();
-                        }
-                    }
+        ephemeris = EphemerisStore.propagate(propagators, startDate, endDate.durationFrom(startDate), step, earthFrame);
+    }
 
-                    // save data
-                    try{
-                        fileWriter = new FileWriter(outAddress, false);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                    printWriter = new PrintWriter(fileWriter);
+    private double ephemerisStep(){
+        Object stepSetting = ((JSONObject) input.get(SETTINGS)).get(EPHEMERIS_STEP);
+        return stepSetting == null ? EPHEMERIS_DEFAULT_STEP : Double.parseDouble(stepSetting.toString());
+    }
 
-                    for (int i = 0; i < pvSat.size(); i++) {
-                        String posStr = genPVstr(pvSat.get(i), gtSat.get(i), time.get(i));
-                        printWriter.print(posStr);
-                    }
+    /**
+     * @return true if cross links are sampled on the ephemerides instead of calculated with Orekit's event analysis
+     */
+    private boolean useSampledCrossLinks(){
+        Object modelSetting = ((JSONObject) input.get(SETTINGS)).get(CROSS_LINK_MODEL);
+        String model = modelSetting == null ? OREKIT_CROSS_LINKS : modelSetting.toString();
+        if(!model.equals(OREKIT_CROSS_LINKS) && !model.equals(EPHEMERIS_CROSS_LINKS))
+            throw new InputMismatchException("Cross link model " + model + " not yet supported");
+        return model.equals(EPHEMERIS_CROSS_LINKS);
+    }
 
-                    //close file
-                    printWriter.close();
-                }
-            }
-        }
+    /**
+     * Adds the cross link model to a key. Only sampled cross links depend on the ephemeris step.
+     */
+    private void hashCrossLinkModel(CoverageCache.Key key){
+        if(useSampledCrossLinks()) key.add(EPHEMERIS_CROSS_LINKS).add(ephemerisStep());
     }
 
-    public Vector3D getSatPosition(Satellite sat, AbsoluteDate date) throws Exception {
-        // choose an orbit propagator
-        Propagator prop;
+    /**
+     * Creates a new propagator for a satellite
+     */
+    private Propagator createPropagator(Satellite sat){
         if(Math.abs( sat.getOrbit().getI() ) <= 0.1){
             // if orbit is equatorial, use Keplerian propagator
-            prop = pfKep.createPropagator(sat.getOrbit(), sat.getGrossMass());
+            return pfKep.createPropagator(sat.getOrbit(), sat.getGrossMass());
         }
         else{
             // else use J2 propagator
-            prop = pfJ2.createPropagator(sat.getOrbit(), sat.getGrossMass());
+            return pfJ2.createPropagator(sat.getOrbit(), sat.getGrossMass());
         }
+    }
 
+    public Vector3D getSatPosition(Satellite sat, AbsoluteDate date) throws Exception {
         double t = date.durationFrom(startDate);
         if(t < 0) throw new Exception("Date of measurement is before simulation start time");
 
-        SpacecraftState stat = prop.propagate(startDate.shiftedBy(t));
+        if(ephemeris != null && ephemeris.contains(t)) return ephemeris.getPosition(satIds.get(sat), t);
+
+        SpacecraftState stat = createPropagator(sat).propagate(startDate.shiftedBy(t));
         return stat.getPVCoordinates(earthFrame).getPosition();
     }
 
     public Vector3D getSatVelocity(Satellite sat, AbsoluteDate date) throws Exception {
-        // choose an orbit propagator
-        Propagator prop;
-        if(Math.abs( sat.getOrbit().getI() ) <= 0.1){
-            // if orbit is equatorial, use Keplerian propagator
-            prop = pfKep.createPropagator(sat.getOrbit(), sat.getGrossMass());
-        }
-        else{
-            // else use J2 propagator
-            prop = pfJ2.createPropagator(sat.getOrbit(), sat.getGrossMass());
-        }
-
         double t = date.durationFrom(startDate);
         if(t < 0) throw new Exception("Date of measurement is before simulation start time");
 
-        SpacecraftState stat = prop.propagate(startDate.shiftedBy(t));
+        if(ephemeris != null && ephemeris.contains(t)) return ephemeris.getVelocity(satIds.get(sat), t);
+
+        SpacecraftState stat = createPropagator(sat).propagate(startDate.shiftedBy(t));
         return stat.getPVCoordinates(earthFrame).getVelocity();
     }
 
@@ -388,572 +495,980 @@ public class OrbitData {
         return point.getPVCoordinates(date, earthFrame).getPosition();
     }
 
-    /**
-     * Generates string containing position vector and lat-lon of a satellite
-     * @param pv Position vector of satellite
-     * @param gt Ground point of satellite
-     * @param epoch
-     * @return
-     */
-    private String genPVstr(PVCoordinates pv, GeodeticPoint gt, double epoch){
-        StringBuilder out = new StringBuilder();
-        double x = pv.getPosition().getX();
-        double y = pv.getPosition().getY();
-        double z = pv.getPosition().getZ();
-        double lat = FastMath.toDegrees( gt.getLatitude() );
-        double lon = FastMath.toDegrees( gt.getLongitude() );
-
-        out.append(epoch + "," + x + "," + y + "," + z + "," + lat + "," + lon + "\n");
-        return out.toString();
-    }
-
     /**
      * Loads or calculates coverage calculation for a scenario's coverage definition and ground stations
-     * as well as calculating time windows for cross-links between satellites
+     * as well as calculating time windows for cross-links between satellites. Cross links and field of view
+     * accesses are cached separately, so only the analyses whose inputs changed are recalculated. If either has to
+     * be recalculated, results are assembled from per-satellite and per-pair shards so that only satellites whose
+     * definition changed are propagated again.
      * @throws Exception
      */
     public void coverageCalc() throws Exception {
-        File f = new File(directoryAddress);
-        if(f.exists()){
-            // import data
-            this.accessesCL = loadCrossLinkAccesses();
-            this.accessesGP = loadGroundPointAccesses();
-            this.accessesGPInst = loadGroundPointInstrumentAccesses();
-            this.accessesGS = loadGroundStationAccesses();
+        File clFile = new File(cache.lease(cache.getEntry(crossLinkKey())), AccessFile.FILE_NAME);
+        File fovFile = new File(cache.lease(cache.getEntry(fieldOfViewKey())), AccessFile.FILE_NAME);
+        boolean calcCL = !clFile.exists();
+        boolean calcFOV = !fovFile.exists();
+
+        // import data. Mapped accesses are read one window at a time instead.
+        if(!calcCL && accessWindow <= 0){
+            AccessTable.Builder clBuilder = new AccessTable.Builder(numSats(), numSats());
+            copyCrossLinkAccesses(AccessFile.read(clFile), clBuilder, getDuration());
+            this.accessesCL = clBuilder.build();
         }
-        else{ // Else, calculate information
-            // create directory
-            new File( directoryAddress ).mkdir();
-
-            // propagate scenario to calculate accesses and cross-links
-            Scenario scen = coverageScenario(constellations, covDefs, stationAssignment, startDate, endDate);
-
-            // save data in object variables for sims to use
-            ArrayList<EventAnalysis> events = (ArrayList<EventAnalysis>) scen.getEventAnalyses();
-            this.accessesCL = ((CrossLinkEventAnalysis) events.get(0)).getAllAccesses();
-
-            this.accessesGP = ((FieldOfViewAndGndStationEventAnalysis) events.get(1)).getAllAccesses();
-            this.accessesGPInst = ((FieldOfViewAndGndStationEventAnalysis) events.get(1)).getAllAccessesInst();
-            this.accessesGS = ((FieldOfViewAndGndStationEventAnalysis) events.get(1)).getAllAccessesGS();
-
-            printAccesses();
+        if(!calcFOV && accessWindow <= 0){
+            AccessFile file = AccessFile.read(fovFile);
+            AccessTable.Builder gpBuilder = new AccessTable.Builder(numSats(), numPoints());
+            AccessTable.Builder gpInstBuilder = new AccessTable.Builder(numSensors(), numPoints());
+            AccessTable.Builder gsBuilder = new AccessTable.Builder(numSats(), numStations());
+            copyGroundPointAccesses(file, gpBuilder, getDuration());
+            copyGroundPointInstrumentAccesses(file, gpInstBuilder, getDuration());
+            copyGroundStationAccesses(file, gsBuilder, getDuration());
+            this.accessesGP = gpBuilder.build();
+            this.accessesGPInst = gpInstBuilder.build();
+            this.accessesGS = gsBuilder.build();
         }
-    }
-
-    private HashMap<Constellation, HashMap<Satellite, HashMap<Satellite, TimeIntervalArray>>> loadCrossLinkAccesses() throws Exception {
-        // Initialize map
-        HashMap<Constellation, HashMap<Satellite, HashMap<Satellite, TimeIntervalArray>>> access = new HashMap<>();
-        for(Constellation cons : constellations){
-            access.put(cons, new HashMap<>());
-            for(Satellite sat : cons.getSatellites()){
-                access.get(cons).put(sat, new HashMap<>());
-                for(Constellation consTgt : constellations){
-                    for(Satellite target : consTgt.getSatellites()){
-                        access.get(cons).get(sat).put(target, new TimeIntervalArray(startDate, endDate));
 
-                    }
+        // calculate missing information
+        if(calcCL || calcFOV){
+            // Setup logger
+            setLogger();
+
+            // Initiate coverage engine and Orekit threads
+            Object threadSetting = ((JSONObject) input.get(SETTINGS)).get(COVERAGE_THREADS);
+            CoverageEngine engine = new CoverageEngine(threadSetting == null ? 0 : Integer.parseInt(threadSetting.toString()));
+            OrekitConfig.init(engine.getParallelism());
+
+            try {
+                // propagate scenario to calculate accesses and cross-links and save data for sims to use
+                if (calcCL) {
+                    crossLinkCalc(engine);
+                    printAccesses(clFile, getDuration(), accessesCL, null, null, null);
+                }
+                if (calcFOV) {
+                    fieldOfViewCalc(engine);
+                    printAccesses(fovFile, getDuration(), null, accessesGP, accessesGPInst, accessesGS);
                 }
+            } finally {
+                engine.shutdown();
             }
         }
 
-        //parsing a CSV file into Scanner class constructor
-        String outAddress = directoryAddress + "/" + "CrossLinks.csv";
-        Scanner sc = new Scanner( new File(outAddress) );
-        sc.useDelimiter("\n");   //sets the delimiter pattern
-        while (sc.hasNext())  //returns a boolean value
-        {
-            String line = sc.next();
-            String[] fields = line.split(",");
+        if(accessWindow > 0) mapAccessFiles(clFile, fovFile);
 
-            String satStr = fields[0];
-            String targetStr = fields[1];
-            double t_0 = Double.parseDouble( fields[2] );
-            double t_f = Double.parseDouble( fields[3] );
-
-            Satellite sat = getSat(satStr);
-            Satellite target = getSat(targetStr);
-            Constellation cons = getCons(sat);
+        cache.evict();
+    }
 
-            access.get(cons).get(sat).get(target).addRiseTime(t_0);
-            access.get(cons).get(sat).get(target).addSetTime(t_f);
-        }
-        sc.close();  //closes the scanner
+    /**
+     * Memory maps the cached access files and releases any access tables held in memory. Rows of every section are
+     * resolved to the ids of this scenario once, so windows can later be copied out without any name lookups.
+     * @param clFile cross link access file
+     * @param fovFile ground point and ground station access file
+     * @throws Exception if the files do not match the chosen constellation, scenario or ground station network
+     */
+    private void mapAccessFiles(File clFile, File fovFile) throws Exception {
+        AccessFile cl = AccessFile.map(clFile);
+        AccessFile fov = AccessFile.map(fovFile);
+
+        MappedSection[] sections = new MappedSection[4];
+        sections[AccessFile.CL] = new MappedSection(cl, resolveRows(cl, AccessFile.CL));
+        sections[AccessFile.GP] = new MappedSection(fov, resolveRows(fov, AccessFile.GP));
+        sections[AccessFile.GP_INST] = new MappedSection(fov, resolveRows(fov, AccessFile.GP_INST));
+        sections[AccessFile.GS] = new MappedSection(fov, resolveRows(fov, AccessFile.GS));
+        this.mappedSections = sections;
+
+        this.accessesCL = null;
+        this.accessesGP = null;
+        this.accessesGPInst = null;
+        this.accessesGS = null;
+    }
 
-        return access;
+    /**
+     * Loads the accesses that overlap a time span, either from the access tables in memory or from the mapped
+     * access files
+     * @param from start of the time span in seconds from the simulation start date
+     * @param to end of the time span in seconds from the simulation start date
+     * @return access tables indexed by access file section
+     */
+    public AccessTable[] loadAccesses(double from, double to){
+        AccessTable[] tables = new AccessTable[4];
+        for(int section = 0; section < tables.length; section++) tables[section] = loadSection(section, from, to);
+        return tables;
     }
 
-    private HashMap<CoverageDefinition, HashMap<Satellite,
-            HashMap<TopocentricFrame, TimeIntervalArray>>>  loadGroundPointAccesses() throws Exception {
-        // Initialize map
-        HashMap<CoverageDefinition, HashMap<Satellite,
-                HashMap<TopocentricFrame, TimeIntervalArray>>>  access = new HashMap<>();
-        for(CoverageDefinition covDef : covDefs){
-            access.put(covDef, new HashMap<>());
-            for(Satellite sat : this.getUniqueSats()){
-                access.get(covDef).put(sat, new HashMap<>());
-                for(CoveragePoint pt : covDef.getPoints()){
-                    access.get(covDef).get(sat).put(pt, new TimeIntervalArray(startDate, endDate));
+    private AccessTable loadSection(int section, double from, double to){
+        AccessTable.Builder builder = newBuilder(section);
+
+        if(mappedSections != null){
+            MappedSection mapped = mappedSections[section];
+            copyRows(mapped.file, section, mapped.rows, builder, from, to, getDuration());
+        }
+        else{
+            AccessTable table = loadedTable(section);
+            for(int src = 0; src < table.numSources(); src++){
+                for(int pair = table.pairsStart(src); pair < table.pairsEnd(src); pair++){
+                    int tgt = table.getTarget(pair);
+                    int end = table.overlapEnd(src, tgt, to);
+                    for(int i = table.overlapStart(src, tgt, from); i < end; i++){
+                        builder.add(src, tgt, table.getRise(i), table.getSet(i));
+                    }
                 }
             }
         }
 
-        //parsing a CSV file into Scanner class constructor
-        String outAddress = directoryAddress + "/" + "GPCoverage.csv";
-        Scanner sc = new Scanner( new File(outAddress) );
-        sc.useDelimiter("\n");   //sets the delimiter pattern
-        while (sc.hasNext())  //returns a boolean value
-        {
-            String line = sc.next();
-            String[] fields = line.split(",");
+        return builder.build();
+    }
 
-            String covDefStr = fields[0];
-            String satStr = fields[1];
-            String targetStr = fields[2];
-            double t_0 = Double.parseDouble( fields[3] );
-            double t_f = Double.parseDouble( fields[4] );
+    private AccessTable.Builder newBuilder(int section){
+        switch (section){
+            case AccessFile.CL:
+                return new AccessTable.Builder(numSats(), numSats());
+            case AccessFile.GP:
+                return new AccessTable.Builder(numSats(), numPoints());
+            case AccessFile.GP_INST:
+                return new AccessTable.Builder(numSensors(), numPoints());
+            case AccessFile.GS:
+                return new AccessTable.Builder(numSats(), numStations());
+            default:
+                throw new InputMismatchException("Access section " + section + " not supported");
+        }
+    }
 
-            CoverageDefinition covDef = getCovDef(covDefStr);
-            Satellite sat = getSat(satStr);
-            CoveragePoint target = getPoint(covDefStr, targetStr);
+    private AccessTable loadedTable(int section){
+        switch (section){
+            case AccessFile.CL:
+                return accessesCL;
+            case AccessFile.GP:
+                return accessesGP;
+            case AccessFile.GP_INST:
+                return accessesGPInst;
+            case AccessFile.GS:
+                return accessesGS;
+            default:
+                throw new InputMismatchException("Access section " + section + " not supported");
+        }
+    }
 
+    /**
+     * Access section of a memory mapped access file, with the source and target ids of each of its rows resolved
+     * to the ids of this scenario
+     */
+    private static class MappedSection {
+        private final AccessFile file;
+        private final int[][] rows;
 
-            access.get(covDef).get(sat).get(target).addRiseTime(t_0);
-            access.get(covDef).get(sat).get(target).addSetTime(t_f);
+        MappedSection(AccessFile file, int[][] rows){
+            this.file = file;
+            this.rows = rows;
         }
-        sc.close();  //closes the scanner
-
-        return access;
     }
 
-    private HashMap<CoverageDefinition, HashMap<Satellite, HashMap<Instrument,
-            HashMap<TopocentricFrame, TimeIntervalArray>>>>  loadGroundPointInstrumentAccesses() throws Exception {
-        // Initialize map
-        HashMap<CoverageDefinition, HashMap<Satellite, HashMap<Instrument,
-                HashMap<TopocentricFrame, TimeIntervalArray>>>>  access = new HashMap<>();
+    /**
+     * Generates the keys identifying coverage data calculated for this scenario. Keys hash the resolved physical
+     * definition of each calculation rather than the names of the input files, so editing a database invalidates
+     * any previous results while renaming it does not.
+     */
+    private String crossLinkKey(){
+        CoverageCache.Key key = new CoverageCache.Key("cl");
+        hashTimeSpan(key);
+        hashPropagator(key);
+        hashOrbits(key);
+        hashCrossLinkModel(key);
+        return key.build();
+    }
 
-        for(CoverageDefinition covDef : covDefs){
-            access.put(covDef, new HashMap<>());
-            for(Satellite sat : this.getUniqueSats()){
-                access.get(covDef).put(sat, new HashMap<>());
-                for(Instrument inst : sat.getPayload()) {
-                    access.get(covDef).get(sat).put(inst, new HashMap<>());
-                    for (CoveragePoint pt : covDef.getPoints()) {
-                        access.get(covDef).get(sat).get(inst).put(pt, new TimeIntervalArray(startDate, endDate));
-                    }
-                }
-            }
-        }
+    private String fieldOfViewKey(){
+        CoverageCache.Key key = new CoverageCache.Key("fov");
+        hashTimeSpan(key);
+        hashPropagator(key);
+        hashOrbits(key);
+        hashPayloads(key);
+        hashCoverageDefinitions(key);
+        hashGroundStations(key);
+        return key.build();
+    }
 
-        //parsing a CSV file into Scanner class constructor
-        String outAddress = directoryAddress + "/" + "GPInstrumentCoverage.csv";
-        Scanner sc = new Scanner( new File(outAddress) );
-        sc.useDelimiter("\n");   //sets the delimiter pattern
-        while (sc.hasNext())  //returns a boolean value
-        {
-            String line = sc.next();
-            String[] fields = line.split(",");
+    /**
+     * Shard keys only hash the definition of the satellites involved, so that shards remain valid when other
+     * satellites of the constellation are added, removed or modified. They also only hash the start date of the
+     * simulation, as shards record the time span they cover and can be sliced or extended.
+     */
+    private String crossLinkShardKey(Satellite sat, Satellite target){
+        CoverageCache.Key key = new CoverageCache.Key("cl");
+        hashStartDate(key);
+        hashPropagator(key);
+        hashOrbit(key, sat);
+        hashOrbit(key, target);
+        hashCrossLinkModel(key);
+        return key.build();
+    }
 
-            String covDefStr = fields[0];
-            String satStr = fields[1];
-            String targetStr = fields[2];
-            String instrumentStr = fields[3];
-            double t_0 = Double.parseDouble( fields[4] );
-            double t_f = Double.parseDouble( fields[5] );
+    private String fieldOfViewShardKey(Satellite sat){
+        CoverageCache.Key key = new CoverageCache.Key("fov");
+        hashStartDate(key);
+        hashPropagator(key);
+        hashOrbit(key, sat);
+        hashPayload(key, sat);
+        hashCoverageDefinitions(key);
+        hashGroundStations(key, sat);
+        return key.build();
+    }
 
-            CoverageDefinition covDef = getCovDef(covDefStr);
-            Satellite sat = getSat(satStr);
-            CoveragePoint target = getPoint(covDefStr, targetStr);
-            Instrument inst = getInstrument(instrumentStr);
+    private String scenarioKey(){
+        double timestep = Double.parseDouble( ((JSONObject) input.get(SETTINGS)).get(TIMESTEP).toString() );
 
-            access.get(covDef).get(sat).get(inst).get(target).addRiseTime(t_0);
-            access.get(covDef).get(sat).get(inst).get(target).addSetTime(t_f);
-        }
-        sc.close();  //closes the scanner
+        CoverageCache.Key key = new CoverageCache.Key("scenario");
+        hashTimeSpan(key);
+        hashPropagator(key);
+        hashOrbits(key);
+        hashCoverageDefinitions(key);
+        key.add(timestep);
+        return key.build();
+    }
 
-        return access;
+    private void hashTimeSpan(CoverageCache.Key key){
+        hashStartDate(key);
+        key.add(getDuration());
     }
 
-    private HashMap<Satellite, HashMap<GndStation, TimeIntervalArray>>  loadGroundStationAccesses() throws Exception {
-        // Initialize map
-        HashMap<Satellite, HashMap<GndStation, TimeIntervalArray>>  access = new HashMap<>();
+    private void hashStartDate(CoverageCache.Key key){
+        key.add(startDate.toString(utc));
+    }
 
-        for(Satellite sat : this.getUniqueSats()){
-            access.put(sat, new HashMap<>());
-            for(GndStation gnd : this.getUniqueGndStations()) {
-                access.get(sat).put(gnd, new TimeIntervalArray(startDate, endDate));
-            }
-        }
+    private void hashPropagator(CoverageCache.Key key){
+        TreeSet<String> names = new TreeSet<>(propertiesPropagator.stringPropertyNames());
+        for(String name : names) key.add(name).add(propertiesPropagator.getProperty(name));
+    }
 
-        //parsing a CSV file into Scanner class constructor
-        String outAddress = directoryAddress + "/" + "GSCoverage.csv";
-        Scanner sc = new Scanner( new File(outAddress) );
-        sc.useDelimiter("\n");   //sets the delimiter pattern
-        while (sc.hasNext())  //returns a boolean value
-        {
-            String line = sc.next();
-            String[] fields = line.split(",");
+    private void hashOrbits(CoverageCache.Key key){
+        for(Satellite sat : getUniqueSats()) hashOrbit(key, sat);
+    }
 
-            String satStr = fields[0];
-            String targetStr = fields[1];
-            double t_0 = Double.parseDouble( fields[2] );
-            double t_f = Double.parseDouble( fields[3] );
+    private void hashOrbit(CoverageCache.Key key, Satellite sat){
+        KeplerianOrbit orbit = new KeplerianOrbit(sat.getOrbit());
+        key.add(sat.getName()).add(sat.getGrossMass());
+        key.add(orbit.getFrame().getName()).add(orbit.getDate().toString(utc)).add(orbit.getMu());
+        key.add(orbit.getA()).add(orbit.getE()).add(orbit.getI());
+        key.add(orbit.getRightAscensionOfAscendingNode()).add(orbit.getPerigeeArgument()).add(orbit.getMeanAnomaly());
+    }
 
-            Satellite sat = getSat(satStr);
-            GndStation gnd = getGndStation(targetStr);
+    private void hashPayloads(CoverageCache.Key key){
+        for(Satellite sat : getUniqueSats()) hashPayload(key, sat);
+    }
 
-            access.get(sat).get(gnd).addRiseTime(t_0);
-            access.get(sat).get(gnd).addSetTime(t_f);
+    private void hashPayload(CoverageCache.Key key, Satellite sat){
+        key.add(sat.getName()).add(sat.getPayload().size());
+        for(Instrument ins : sat.getPayload()){
+            key.add(ins.getName()).add(instrumentFOVs.getOrDefault(ins.getName(), new double[0]));
         }
-        sc.close();  //closes the scanner
-
-        return access;
     }
 
-    private GndStation getGndStation(String name) throws Exception {
-        for(GndStation gnd : this.getUniqueGndStations()){
-            if(gnd.getBaseFrame().getName().equals(name)) return gnd;
+    private void hashCoverageDefinitions(CoverageCache.Key key){
+        TreeMap<String, CoverageDefinition> sorted = new TreeMap<>();
+        for(CoverageDefinition covDef : covDefs) sorted.put(covDef.getName(), covDef);
+
+        for(String name : sorted.keySet()){
+            key.add(name).add(covDefParameters.getOrDefault(name, new double[0]));
+            key.add(sorted.get(name).getPoints().size());
         }
+    }
 
-        throw new Exception("Ground Station Network" + name + " in pre-calculated coverage does not match chosen network");
+    private void hashGroundStations(CoverageCache.Key key){
+        for(Satellite sat : getUniqueSats()) hashGroundStations(key, sat);
     }
 
-    private Instrument getInstrument(String name){
-//        if(name.contains("_FOR")) {
-//            name = name.substring(0, name.length()-4);
-//            return instrumentList.get(name).get(false);
-//        }
-//        else return instrumentList.get(name).get(true);
+    private void hashGroundStations(CoverageCache.Key key, Satellite sat){
+        TreeSet<String> ids = new TreeSet<>();
+        for(GndStation gnd : stationAssignment.get(sat)) ids.add(gnd.getBaseFrame().getName());
 
-        return instrumentList.get(name);
+        key.add(sat.getName()).add(ids.size());
+        for(String id : ids) key.add(id).add(stationParameters.getOrDefault(id, new double[0]));
     }
 
-    private CoveragePoint getPoint(String covDefName, String pointName) throws Exception {
-        CoverageDefinition covDef = getCovDef(covDefName);
-        for(CoveragePoint pt : covDef.getPoints()){
-            if(pt.getName().equals(pointName)) return pt;
+    /**
+     * Assigns dense ids to the satellites, ground points, sensors and ground stations of this scenario.
+     * Coverage definitions and ground stations are ordered by name so that ids do not depend on hash ordering.
+     */
+    private void assignIds(){
+        for(Satellite sat : getUniqueSats()){
+            satIds.put(sat, satList.size());
+            satList.add(sat);
+
+            sensorIds.put(sat, new HashMap<>());
+            for(Instrument ins : sat.getPayload()){
+                sensorIds.get(sat).put(ins, sensorSats.size());
+                sensorSats.add(sat);
+                sensorInstruments.add(ins);
+            }
         }
 
-        throw new Exception("Coverage Point " + pointName + " in " + covDefName + " coverage definition in pre-calculated coverage does not match chosen definition");
+        ArrayList<CoverageDefinition> covDefList = new ArrayList<>(covDefs);
+        covDefList.sort(Comparator.comparing(CoverageDefinition::getName));
+        for(CoverageDefinition covDef : covDefList){
+            for(CoveragePoint pt : covDef.getPoints()){
+                pointIds.put(pt, pointList.size());
+                pointList.add(pt);
+                pointCovDefs.add(covDef);
+            }
+        }
+
+        ArrayList<GndStation> gndList = getUniqueGndStations();
+        gndList.sort(Comparator.comparing(gnd -> gnd.getBaseFrame().getName()));
+        for(GndStation gnd : gndList){
+            stationIds.put(gnd, stationList.size());
+            stationList.add(gnd);
+        }
     }
 
-    private CoverageDefinition getCovDef(String name) throws Exception {
-        for(CoverageDefinition covDef : covDefs){
-            if(covDef.getName().equals(name)) return covDef;
+    /**
+     * Adds accesses calculated by the event analyses to access tables
+     * @param offset start of the analysis time span in seconds from the simulation start date
+     */
+    private void addCrossLinks(AccessTable.Builder builder, HashMap<Constellation, HashMap<Satellite,
+            HashMap<Satellite, TimeIntervalArray>>> accesses, double offset){
+        for(Constellation cons : accesses.keySet()){
+            for(Satellite sat : accesses.get(cons).keySet()){
+                for(Satellite target : accesses.get(cons).get(sat).keySet()){
+                    addIntervals(builder, satIds.get(sat), satIds.get(target), accesses.get(cons).get(sat).get(target), offset);
+                }
+            }
         }
+    }
 
-        throw new Exception("Coverage Definition " + name + " in pre-calculated coverage does not match chosen definition");
+    private void addGroundPointAccesses(AccessTable.Builder builder, HashMap<CoverageDefinition, HashMap<Satellite,
+            HashMap<TopocentricFrame, TimeIntervalArray>>> accesses, double offset){
+        for(CoverageDefinition covDef : accesses.keySet()){
+            for(Satellite sat : accesses.get(covDef).keySet()){
+                for(TopocentricFrame target : accesses.get(covDef).get(sat).keySet()){
+                    addIntervals(builder, satIds.get(sat), pointIds.get(target), accesses.get(covDef).get(sat).get(target), offset);
+                }
+            }
+        }
     }
 
-    private Satellite getSat(String name) throws Exception {
-        for(Constellation cons : this.constellations){
-            for(Satellite sat : cons.getSatellites()){
-                if(sat.getName().equals(name)) return sat;
+    private void addGroundPointInstrumentAccesses(AccessTable.Builder builder, HashMap<CoverageDefinition,
+            HashMap<Satellite, HashMap<Instrument, HashMap<TopocentricFrame, TimeIntervalArray>>>> accesses,
+                                                  double offset){
+        for(CoverageDefinition covDef : accesses.keySet()){
+            for(Satellite sat : accesses.get(covDef).keySet()){
+                for(Instrument inst : accesses.get(covDef).get(sat).keySet()) {
+                    for (TopocentricFrame target : accesses.get(covDef).get(sat).get(inst).keySet()) {
+                        addIntervals(builder, getSensorId(sat, inst), pointIds.get(target),
+                                accesses.get(covDef).get(sat).get(inst).get(target), offset);
+                    }
+                }
             }
         }
+    }
 
-        throw new Exception("Satellite " + name + " in pre-calculated coverage does not match chosen constellation");
+    private void addGroundStationAccesses(AccessTable.Builder builder,
+                                          HashMap<Satellite, HashMap<GndStation, TimeIntervalArray>> accesses,
+                                          double offset){
+        for(Satellite sat : accesses.keySet()){
+            for (GndStation target : accesses.get(sat).keySet()) {
+                addIntervals(builder, satIds.get(sat), stationIds.get(target), accesses.get(sat).get(target), offset);
+            }
+        }
     }
 
-    private Constellation getCons(Satellite sat) throws Exception {
-        for(Constellation cons : constellations){
-            for(Satellite satCons : cons.getSatellites()){
-                if(satCons.equals(sat)) return cons;
+    private void addIntervals(AccessTable.Builder builder, int src, int tgt, TimeIntervalArray access, double offset){
+        double t_0 = 0.0;
+        boolean open = false;
+        for(RiseSetTime time : access.getRiseSetTimes()){
+            if(time.isRise()){
+                t_0 = time.getTime();
+                open = true;
+            }
+            else{
+                builder.add(src, tgt, offset + t_0, offset + time.getTime());
+                open = false;
             }
         }
 
-        throw new Exception("Satellite " + sat.getName() + " not found in constellation");
+        // accesses still open at the end of the analysis last until the end of the simulation
+        if(open) builder.add(src, tgt, offset + t_0, getDuration());
     }
 
-//    private GndStation getGndStation(String name) throws Exception{
-//        for(Satellite sat : this.stationAssignment.keySet()){
-//            for(GndStation gndStation : this.stationAssignment.get(sat)){
-//                if(gndStation.getName().equals(name)) return gndStation;
-//            }
-//        }
-//
-//        throw new Exception("Ground Station " + name + " in pre-calculated coverage does not match chosen network");
-//    }
+    /**
+     * Copies pre-calculated accesses from a binary access file into access table builders. Interned ids in the file
+     * are resolved once to this scenario's ids, after which every row is copied directly.
+     * @param file binary access file in the coverage data directory
+     * @param builder builder of the access table being loaded
+     * @param end end of the time span to be loaded in seconds from the simulation start date. Windows open at this
+     *            time are cut short.
+     * @throws Exception if the file does not match the chosen constellation, scenario or ground station network
+     */
+    private void copyCrossLinkAccesses(AccessFile file, AccessTable.Builder builder, double end) throws Exception {
+        copyRows(file, AccessFile.CL, resolveRows(file, AccessFile.CL), builder, Double.NEGATIVE_INFINITY, end, end);
+    }
+
+    private void copyGroundPointAccesses(AccessFile file, AccessTable.Builder builder, double end) throws Exception {
+        copyRows(file, AccessFile.GP, resolveRows(file, AccessFile.GP), builder, Double.NEGATIVE_INFINITY, end, end);
+    }
+
+    private void copyGroundPointInstrumentAccesses(AccessFile file, AccessTable.Builder builder, double end) throws Exception {
+        copyRows(file, AccessFile.GP_INST, resolveRows(file, AccessFile.GP_INST), builder,
+                Double.NEGATIVE_INFINITY, end, end);
+    }
+
+    private void copyGroundStationAccesses(AccessFile file, AccessTable.Builder builder, double end) throws Exception {
+        copyRows(file, AccessFile.GS, resolveRows(file, AccessFile.GS), builder, Double.NEGATIVE_INFINITY, end, end);
+    }
 
     /**
-     * Saves ground point and ground station access information for future simulations of the same constellation
+     * Resolves the source and target of every row of an access file section to the ids of this scenario
+     * @return {source ids, target ids}, indexed by row
+     * @throws Exception if the file does not match the chosen constellation, scenario or ground station network
      */
-    private void printAccesses(){
-        printCrossLinks();
-        printGPAccesses();
-        printGPInstAccesses();
-        printGSAccesses();
+    private int[][] resolveRows(AccessFile file, int section) throws Exception {
+        int nRows = file.numRows(section);
+        int[][] rows = new int[2][nRows];
+        int[] sats = resolveSats(file);
+
+        switch (section){
+            case AccessFile.CL:
+                for(int row = 0; row < nRows; row++){
+                    rows[0][row] = sats[file.getKey(section, row, 0)];
+                    rows[1][row] = sats[file.getKey(section, row, 1)];
+                }
+                break;
+            case AccessFile.GP: {
+                int[] points = resolvePoints(file);
+                for(int row = 0; row < nRows; row++){
+                    rows[0][row] = sats[file.getKey(section, row, 0)];
+                    rows[1][row] = points[file.getKey(section, row, 1)];
+                }
+                break;
+            }
+            case AccessFile.GP_INST: {
+                int[] points = resolvePoints(file);
+                Instrument[] instruments = resolveInstruments(file);
+                for(int row = 0; row < nRows; row++){
+                    Satellite sat = satList.get(sats[file.getKey(section, row, 0)]);
+                    Instrument inst = instruments[file.getKey(section, row, 1)];
+
+                    int sensor = getSensorId(sat, inst);
+                    if(sensor < 0) throw new Exception("Instrument " + inst.getName() + " of satellite " + sat.getName()
+                            + " in pre-calculated coverage does not match chosen constellation");
+                    rows[0][row] = sensor;
+                    rows[1][row] = points[file.getKey(section, row, 2)];
+                }
+                break;
+            }
+            case AccessFile.GS: {
+                int[] stations = resolveGndStations(file);
+                for(int row = 0; row < nRows; row++){
+                    rows[0][row] = sats[file.getKey(section, row, 0)];
+                    rows[1][row] = stations[file.getKey(section, row, 1)];
+                }
+                break;
+            }
+            default:
+                throw new InputMismatchException("Access section " + section + " not supported");
+        }
+        return rows;
     }
 
     /**
-     * Prints out cross links to coverage data directory
+     * Copies the access windows of an access file section that overlap the interval [from, to] into an access table
+     * builder. Windows within each row are sorted, so the first one is found with a binary search.
+     * @param rows source and target ids of each row, as given by resolveRows()
+     * @param end end of the time span covered by the simulation. Windows open at this time are cut short.
      */
-    private void printCrossLinks(){
-        FileWriter fileWriter = null;
-        PrintWriter printWriter;
-        String outAddress = directoryAddress + "/" + "CrossLinks.csv";
+    private void copyRows(AccessFile file, int section, int[][] rows, AccessTable.Builder builder,
+                          double from, double to, double end){
+        for(int row = 0; row < rows[0].length; row++){
+            int lo = file.rowStart(section, row);
+            int hi = file.rowEnd(section, row);
+
+            // first window that sets at or after the start of the interval
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(file.getSet(section, mid) < from) lo = mid + 1;
+                else hi = mid;
+            }
 
-        try{
-            fileWriter = new FileWriter(outAddress, false);
-        } catch (IOException e) {
-            e.printStackTrace();
+            for(int i = lo; i < file.rowEnd(section, row); i++){
+                double rise = file.getRise(section, i);
+                if(rise >= end || rise > to) break;
+                builder.add(rows[0][row], rows[1][row], rise, Math.min(file.getSet(section, i), end));
+            }
         }
-        printWriter = new PrintWriter(fileWriter);
-
-        for(Constellation cons : accessesCL.keySet()){
-            for(Satellite sat : accessesCL.get(cons).keySet()){
-                for(Satellite target : accessesCL.get(cons).get(sat).keySet()){
-                    TimeIntervalArray access = accessesCL.get(cons).get(sat).get(target);
-                    double t_0 = 0.0;
-                    double t_f = 0.0;
-                    for(RiseSetTime time : access.getRiseSetTimes()){
-                        if(time.isRise()){
-                            t_0 = time.getTime();
-                        }
-                        else{
-                            t_f = time.getTime();
-
-                            String accessStr = genCLAccessStr(sat, target, t_0, t_f);
-                            printWriter.print(accessStr);
-                        }
-                    }
+    }
+
+    private void copyTable(AccessTable table, AccessTable.Builder builder){
+        for(int src = 0; src < table.numSources(); src++){
+            for(int pair = table.pairsStart(src); pair < table.pairsEnd(src); pair++){
+                for(int i = table.intervalsStart(pair); i < table.intervalsEnd(pair); i++){
+                    builder.add(src, table.getTarget(pair), table.getRise(i), table.getSet(i));
                 }
             }
         }
-
-        printWriter.close();
     }
 
     /**
-     * Generates a string containing information about an access between two sats
-     * @param sat Observing satellite
-     * @param target Target Satellite
-     * @param t_0 Start epoch of access
-     * @param t_f End epoch of access
-     * @return string of the format "<sat name>, <target name>, <start epoch>, <end epoch>"
+     * Resolve interned ids of an access file to the ids of this scenario
      */
-    private String genCLAccessStr(Satellite sat, Satellite target, double t_0, double t_f){
-        StringBuilder out = new StringBuilder();
-        out.append(sat.getName() + "," + target.getName() + "," + t_0 + "," + t_f + "\n");
-        return out.toString();
+    private int[] resolveSats(AccessFile file) throws Exception {
+        HashMap<String, Integer> satsByName = new HashMap<>();
+        for(Satellite sat : satList) satsByName.put(sat.getName(), satIds.get(sat));
+
+        int[] sats = new int[file.numSats()];
+        for(int i = 0; i < sats.length; i++){
+            Integer id = satsByName.get(file.getSatName(i));
+            if(id == null) throw new Exception("Satellite " + file.getSatName(i)
+                    + " in pre-calculated coverage does not match chosen constellation");
+            sats[i] = id;
+        }
+        return sats;
+    }
+
+    private int[] resolvePoints(AccessFile file) throws Exception {
+        HashMap<String, HashMap<String, Integer>> pointsByName = new HashMap<>();
+        for(int id = 0; id < pointList.size(); id++){
+            pointsByName.computeIfAbsent(pointCovDefs.get(id).getName(), k -> new HashMap<>())
+                    .put(pointList.get(id).getName(), id);
+        }
+
+        int[] points = new int[file.numPoints()];
+        for(int i = 0; i < points.length; i++){
+            String covDefName = file.getCovDefName(file.getPointCovDef(i));
+            if(!pointsByName.containsKey(covDefName)) throw new Exception("Coverage Definition " + covDefName
+                    + " in pre-calculated coverage does not match chosen definition");
+
+            Integer id = pointsByName.get(covDefName).get(file.getPointName(i));
+            if(id == null) throw new Exception("Coverage Point " + file.getPointName(i) + " in "
+                    + covDefName + " coverage definition in pre-calculated coverage does not match chosen definition");
+            points[i] = id;
+        }
+        return points;
+    }
+
+    private Instrument[] resolveInstruments(AccessFile file) throws Exception {
+        Instrument[] instruments = new Instrument[file.numInstruments()];
+        for(int i = 0; i < instruments.length; i++){
+            instruments[i] = instrumentList.get(file.getInstrumentName(i));
+            if(instruments[i] == null) throw new Exception("Instrument " + file.getInstrumentName(i)
+                    + " in pre-calculated coverage does not match chosen constellation");
+        }
+        return instruments;
+    }
+
+    private int[] resolveGndStations(AccessFile file) throws Exception {
+        HashMap<String, Integer> stationsByName = new HashMap<>();
+        for(GndStation gnd : stationList) stationsByName.put(gnd.getBaseFrame().getName(), stationIds.get(gnd));
+
+        int[] stations = new int[file.numStations()];
+        for(int i = 0; i < stations.length; i++){
+            Integer id = stationsByName.get(file.getStationName(i));
+            if(id == null) throw new Exception("Ground Station Network" + file.getStationName(i)
+                    + " in pre-calculated coverage does not match chosen network");
+            stations[i] = id;
+        }
+        return stations;
     }
 
     /**
-     * Prints out cross links to coverage data directory
+     * Saves access information for future simulations of the same constellation
+     * @param outFile binary access file to be written
+     * @param duration length of the time span covered by the accesses in seconds
+     * @param cl cross link accesses, or null if not to be saved
+     * @param gp ground point accesses, or null if not to be saved
+     * @param gpInst ground point accesses per instrument, or null if not to be saved
+     * @param gs ground station accesses, or null if not to be saved
      */
-    private void printGPAccesses(){
-        FileWriter fileWriter = null;
-        PrintWriter printWriter;
-        String outAddress = directoryAddress + "/" + "GPCoverage.csv";
+    private void printAccesses(File outFile, double duration, AccessTable cl, AccessTable gp, AccessTable gpInst,
+                               AccessTable gs){
+        AccessFile file = new AccessFile();
+        file.setDuration(duration);
+
+        if(cl != null) {
+            for (int sat = 0; sat < cl.numSources(); sat++) {
+                for (int pair = cl.pairsStart(sat); pair < cl.pairsEnd(sat); pair++) {
+                    Satellite target = satList.get(cl.getTarget(pair));
+                    file.addRow(AccessFile.CL, cl, pair,
+                            file.internSat(satList.get(sat).getName()), file.internSat(target.getName()));
+                }
+            }
+        }
 
-        try{
-            fileWriter = new FileWriter(outAddress, false);
-        } catch (IOException e) {
-            e.printStackTrace();
+        if(gp != null) {
+            for (int sat = 0; sat < gp.numSources(); sat++) {
+                for (int pair = gp.pairsStart(sat); pair < gp.pairsEnd(sat); pair++) {
+                    file.addRow(AccessFile.GP, gp, pair,
+                            file.internSat(satList.get(sat).getName()), internPoint(file, gp.getTarget(pair)));
+                }
+            }
         }
-        printWriter = new PrintWriter(fileWriter);
-
-        for(CoverageDefinition covDef : accessesGP.keySet()){
-            for(Satellite sat : accessesGP.get(covDef).keySet()){
-                for(TopocentricFrame target : accessesGP.get(covDef).get(sat).keySet()){
-                    TimeIntervalArray access = accessesGP.get(covDef).get(sat).get(target);
-                    double t_0 = 0.0;
-                    double t_f = 0.0;
-
-                    for(RiseSetTime time : access.getRiseSetTimes()){
-                        if(time.isRise()){
-                            t_0 = time.getTime();
-                        }
-                        else{
-                            t_f = time.getTime();
-
-                            String accessStr = genGPAccessStr(covDef, sat, target, t_0, t_f);
-                            printWriter.print(accessStr);
-                        }
-                    }
+
+        if(gpInst != null) {
+            for (int sensor = 0; sensor < gpInst.numSources(); sensor++) {
+                for (int pair = gpInst.pairsStart(sensor); pair < gpInst.pairsEnd(sensor); pair++) {
+                    file.addRow(AccessFile.GP_INST, gpInst, pair,
+                            file.internSat(sensorSats.get(sensor).getName()),
+                            file.internInstrument(sensorInstruments.get(sensor).getName()),
+                            internPoint(file, gpInst.getTarget(pair)));
                 }
             }
         }
 
-        printWriter.close();
+        if(gs != null) {
+            for (int sat = 0; sat < gs.numSources(); sat++) {
+                for (int pair = gs.pairsStart(sat); pair < gs.pairsEnd(sat); pair++) {
+                    GndStation target = stationList.get(gs.getTarget(pair));
+                    file.addRow(AccessFile.GS, gs, pair,
+                            file.internSat(satList.get(sat).getName()), file.internStation(target.getBaseFrame().getName()));
+                }
+            }
+        }
+
+        try{
+            file.write(outFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
-    /**
-     * Generates a string containing information about an access between two sats
-     * @param covDef Coverage definition
-     * @param sat Observing satellite
-     * @param target Target ground point
-     * @param t_0 Start epoch of access
-     * @param t_f End epoch of access
-     * @return string of the format "<covdef name>, <sat name>, <target name>, <start epoch>, <end epoch>"
-     */
-    private String genGPAccessStr(CoverageDefinition covDef, Satellite sat, TopocentricFrame target, double t_0, double t_f){
-        StringBuilder out = new StringBuilder();
-        out.append(covDef.getName() + "," + sat.getName() + "," + target.getName() + "," + t_0 + "," + t_f + "\n");
-        return out.toString();
+    private int internPoint(AccessFile file, int point){
+        int covDefId = file.internCovDef(pointCovDefs.get(point).getName());
+        return file.internPoint(covDefId, pointList.get(point).getName());
     }
 
     /**
-     * Prints out cross links to coverage data directory
+     * Calculates cross-links between every pair of satellites. Each pair is stored in its own shard covering the
+     * longest time span calculated so far; pairs without a shard, or whose shard ends before the simulation does, are
+     * calculated over the missing tail of the simulation's time span as independent units of work. Pairs are
+     * evaluated with Orekit's event analysis in their own scenario, or sampled on the scenario's shared ephemerides
+     * if the input file selects the ephemeris cross link model.
+     * @param engine coverage engine on which units are run
+     * @throws Exception if any unit fails
      */
-    private void printGPInstAccesses(){
-        FileWriter fileWriter = null;
-        PrintWriter printWriter;
-        String outAddress = directoryAddress + "/" + "GPInstrumentCoverage.csv";
+    private void crossLinkCalc(CoverageEngine engine) throws Exception {
+        HashMap<Satellite, Constellation> satConstellation = getSatConstellations();
+        AccessTable.Builder builder = new AccessTable.Builder(numSats(), numSats());
+        double duration = getDuration();
+
+        ArrayList<int[]> unitPairs = new ArrayList<>();
+        ArrayList<File> unitShards = new ArrayList<>();
+        ArrayList<AccessFile> unitCached = new ArrayList<>();
+        ArrayList<Double> unitStarts = new ArrayList<>();
+        for(int i = 0; i < satList.size(); i++){
+            for(int j = i + 1; j < satList.size(); j++){
+                Satellite sat = satList.get(i);
+                Satellite target = satList.get(j);
+
+                // load pair from its shard if it was previously calculated over the simulation's time span
+                File shard = new File(cache.lease(cache.getShard(crossLinkShardKey(sat, target))),
+                        AccessFile.FILE_NAME);
+                AccessFile cached = shard.exists() ? AccessFile.read(shard) : null;
+                if(cached != null && cached.getDuration() >= duration){
+                    copyCrossLinkAccesses(cached, builder, duration);
+                    continue;
+                }
 
-        try{
-            fileWriter = new FileWriter(outAddress, false);
-        } catch (IOException e) {
-            e.printStackTrace();
+                // else only calculate the time span not yet covered by the shard
+                unitPairs.add(new int[]{satIds.get(sat), satIds.get(target)});
+                unitShards.add(shard);
+                unitCached.add(cached);
+                unitStarts.add(cached == null ? 0.0 : cached.getDuration());
+            }
         }
-        printWriter = new PrintWriter(fileWriter);
-
-        for(CoverageDefinition covDef : accessesGPInst.keySet()){
-            for(Satellite sat : accessesGPInst.get(covDef).keySet()){
-                for(Instrument inst : accessesGPInst.get(covDef).get(sat).keySet()) {
-                    for (TopocentricFrame target : accessesGPInst.get(covDef).get(sat).get(inst).keySet()) {
-                        TimeIntervalArray access = accessesGPInst.get(covDef).get(sat).get(inst).get(target);
-                        double t_0 = 0.0;
-                        double t_f = 0.0;
-
-                        for (RiseSetTime time : access.getRiseSetTimes()) {
-                            if (time.isRise()) {
-                                t_0 = time.getTime();
-                            } else {
-                                t_f = time.getTime();
-
-                                String accessStr = genGPInstAccessStr(covDef, sat, target, inst, t_0, t_f);
-                                printWriter.print(accessStr);
-                            }
-                        }
-                    }
-                }
+
+        // stitch new results to their shards, save them, and merge results in unit order
+        if(!unitPairs.isEmpty()) {
+            boolean sampled = useSampledCrossLinks();
+            if(sampled) ephemerisCalc();
+
+            ArrayList<CoverageEngine.Unit<AccessTable>> units = new ArrayList<>(unitPairs.size());
+            for (int i = 0; i < unitPairs.size(); i++) {
+                int sat = unitPairs.get(i)[0];
+                int target = unitPairs.get(i)[1];
+                double tailStart = unitStarts.get(i);
+                String name = satList.get(sat).getName() + "-" + satList.get(target).getName();
+                if(sampled) units.add(CoverageEngine.Unit.of(name, () -> sampledCrossLinks(sat, target, tailStart)));
+                else units.add(CoverageEngine.Unit.of(name,
+                        () -> orekitCrossLinks(sat, target, satConstellation, tailStart)));
+            }
+
+            ArrayList<AccessTable> results = engine.run("Cross-links", units);
+            for (int i = 0; i < results.size(); i++) {
+                double tailStart = unitStarts.get(i);
+                AccessTable.Builder pairBuilder = new AccessTable.Builder(numSats(), numSats()).joinAt(tailStart);
+                if(unitCached.get(i) != null) copyCrossLinkAccesses(unitCached.get(i), pairBuilder, tailStart);
+                copyTable(results.get(i), pairBuilder);
+                AccessTable pairAccesses = pairBuilder.build();
+
+                printAccesses(unitShards.get(i), duration, pairAccesses, null, null, null);
+                copyTable(pairAccesses, builder);
             }
         }
+        Logger.getGlobal().fine("Cross-links: " + unitPairs.size() + " of " + (numSats()*(numSats()-1)/2)
+                + " satellite pairs recalculated");
 
-        printWriter.close();
+        this.accessesCL = builder.build();
     }
 
     /**
-     * Generates a string containing information about an access between two sats
-     * @param covDef Coverage definition
-     * @param sat Observing satellite
-     * @param target Target ground point
-     * @param inst Intrument used to make said measurement
-     * @param t_0 Start epoch of access
-     * @param t_f End epoch of access
-     * @return string of the format "<covdef name>, <sat name>, <target name>, <instrument name>, <start epoch>, <end epoch>"
+     * Calculates the cross links of a pair of satellites over the tail of the simulation with Orekit's event
+     * analysis, in a scenario of their own that keeps the constellations the two satellites belong to
+     * @param tailStart start of the tail in seconds from the simulation start date
+     * @return accesses of the pair in both directions
      */
-    private String genGPInstAccessStr(CoverageDefinition covDef, Satellite sat, TopocentricFrame target, Instrument inst, double t_0, double t_f){
-        StringBuilder out = new StringBuilder();
-        out.append(covDef.getName() + "," + sat.getName() + "," + target.getName()
-                + "," + inst.getName() + "," + t_0 + "," + t_f + "\n");
-        return out.toString();
+    private AccessTable orekitCrossLinks(int satId, int targetId, HashMap<Satellite, Constellation> satConstellation,
+                                         double tailStart) throws Exception {
+        Satellite sat = satList.get(satId);
+        Satellite target = satList.get(targetId);
+        Constellation satCons = satConstellation.get(sat);
+        Constellation targetCons = satConstellation.get(target);
+
+        ArrayList<Constellation> pair = new ArrayList<>();
+        if(satCons == targetCons){
+            pair.add(new Constellation(satCons.getName(), Arrays.asList(sat, target)));
+        }
+        else{
+            pair.add(new Constellation(satCons.getName(), Collections.singletonList(sat)));
+            pair.add(new Constellation(targetCons.getName(), Collections.singletonList(target)));
+        }
+
+        AbsoluteDate tailDate = startDate.shiftedBy(tailStart);
+        CrossLinkEventAnalysis crossLinkEvents = new CrossLinkEventAnalysis(tailDate, endDate,
+                inertialFrame, pair, pfJ2, true, false);
+        runScenario("CrossLinks_" + sat.getName() + "_" + target.getName(), crossLinkEvents,
+                new HashSet<>(), tailDate);
+
+        AccessTable.Builder builder = new AccessTable.Builder(numSats(), numSats());
+        addCrossLinks(builder, crossLinkEvents.getAllAccesses(), tailStart);
+        return builder.build();
     }
 
     /**
-     * Prints out cross links to coverage data directory
+     * Samples line of sight between a pair of satellites over the tail of the simulation on the scenario's
+     * ephemerides. Windows shorter than the ephemeris step may be missed.
+     * @param tailStart start of the tail in seconds from the simulation start date
+     * @return accesses of the pair in both directions
      */
-    private void printGSAccesses(){
-        FileWriter fileWriter = null;
-        PrintWriter printWriter;
-        String outAddress = directoryAddress + "/" + "GSCoverage.csv";
+    private AccessTable sampledCrossLinks(int satId, int targetId, double tailStart){
+        double[] windows = ephemeris.lineOfSight(satId, targetId, tailStart, getDuration(),
+                Constants.WGS84_EARTH_EQUATORIAL_RADIUS);
+
+        AccessTable.Builder builder = new AccessTable.Builder(numSats(), numSats());
+        for (int k = 0; k < windows.length; k += 2) {
+            builder.add(satId, targetId, windows[k], windows[k + 1]);
+            builder.add(targetId, satId, windows[k], windows[k + 1]);
+        }
+        return builder.build();
+    }
 
-        try{
-            fileWriter = new FileWriter(outAddress, false);
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Calculates ground point and ground station accesses. Accesses of each satellite are stored in their own shard
+     * covering the longest time span calculated so far. For satellites without a shard, or whose shard ends before
+     * the simulation does, the missing time span is split into units of one satellite and a chunk of at most
+     * COVERAGE_POINTS_PER_UNIT ground points of one coverage definition. Ground points outside of the latitude band
+     * reachable by a satellite's instruments are never handed to its units. Ground station accesses of each
+     * satellite are calculated within its first unit.
+     * @param engine coverage engine on which units are run
+     * @throws Exception if any unit fails
+     */
+    private void fieldOfViewCalc(CoverageEngine engine) throws Exception {
+        // group ground points by coverage definition in id order
+        LinkedHashMap<CoverageDefinition, ArrayList<CoveragePoint>> covDefPoints = new LinkedHashMap<>();
+        for(int pt = 0; pt < numPoints(); pt++){
+            covDefPoints.computeIfAbsent(pointCovDefs.get(pt), c -> new ArrayList<>()).add(pointList.get(pt));
         }
-        printWriter = new PrintWriter(fileWriter);
 
-        for(Satellite sat : accessesGS.keySet()){
-            for (GndStation target : accessesGS.get(sat).keySet()) {
-                TimeIntervalArray access = accessesGS.get(sat).get(target);
-                double t_0 = 0.0;
-                double t_f = 0.0;
+        HashMap<Satellite, Constellation> satConstellation = getSatConstellations();
+        AccessTable.Builder gpBuilder = new AccessTable.Builder(numSats(), numPoints());
+        AccessTable.Builder gpInstBuilder = new AccessTable.Builder(numSensors(), numPoints());
+        AccessTable.Builder gsBuilder = new AccessTable.Builder(numSats(), numStations());
+        double duration = getDuration();
+
+        ArrayList<CoverageEngine.Unit<FieldOfViewAndGndStationEventAnalysis>> units = new ArrayList<>();
+        ArrayList<Satellite> unitSats = new ArrayList<>();
+        LinkedHashMap<Satellite, File> satShards = new LinkedHashMap<>();
+        HashMap<Satellite, AccessFile> satCached = new HashMap<>();
+        HashMap<Satellite, Double> satStarts = new HashMap<>();
+        for(Satellite sat : satList){
+            // load satellite from its shard if it was previously calculated over the simulation's time span
+            File shard = new File(cache.lease(cache.getShard(fieldOfViewShardKey(sat))), AccessFile.FILE_NAME);
+            AccessFile cached = shard.exists() ? AccessFile.read(shard) : null;
+            if(cached != null && cached.getDuration() >= duration){
+                copyGroundPointAccesses(cached, gpBuilder, duration);
+                copyGroundPointInstrumentAccesses(cached, gpInstBuilder, duration);
+                copyGroundStationAccesses(cached, gsBuilder, duration);
+                continue;
+            }
 
-                for (RiseSetTime time : access.getRiseSetTimes()) {
-                    if (time.isRise()) {
-                        t_0 = time.getTime();
-                    } else {
-                        t_f = time.getTime();
+            // else only calculate the time span not yet covered by the shard
+            double tailStart = cached == null ? 0.0 : cached.getDuration();
+            AbsoluteDate tailDate = startDate.shiftedBy(tailStart);
+            satShards.put(sat, shard);
+            satCached.put(sat, cached);
+            satStarts.put(sat, tailStart);
+
+            // only hand points within the satellite's reachable latitude band to the event detectors
+            double maxLatitude = maxVisibleLatitude(sat);
+            LinkedHashMap<CoverageDefinition, ArrayList<CoveragePoint>> visiblePoints = new LinkedHashMap<>();
+            int nVisible = 0;
+            for(CoverageDefinition covDef : covDefPoints.keySet()){
+                ArrayList<CoveragePoint> points = new ArrayList<>();
+                for(CoveragePoint pt : covDefPoints.get(covDef)){
+                    if(FastMath.abs(pt.getPoint().getLatitude()) <= maxLatitude) points.add(pt);
+                }
+                visiblePoints.put(covDef, points);
+                nVisible += points.size();
+            }
+            Logger.getGlobal().finer("Satellite " + sat.getName() + ": " + nVisible + " of " + numPoints()
+                    + " ground points within reachable latitude band");
+
+            Constellation satCons = satConstellation.get(sat);
+            if(nVisible == 0){
+                // no visible points or no coverage definitions, a single empty unit still calculates ground
+                // station accesses
+                unitSats.add(sat);
+                units.add(fieldOfViewUnit(sat, satCons, GND_STATION_UNIT, new ArrayList<>(), true, tailDate,
+                        sat.getName() + "-" + GND_STATION_UNIT));
+                continue;
+            }
 
-                        String accessStr = genGSAccessStr(sat, target, t_0, t_f);
-                        printWriter.print(accessStr);
-                    }
+            boolean firstUnit = true;
+            for(CoverageDefinition covDef : visiblePoints.keySet()){
+                ArrayList<CoveragePoint> points = visiblePoints.get(covDef);
+
+                for(int start = 0; start < points.size(); start += COVERAGE_POINTS_PER_UNIT){
+                    List<CoveragePoint> chunk = points.subList(start, Math.min(start + COVERAGE_POINTS_PER_UNIT, points.size()));
+                    unitSats.add(sat);
+                    units.add(fieldOfViewUnit(sat, satCons, covDef.getName(), chunk, firstUnit, tailDate,
+                            sat.getName() + "-" + covDef.getName() + "[" + start + "]"));
+                    firstUnit = false;
+                }
+            }
+        }
+
+        // stitch new results to their shards, save them, and merge results in unit order
+        if(!units.isEmpty()) {
+            ArrayList<FieldOfViewAndGndStationEventAnalysis> results = engine.run("Field of view accesses", units);
+            for (Satellite sat : satShards.keySet()) {
+                double tailStart = satStarts.get(sat);
+                AccessTable.Builder satGP = new AccessTable.Builder(numSats(), numPoints()).joinAt(tailStart);
+                AccessTable.Builder satGPInst = new AccessTable.Builder(numSensors(), numPoints()).joinAt(tailStart);
+                AccessTable.Builder satGS = new AccessTable.Builder(numSats(), numStations()).joinAt(tailStart);
+
+                AccessFile cached = satCached.get(sat);
+                if (cached != null) {
+                    copyGroundPointAccesses(cached, satGP, tailStart);
+                    copyGroundPointInstrumentAccesses(cached, satGPInst, tailStart);
+                    copyGroundStationAccesses(cached, satGS, tailStart);
                 }
+
+                for (int i = 0; i < results.size(); i++) {
+                    if (unitSats.get(i) != sat) continue;
+
+                    FieldOfViewAndGndStationEventAnalysis fovEvents = results.get(i);
+                    addGroundPointAccesses(satGP, fovEvents.getAllAccesses(), tailStart);
+                    addGroundPointInstrumentAccesses(satGPInst, fovEvents.getAllAccessesInst(), tailStart);
+                    addGroundStationAccesses(satGS, fovEvents.getAllAccessesGS(), tailStart);
+                }
+
+                AccessTable gp = satGP.build();
+                AccessTable gpInst = satGPInst.build();
+                AccessTable gs = satGS.build();
+                printAccesses(satShards.get(sat), duration, null, gp, gpInst, gs);
+                copyTable(gp, gpBuilder);
+                copyTable(gpInst, gpInstBuilder);
+                copyTable(gs, gsBuilder);
             }
         }
+        Logger.getGlobal().fine("Field of view accesses: " + satShards.size() + " of " + numSats()
+                + " satellites recalculated");
 
-        printWriter.close();
+        this.accessesGP = gpBuilder.build();
+        this.accessesGPInst = gpInstBuilder.build();
+        this.accessesGS = gsBuilder.build();
     }
 
     /**
-     * Generates a string containing information about an access between two sats
-     * @param sat Observing satellite
-     * @param target Target ground station
-     * @param t_0 Start epoch of access
-     * @param t_f End epoch of access
-     * @return string of the format "<covdef name>, <sat name>, <target name>, <instrument name>, <start epoch>, <end epoch>"
+     * Creates a unit of work calculating the accesses of a single satellite to a chunk of ground points
+     * @param sat satellite being evaluated
+     * @param satCons constellation the satellite belongs to
+     * @param covDefName name of the coverage definition the ground points belong to
+     * @param chunk ground points to be evaluated
+     * @param calcGS true if the satellite's ground station accesses are also to be calculated
+     * @param start start date of the analysis, which runs until the end of the simulation
+     * @param name name of the unit
      */
-    private String genGSAccessStr(Satellite sat, GndStation target, double t_0, double t_f){
-        StringBuilder out = new StringBuilder();
-        out.append(sat.getName() + "," + target.getBaseFrame().getName() + "," + t_0 + "," + t_f + "\n");
-        return out.toString();
+    private CoverageEngine.Unit<FieldOfViewAndGndStationEventAnalysis> fieldOfViewUnit(Satellite sat,
+            Constellation satCons, String covDefName, List<CoveragePoint> chunk, boolean calcGS,
+            AbsoluteDate start, String name){
+        return CoverageEngine.Unit.of(name, () -> {
+            CoverageDefinition unitCovDef = new CoverageDefinition(covDefName, chunk);
+            unitCovDef.assignConstellation(Collections.singletonList(
+                    new Constellation(satCons.getName(), Collections.singletonList(sat))));
+            HashSet<CoverageDefinition> unitCovDefs = new HashSet<>();
+            unitCovDefs.add(unitCovDef);
+
+            HashMap<Satellite, Set<GndStation>> unitStations = new HashMap<>();
+            if(calcGS && stationAssignment.containsKey(sat)) unitStations.put(sat, stationAssignment.get(sat));
+
+            FieldOfViewAndGndStationEventAnalysis fovEvents = new FieldOfViewAndGndStationEventAnalysis(
+                    start, endDate, inertialFrame, unitCovDefs, unitStations, pfJ2, true, false, true);
+            runScenario("Coverage_" + name, fovEvents, unitCovDefs, start);
+            return fovEvents;
+        });
     }
 
     /**
-     * Calculates accesses and cross-links
-     * @param constellations List of constellations being simulated
-     * @param covDefs List of coverage definitions to be evaluated
-     * @param stationAssignments Assigment of Ground Stations to Satellites
-     * @param startDate Simulation start date
-     * @param endDate Simulation end date
-     * @return
+     * Returns the highest absolute latitude any instrument of a satellite can see. Instruments without a known
+     * field of regard are assumed to see up to the horizon.
+     * @param sat satellite being evaluated
+     * @return maximum visible latitude [rad], or -1 if the satellite carries no instruments
      */
-    private Scenario coverageScenario(ArrayList<Constellation> constellations, HashSet<CoverageDefinition> covDefs,
-                                      HashMap<Satellite, Set<GndStation>> stationAssignments, AbsoluteDate startDate,
-                                      AbsoluteDate endDate){
-        // Initiate Orekit threads
-        OrekitConfig.init(4);
+    private double maxVisibleLatitude(Satellite sat){
+        double lookAngle = -1;
+        for(Instrument ins : sat.getPayload()){
+            double[] fov = instrumentFOVs.get(ins.getName());
+            lookAngle = Math.max(lookAngle, fov == null ? FastMath.PI/2 : VisibilityFilter.maxLookAngle(fov));
+        }
+        if(lookAngle < 0) return -1;
 
-        // Setup logger
-        setLogger();
+        return VisibilityFilter.maxLatitude(sat.getOrbit(), lookAngle, Constants.WGS84_EARTH_EQUATORIAL_RADIUS);
+    }
 
-        // Set event analysis properties
+    /**
+     * @return constellation each satellite belongs to
+     */
+    private HashMap<Satellite, Constellation> getSatConstellations(){
+        HashMap<Satellite, Constellation> satConstellation = new HashMap<>();
+        for(Constellation cons : constellations){
+            for(Satellite sat : cons.getSatellites()) satConstellation.putIfAbsent(sat, cons);
+        }
+        return satConstellation;
+    }
+
+    /**
+     * Propagates a scenario containing a single event analysis
+     * @param name name of the scenario
+     * @param analysis event analysis to be performed
+     * @param unitCovDefs coverage definitions evaluated by the analysis
+     * @param start start date of the analysis, which runs until the end of the simulation
+     * @throws Exception if the scenario fails to complete
+     */
+    private void runScenario(String name, EventAnalysis analysis, HashSet<CoverageDefinition> unitCovDefs,
+                             AbsoluteDate start) throws Exception {
+        // Set event analysis properties. Parallelism is handled by the coverage engine, so each scenario is
+        // propagated on a single thread
         Properties propertiesEventAnalysis = new Properties();
-        propertiesEventAnalysis.setProperty("fov.numThreads", "4");
+        propertiesEventAnalysis.setProperty("fov.numThreads", "1");
         propertiesEventAnalysis.setProperty("fov.saveAccess", "true");
 
-
         //set the analyses
         ArrayList<EventAnalysis> eventAnalyses = new ArrayList<>();
+        eventAnalyses.add(analysis);
         ArrayList<Analysis<?>> analyses = new ArrayList<>();
 
-        CrossLinkEventAnalysis crossLinkEvents = new CrossLinkEventAnalysis(startDate,endDate,inertialFrame,
-                constellations,pfJ2,true,false);
-
-        FieldOfViewAndGndStationEventAnalysis fovEvents = new FieldOfViewAndGndStationEventAnalysis(startDate, endDate,
-                inertialFrame, covDefs, stationAssignment,pfJ2, true, false, true);
-
-        eventAnalyses.add(crossLinkEvents);
-        eventAnalyses.add(fovEvents);
-
-        Scenario scen = new Scenario.Builder(startDate, endDate, utc).
+        Scenario scen = new Scenario.Builder(start, endDate, utc).
                 eventAnalysis(eventAnalyses).analysis(analyses).
-                covDefs(covDefs).name("Coverage_GndStations_and_Crosslinks").properties(propertiesEventAnalysis).
+                covDefs(unitCovDefs).name(name).properties(propertiesEventAnalysis).
                 propagatorFactory(pfKep).build();
-        try {
-            long start1 = System.nanoTime();
-            scen.call();
-            long end1 = System.nanoTime();
-            Logger.getGlobal().finest(String.format("Took %.4f sec", (end1 - start1) / Math.pow(10, 9)));
-
-        } catch (Exception ex) {
-            Logger.getLogger(Dmas.class.getName()).log(Level.SEVERE, null, ex);
-            throw new IllegalStateException("scenario failed to complete.");
-        }
-
-        return scen;
+        scen.call();
     }
 
     /**
@@ -1184,6 +1699,7 @@ public class OrbitData {
 
         NadirSimpleConicalFOV fieldOfRegard = new NadirSimpleConicalFOV(FastMath.toRadians(fov/2), earthShape);
         Instrument ins = new Instrument(name+"_comms", fieldOfRegard, Propagator.DEFAULT_MASS, 1.0);
+        instrumentFOVs.put(ins.getName(), new double[]{0.0, FastMath.toRadians(fov/2), FastMath.toRadians(fov/2)});
         payload.add(ins);
 
         if(!instrumentList.containsKey(ins.getName())){
@@ -1245,6 +1761,7 @@ public class OrbitData {
         double maxLongitude = Math.max( Double.parseDouble(longBounds[0]), Double.parseDouble(longBounds[1]) );
 
         double granularity = Double.parseDouble( column[rowIndexes.get("Granularity [deg]")].getContents() );
+        covDefParameters.put(name, new double[]{granularity, minLatitude, maxLatitude, minLongitude, maxLongitude});
 
         return new CoverageDefinition(name, granularity, minLatitude, maxLatitude, minLongitude, maxLongitude, earthShape, CoverageDefinition.GridStyle.EQUAL_AREA);
     }
@@ -1300,6 +1817,7 @@ public class OrbitData {
         double gainT = Double.parseDouble( row[columnIndexes.get("Gain T [dB]")].getContents() );
         double minElev = FastMath.toRadians( Double.parseDouble( row[columnIndexes.get("Min Elevation [deg]")].getContents() ) );
 
+        stationParameters.put(id, new double[]{lat, lon, minElev});
         TopocentricFrame topo = new TopocentricFrame(earthShape, new GeodeticPoint( lat, lon, 0.0), id);
         HashSet<CommunicationBand> bands = new HashSet<>(); bands.add(CommunicationBand.UHF);
         return new GndStation(topo, new ReceiverAntenna(gainR, bands), new TransmitterAntenna(gainT, bands), minElev);
@@ -1455,47 +1973,47 @@ public class OrbitData {
         AbstractAntenna antenna = loadAntenna(values, parameterIndexes);
 
         if(!nominal) name += "_" + Math.toDegrees( maxRollAngle ) + "_FOR";
-        OffNadirRectangularFOV fieldOfRegard;
+        double offNadir;
+        double crossTrack;
+        double alongTrack;
         switch(scan){
             case "conical":
-                fieldOfRegard = new OffNadirRectangularFOV(0.0,
-                        FastMath.toRadians(fov_ct/2.0 + lookAngle) ,
-                        FastMath .toRadians(fov_at/2.0), 0.0, earthShape);
-
-                return new SAR(name, nominalType, fieldOfRegard, mass, peakPower * dc, freq,
-                        peakPower, dc, pw, prf, bw, nLooks, rb, nominalOps, antenna);
+                offNadir = 0.0;
+                crossTrack = FastMath.toRadians(fov_ct/2.0 + lookAngle);
+                alongTrack = FastMath.toRadians(fov_at/2.0);
+                break;
 
             case "side":
+                offNadir = FastMath.toRadians(lookAngle);
+                alongTrack = FastMath.toRadians(fov_at / 2.0);
                 if(nominal) {
-                    fieldOfRegard = new OffNadirRectangularFOV(FastMath.toRadians(lookAngle),
-                            FastMath.toRadians((fov_ct + scanningAngle) / 2.0 ),
-                            FastMath.toRadians(fov_at / 2.0), 0.0, earthShape);
+                    crossTrack = FastMath.toRadians((fov_ct + scanningAngle) / 2.0 );
                 }
                 else{
-                    fieldOfRegard = new OffNadirRectangularFOV(FastMath.toRadians(lookAngle),
-                            maxRollAngle + FastMath.toRadians((fov_ct + scanningAngle) / 2.0 ),
-                            FastMath.toRadians(fov_at / 2.0), 0.0, earthShape);
+                    crossTrack = maxRollAngle + FastMath.toRadians((fov_ct + scanningAngle) / 2.0 );
                 }
-                return new SAR(name, nominalType, fieldOfRegard, mass, peakPower * dc, freq, peakPower, dc, pw, prf, bw,
-                        nLooks, rb, nominalOps, antenna);
+                break;
 
             case "none":
+                offNadir = FastMath.toRadians(lookAngle);
+                alongTrack = FastMath.toRadians(fov_at / 2.0);
                 if(nominal) {
-                    fieldOfRegard = new OffNadirRectangularFOV(FastMath.toRadians(lookAngle ),
-                            FastMath.toRadians((fov_ct) / 2.0 ),
-                            FastMath.toRadians(fov_at / 2.0), 0.0, earthShape);
+                    crossTrack = FastMath.toRadians((fov_ct) / 2.0 );
                 }
                 else{
-                    fieldOfRegard = new OffNadirRectangularFOV(FastMath.toRadians(lookAngle),
-                            FastMath.toRadians(maxRollAngle + (fov_ct) / 2.0 ),
-                            FastMath.toRadians(fov_at / 2.0), 0.0, earthShape);
+                    crossTrack = FastMath.toRadians(maxRollAngle + (fov_ct) / 2.0 );
                 }
-                return new SAR(name, nominalType, fieldOfRegard, mass, peakPower * dc, freq, peakPower, dc, pw, prf, bw,
-                        nLooks, rb, nominalOps, antenna);
+                break;
 
             default:
                 throw new InputMismatchException("Instrument Database input error on instrument " + name + ". " + scan + " scanning type not yet supported");
         }
+
+        OffNadirRectangularFOV fieldOfRegard = new OffNadirRectangularFOV(offNadir, crossTrack, alongTrack, 0.0, earthShape);
+        instrumentFOVs.put(name, new double[]{offNadir, crossTrack, alongTrack});
+
+        return new SAR(name, nominalType, fieldOfRegard, mass, peakPower * dc, freq, peakPower, dc, pw, prf, bw,
+                nLooks, rb, nominalOps, antenna);
     }
 
     private AbstractAntenna loadAntenna(Cell[] values, HashMap<String, Integer> parameterIndexes){
@@ -1514,14 +2032,88 @@ public class OrbitData {
     /**
      * Getters for coverage metrics
      */
-    public HashMap<Constellation, HashMap<Satellite,
-            HashMap<Satellite, TimeIntervalArray>>> getAccessesCL() { return accessesCL; }
-    public HashMap<CoverageDefinition, HashMap<Satellite,
-            HashMap<TopocentricFrame, TimeIntervalArray>>> getAccessesGP() { return accessesGP; }
-    public HashMap<CoverageDefinition, HashMap<Satellite, HashMap<Instrument,
-            HashMap<TopocentricFrame, TimeIntervalArray>>>> getAccessesGPIns() { return accessesGPInst; }
-    public HashMap<Satellite,
-            HashMap<GndStation, TimeIntervalArray>> getAccessesGS() { return accessesGS; }
+    public AccessTable getAccessesCL() { return getTable(AccessFile.CL); }
+    public AccessTable getAccessesGP() { return getTable(AccessFile.GP); }
+    public AccessTable getAccessesGPIns() { return getTable(AccessFile.GP_INST); }
+    public AccessTable getAccessesGS() { return getTable(AccessFile.GS); }
+
+    /**
+     * Returns the accesses of a section over the whole simulation span. When the access files are mapped, the table
+     * is copied out of them on first use and kept, so heap use is no longer bounded by the access window once these
+     * are called. Simulations read their accesses through an AccessWindow instead, and the statistics of this class
+     * read the mapped files one span at a time.
+     */
+    private synchronized AccessTable getTable(int section){
+        if(mappedSections == null) return loadedTable(section);
+        if(fullSpanTables[section] == null)
+            fullSpanTables[section] = loadSection(section, Double.NEGATIVE_INFINITY, getDuration());
+        return fullSpanTables[section];
+    }
+
+    /**
+     * Splits the simulation into the spans in which statistics over the whole simulation read accesses. Unless the
+     * access files are mapped, all accesses are already in memory and the simulation is a single span. Otherwise,
+     * spans are one access window margin long so that heap use stays bounded by the window size.
+     * @return span boundaries in seconds from the simulation start date, from negative to positive infinity
+     */
+    private double[] statsSpans(){
+        if(mappedSections == null) return new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+
+        int n = Math.max((int) Math.ceil(getDuration() / accessWindow), 1);
+        double[] spans = new double[n + 1];
+        spans[0] = Double.NEGATIVE_INFINITY;
+        for(int k = 1; k < n; k++) spans[k] = k * accessWindow;
+        spans[n] = Double.POSITIVE_INFINITY;
+        return spans;
+    }
+
+    /**
+     * Returns the accesses of a section that overlap a span given by statsSpans(). Accesses that overlap two
+     * consecutive spans are returned with both.
+     */
+    private AccessTable spanTable(int section, double from, double to){
+        return mappedSections == null ? loadedTable(section) : loadSection(section, from, to);
+    }
+
+    /**
+     * Releases the leases this scenario holds on its coverage data entries so that other processes may evict them.
+     * Mapped access files must not be read afterwards.
+     */
+    public void releaseCache(){
+        cache.release();
+    }
+
+    /**
+     * Access provider interface. All accesses of the scenario are available at all times.
+     */
+    @Override
+    public boolean advance(double t){ return false; }
+    @Override
+    public double getWindowEnd(){ return getDuration(); }
+    @Override
+    public double getRefreshTime(){ return Double.POSITIVE_INFINITY; }
+
+    /**
+     * Getters for ids of access table sources and targets. Return -1 if the object is not part of this scenario
+     */
+    public int getSatId(Satellite sat){ return satIds.getOrDefault(sat, -1); }
+    public int getPointId(TopocentricFrame point){ return pointIds.getOrDefault(point, -1); }
+    public int getStationId(GndStation gnd){ return stationIds.getOrDefault(gnd, -1); }
+    public int getSensorId(Satellite sat, Instrument ins){
+        HashMap<Instrument, Integer> satSensors = sensorIds.get(sat);
+        if(satSensors == null) return -1;
+        return satSensors.getOrDefault(ins, -1);
+    }
+    public Satellite getSat(int id){ return satList.get(id); }
+    public CoveragePoint getPoint(int id){ return pointList.get(id); }
+    public CoverageDefinition getPointCovDef(int id){ return pointCovDefs.get(id); }
+    public GndStation getStation(int id){ return stationList.get(id); }
+    public Satellite getSensorSat(int id){ return sensorSats.get(id); }
+    public Instrument getSensorInstrument(int id){ return sensorInstruments.get(id); }
+    public int numSats(){ return satList.size(); }
+    public int numPoints(){ return pointList.size(); }
+    public int numSensors(){ return sensorSats.size(); }
+    public int numStations(){ return stationList.size(); }
 
     /**
      * Getters for simulation constellation, coverage definitions, or ground station assignments
@@ -1571,15 +2163,78 @@ public class OrbitData {
         return statList;
     }
 
+    /**
+     * Lists the start and end times of every cross link, ground point, and ground station access of the scenario.
+     * The list covers the whole simulation and is kept once calculated, so simulations with an access window read
+     * the times of each window from their AccessWindow instead.
+     * @return access start and end times in seconds from the simulation start date, in chronological order
+     */
+    public synchronized double[] accessTimes(){
+        if(accessTimes != null) return accessTimes;
+
+        double[] spans = statsSpans();
+        double[] times = new double[64];
+        int n = 0;
+        for(int section = 0; section < fullSpanTables.length; section++){
+            for(int k = 0; k < spans.length - 1; k++){
+                AccessTable table = spanTable(section, spans[k], spans[k+1]);
+                for(int i = 0; i < table.numIntervals(); i++){
+                    // accesses overlapping two spans are only listed with the span they start in
+                    double rise = table.getRise(i);
+                    if(rise < spans[k] || rise >= spans[k+1]) continue;
+
+                    if(n + 2 > times.length) times = Arrays.copyOf(times, 2*times.length);
+                    times[n++] = rise;
+                    times[n++] = table.getSet(i);
+                }
+            }
+        }
+        times = Arrays.copyOf(times, n);
+        Arrays.sort(times);
+
+        accessTimes = times;
+        return times;
+    }
+
+    /**
+     * Counts the ground point accesses of every sensor over the whole simulation
+     * @return number of accesses indexed by sensor id
+     */
+    public int[] countSensorAccesses(){
+        int[] counts = new int[numSensors()];
+
+        double[] spans = statsSpans();
+        for(int k = 0; k < spans.length - 1; k++){
+            AccessTable table = spanTable(AccessFile.GP_INST, spans[k], spans[k+1]);
+            for(int sensor = 0; sensor < table.numSources(); sensor++){
+                for(int pair = table.pairsStart(sensor); pair < table.pairsEnd(sensor); pair++){
+                    for(int i = table.intervalsStart(pair); i < table.intervalsEnd(pair); i++){
+                        // accesses overlapping two spans are only counted with the span they start in
+                        if(table.getRise(i) >= spans[k] && table.getRise(i) < spans[k+1]) counts[sensor]++;
+                    }
+                }
+            }
+        }
+
+        return counts;
+    }
+
     /**
      * Creates a json object with all coverage statistics for this scenario
      * @return out : JSONObject containing min, max, avg, and standard deviation of revisit times
      */
-    public JSONObject coverageStats(){
+    public synchronized JSONObject coverageStats(){
+        // coverage does not change between runs, so it is only evaluated once
+        if(coverageStats != null) return coverageStats;
+
         JSONObject out = new JSONObject();
         JSONObject revTime = new JSONObject();
 
-        CoverageStats stats = new CoverageStats(this);
+        CoverageStats stats = new CoverageStats(numPoints());
+        double[] spans = statsSpans();
+        for(int k = 0; k < spans.length - 1; k++){
+            stats.add(sensingAccessesByPoint(spanTable(AccessFile.GP, spans[k], spans[k+1])));
+        }
 
         revTime.put("max", stats.getMaxRevTime());
         revTime.put("min", stats.getMinRevTime());
@@ -1589,91 +2244,63 @@ public class OrbitData {
         out.put("revTime", revTime);
         out.put("covPtg", stats.getCoveragePercentage());
 
+        coverageStats = out;
         return out;
     }
 
     /**
      * Returns list of accesses of all ground points to be used in coverage statistics calculations
-     * @return Map of a given ground point to a list of chronologically ordered accesses by all sensing satellites
+     * @return Map of a given ground point to a list of chronologically ordered accesses by all sensing satellites.
+     * Overlapping accesses by different satellites are merged into a single access assigned to the satellite that
+     * first reached the point.
      */
     public HashMap<TopocentricFrame, ArrayList<GPAccess>> orderGPAccesses(){
-        HashMap<TopocentricFrame, ArrayList<GPAccess>> unordered = new HashMap<>();
         HashMap<TopocentricFrame, ArrayList<GPAccess>> ordered = new HashMap<>();
+        AccessTable byPoint = sensingAccessesByPoint();
 
-        // find all accesses, might be out of order
-        for(CoverageDefinition covDef : accessesGP.keySet()){
-            for(Satellite sat : accessesGP.get(covDef).keySet()){
-                if(this.isCommsSat(sat)) continue;
+        for(int pointId = 0; pointId < byPoint.numSources(); pointId++){
+            if(byPoint.pairsStart(pointId) == byPoint.pairsEnd(pointId)) continue;
 
-                for(TopocentricFrame point : accessesGP.get(covDef).get(sat).keySet()){
-                    unordered.put(point, new ArrayList<>(accessesGP.get(covDef).get(sat).get(point).numIntervals()));
+            TopocentricFrame point = pointList.get(pointId);
+            CoverageDefinition covDef = pointCovDefs.get(pointId);
+            Intervals coverage = byPoint.union(pointId);
 
-                    double t_0 = -1.0;
-                    double t_f;
-
-                    for(RiseSetTime setTime : accessesGP.get(covDef).get(sat).get(point)){
-                        if(setTime.isRise()) {
-                            t_0 = setTime.getTime();
-                        }
-                        else {
-                            t_f = setTime.getTime();
-
-                            AbsoluteDate startDate = this.getStartDate().shiftedBy(t_0);
-                            AbsoluteDate endDate = this.getStartDate().shiftedBy(t_f);
-
-                            unordered.get(point).add(new GPAccess(sat, covDef, point, null, startDate, endDate));
-                        }
-                    }
-                }
+            ArrayList<GPAccess> accesses = new ArrayList<>(coverage.size());
+            for(int k = 0; k < coverage.size(); k++){
+                int satId = byPoint.getTarget( byPoint.getPairOfInterval( coverage.getSource(k) ) );
+                accesses.add(new GPAccess(satList.get(satId), covDef, point, null, this.getStartDate(),
+                        coverage.getStart(k), coverage.getEnd(k)));
             }
+            ordered.put(point, accesses);
         }
 
-        // sort accesses chronologically
-        for(TopocentricFrame point : unordered.keySet()) {
-            ordered.put(point, new ArrayList<>());
+        return ordered;
+    }
+
+    /**
+     * Transposes the ground point accesses of all sensing satellites into a table indexed by (point id, sat id), so
+     * that every access of a ground point is stored in one contiguous range
+     * @return access table with ground points as sources and satellites as targets
+     */
+    public AccessTable sensingAccessesByPoint(){
+        return sensingAccessesByPoint(getAccessesGP());
+    }
 
-            for (GPAccess acc : unordered.get(point)) {
-                if (ordered.size() == 0) {
-                    ordered.get(point).add(acc);
-                    continue;
-                }
+    private AccessTable sensingAccessesByPoint(AccessTable accessesGP){
+        AccessTable.Builder builder = new AccessTable.Builder(numPoints(), numSats());
 
-                boolean skip = false;
-                int i = 0;
-                for (GPAccess accOrd : ordered.get(point)) {
+        for(int satId = 0; satId < accessesGP.numSources(); satId++){
+            if(this.isCommsSat(satList.get(satId))) continue;
 
-                    if(acc.getEndDate().compareTo(accOrd.getStartDate()) < 0){
-                        break;
-                    }
-                    else if(acc.getStartDate().compareTo(accOrd.getEndDate()) > 0){
-                        i++;
-                        continue;
-                    }
-                    else if(acc.getStartDate().compareTo(accOrd.getStartDate()) < 0){
-                        accOrd.setStartDate(acc.getStartDate());
-
-                        if(acc.getEndDate().compareTo(accOrd.getEndDate()) > 0){
-                            accOrd.setEndDate(acc.getEndDate());
-                        }
-                        skip = true;
-                        break;
-                    }
-                    else if(acc.getEndDate().compareTo(accOrd.getEndDate()) < 0){
-                        skip = true;
-                        break;
-                    }
-                    else{
-                        accOrd.setEndDate(acc.getEndDate());
-                        skip = true;
-                        break;
-                    }
+            for(int pair = accessesGP.pairsStart(satId); pair < accessesGP.pairsEnd(satId); pair++){
+                int pointId = accessesGP.getTarget(pair);
+                for(int i = accessesGP.intervalsStart(pair); i < accessesGP.intervalsEnd(pair); i++){
+                    builder.add(pointId, satId, accessesGP.getRise(i), accessesGP.getSet(i));
                 }
-
-                if(!skip) ordered.get(point).add(i, acc);
             }
         }
 
-        return ordered;
+        return builder.build();
     }
 
     /**
@@ -1684,89 +2311,29 @@ public class OrbitData {
      * @throws Exception thrown if constellation for sender sat cannot be determined
      */
     public ArrayList<CLAccess> orderCLAccesses(Satellite sender, Satellite target) throws Exception {
-        Constellation cons = findConstellation(sender);
-        TimeIntervalArray intervalArray = accessesCL.get(cons).get(sender).get(target);
-
-        ArrayList<CLAccess> unordered = new ArrayList<>();
-        double t_0 = -1.0;
-        double t_f;
-        for(RiseSetTime setTime : intervalArray.getRiseSetTimes()){
-            if(setTime.isRise()) {
-                t_0 = setTime.getTime();
-            }
-            else {
-                t_f = setTime.getTime();
-
-                AbsoluteDate startDate = this.getStartDate().shiftedBy(t_0);
-                AbsoluteDate endDate = this.getStartDate().shiftedBy(t_f);
-
-                unordered.add(new CLAccess(sender, target, startDate, endDate) );
-            }
-        }
-
-        ArrayList<CLAccess> ordered = new ArrayList<>();
-
-        for (CLAccess acc : unordered) {
-            if (ordered.size() == 0) {
-                ordered.add(acc);
-                continue;
-            }
-
-            boolean skip = false;
-            int i = 0;
-            for (CLAccess accOrd : ordered) {
-
-                if(acc.getEndDate().compareTo(accOrd.getStartDate()) < 0){
-                    break;
-                }
-                else if(acc.getStartDate().compareTo(accOrd.getEndDate()) > 0){
-                    i++;
-                    continue;
-                }
-                else if(acc.getStartDate().compareTo(accOrd.getStartDate()) < 0){
-                    accOrd.setStartDate(acc.getStartDate());
-
-                    if(acc.getEndDate().compareTo(accOrd.getEndDate()) > 0){
-                        accOrd.setEndDate(acc.getEndDate());
-                    }
-                    skip = true;
-                    break;
-                }
-                else if(acc.getEndDate().compareTo(accOrd.getEndDate()) < 0){
-                    skip = true;
-                    break;
-                }
-                else{
-                    accOrd.setEndDate(acc.getEndDate());
-                    skip = true;
-                    break;
-                }
-            }
-
-            if(!skip) ordered.add(i, acc);
-        }
-
-        return ordered;
+        return orderCLAccesses(sender, target, getAccessesCL());
     }
 
     /**
-     * Returns the constellation that a particular satellite belongs to
-     * @param sat : desired satellite to be checked
-     * @return constellation of sat
-     * @throws Exception thrown if no constellation in the simulation contains the satellite
+     * Returns an array of the cross-link accesses between two satellites stored in a given table
+     * @param accessesCL : cross link accesses, as given by an access provider
      */
-    private Constellation findConstellation(Satellite sat) throws Exception {
-        for(Constellation constellation : constellations){
-            boolean found = true;
-            if(!constellation.getSatellites().contains(sat)){
-                found = false;
-                continue;
-            }
+    public ArrayList<CLAccess> orderCLAccesses(Satellite sender, Satellite target, AccessTable accessesCL)
+            throws Exception {
+        int senderId = getSatId(sender);
+        int targetId = getSatId(target);
+        if(senderId < 0) throw new Exception("Constellation not found for satellite " + sender.toString());
+
+        ArrayList<CLAccess> ordered = new ArrayList<>();
+        int pair = accessesCL.getPair(senderId, targetId);
+        if(pair < 0) return ordered;
 
-            if(found) return constellation;
+        // intervals in access tables are already stored in chronological order
+        for(int i = accessesCL.intervalsStart(pair); i < accessesCL.intervalsEnd(pair); i++){
+            ordered.add(new CLAccess(sender, target, this.getStartDate(), accessesCL.getRise(i), accessesCL.getSet(i)) );
         }
 
-        throw new Exception("Constellation not found for satellite " + sat.toString());
+        return ordered;
     }
 
     /**
@@ -1785,25 +2352,12 @@ public class OrbitData {
     }
 
     public Vector3D propagateSatPos(Satellite sat, AbsoluteDate date){
-        Propagator prop = null;
-        if(Math.abs( sat.getOrbit().getI() ) <= 0.1){
-            // if orbit is equatorial, use Keplerian propagator
-            prop = pfKep.createPropagator(sat.getOrbit(), sat.getGrossMass());
-        }
-        else{
-            // else use J2 propagator
-            prop = pfJ2.createPropagator(sat.getOrbit(), sat.getGrossMass());
-        }
-
-        ArrayList<PVCoordinates> pvSat = new ArrayList<>();
-        ArrayList<GeodeticPoint> gtSat = new ArrayList<>();
+        double t = date.durationFrom(startDate);
+        if(ephemeris != null && ephemeris.contains(t)) return ephemeris.getPosition(satIds.get(sat), t);
 
         try {
-            SpacecraftState stat = prop.propagate(date);
-            pvSat.add(stat.getPVCoordinates(earthFrame));
-
-            Vector3D pos = stat.getPVCoordinates(earthFrame).getPosition();
-            return pos;
+            SpacecraftState stat = createPropagator(sat).propagate(date);
+            return stat.getPVCoordinates(earthFrame).getPosition();
         } catch (OrekitException | NullPointerException e) {
             e.printStackTrace();
         }
@@ -1821,4 +2375,6 @@ public class OrbitData {
     public String getScenarioDir(){ return scenarioDir; }
     public AbsoluteDate getStartDate(){ return startDate; }
     public AbsoluteDate getEndDate() { return endDate; }
+    public double getDuration(){ return endDate.durationFrom(startDate); }
+    public EphemerisStore getEphemeris(){ return ephemeris; }
 }
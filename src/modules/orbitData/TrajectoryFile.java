@@ -0,0 +1,178 @@
+package modules.orbitData;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary storage of a satellite's sampled trajectory. Samples are streamed to disk in fixed size chunks as they
+ * are generated, so the full trajectory never needs to be held in memory.
+ *
+ * File layout (big endian):
+ *   int magic, int version, int flags
+ *   chunks: int nSamples, double[nSamples*COLUMNS] samples
+ *   int 0 end of file marker
+ *
+ * Each sample holds the epoch in seconds from the simulation start date, the position in the Earth frame [m],
+ * and the latitude and longitude of the ground track [deg]. If the COMPRESSED flag is set, everything after the
+ * header is gzip compressed.
+ */
+public class TrajectoryFile {
+    public static final String EXTENSION = "_pv.bin";
+    public static final int MAGIC = 0x444D5456;
+    public static final int VERSION = 1;
+    public static final int COMPRESSED = 1;
+    public static final int COLUMNS = 6;
+    public static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Streams trajectory samples into a file
+     */
+    public static class Writer implements Closeable {
+        private final File file;
+        private final File tmp;
+        private final DataOutputStream out;
+        private final double[] chunk;
+        private int nSamples;
+
+        /**
+         * Opens a new trajectory file. Samples are written to a temporary file that is only moved into place once
+         * the writer is closed.
+         * @param file destination file
+         * @param compressed if true, samples are gzip compressed
+         * @throws IOException
+         */
+        public Writer(File file, boolean compressed) throws IOException {
+            this.file = file;
+            this.tmp = new File(file.getPath() + ".tmp");
+            this.chunk = new double[CHUNK_SIZE*COLUMNS];
+            this.nSamples = 0;
+
+            OutputStream stream = new FileOutputStream(tmp);
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(compressed ? COMPRESSED : 0);
+            if(compressed) stream = new GZIPOutputStream(stream, 1 << 16);
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        }
+
+        public void add(double epoch, double x, double y, double z, double lat, double lon) throws IOException {
+            int i = nSamples*COLUMNS;
+            chunk[i]     = epoch;
+            chunk[i + 1] = x;
+            chunk[i + 2] = y;
+            chunk[i + 3] = z;
+            chunk[i + 4] = lat;
+            chunk[i + 5] = lon;
+            if(++nSamples == CHUNK_SIZE) flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if(nSamples == 0) return;
+            out.writeInt(nSamples);
+            for(int i = 0; i < nSamples*COLUMNS; i++) out.writeDouble(chunk[i]);
+            nSamples = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+            out.writeInt(0);
+            out.close();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads trajectory samples chunk by chunk
+     */
+    public static class Reader implements Closeable {
+        private final DataInputStream in;
+        private final double[] chunk;
+        private int nSamples;
+
+        public Reader(File file) throws IOException {
+            InputStream stream = new FileInputStream(file);
+            DataInputStream header = new DataInputStream(stream);
+            if(header.readInt() != MAGIC){
+                stream.close();
+                throw new IOException("File " + file.getPath() + " is not a trajectory file");
+            }
+            int version = header.readInt();
+            if(version != VERSION){
+                stream.close();
+                throw new IOException("Trajectory file " + file.getPath() + " has version " + version
+                        + ", expected version " + VERSION);
+            }
+            if((header.readInt() & COMPRESSED) != 0) stream = new GZIPInputStream(stream, 1 << 16);
+
+            this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+            this.chunk = new double[CHUNK_SIZE*COLUMNS];
+            this.nSamples = 0;
+        }
+
+        /**
+         * Reads the next chunk of samples
+         * @return number of samples read, or 0 once the end of the file is reached
+         * @throws IOException
+         */
+        public int next() throws IOException {
+            nSamples = in.readInt();
+            if(nSamples < 0 || nSamples > CHUNK_SIZE) throw new IOException("Trajectory file chunk is corrupted");
+            for(int i = 0; i < nSamples*COLUMNS; i++) chunk[i] = in.readDouble();
+            return nSamples;
+        }
+
+        /**
+         * @param sample index of the sample within the current chunk
+         * @param column column of the sample
+         */
+        public double get(int sample, int column){ return chunk[sample*COLUMNS + column]; }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Exports a trajectory file as a csv file with one sample per line in the order epoch, x, y, z, lat, lon
+     * @param in trajectory file
+     * @param out destination csv file
+     * @throws IOException
+     */
+    public static void toCSV(File in, File out) throws IOException {
+        try(Reader reader = new Reader(in);
+            PrintWriter printWriter = new PrintWriter(new BufferedWriter(new FileWriter(out, false), 1 << 16))){
+
+            StringBuilder line = new StringBuilder();
+            for(int n = reader.next(); n > 0; n = reader.next()){
+                for(int i = 0; i < n; i++){
+                    line.setLength(0);
+                    for(int j = 0; j < COLUMNS; j++){
+                        if(j > 0) line.append(',');
+                        line.append(reader.get(i, j));
+                    }
+                    line.append('\n');
+                    printWriter.print(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Exports trajectory files to csv as a post-processing step
+     * @param args paths of the trajectory files to be exported. Each csv is written next to its trajectory file.
+     */
+    public static void main(String[] args) throws IOException {
+        for(String path : args){
+            File in = new File(path);
+            String name = in.getPath();
+            if(name.endsWith(".bin")) name = name.substring(0, name.length() - ".bin".length());
+            toCSV(in, new File(name + ".csv"));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package modules.orbitData;
+
+import org.hipparchus.util.FastMath;
+import org.orekit.orbits.Orbit;
+
+/**
+ * Analytic bounds on the ground points a satellite can ever see. A satellite's ground track never leaves the
+ * latitude band set by its inclination, and its field of regard only reaches a limited Earth central angle beyond
+ * its ground track, so points outside of the widened band can be discarded before any event detection.
+ *
+ * Bounds are conservative: the highest altitude of the orbit and the corners of rectangular fields of regard are
+ * used, and a margin covers the difference between geodetic and geocentric latitudes and nodal precession effects.
+ */
+public class VisibilityFilter {
+    /**
+     * Margin added to the reachable latitude [rad]
+     */
+    public static final double MARGIN = FastMath.toRadians(1.0);
+
+    /**
+     * Returns the largest angle from nadir covered by a field of regard
+     * @param fov {off-nadir angle, cross-track half angle, along-track half angle} [rad]
+     * @return maximum look angle [rad]
+     */
+    public static double maxLookAngle(double[] fov){
+        double crossTrack = FastMath.abs(fov[0]) + fov[1];
+        double alongTrack = fov[2];
+        if(crossTrack >= FastMath.PI/2 || alongTrack >= FastMath.PI/2) return FastMath.PI/2;
+
+        double tanCross = FastMath.tan(crossTrack);
+        double tanAlong = FastMath.tan(alongTrack);
+        return FastMath.atan(FastMath.sqrt(tanCross*tanCross + tanAlong*tanAlong));
+    }
+
+    /**
+     * Returns the Earth central angle between the sub-satellite point and the farthest point within a given look
+     * angle, limited by the horizon
+     * @param altitude altitude of the satellite [m]
+     * @param lookAngle maximum look angle from nadir [rad]
+     * @param earthRadius equatorial radius of the Earth [m]
+     * @return Earth central angle [rad]
+     */
+    public static double centralAngle(double altitude, double lookAngle, double earthRadius){
+        // angular radius of the Earth as seen from the satellite
+        double rho = FastMath.asin(earthRadius / (earthRadius + altitude));
+        if(lookAngle >= rho) return FastMath.PI/2 - rho;
+
+        // elevation angle of the farthest point
+        double elevation = FastMath.acos(FastMath.sin(lookAngle) / FastMath.sin(rho));
+        return FastMath.PI/2 - lookAngle - elevation;
+    }
+
+    /**
+     * Returns the highest absolute latitude a satellite can see
+     * @param orbit orbit of the satellite
+     * @param lookAngle maximum look angle of its payload [rad]
+     * @param earthRadius equatorial radius of the Earth [m]
+     * @return maximum reachable latitude [rad], or PI/2 if it can not be bounded
+     */
+    public static double maxLatitude(Orbit orbit, double lookAngle, double earthRadius){
+        double inc = FastMath.abs(orbit.getI());
+        double trackLatitude = FastMath.min(inc, FastMath.PI - inc);
+        double apogeeAltitude = orbit.getA() * (1 + orbit.getE()) - earthRadius;
+
+        double latitude = trackLatitude + centralAngle(apogeeAltitude, lookAngle, earthRadius) + MARGIN;
+
+        // orbits that do not clear the Earth's surface have no central angle, so no points are filtered out
+        if(Double.isNaN(latitude)) return FastMath.PI/2;
+        return FastMath.min(latitude, FastMath.PI/2);
+    }
+}
@@ -10,13 +10,18 @@ import modules.measurements.RequirementPerformance;
 import modules.messages.MeasurementRequestMessage;
 import modules.messages.PlannerMessage;
 import modules.messages.RelayMessage;
-import org.orekit.time.AbsoluteDate;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
-public abstract class AbstractPlanner {
+public abstract class AbstractPlanner implements Serializable {
     /**
      * Types of accepted planners
      */
@@ -26,6 +31,17 @@ public abstract class AbstractPlanner {
     public static final String FIRST_PRIORITY = "firstPriority";
     public static final String[] PLANNERS = {NONE, CCBBA, RELAY};
 
+    /**
+     * Number of candidates evaluated by each leaf task of a batch bid evaluation. Batches smaller than two leaves
+     * are evaluated on the calling thread.
+     */
+    public static final int BID_GRAIN = 16;
+
+    /**
+     * Scratch buffers of every thread evaluating bids, reused across evaluations to avoid allocations
+     */
+    private static final ThreadLocal<BidScratch> SCRATCH = ThreadLocal.withInitial(BidScratch::new);
+
     /**
      * Parent agent being scheduled
      */
@@ -77,15 +93,23 @@ public abstract class AbstractPlanner {
      */
     public abstract LinkedList<SimulationAction> initPlan();
 
+    /**
+     * Adds the accesses that became known to the parent agent after its access window moved forward to the plan.
+     * Planners that do not plan ahead over accesses ignore it.
+     * @param after : time in seconds from the simulation start date up to which accesses were already planned for
+     */
+    public void extendPlan(double after){}
+
     /**
      * Creates, modifies, or maintains the plan to be performed by an agent
      * @param messageMap : map of different types of messages received by an agent
      * @param agent : agent set to perform the plan
+     * @param currentTime : current simulation time in seconds from the simulation start date
      * @return a linked list of actions to be performed by the agent
      * @throws Exception
      */
     public abstract LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap,
-                                                          SatelliteAgent agent, AbsoluteDate currentDate) throws Exception;
+                                                          SatelliteAgent agent, double currentTime) throws Exception;
 
 
     /**
@@ -105,18 +129,18 @@ public abstract class AbstractPlanner {
     public void setParentAgent(SatelliteAgent agent){ this.parentAgent = agent; }
 
     /**
-     * Returns list of actions available to be performed at a given date
-     * @param date  : date to be checked
+     * Returns list of actions available to be performed at a given time
+     * @param t     : time to be checked in seconds from the simulation start date
      * @return      : list of available actions
      */
-    protected LinkedList<SimulationAction> getAvailableActions(AbsoluteDate date){
+    protected LinkedList<SimulationAction> getAvailableActions(double t){
         LinkedList<SimulationAction> actions = new LinkedList<>();
 
         for(SimulationAction action : this.plan){
-            if(date.compareTo(action.getEndDate()) > 0){
+            if(t > action.getEndTime()){
                 break;
             }
-            else if( date.compareTo(action.getStartDate()) >= 0){
+            else if(t >= action.getStartTime()){
                 actions.add(action);
             }
         }
@@ -125,15 +149,49 @@ public abstract class AbstractPlanner {
     }
 
     /**
-     * Returns list of actions that can no longer be performed by the agent as their date has passed
-     * @param date
+     * Returns the next time at which the plan requires the parent agent to act. Used by event-driven
+     * simulations to decide when to wake the agent up.
+     * @param t     : current time in seconds from the simulation start date
+     * @return next start or end time of a planned action, or infinity if there is nothing left to do
+     */
+    public double nextEventTime(double t){
+        if(plan == null) return Double.POSITIVE_INFINITY;
+        return SimulationAction.nextEventTime(plan, t);
+    }
+
+    /**
+     * Merges two chronologically ordered lists of actions into a single chronologically ordered plan. Ties are
+     * resolved in favour of the first list.
+     * @param first     : actions ordered by start time
+     * @param second    : actions ordered by start time
+     * @return merged plan
+     */
+    protected ArrayList<SimulationAction> mergePlans(List<? extends SimulationAction> first,
+                                                     List<? extends SimulationAction> second){
+        ArrayList<SimulationAction> merged = new ArrayList<>(first.size() + second.size());
+
+        int i = 0;
+        int j = 0;
+        while(i < first.size() && j < second.size()){
+            if(first.get(i).getStartTime() <= second.get(j).getStartTime()) merged.add(first.get(i++));
+            else merged.add(second.get(j++));
+        }
+        merged.addAll(first.subList(i, first.size()));
+        merged.addAll(second.subList(j, second.size()));
+
+        return merged;
+    }
+
+    /**
+     * Returns list of actions that can no longer be performed by the agent as their end time has passed
+     * @param t : current time in seconds from the simulation start date
      * @return
      */
-    protected LinkedList<SimulationAction> getOutdatedActions(AbsoluteDate date){
+    protected LinkedList<SimulationAction> getOutdatedActions(double t){
         LinkedList<SimulationAction> actions = new LinkedList<>();
 
         for(SimulationAction action : this.plan){
-            if( date.compareTo(action.getEndDate()) > 0 ){
+            if( t > action.getEndTime() ){
                 actions.add(action);
             }
         }
@@ -204,23 +262,104 @@ public abstract class AbstractPlanner {
     }
 
     /**
-     * Returns a list of all currently available measurement requests at a given date
-     * @param date : desired date
+     * Evaluates the bids of a batch of candidates. Candidates are independent, so they are split across the
+     * fork-join pool the agent is running on, letting idle workers of the current simulation phase steal them, or
+     * across the common pool if the agent is run serially. Evaluations must store their result by candidate index,
+     * and callers must reduce them in index order so that plans do not depend on thread scheduling.
+     * @param n : number of candidates
+     * @param evaluation : evaluation of a single candidate
+     * @throws Exception if any evaluation fails
+     */
+    protected void evaluateBids(int n, BidEvaluation evaluation) throws Exception {
+        if(n < 2*BID_GRAIN){
+            BidScratch scratch = SCRATCH.get();
+            for(int i = 0; i < n; i++) evaluation.evaluate(i, scratch);
+            return;
+        }
+
+        BidBatch batch = new BidBatch(evaluation, 0, n);
+        try {
+            if(ForkJoinTask.inForkJoinPool()) batch.invoke();
+            else ForkJoinPool.commonPool().invoke(batch);
+        } catch (CompletionException e) {
+            Throwable cause = e;
+            while(cause instanceof CompletionException && cause.getCause() != null) cause = cause.getCause();
+            if(cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Evaluation of the bid of a single candidate
+     */
+    protected interface BidEvaluation {
+        void evaluate(int i, BidScratch scratch) throws Exception;
+    }
+
+    /**
+     * Buffers owned by a single thread during bid evaluations
+     */
+    protected static class BidScratch {
+        /**
+         * Position and velocity of the satellite
+         */
+        public final double[] pv = new double[6];
+
+        /**
+         * Line of sight from the satellite to the target
+         */
+        public final double[] los = new double[3];
+    }
+
+    /**
+     * Range of candidates of a batch bid evaluation, split in halves until it is no larger than BID_GRAIN
+     */
+    private static class BidBatch extends RecursiveAction {
+        private final BidEvaluation evaluation;
+        private final int from;
+        private final int to;
+
+        BidBatch(BidEvaluation evaluation, int from, int to){
+            this.evaluation = evaluation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from <= BID_GRAIN){
+                BidScratch scratch = SCRATCH.get();
+                try {
+                    for(int i = from; i < to; i++) evaluation.evaluate(i, scratch);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new BidBatch(evaluation, from, mid), new BidBatch(evaluation, mid, to));
+        }
+    }
+
+    /**
+     * Returns a list of all currently available measurement requests at a given time
+     * @param t : desired time in seconds from the simulation start date
      * @return array containing all new measurement requests
      */
-    protected ArrayList<MeasurementRequest> checkActiveRequests(ArrayList<MeasurementRequest> requests, AbsoluteDate date){
+    protected ArrayList<MeasurementRequest> checkActiveRequests(ArrayList<MeasurementRequest> requests, double t){
         ArrayList<MeasurementRequest> activeRequests = new ArrayList<>();
 
         for(MeasurementRequest request : activeRequests){
-            if(date.compareTo( request.getStartDate() ) >= 0
-                    && date.compareTo( request.getEndDate() ) <= 0){
+            if(t >= request.getStartTime() && t <= request.getEndTime()){
                 activeRequests.add(request);
             }
         }
 
         for(MeasurementRequest request : requests){
-            if(date.compareTo( request.getStartDate() ) >= 0
-                    && date.compareTo( request.getEndDate() ) <= 0){
+            if(t >= request.getStartTime() && t <= request.getEndTime()){
                 activeRequests.add(request);
             }
         }
@@ -229,21 +368,21 @@ public abstract class AbstractPlanner {
     }
 
     /**
-     * Returns a list of all currently available measurement requests at a given date
-     * @param date : desired date
+     * Returns a list of all currently available measurement requests at a given time
+     * @param t : desired time in seconds from the simulation start date
      * @return array containing all new measurement requests
      */
-    protected ArrayList<MeasurementRequest> checkAvailableRequests(ArrayList<MeasurementRequest> requests, AbsoluteDate date){
+    protected ArrayList<MeasurementRequest> checkAvailableRequests(ArrayList<MeasurementRequest> requests, double t){
         ArrayList<MeasurementRequest> availableRequests = new ArrayList<>();
 
         for(MeasurementRequest request : activeRequests){
-            if(date.compareTo( request.getEndDate() ) <= 0){
+            if(t <= request.getEndTime()){
                 availableRequests.add(request);
             }
         }
 
         for(MeasurementRequest request : requests){
-            if(date.compareTo( request.getEndDate() ) <= 0){
+            if(t <= request.getEndTime()){
                 availableRequests.add(request);
             }
         }
@@ -1,4 +1,259 @@
 package modules.planner.CCBBA;
 
-public class BidResults {
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Bid table of a CCBBA planner. Every subtask known to the planner is a row identified by a dense subtask id, and
+ * each column is stored in its own flat array so that bundle construction and consensus only touch primitive
+ * arrays.
+ *
+ * Consensus columns hold what the planner believes about the whole constellation: the winner of each subtask as a
+ * satellite id, the winning bid, the expected time of the measurement, and the time the row was last updated.
+ * Bid columns hold the planner's own marginal bid for each subtask, together with the position in its path, the
+ * sensor id of the instrument used, and the time and roll angle at which the measurement would be performed. Bids
+ * are only recalculated once marked stale.
+ */
+public class BidResults implements Serializable {
+    private int size;
+
+    /**
+     * Consensus columns
+     */
+    private int[] winner;
+    private double[] winningBid;
+    private double[] measurementTime;
+    private double[] timestamp;
+
+    /**
+     * Bid columns
+     */
+    private double[] bid;
+    private int[] insertAt;
+    private int[] bidSensor;
+    private double[] bidTime;
+    private double[] bidRoll;
+    private boolean[] stale;
+
+    /**
+     * Subtasks that have already been performed or can no longer be performed, and rows changed since they were
+     * last sent to other planners
+     */
+    private boolean[] closed;
+    private boolean[] changed;
+    private int[] changedRows;
+    private int nChanged;
+
+    public BidResults(int capacity){
+        capacity = Math.max(capacity, 1);
+        this.size = 0;
+        this.winner = new int[capacity];
+        this.winningBid = new double[capacity];
+        this.measurementTime = new double[capacity];
+        this.timestamp = new double[capacity];
+        this.bid = new double[capacity];
+        this.insertAt = new int[capacity];
+        this.bidSensor = new int[capacity];
+        this.bidTime = new double[capacity];
+        this.bidRoll = new double[capacity];
+        this.stale = new boolean[capacity];
+        this.closed = new boolean[capacity];
+        this.changed = new boolean[capacity];
+        this.changedRows = new int[capacity];
+        this.nChanged = 0;
+    }
+
+    /**
+     * Adds an unassigned row to the table
+     * @return id of the new row
+     */
+    public int addRow(){
+        if(size == winner.length) grow(2*size);
+
+        int i = size++;
+        winner[i] = -1;
+        winningBid[i] = 0.0;
+        measurementTime[i] = Double.NaN;
+        timestamp[i] = Double.NEGATIVE_INFINITY;
+        bid[i] = 0.0;
+        insertAt[i] = -1;
+        bidSensor[i] = -1;
+        bidTime[i] = Double.NaN;
+        bidRoll[i] = Double.NaN;
+        stale[i] = true;
+        closed[i] = false;
+        changed[i] = false;
+        return i;
+    }
+
+    private void grow(int capacity){
+        winner = Arrays.copyOf(winner, capacity);
+        winningBid = Arrays.copyOf(winningBid, capacity);
+        measurementTime = Arrays.copyOf(measurementTime, capacity);
+        timestamp = Arrays.copyOf(timestamp, capacity);
+        bid = Arrays.copyOf(bid, capacity);
+        insertAt = Arrays.copyOf(insertAt, capacity);
+        bidSensor = Arrays.copyOf(bidSensor, capacity);
+        bidTime = Arrays.copyOf(bidTime, capacity);
+        bidRoll = Arrays.copyOf(bidRoll, capacity);
+        stale = Arrays.copyOf(stale, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+        changed = Arrays.copyOf(changed, capacity);
+        changedRows = Arrays.copyOf(changedRows, capacity);
+    }
+
+    /**
+     * Updates the consensus columns of a row and marks it to be sent to other planners
+     */
+    public void setWinner(int i, int z, double y, double tz, double s){
+        winner[i] = z;
+        winningBid[i] = y;
+        measurementTime[i] = tz;
+        timestamp[i] = s;
+        markChanged(i);
+    }
+
+    /**
+     * Merges a row received from another planner. The received row replaces the local one if it is newer
+     * information about the same winner, if it is newer information from the satellite the local table believes is
+     * the winner, or if it carries a higher bid. Ties between bids go to the lower satellite id. Rows won by the
+     * receiving planner and closed rows are only updated by the receiving planner.
+     * @param result row received from another planner
+     * @param sender satellite id of the planner that sent the row
+     * @param self satellite id of the receiving planner
+     * @return true if the row was updated
+     */
+    public boolean merge(int i, SubtaskResult result, int sender, int self){
+        if(closed[i]) return false;
+
+        int zk = result.getWinner();
+        int zi = winner[i];
+        if(zk == self) return false;
+
+        double sk = result.getTimestamp();
+        double si = timestamp[i];
+
+        boolean update;
+        if(zk == zi || zi == sender) update = sk > si;
+        else if(zk >= 0) update = outbids(result.getWinningBid(), zk, winningBid[i], zi);
+        else update = false;
+
+        if(update) setWinner(i, zk, result.getWinningBid(), result.getMeasurementTime(), Math.max(sk, si));
+        return update;
+    }
+
+    /**
+     * Checks if a bid beats the current winning bid of a subtask
+     * @param y bid
+     * @param z satellite id of the bidder
+     * @param yWinner current winning bid
+     * @param zWinner satellite id of the current winner, or -1 if nobody has won the subtask
+     */
+    public static boolean outbids(double y, int z, double yWinner, int zWinner){
+        if(zWinner < 0) return y > 0.0;
+        return y > yWinner || (y == yWinner && z < zWinner);
+    }
+
+    /**
+     * Releases a subtask so that any planner may bid on it
+     * @param s time of the update in seconds from the simulation start date
+     */
+    public void release(int i, double s){
+        setWinner(i, -1, 0.0, Double.NaN, s);
+    }
+
+    private void markChanged(int i){
+        if(changed[i]) return;
+        changed[i] = true;
+        changedRows[nChanged++] = i;
+    }
+
+    /**
+     * Returns the rows changed since the last call and clears them
+     * @return row ids in the order in which they first changed
+     */
+    public int[] drainChanged(){
+        int[] out = Arrays.copyOf(changedRows, nChanged);
+        for(int i : out) changed[i] = false;
+        nChanged = 0;
+        return out;
+    }
+
+    /**
+     * Stores the planner's own marginal bid for a subtask
+     * @param c marginal score, or 0 if the subtask can not be added to the path
+     * @param position position in the path at which the subtask would be inserted, or -1 if it can not be added
+     * @param sensor sensor id of the instrument performing the measurement
+     * @param t time of the measurement in seconds from the simulation start date
+     * @param roll roll angle of the measurement in radians
+     */
+    public void setBid(int i, double c, int position, int sensor, double t, double roll){
+        bid[i] = c;
+        insertAt[i] = position;
+        bidSensor[i] = sensor;
+        bidTime[i] = t;
+        bidRoll[i] = roll;
+        stale[i] = false;
+    }
+
+    public void invalidate(int i){ stale[i] = true; }
+
+    public void invalidateAll(){ Arrays.fill(stale, 0, size, true); }
+
+    /**
+     * Updates cached bids after a subtask was inserted into the path. Insertion only splits the gap it was made in,
+     * so only bids that would have used that gap can change. Bids placed after it move back by one position.
+     * Subtasks that could not be added to the path are always recalculated.
+     * @param position position at which the subtask was inserted
+     */
+    public void inserted(int position){
+        for(int i = 0; i < size; i++){
+            if(stale[i]) continue;
+            if(insertAt[i] < 0 || insertAt[i] == position) stale[i] = true;
+            else if(insertAt[i] > position) insertAt[i]++;
+        }
+    }
+
+    /**
+     * Updates cached bids after the first subtask of the path was performed. The first two gaps of the path merge
+     * into one that starts at the current time, so only bids that would have used them can change. Bids placed
+     * after them move forward by one position. Subtasks that could not be added to the path are always
+     * recalculated.
+     */
+    public void removedFirst(){
+        for(int i = 0; i < size; i++){
+            if(stale[i]) continue;
+            if(insertAt[i] <= 1) stale[i] = true;
+            else insertAt[i]--;
+        }
+    }
+
+    /**
+     * Marks every bid that would have used a given gap of the path, and every subtask that could not be added to
+     * the path, as stale
+     * @param position position of the gap
+     */
+    public void invalidateGap(int position){
+        for(int i = 0; i < size; i++){
+            if(insertAt[i] < 0 || insertAt[i] == position) stale[i] = true;
+        }
+    }
+
+    public void close(int i){ closed[i] = true; }
+
+    /**
+     * Getters
+     */
+    public int size(){ return size; }
+    public int getWinner(int i){ return winner[i]; }
+    public double getWinningBid(int i){ return winningBid[i]; }
+    public double getMeasurementTime(int i){ return measurementTime[i]; }
+    public double getTimestamp(int i){ return timestamp[i]; }
+    public double getBid(int i){ return bid[i]; }
+    public int getInsertAt(int i){ return insertAt[i]; }
+    public int getBidSensor(int i){ return bidSensor[i]; }
+    public double getBidTime(int i){ return bidTime[i]; }
+    public double getBidRoll(int i){ return bidRoll[i]; }
+    public boolean isStale(int i){ return stale[i]; }
+    public boolean isClosed(int i){ return closed[i]; }
 }
@@ -1,33 +1,38 @@
 package modules.planner.CCBBA;
 
 import madkit.kernel.AbstractAgent;
-import org.orekit.time.AbsoluteDate;
 import seakers.orekit.object.Satellite;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public class CommsLoop {
+public class CommsLoop implements Serializable {
     private final Satellite sender;
     private final Satellite receiver;
     private final ArrayList<Satellite> path;
-    private final AbsoluteDate startDate;
-    private final AbsoluteDate endDate;
-    private final ArrayList<ArrayList<AbsoluteDate>> accessDates;
 
+    /**
+     * Start and end times of the loop and of the access used on each of its edges, in seconds from the simulation
+     * start date. Edge accesses are stored as {start, end} pairs.
+     */
+    private final double startTime;
+    private final double endTime;
+    private final ArrayList<double[]> accessTimes;
 
-    public CommsLoop(Satellite sender, Satellite receiver, ArrayList<Satellite> path, AbsoluteDate startDate, AbsoluteDate endDate, ArrayList<ArrayList<AbsoluteDate>> accessDates) {
+
+    public CommsLoop(Satellite sender, Satellite receiver, ArrayList<Satellite> path, double startTime, double endTime, ArrayList<double[]> accessTimes) {
         this.sender = sender;
         this.receiver = receiver;
         this.path = path;
-        this.startDate = startDate;
-        this.endDate = endDate;
-        this.accessDates = accessDates;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.accessTimes = accessTimes;
     }
 
     public Satellite getSender() { return sender; }
     public Satellite getReceiver() { return receiver; }
     public ArrayList<Satellite> getPath() { return path; }
-    public AbsoluteDate getStartDate() { return startDate; }
-    public AbsoluteDate getEndDate() { return endDate; }
-    public ArrayList<ArrayList<AbsoluteDate>> getAccessDates() { return accessDates; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public ArrayList<double[]> getAccessTimes() { return accessTimes; }
 }
@@ -0,0 +1,170 @@
+package modules.planner.CCBBA;
+
+import modules.orbitData.AccessTable;
+import modules.utils.Intervals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Time-varying contact graph of a constellation. Nodes are satellites and edges are the cross links between them,
+ * each labelled with the access windows of the link. Used to find the relay paths over which communication loops
+ * can be closed without enumerating every ordering of the constellation.
+ *
+ * Paths are found with a label-setting search that expands partial paths in order of the earliest time at which
+ * they reach their last satellite, and keeps at most k of them per satellite and hop count. Synchronous searches
+ * only keep paths whose links are all open at the same time at some point, and asynchronous searches only keep
+ * paths whose links can be traversed one after the other.
+ *
+ * Satellites are identified by their ids in the cross link access table.
+ */
+public class ContactGraph {
+    /**
+     * neighbors[sat] : satellites reachable from sat through a cross link
+     * windows[sat][k] : access windows of the link between sat and neighbors[sat][k]
+     */
+    private final int[][] neighbors;
+    private final Intervals[][] windows;
+
+    /**
+     * Creates the contact graph of a constellation
+     * @param accessesCL : cross link accesses indexed by (sat id, target sat id)
+     * @param commsSats : true for the ids of satellites of the communications constellation
+     * @param crossLinks : allows for links between two sensing satellites
+     */
+    public ContactGraph(AccessTable accessesCL, boolean[] commsSats, boolean crossLinks){
+        int n = accessesCL.numSources();
+        this.neighbors = new int[n][];
+        this.windows = new Intervals[n][];
+
+        for(int src = 0; src < n; src++){
+            ArrayList<Integer> adjacent = new ArrayList<>();
+            for(int pair = accessesCL.pairsStart(src); pair < accessesCL.pairsEnd(src); pair++){
+                int tgt = accessesCL.getTarget(pair);
+                if(tgt == src) continue;
+                if(!crossLinks && !commsSats[src] && !commsSats[tgt]) continue;
+                adjacent.add(tgt);
+            }
+
+            neighbors[src] = new int[adjacent.size()];
+            windows[src] = new Intervals[adjacent.size()];
+            for(int k = 0; k < adjacent.size(); k++){
+                neighbors[src][k] = adjacent.get(k);
+                windows[src][k] = accessesCL.windows(src, adjacent.get(k));
+            }
+        }
+    }
+
+    /**
+     * Finds the earliest paths between two satellites for every number of hops
+     * @param source : id of the satellite starting the path
+     * @param target : id of the satellite ending the path
+     * @param maxHops : maximum number of links in a path
+     * @param k : maximum number of paths kept per number of hops
+     * @param sync : if true, all links of a path must be open at the same time. If false, links only need to open
+     *             one after the other.
+     * @return map of the number of satellites in a path to the ids of the satellites of each path, in the order in
+     * which they were found
+     */
+    public HashMap<Integer, ArrayList<int[]>> paths(int source, int target, int maxHops, int k, boolean sync){
+        HashMap<Integer, ArrayList<int[]>> out = new HashMap<>();
+        int[][] settled = new int[neighbors.length][maxHops + 1];
+
+        PriorityQueue<Label> queue = new PriorityQueue<>();
+        queue.add(new Label(source, null, null, Double.NEGATIVE_INFINITY));
+
+        while(!queue.isEmpty()){
+            Label label = queue.poll();
+            if(settled[label.sat][label.hops] >= k) continue;
+            settled[label.sat][label.hops]++;
+
+            if(label.sat == target){
+                out.computeIfAbsent(label.hops + 1, n -> new ArrayList<>()).add(label.path());
+                continue;
+            }
+            if(label.hops == maxHops) continue;
+
+            for(int j = 0; j < neighbors[label.sat].length; j++){
+                int next = neighbors[label.sat][j];
+                if(settled[next][label.hops + 1] >= k || label.visits(next)) continue;
+
+                Label extended = sync ? label.synchronous(next, windows[label.sat][j])
+                                      : label.chained(next, windows[label.sat][j]);
+                if(extended != null) queue.add(extended);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Partial path ending at a given satellite
+     */
+    private static class Label implements Comparable<Label> {
+        private final int sat;
+        private final Label parent;
+        private final int hops;
+
+        /**
+         * Times at which every link of the path is open, only used by synchronous searches, and earliest time at
+         * which the path reaches its last satellite
+         */
+        private final Intervals common;
+        private final double arrival;
+
+        Label(int sat, Label parent, Intervals common, double arrival){
+            this.sat = sat;
+            this.parent = parent;
+            this.hops = parent == null ? 0 : parent.hops + 1;
+            this.common = common;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Extends this path by a link that must be open at the same time as all of its other links
+         * @return extended path, or null if the link is never open at the same time as the rest of the path
+         */
+        Label synchronous(int next, Intervals link){
+            Intervals overlap = common == null ? link : Intervals.intersection(common, link);
+            if(overlap.size() == 0) return null;
+            return new Label(next, this, overlap, overlap.getStart(0));
+        }
+
+        /**
+         * Extends this path by a link that is crossed during its first window that ends after the path arrives
+         * @return extended path, or null if the link never opens after the path arrives
+         */
+        Label chained(int next, Intervals link){
+            int lo = 0;
+            int hi = link.size();
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(link.getEnd(mid) <= arrival) lo = mid + 1;
+                else hi = mid;
+            }
+            if(lo == link.size()) return null;
+            return new Label(next, this, null, Math.max(arrival, link.getStart(lo)));
+        }
+
+        boolean visits(int id){
+            for(Label label = this; label != null; label = label.parent){
+                if(label.sat == id) return true;
+            }
+            return false;
+        }
+
+        int[] path(){
+            int[] path = new int[hops + 1];
+            for(Label label = this; label != null; label = label.parent) path[label.hops] = label.sat;
+            return path;
+        }
+
+        @Override
+        public int compareTo(Label other){
+            if(arrival != other.arrival) return Double.compare(arrival, other.arrival);
+            if(hops != other.hops) return Integer.compare(hops, other.hops);
+            return Integer.compare(sat, other.sat);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package modules.planner.CCBBA;
+
+import modules.orbitData.AccessTable;
+import modules.utils.Intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Calculates the time windows in which communication loops can be closed along relay paths. Windows of every prefix
+ * of a path are cached, so paths sharing their first links only evaluate the shared links once.
+ *
+ * Synchronous loops require every link of the path to be open at the same time, and their windows are the
+ * intersection of the access windows of all links. Asynchronous loops let every satellite hold a message until its
+ * next link opens, so each access window of the first link starts a chain that crosses every following link during
+ * its first window that has not yet closed when the message arrives.
+ *
+ * Satellites are identified by their ids in the cross link access table, and times are in seconds from the
+ * simulation start date.
+ */
+public class LoopWindows {
+    private final AccessTable accessesCL;
+
+    /**
+     * Access windows of every link evaluated so far, and windows of every path prefix evaluated so far
+     */
+    private final HashMap<Long, Intervals> links;
+    private final HashMap<Key, Intervals> synchronous;
+    private final HashMap<Key, Chain> asynchronous;
+
+    public LoopWindows(AccessTable accessesCL){
+        this.accessesCL = accessesCL;
+        this.links = new HashMap<>();
+        this.synchronous = new HashMap<>();
+        this.asynchronous = new HashMap<>();
+    }
+
+    /**
+     * Lists the windows in which a synchronous loop can be closed along a path
+     * @param path : ids of the satellites in the path, starting with the sender
+     * @return for every window, {start, end} followed by the {start, end} of the access window used on each link
+     */
+    public ArrayList<double[]> synchronousWindows(int[] path){
+        ArrayList<double[]> out = new ArrayList<>();
+        if(path.length < 2) return out;
+
+        Intervals common = synchronous(path, path.length);
+        for(int k = 0; k < common.size(); k++){
+            double[] window = new double[2*path.length];
+            window[0] = common.getStart(k);
+            window[1] = common.getEnd(k);
+
+            // every link has exactly one access window containing the common window
+            for(int i = 0; i < path.length - 1; i++){
+                Intervals link = link(path[i], path[i+1]);
+                int w = firstEndingAfter(link, common.getStart(k), 0);
+                window[2 + 2*i] = link.getStart(w);
+                window[3 + 2*i] = link.getEnd(w);
+            }
+            out.add(window);
+        }
+        return out;
+    }
+
+    /**
+     * Lists the windows in which an asynchronous loop can be closed along a path
+     * @param path : ids of the satellites in the path, starting with the sender
+     * @return for every window, {start, end} followed by the {start, end} of the access window used on each link.
+     * Windows start when the first link opens and end when the message reaches the last satellite of the path.
+     */
+    public ArrayList<double[]> asynchronousWindows(int[] path){
+        ArrayList<double[]> out = new ArrayList<>();
+        if(path.length < 2) return out;
+
+        Chain chain = asynchronous(path, path.length);
+        Intervals first = link(path[0], path[1]);
+        for(int d = 0; d < first.size(); d++){
+            if(Double.isInfinite(chain.arrival[d])) continue;
+
+            double[] window = new double[2*path.length];
+            window[0] = first.getStart(d);
+            window[1] = chain.arrival[d];
+
+            Chain link = chain;
+            for(int i = path.length - 2; i >= 0; i--){
+                Intervals windows = link(path[i], path[i+1]);
+                window[2 + 2*i] = windows.getStart(link.window[d]);
+                window[3 + 2*i] = windows.getEnd(link.window[d]);
+                link = link.parent;
+            }
+            out.add(window);
+        }
+        return out;
+    }
+
+    /**
+     * Intersects the access windows of the first n satellites of a path
+     */
+    private Intervals synchronous(int[] path, int n){
+        Key key = new Key(path, n);
+        Intervals common = synchronous.get(key);
+        if(common != null) return common;
+
+        Intervals link = link(path[n-2], path[n-1]);
+        common = n == 2 ? link : Intervals.intersection(synchronous(path, n-1), link);
+
+        synchronous.put(key, common);
+        return common;
+    }
+
+    /**
+     * Chains the access windows of the first n satellites of a path. Arrival times never decrease with the
+     * departure window, so each link is matched to every departure in a single merge pass.
+     */
+    private Chain asynchronous(int[] path, int n){
+        Key key = new Key(path, n);
+        Chain chain = asynchronous.get(key);
+        if(chain != null) return chain;
+
+        Intervals link = link(path[n-2], path[n-1]);
+        if(n == 2){
+            int nDepartures = link.size();
+            chain = new Chain(null, nDepartures);
+            for(int d = 0; d < nDepartures; d++){
+                chain.window[d] = d;
+                chain.arrival[d] = link.getStart(d);
+            }
+        }
+        else{
+            Chain parent = asynchronous(path, n-1);
+            int nDepartures = parent.arrival.length;
+            chain = new Chain(parent, nDepartures);
+
+            int w = 0;
+            for(int d = 0; d < nDepartures; d++){
+                double arrival = parent.arrival[d];
+                if(Double.isInfinite(arrival)) continue;
+
+                w = firstEndingAfter(link, arrival, w);
+                if(w == link.size()) break;
+                chain.window[d] = w;
+                chain.arrival[d] = Math.max(arrival, link.getStart(w));
+            }
+        }
+
+        asynchronous.put(key, chain);
+        return chain;
+    }
+
+    /**
+     * Returns the access windows between two satellites
+     */
+    private Intervals link(int sender, int receiver){
+        long key = ((long) sender << 32) | (receiver & 0xffffffffL);
+        return links.computeIfAbsent(key, k -> accessesCL.windows(sender, receiver));
+    }
+
+    /**
+     * Returns the index of the first window of a set, at or after a given index, that ends after time t
+     */
+    private static int firstEndingAfter(Intervals windows, double t, int from){
+        int lo = from;
+        int hi = windows.size();
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(windows.getEnd(mid) <= t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Access window used on the last link of a path prefix and arrival time at its last satellite, for every
+     * access window of the first link. Arrival is infinite if the message can not be relayed before the end of
+     * the simulation.
+     */
+    private static class Chain {
+        private final Chain parent;
+        private final int[] window;
+        private final double[] arrival;
+
+        Chain(Chain parent, int nDepartures){
+            this.parent = parent;
+            this.window = new int[nDepartures];
+            this.arrival = new double[nDepartures];
+            Arrays.fill(window, -1);
+            Arrays.fill(arrival, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Sequence of satellite ids of a path prefix
+     */
+    private static class Key {
+        private final int[] ids;
+        private final int hash;
+
+        Key(int[] path, int n){
+            this.ids = Arrays.copyOf(path, n);
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o){
+            return o instanceof Key && Arrays.equals(ids, ((Key) o).ids);
+        }
+
+        @Override
+        public int hashCode(){ return hash; }
+    }
+}
@@ -1,4 +1,23 @@
 package modules.planner.CCBBA;
 
-public class Subtask {
+import java.io.Serializable;
+
+/**
+ * Single measurement needed to satisfy a task. Each subtask is a row of the planner's bid table, identified by a
+ * dense id, and by its task and index within the task when exchanged with other planners.
+ */
+public class Subtask implements Serializable {
+    private final int id;
+    private final Task task;
+    private final int index;
+
+    public Subtask(int id, Task task, int index){
+        this.id = id;
+        this.task = task;
+        this.index = index;
+    }
+
+    public int getId() { return id; }
+    public Task getTask() { return task; }
+    public int getIndex() { return index; }
 }
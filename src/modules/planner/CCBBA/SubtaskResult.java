@@ -1,36 +1,51 @@
 package modules.planner.CCBBA;
 
-import modules.agents.SatelliteAgent;
-import org.orekit.time.AbsoluteDate;
+import modules.measurements.MeasurementRequest;
 
-public class SubtaskResult {
-    /**
-     * Current bid winner
-     */
-    private SatelliteAgent z;
+import java.io.Serializable;
 
-    /**
-     * Expected time of arrival to task
-     */
-    private AbsoluteDate tz;
+/**
+ * Row of a bid table sent to other planners during consensus. Rows are identified by their measurement request and
+ * subtask index, as dense ids differ between planners, and carry the request itself so that receivers that have
+ * not heard of it yet can start bidding on it.
+ */
+public class SubtaskResult implements Serializable {
+    private final MeasurementRequest request;
+    private final int index;
 
     /**
-     * Subtask being bid on
+     * Current bid winner as a satellite id, or -1 if nobody has won the subtask
      */
-    private Subtask j;
+    private final int z;
 
     /**
-     * Self bid
+     * Winning bid
      */
-    private double c;
+    private final double y;
 
     /**
-     * Winning bid
+     * Expected time of the measurement in seconds from the simulation start date
      */
-    private double y;
+    private final double tz;
 
     /**
-     * Last update date
+     * Time of the last update of the row in seconds from the simulation start date
      */
-    private AbsoluteDate s;
+    private final double s;
+
+    public SubtaskResult(MeasurementRequest request, int index, int z, double y, double tz, double s){
+        this.request = request;
+        this.index = index;
+        this.z = z;
+        this.y = y;
+        this.tz = tz;
+        this.s = s;
+    }
+
+    public MeasurementRequest getRequest() { return request; }
+    public int getIndex() { return index; }
+    public int getWinner() { return z; }
+    public double getWinningBid() { return y; }
+    public double getMeasurementTime() { return tz; }
+    public double getTimestamp() { return s; }
 }
@@ -1,4 +1,32 @@
 package modules.planner.CCBBA;
 
-public class Task {
+import modules.measurements.MeasurementRequest;
+
+import java.io.Serializable;
+
+/**
+ * Measurement request known to a CCBBA planner. Tasks are given dense ids in the order in which the planner learns
+ * about them, and own a contiguous range of subtasks in the planner's bid table. The Earth-fixed position of the
+ * request's location is kept so that bids can be evaluated without propagating the ground point.
+ */
+public class Task implements Serializable {
+    private final int id;
+    private final MeasurementRequest request;
+    private final int firstSubtask;
+    private final int nSubtasks;
+    private final double[] position;
+
+    public Task(int id, MeasurementRequest request, int firstSubtask, int nSubtasks, double[] position){
+        this.id = id;
+        this.request = request;
+        this.firstSubtask = firstSubtask;
+        this.nSubtasks = nSubtasks;
+        this.position = position;
+    }
+
+    public int getId() { return id; }
+    public MeasurementRequest getRequest() { return request; }
+    public int getFirstSubtask() { return firstSubtask; }
+    public int getNumSubtasks() { return nSubtasks; }
+    public double[] getPosition() { return position; }
 }
@@ -1,8 +1,8 @@
 package modules.planner;
 
-import madkit.kernel.AbstractAgent;
 import madkit.kernel.AgentAddress;
 import madkit.kernel.Message;
+import modules.actions.MeasurementAction;
 import modules.actions.MessageAction;
 import modules.actions.SimulationAction;
 import modules.agents.SatelliteAgent;
@@ -11,17 +11,46 @@ import modules.measurements.Requirement;
 import modules.measurements.RequirementPerformance;
 import modules.messages.PlannerMessage;
 import modules.messages.RelayMessage;
-import modules.orbitData.CLAccess;
+import modules.orbitData.AccessTable;
+import modules.orbitData.EphemerisStore;
 import modules.orbitData.GndAccess;
-import modules.planner.CCBBA.CommsLoop;
+import modules.orbitData.OrbitData;
+import modules.planner.CCBBA.*;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.time.AbsoluteDate;
+import seakers.orekit.object.Instrument;
 import seakers.orekit.object.Satellite;
 
 import java.util.*;
 
-import static modules.utils.Statistics.permutations;
-
+/**
+ * Consensus-Constrained Bundle Algorithm planner. Each satellite greedily builds a bundle of measurement requests it
+ * can perform, bidding the utility it expects to obtain from each, and exchanges its bid table with the rest of the
+ * constellation through communication loops until every satellite agrees on a single winner per request.
+ *
+ * Every request is currently treated as a task with a single subtask, and bids are scored from the utility of the
+ * measurement's expected performance and how late in its availability window it is scheduled. Bid tables are stored as flat
+ * arrays indexed by dense subtask ids, marginal scores are cached between bundle iterations and only recalculated
+ * for the gaps of the path that changed, and consensus messages only carry the rows that changed since the
+ * previous message.
+ */
 public class CCBBAPlanner extends AbstractPlanner{
+    /**
+     * Maximum number of relay paths considered per target satellite and number of satellites in the relay chain
+     */
+    public static final int PATHS_PER_LENGTH = 8;
+
+    /**
+     * Maximum number of subtasks a satellite may hold in its bundle at once
+     */
+    public static final int MAX_BUNDLE_SIZE = 10;
+
+    /**
+     * Fraction of a request's utility lost when it is measured at the end of its availability window instead of
+     * at its start
+     */
+    public static final double LATENESS_PENALTY = 0.5;
+
     /**
      * Toggle for using synchronous of asynchronous communication loops
      * True     = synchronous loops will be used
@@ -35,9 +64,58 @@ public class CCBBAPlanner extends AbstractPlanner{
     private HashMap<Satellite, HashMap<Integer, ArrayList<CommsLoop>>> commsLoops;
 
     /**
-     *
+     * Times at which the satellite reconsiders its bids, in seconds from the simulation start date
+     */
+    private ArrayList<Double> rescheduleTimes;
+    private int nextReschedule;
+
+    /**
+     * Id of the parent satellite and sensor ids of its field-of-regard instruments
      */
-    private ArrayList<AbsoluteDate> rescheduleTimes;
+    private int agentId;
+    private int[] forSensors;
+
+    /**
+     * Known tasks, indexed by their dense id and by the id of their measurement request, and their subtasks indexed
+     * by their dense id
+     */
+    private ArrayList<Task> tasks;
+    private HashMap<Integer, Task> tasksByRequest;
+    private ArrayList<Subtask> subtasks;
+
+    /**
+     * Bid table shared by all subtasks
+     */
+    private BidResults results;
+
+    /**
+     * Subtasks won by the parent satellite in the order in which they were added, and in the order in which they
+     * will be performed
+     */
+    private ArrayList<Integer> bundle;
+    private ArrayList<Integer> path;
+
+    /**
+     * Roll angle of the last measurement performed, in radians
+     */
+    private double lastRoll;
+
+    /**
+     * Rows of the bid table not yet sent to each sensing satellite, and next time at which a satellite that could
+     * not be reached comes within the planning horizon
+     */
+    private HashMap<Satellite, LinkedHashSet<Integer>> pendingResults;
+    private double nextSendTime;
+
+    /**
+     * True if a new access window was loaded since the bundle was last rebuilt
+     */
+    private boolean accessesChanged;
+
+    /**
+     * Number of new requests received since the bundle was last rebuilt
+     */
+    private int newRequests;
 
     /**
      * Initializes CCBBA planner
@@ -52,30 +130,76 @@ public class CCBBAPlanner extends AbstractPlanner{
 
         this.knownRequests = new ArrayList<>();
         this.activeRequests = new ArrayList<>();
+
+        this.tasks = new ArrayList<>();
+        this.tasksByRequest = new HashMap<>();
+        this.subtasks = new ArrayList<>();
+        this.results = new BidResults(64);
+        this.bundle = new ArrayList<>();
+        this.path = new ArrayList<>();
+        this.newRequests = 0;
+        this.pendingResults = new HashMap<>();
+        this.nextSendTime = Double.POSITIVE_INFINITY;
     }
 
     /**
-     * Initializes plan
-     * @return
+     * Initializes plan. No measurements are scheduled until requests are received.
+     * @return a blank linked list of actions for the agent
      */
     @Override
     public LinkedList<SimulationAction> initPlan() {
+        this.plan = new ArrayList<>();
+
+        OrbitData orbitData = parentAgent.getOrbitData();
+        this.agentId = orbitData.getSatId(parentAgent.getSat());
+        this.lastRoll = parentAgent.getAttitude().getRollAngle();
+
+        ArrayList<Integer> sensors = new ArrayList<>();
+        for(Instrument ins : parentAgent.getSat().getPayload()){
+            if(ins.getName().contains("_FOR")) sensors.add(orbitData.getSensorId(parentAgent.getSat(), ins));
+        }
+        this.forSensors = new int[sensors.size()];
+        for(int i = 0; i < forSensors.length; i++) forSensors[i] = sensors.get(i);
+
         try {
             // calculate all communication loop time windows for all satellites
             this.commsLoops = generateCommsLoops(crossLinks, syncCommLoops);
 
             // calculate all predetermined times for rescheduling
             rescheduleTimes = calculateReschedulingTimes();
+            nextReschedule = 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * Recalculates communication loops, rescheduling times and bids once a new access window is loaded
+     * @param after : time in seconds from the simulation start date after which new accesses were loaded
+     */
+    @Override
+    public void extendPlan(double after){
+        // bids may use the accesses of the newly loaded window
+        results.invalidateAll();
+        accessesChanged = true;
+
+        try {
+            this.commsLoops = generateCommsLoops(crossLinks, syncCommLoops);
 
-//            this.plan = nominalPlanner();
+            ArrayList<Double> times = calculateReschedulingTimes();
+            times.removeIf(t -> t <= after);
+            rescheduleTimes.subList(0, nextReschedule).clear();
+            nextReschedule = 0;
+            rescheduleTimes.removeIf(t -> t > after);
+            rescheduleTimes.addAll(times);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return null;
     }
 
     @Override
-    public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap, SatelliteAgent agent, AbsoluteDate currentDate) throws Exception {
+    public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap, SatelliteAgent agent, double currentTime) throws Exception {
 
         // for all received relay requests, schedule message to the next target at the next available access
         ArrayList<RelayMessage> relayReqs = readRelayMessages(messageMap);
@@ -83,16 +207,18 @@ public class CCBBAPlanner extends AbstractPlanner{
         for(Message message : relayReqs){
             RelayMessage relayMessage = (RelayMessage) message;
 
-            Message messageToSend = relayMessage.getMessageToRelay();
             AgentAddress targetAddress = relayMessage.getNextTarget();
+            Message messageToSend = relayMessage.getMessageToRelay();
 
             if(targetAddress == agent.getMyAddress()) throw new Exception("Relay Error. Check intended receiver");
 
-            ArrayList<AbsoluteDate> nextAccess = agent.getNextAccess(targetAddress);
-            AbsoluteDate startDate = nextAccess.get(0);
-            AbsoluteDate endDate = nextAccess.get(1);
+            ArrayList<Double> nextAccess = agent.getNextAccess(targetAddress);
+            if(nextAccess == null || nextAccess.isEmpty()) continue;
+            double startTime = Math.max(nextAccess.get(0), currentTime);
+            double endTime = Math.max(nextAccess.get(1), startTime);
 
-            MessageAction action = new MessageAction(agent,targetAddress, messageToSend, startDate, endDate);
+            MessageAction action = new MessageAction(agent,targetAddress, messageToSend,
+                    agent.getStartDate(), startTime, endTime);
             addToPlan(action);
         }
 
@@ -103,25 +229,414 @@ public class CCBBAPlanner extends AbstractPlanner{
         // -if more than the threshold number of new requests are detected, if planner messages change biding results, if a ground station is accessed, or the end of a planning horizon is reached, reconsider schedule
 
         // -check if new measurement requests have been received
-        boolean newMeasurementRequests = false;
         for(MeasurementRequest newReq : receivedReqs){
-            if(!knownRequests.contains(newReq)){
-                knownRequests.add(newReq);
-                newMeasurementRequests = true;
-            }
+            addTask(newReq);
         }
 
         // -read incoming planner messages and update
+        boolean resultsChanged = false;
+        for(PlannerMessage message : plannerMessages){
+            resultsChanged |= consensus(message);
+        }
+        boolean outbid = checkBundle(currentTime);
 
+        boolean reschedule = false;
+        while(nextReschedule < rescheduleTimes.size() && rescheduleTimes.get(nextReschedule) <= currentTime){
+            reschedule = true;
+            nextReschedule++;
+        }
+
+        // -rebuild bundle if needed and perform measurements that are due
+        if(reschedule || outbid || resultsChanged || accessesChanged
+                || newRequests >= Math.max(requestThreshold, 1)){
+            buildBundle(currentTime);
+            newRequests = 0;
+            accessesChanged = false;
+        }
+        LinkedList<SimulationAction> actions = dispatchMeasurements(currentTime);
+
+        // -share changes in bidding results with the rest of the constellation
+        sendResults(currentTime);
 
         // -return next available actions in plan
-        return null;
+        Iterator<SimulationAction> it = plan.iterator();
+        while(it.hasNext()){
+            SimulationAction action = it.next();
+            if(action.getStartTime() > currentTime) break;
+            actions.add(action);
+            it.remove();
+        }
+        actions.sort(Comparator.comparingDouble(SimulationAction::getStartTime));
+        return actions;
+    }
+
+    /**
+     * Returns the next time at which the plan requires the parent agent to act, including the next scheduled
+     * measurement, the next time at which bids must be reconsidered, and the next time pending results can be sent
+     */
+    @Override
+    public double nextEventTime(double t){
+        double next = super.nextEventTime(t);
+        if(!path.isEmpty()) next = Math.min(next, results.getBidTime(path.get(0)));
+        if(nextSendTime > t) next = Math.min(next, nextSendTime);
+        for(int i = nextReschedule; i < rescheduleTimes.size(); i++){
+            if(rescheduleTimes.get(i) > t){
+                next = Math.min(next, rescheduleTimes.get(i));
+                break;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Registers a measurement request as a new task with a single subtask
+     * @param request : measurement request
+     * @return task of the request
+     */
+    private Task addTask(MeasurementRequest request) throws Exception {
+        Task task = tasksByRequest.get(request.getId());
+        if(task != null) return task;
+
+        Vector3D position = parentAgent.getOrbitData()
+                .getPointPosition(request.getLocation(), parentAgent.getStartDate());
+        task = new Task(tasks.size(), request, subtasks.size(), 1,
+                new double[]{position.getX(), position.getY(), position.getZ()});
+        tasks.add(task);
+        tasksByRequest.put(request.getId(), task);
+        knownRequests.add(request);
+
+        int row = results.addRow();
+        subtasks.add(new Subtask(row, task, 0));
+        newRequests++;
+
+        return task;
+    }
+
+    /**
+     * Updates the bid table with the rows received from another planner
+     * @param message : consensus message from another planner
+     * @return true if any row was updated
+     */
+    private boolean consensus(PlannerMessage message) throws Exception {
+        boolean updated = false;
+        int sender = message.getSenderId();
+
+        for(SubtaskResult result : message.getResults()){
+            Task task = addTask(result.getRequest());
+            int j = task.getFirstSubtask() + result.getIndex();
+            if(results.merge(j, result, sender, agentId)) updated = true;
+        }
+
+        return updated;
+    }
+
+    /**
+     * Releases the first subtask of the bundle that was won by another satellite and every subtask added after it,
+     * as their bids depended on it
+     * @param currentTime : current time in seconds from the simulation start date
+     * @return true if the bundle changed
+     */
+    private boolean checkBundle(double currentTime){
+        int lost = -1;
+        for(int b = 0; b < bundle.size(); b++){
+            if(results.getWinner(bundle.get(b)) != agentId){
+                lost = b;
+                break;
+            }
+        }
+        if(lost < 0) return false;
+
+        for(int b = lost; b < bundle.size(); b++){
+            int j = bundle.get(b);
+            path.remove((Integer) j);
+            if(results.getWinner(j) == agentId) results.release(j, currentTime);
+        }
+        bundle.subList(lost, bundle.size()).clear();
+        results.invalidateAll();
+
+        return true;
+    }
+
+    /**
+     * Removes the subtasks scheduled up to the current time from the path and turns them into measurement actions
+     * @param currentTime : current time in seconds from the simulation start date
+     * @return measurement actions to be performed
+     */
+    private LinkedList<SimulationAction> dispatchMeasurements(double currentTime){
+        LinkedList<SimulationAction> actions = new LinkedList<>();
+        OrbitData orbitData = parentAgent.getOrbitData();
+
+        while(!path.isEmpty() && results.getBidTime(path.get(0)) <= currentTime){
+            int j = path.remove(0);
+            bundle.remove((Integer) j);
+            results.close(j);
+            results.removedFirst();
+
+            double t = results.getBidTime(j);
+            Instrument ins = orbitData.getSensorInstrument(results.getBidSensor(j));
+            MeasurementRequest request = subtasks.get(j).getTask().getRequest();
+            // the action ends at the current time so that it is performed on this step
+            actions.add(new MeasurementAction(parentAgent, ins, request, parentAgent.getStartDate(), t, currentTime));
+            lastRoll = results.getBidRoll(j);
+        }
+        return actions;
+    }
+
+    /**
+     * Greedily adds the subtask with the highest marginal score to the bundle until it is full or no subtask can be
+     * won. Only marginal scores of subtasks whose gap in the path changed are recalculated, and they are evaluated
+     * as a single batch on every iteration. Ties between bids go to the subtask with the lowest id.
+     * @param currentTime : current time in seconds from the simulation start date
+     */
+    private void buildBundle(double currentTime) throws Exception {
+        // the first gap of the path always starts at the current time
+        results.invalidateGap(0);
+        int[] candidates = new int[results.size()];
+
+        while(bundle.size() < MAX_BUNDLE_SIZE){
+            // -recalculate bids invalidated by the last change to the path
+            int nCandidates = 0;
+            for(int j = 0; j < results.size(); j++){
+                if(results.isClosed(j) || results.getWinner(j) == agentId) continue;
+
+                MeasurementRequest request = subtasks.get(j).getTask().getRequest();
+                if(request.getEndTime() < currentTime){
+                    results.close(j);
+                    continue;
+                }
+
+                if(results.isStale(j)) candidates[nCandidates++] = j;
+            }
+            evaluateBids(nCandidates, (i, scratch) -> calcBid(candidates[i], currentTime, scratch));
+
+            // -choose the best bid that outbids the current winner
+            int best = -1;
+            double bestScore = 0.0;
+            for(int j = 0; j < results.size(); j++){
+                if(results.isClosed(j) || results.getWinner(j) == agentId) continue;
+
+                double c = results.getBid(j);
+                if(c > bestScore && BidResults.outbids(c, agentId, results.getWinningBid(j), results.getWinner(j))){
+                    best = j;
+                    bestScore = c;
+                }
+            }
+            if(best < 0) break;
+
+            int position = results.getInsertAt(best);
+            path.add(position, best);
+            bundle.add(best);
+            results.setWinner(best, agentId, bestScore, results.getBidTime(best), currentTime);
+            results.inserted(position);
+        }
+    }
+
+    /**
+     * Calculates the marginal score of adding a subtask to the path. For every gap of the path, the measurement is
+     * placed at the earliest time a field-of-regard instrument accesses the target and the satellite can slew to and
+     * from it in time, and the bid is placed in the gap with the highest score. Only writes to the subtask's own row
+     * of the bid table, so bids of different subtasks may be calculated concurrently.
+     * @param j : id of the subtask
+     * @param currentTime : current time in seconds from the simulation start date
+     * @param scratch : buffers of the calling thread
+     */
+    private void calcBid(int j, double currentTime, BidScratch scratch) throws Exception {
+        Task task = subtasks.get(j).getTask();
+        MeasurementRequest request = task.getRequest();
+        OrbitData orbitData = parentAgent.getOrbitData();
+        AccessTable accesses = parentAgent.getAccesses().getAccessesGPIns();
+        int point = orbitData.getPointId(request.getLocation());
+        double acc = parentAgent.getAttitude().getPeakRollAcc();
+
+        double bestScore = 0.0;
+        int bestPosition = -1;
+        int bestSensor = -1;
+        double bestTime = Double.NaN;
+        double bestRoll = Double.NaN;
+
+        for(int p = 0; p <= path.size(); p++){
+            double prevTime = p == 0 ? currentTime : results.getBidTime(path.get(p-1));
+            double prevRoll = p == 0 ? lastRoll : results.getBidRoll(path.get(p-1));
+            double nextTime = p == path.size() ? Double.POSITIVE_INFINITY : results.getBidTime(path.get(p));
+            double nextRoll = p == path.size() ? 0.0 : results.getBidRoll(path.get(p));
+
+            double lower = Math.max(prevTime, request.getStartTime());
+            double upper = Math.min(nextTime, request.getEndTime());
+            if(lower > upper) continue;
+
+            // -earliest feasible measurement in this gap
+            double gapTime = Double.POSITIVE_INFINITY;
+            double gapRoll = Double.NaN;
+            int gapSensor = -1;
+            for(int sensor : forSensors){
+                int end = accesses.overlapEnd(sensor, point, upper);
+                for(int i = accesses.overlapStart(sensor, point, lower); i < end; i++){
+                    double t = Math.max(accesses.getRise(i), lower);
+                    if(t >= gapTime) break;
+
+                    double roll = rollAngle(task, t, scratch);
+                    t = Math.max(t, prevTime + maneuverTime(prevRoll, roll, acc));
+                    if(t > Math.min(accesses.getSet(i), upper) || t >= gapTime) continue;
+
+                    roll = rollAngle(task, t, scratch);
+                    if(t + maneuverTime(roll, nextRoll, acc) > nextTime) continue;
+
+                    gapTime = t;
+                    gapRoll = roll;
+                    gapSensor = sensor;
+                    break;
+                }
+            }
+            if(gapSensor < 0) continue;
+
+            double score = score(request, gapTime);
+            if(score > bestScore){
+                bestScore = score;
+                bestPosition = p;
+                bestSensor = gapSensor;
+                bestTime = gapTime;
+                bestRoll = gapRoll;
+            }
+        }
+
+        results.setBid(j, bestScore, bestPosition, bestSensor, bestTime, bestRoll);
+    }
+
+    /**
+     * Score of performing a measurement at a given time. The request's utility is discounted the later the
+     * measurement is performed within the request's availability window. The utility does not depend on the
+     * expected performance of the measurement, so performance is not calculated for bids.
+     */
+    private double score(MeasurementRequest request, double t){
+        double duration = request.getEndTime() - request.getStartTime();
+        double lateness = duration > 0.0 ? (t - request.getStartTime()) / duration : 0.0;
+        return calcUtility(request, null) * (1.0 - LATENESS_PENALTY * lateness);
+    }
+
+    /**
+     * Roll angle needed to point the satellite at the location of a task, measured from nadir around the
+     * satellite's direction of motion. The satellite's state is interpolated from the stored ephemeris, and only
+     * propagated for times outside of its span.
+     * @param task : task being measured
+     * @param t : time in seconds from the simulation start date
+     * @param scratch : buffers of the calling thread
+     * @return roll angle in radians
+     */
+    private double rollAngle(Task task, double t, BidScratch scratch) throws Exception {
+        OrbitData orbitData = parentAgent.getOrbitData();
+        EphemerisStore ephemeris = orbitData.getEphemeris();
+        double[] pv = scratch.pv;
+
+        if(ephemeris != null && ephemeris.contains(t)){
+            ephemeris.getPV(agentId, t, pv);
+        }
+        else{
+            AbsoluteDate date = parentAgent.getStartDate().shiftedBy(t);
+            Vector3D pos = orbitData.getSatPosition(parentAgent.getSat(), date);
+            Vector3D vel = orbitData.getSatVelocity(parentAgent.getSat(), date);
+            pv[0] = pos.getX(); pv[1] = pos.getY(); pv[2] = pos.getZ();
+            pv[3] = vel.getX(); pv[4] = vel.getY(); pv[5] = vel.getZ();
+        }
+
+        // line of sight to the target
+        double[] los = scratch.los;
+        double[] target = task.getPosition();
+        for(int k = 0; k < 3; k++) los[k] = target[k] - pv[k];
+
+        // nadir direction z and cross-track direction y = z x v
+        double r = Math.sqrt(pv[0]*pv[0] + pv[1]*pv[1] + pv[2]*pv[2]);
+        double zx = -pv[0]/r, zy = -pv[1]/r, zz = -pv[2]/r;
+        double yx = zy*pv[5] - zz*pv[4];
+        double yy = zz*pv[3] - zx*pv[5];
+        double yz = zx*pv[4] - zy*pv[3];
+        double ny = Math.sqrt(yx*yx + yy*yy + yz*yz);
+
+        double losY = (los[0]*yx + los[1]*yy + los[2]*yz) / ny;
+        double losZ = los[0]*zx + los[1]*zy + los[2]*zz;
+        return Math.atan2(losY, losZ);
+    }
+
+    /**
+     * Duration of a rest-to-rest roll maneuver with a bang-bang acceleration profile
+     */
+    private static double maneuverTime(double fromRoll, double toRoll, double peakRollAcc){
+        return Math.sqrt( 8.0 * Math.abs(fromRoll - toRoll) / peakRollAcc );
+    }
+
+    /**
+     * Sends the rows of the bid table that changed since the last message to every other sensing satellite
+     * through the earliest communication loop available with it within the planning horizon. Rows stay pending
+     * for every satellite that can not be reached yet until a message to it is planned.
+     * @param currentTime : current time in seconds from the simulation start date
+     */
+    private void sendResults(double currentTime){
+        int[] changed = results.drainChanged();
+        for(Satellite target : commsLoops.keySet()){
+            LinkedHashSet<Integer> rows = pendingResults.computeIfAbsent(target, k -> new LinkedHashSet<>());
+            for(int j : changed) rows.add(j);
+        }
+
+        nextSendTime = Double.POSITIVE_INFINITY;
+        for(Satellite target : pendingResults.keySet()){
+            LinkedHashSet<Integer> pending = pendingResults.get(target);
+            if(pending.isEmpty() || !commsLoops.containsKey(target)) continue;
+
+            CommsLoop loop = nextLoop(target, currentTime);
+            if(loop == null) continue;
+
+            double[] firstLink = loop.getAccessTimes().get(0);
+            double startTime = Math.max(firstLink[0], currentTime);
+            if(startTime > currentTime + planningHorizon){
+                // -try again once the loop enters the planning horizon
+                nextSendTime = Math.min(nextSendTime, startTime - planningHorizon);
+                continue;
+            }
+
+            ArrayList<SubtaskResult> rows = new ArrayList<>(pending.size());
+            for(int j : pending){
+                Subtask subtask = subtasks.get(j);
+                rows.add(new SubtaskResult(subtask.getTask().getRequest(), subtask.getIndex(), results.getWinner(j),
+                        results.getWinningBid(j), results.getMeasurementTime(j), results.getTimestamp(j)));
+            }
+            pending.clear();
+
+            Message message = new PlannerMessage(agentId, currentTime, rows);
+            ArrayList<Satellite> loopPath = loop.getPath();
+            if(loopPath.size() > 2){
+                LinkedList<AgentAddress> relays = new LinkedList<>();
+                for(int i = 2; i < loopPath.size(); i++) relays.add(parentAgent.getTargetAddress(loopPath.get(i)));
+                message = new RelayMessage(message, parentAgent.getMyAddress(), relays);
+            }
+
+            MessageAction action = new MessageAction(parentAgent, parentAgent.getTargetAddress(loopPath.get(1)),
+                    message, parentAgent.getStartDate(), startTime, Math.max(firstLink[1], startTime));
+            addToPlan(action);
+        }
+    }
+
+    /**
+     * Returns the communication loop with a target satellite that delivers a message sent at a given time the
+     * earliest
+     * @param target : target satellite
+     * @param t : time in seconds from the simulation start date
+     * @return communication loop, or null if there is none
+     */
+    private CommsLoop nextLoop(Satellite target, double t){
+        CommsLoop best = null;
+        for(ArrayList<CommsLoop> loops : commsLoops.get(target).values()){
+            for(CommsLoop loop : loops){
+                if(best != null && loop.getStartTime() >= best.getEndTime()) break;
+                if(loop.getAccessTimes().get(0)[1] <= t) continue;
+                if(best == null || loop.getEndTime() < best.getEndTime()) best = loop;
+            }
+        }
+        return best;
     }
 
     private void addToPlan(SimulationAction newAction){
         int i = 0;
         for(SimulationAction action : plan){
-            if(newAction.getStartDate().compareTo(action.getStartDate()) > 0){
+            if(newAction.getStartTime() < action.getStartTime()){
                 break;
             }
             i++;
@@ -139,16 +654,14 @@ public class CCBBAPlanner extends AbstractPlanner{
      * Calculates the times when the satellite is forced to reconsider its bids. Does this only when the satellite accesses a ground station or reaches the end of a planning horizon interval
      * @return array containing all rescheduling times in chronological order
      */
-    private ArrayList<AbsoluteDate> calculateReschedulingTimes(){
+    private ArrayList<Double> calculateReschedulingTimes(){
         // -based on planning horizon
-        ArrayList<AbsoluteDate> rescheduleTimes = new ArrayList<>();
-        AbsoluteDate startDate = parentAgent.getStartDate();
-        AbsoluteDate endDate = parentAgent.getEndDate();
+        ArrayList<Double> rescheduleTimes = new ArrayList<>();
+        double simDuration = parentAgent.getEndDate().durationFrom(parentAgent.getStartDate());
 
         double t = 0.0;
-        while(endDate.compareTo(startDate.shiftedBy(t)) > 0){
-            AbsoluteDate planDate = startDate.shiftedBy(t);
-            rescheduleTimes.add(planDate);
+        while(simDuration > t){
+            rescheduleTimes.add(t);
 
             t += planningHorizon;
         }
@@ -156,16 +669,16 @@ public class CCBBAPlanner extends AbstractPlanner{
         // -based on ground station access
         ArrayList<GndAccess> orderedGndAccess = parentAgent.getOrderedGndAccesses();
         for(GndAccess access : orderedGndAccess){
-            AbsoluteDate planDate = access.getStartDate();
+            double planTime = access.getStartTime();
 
             int i = 0;
-            for(AbsoluteDate plannedDate : rescheduleTimes){
-                if(planDate.compareTo(plannedDate) < 0){
+            for(double plannedTime : rescheduleTimes){
+                if(planTime < plannedTime){
                     break;
                 }
                 i++;
             }
-            rescheduleTimes.add(i,planDate);
+            rescheduleTimes.add(i,planTime);
         }
 
         return rescheduleTimes;
@@ -182,6 +695,11 @@ public class CCBBAPlanner extends AbstractPlanner{
     private  HashMap<Satellite, HashMap<Integer, ArrayList<CommsLoop>>> generateCommsLoops(boolean crossLinks, boolean syncCommLoops) throws Exception {
         HashMap<Satellite, HashMap<Integer, ArrayList<CommsLoop>>> loops = new HashMap<>();
 
+        // only relays through comms satellites are allowed without cross links
+        int maxSats = crossLinks ? parentAgent.getSatAddresses().keySet().size() : 3;
+        ContactGraph graph = generateContactGraph(crossLinks);
+        LoopWindows loopWindows = new LoopWindows(parentAgent.getAccesses().getAccessesCL());
+
         for(Satellite targetSat : parentAgent.getSatAddresses().keySet()){
             if(targetSat.equals(parentAgent.getSat())
                     && targetSat.getName().equals(parentAgent.getSat().getName())) {
@@ -191,20 +709,24 @@ public class CCBBAPlanner extends AbstractPlanner{
                 continue;
             }
 
+            HashMap<Integer, ArrayList<ArrayList<Satellite>>> pathsByLength
+                    = generatePaths(graph, targetSat, maxSats, syncCommLoops);
+
             loops.put(targetSat, new HashMap<>());
-            for(int i = 2; i <= parentAgent.getSatAddresses().keySet().size(); i++){
+            for(int i = 2; i <= maxSats; i++){
                 if(!crossLinks && i != 3){
                     continue;
                 }
 
-                ArrayList<CommsLoop> availableLoops = null;
-                ArrayList<ArrayList<Satellite>> paths = generatePaths(targetSat, i, crossLinks);
+                ArrayList<CommsLoop> availableLoops = new ArrayList<>();
+                ArrayList<ArrayList<Satellite>> paths = pathsByLength.getOrDefault(i, new ArrayList<>());
 
                 for(ArrayList<Satellite> path : paths){
-                    availableLoops = generateLoopsForPath(path, syncCommLoops);
+                    availableLoops.addAll(generateLoopsForPath(loopWindows, path, syncCommLoops));
                 }
+                availableLoops.sort(Comparator.comparingDouble(CommsLoop::getStartTime));
 
-                if(availableLoops != null && availableLoops.size() > 0) {
+                if(availableLoops.size() > 0) {
                     loops.get(targetSat).put(i, availableLoops);
                 }
             }
@@ -213,210 +735,78 @@ public class CCBBAPlanner extends AbstractPlanner{
         return loops;
     }
 
+    /**
+     * Builds the contact graph of the constellation from the cross link accesses loaded by the parent agent
+     * @param crossLinks : allows for links between two sensing satellites
+     * @return contact graph indexed by satellite id
+     */
+    private ContactGraph generateContactGraph(boolean crossLinks){
+        OrbitData orbitData = parentAgent.getOrbitData();
+        boolean[] commsSats = new boolean[orbitData.numSats()];
+        for(int id = 0; id < commsSats.length; id++) commsSats[id] = orbitData.isCommsSat(orbitData.getSat(id));
+
+        return new ContactGraph(parentAgent.getAccesses().getAccessesCL(), commsSats, crossLinks);
+    }
+
     /**
      * Given a path to be analysed, generates an array of communication loops that are available for that path
+     * @param loopWindows : loop window calculator shared by all paths of this satellite
      * @param path : desired path to be estimated
      * @param syncCommLoops : if true, requires synchronized comms loops, else it allows for asyncrhonous intervals
      * @return List of all possible comms loops for a given paths at different times in the simulation
-     * @throws Exception throws an exception if Cross Link Accesses function fails
      */
-    private ArrayList<CommsLoop> generateLoopsForPath(ArrayList<Satellite> path, boolean syncCommLoops) throws Exception {
+    private ArrayList<CommsLoop> generateLoopsForPath(LoopWindows loopWindows, ArrayList<Satellite> path,
+                                                      boolean syncCommLoops) {
         ArrayList<CommsLoop> loops = new ArrayList<>();
-        // for every edge in the graph, find an access interval
-        ArrayList<ArrayList<CLAccess>> accesses = new ArrayList<>();
-        for(int i = 0; i < path.size()-1; i++){
-            Satellite sender = path.get(i);
-            Satellite receiver = path.get(i+1);
-            accesses.add(parentAgent.orderCLAccesses(sender,receiver));
-        }
-
-        if(accesses.isEmpty()) return loops;
-
-        for(CLAccess firstAccess : accesses.get(0)){
-            ArrayList<ArrayList<AbsoluteDate>> accessDates = new ArrayList<>();
-
-            ArrayList<AbsoluteDate> accessInterval = new ArrayList<>();
-            accessInterval.add(firstAccess.getStartDate()); accessInterval.add(firstAccess.getEndDate());
-
-            accessDates.add(accessInterval);
-            for(ArrayList<CLAccess> edgeAccess : accesses){
-                if(edgeAccess == accesses.get(0)) continue;
-
-                for(CLAccess iAccess : edgeAccess){
-                    ArrayList<AbsoluteDate> iInterval = new ArrayList<>();
-                    iInterval.add(iAccess.getStartDate()); iInterval.add(iAccess.getEndDate());
-
-                    if(syncCommLoops){
-                        // only allows intervals that overlap
-                        if(iAccess.getStartDate().compareTo(accessInterval.get(1)) <= 0
-                        && iAccess.getEndDate().compareTo(accessInterval.get(0)) >= 0){
-
-                            // updates overall access interval dates
-                            if(iAccess.getStartDate().compareTo(accessInterval.get(0)) <= 0){
-                                if(iAccess.getEndDate().compareTo(accessInterval.get(1)) <= 0){
-                                    accessInterval.set(1,iAccess.getEndDate());
-                                }
-                            }
-                            else if(iAccess.getEndDate().compareTo(accessInterval.get(1)) <= 0){
-                                accessInterval.set(0,iAccess.getStartDate());
-                                accessInterval.set(1,iAccess.getEndDate());
-                            }
-                            else {
-                                accessInterval.set(0,iAccess.getStartDate());
-                            }
-
-                            // adds access interval to access dates
-                            accessDates.add(iInterval);
-                            break;
-                        }
-                    }
-                    else{
-                        if(iAccess.getStartDate().compareTo(accessInterval.get(0)) <= 0){
-                            // adds access interval to access dates
-                            accessDates.add(iInterval);
-                            break;
-                        }
-                    }
-                }
+        if(path.size() < 2) return loops;
+
+        OrbitData orbitData = parentAgent.getOrbitData();
+        int[] ids = new int[path.size()];
+        for(int i = 0; i < path.size(); i++) ids[i] = orbitData.getSatId(path.get(i));
+
+        ArrayList<double[]> windows = syncCommLoops ? loopWindows.synchronousWindows(ids)
+                                                    : loopWindows.asynchronousWindows(ids);
+        for(double[] window : windows){
+            // access used on each edge of the path
+            ArrayList<double[]> accessTimes = new ArrayList<>(path.size()-1);
+            for(int i = 0; i < path.size()-1; i++){
+                accessTimes.add(new double[]{window[2 + 2*i], window[3 + 2*i]});
             }
 
-            if(accessDates.size() == path.size()-1){
-                Satellite sender = path.get(0);
-                Satellite receiver = path.get(1);
-                AbsoluteDate startDate = accessInterval.get(0);
-                AbsoluteDate endDate = accessInterval.get(1);
-
-                loops.add(new CommsLoop(sender, receiver, path, startDate, endDate, accessDates));
-            }
+            loops.add(new CommsLoop(path.get(0), path.get(1), path, window[0], window[1], accessTimes));
         }
 
         return loops;
     }
 
     /**
-     * Returns all possible paths of size n to a desired target satellite
+     * Returns the earliest paths from the parent satellite to a desired target satellite through the contact graph
+     * @param graph : contact graph of the constellation
      * @param target : target satellite
-     * @param n : number of sats in path including start and end points
-     * @return
+     * @param maxSats : maximum number of sats in a path including start and end points
+     * @param syncCommLoops : if true, all links of a path must be open at the same time
+     * @return map of the number of sats in a path to the paths of that size
      */
-    private ArrayList<ArrayList<Satellite>> generatePaths(Satellite target, int n, boolean crossLinks){
-        int numPaths = countPaths(n);
-        ArrayList<ArrayList<Satellite>> paths = new ArrayList<>(numPaths);
-        ArrayList<ArrayList<Integer>> pathsInt = new ArrayList<>(numPaths);
-        ArrayList<Satellite> satList = new ArrayList<>(parentAgent.getSatAddresses().keySet());
-        ArrayList<String> satNames = new ArrayList<>();
-
-        int[] indeces = new int[satList.size()];
-        for(int i = 0; i < satList.size(); i++) {
-            indeces[i] = i;
-            satNames.add(satList.get(i).getName());
-        }
-
-        ArrayList<int[]> permutIndeces = new ArrayList<>();
-        getPermutations(satList.size(), indeces, permutIndeces);
-
-        int i_sender = satNames.indexOf(parentAgent.getSat().getName());
-        int i_receiver = satNames.indexOf(target.getName());
-
-        for(int i = 0; i < permutIndeces.size(); i++){
-            int i_first = permutIndeces.get(i)[0];
-            int i_end = permutIndeces.get(i)[n-1];
-
-            if(i_first == i_sender
-                    && i_end == i_receiver){
-
-                ArrayList<Satellite> path = new ArrayList<>();
-                ArrayList<Integer> pathInt = new ArrayList<>();
-                for(int j = 0; j <= n-1; j++){
-                    path.add(satList.get(permutIndeces.get(i)[j]));
-                    pathInt.add(permutIndeces.get(i)[j]);
-                }
-
-                // check for duplicates
-                boolean duplicate = false;
-                for(int j = 0; j < paths.size(); j++){
-                    int dupCounter = 0;
-
-                    for(int k = 0; k < n; k++){
-                        if(pathsInt.get(j).get(k).equals(pathInt.get(k))){
-                            dupCounter++;
-                        }
-                    }
-
-                    if(dupCounter == n){
-                        duplicate = true;
-                        break;
-                    }
-                }
-
-
-
-                // check if crossLinks are required in path
-                boolean links = false;
-                for(int j = 0; j < path.size()-1; j++){
-                    Satellite sat_j = path.get(j);
-                    Satellite sat_jp = path.get(j+1);
-
-                    if(!parentAgent.isCommsSat(sat_j) && !parentAgent.isCommsSat(sat_j)){
-                        links = true;
-                    }
-                }
-
-                // check if crossLinks are allowed
-                boolean allowed = true;
-                if(!crossLinks && links) allowed = false; // if cross links exist and are not allowed, do not allow path
-
-                if(!duplicate && allowed) {
-                    paths.add(path);
-                    pathsInt.add(pathInt);
-                }
-
+    private HashMap<Integer, ArrayList<ArrayList<Satellite>>> generatePaths(ContactGraph graph, Satellite target,
+                                                                            int maxSats, boolean syncCommLoops){
+        OrbitData orbitData = parentAgent.getOrbitData();
+        int sender = orbitData.getSatId(parentAgent.getSat());
+        int receiver = orbitData.getSatId(target);
+
+        HashMap<Integer, ArrayList<ArrayList<Satellite>>> paths = new HashMap<>();
+        HashMap<Integer, ArrayList<int[]>> idPaths
+                = graph.paths(sender, receiver, maxSats - 1, PATHS_PER_LENGTH, syncCommLoops);
+
+        for(Integer n : idPaths.keySet()){
+            ArrayList<ArrayList<Satellite>> pathsOfSize = new ArrayList<>(idPaths.get(n).size());
+            for(int[] idPath : idPaths.get(n)){
+                ArrayList<Satellite> path = new ArrayList<>(idPath.length);
+                for(int id : idPath) path.add(orbitData.getSat(id));
+                pathsOfSize.add(path);
             }
+            paths.put(n, pathsOfSize);
         }
 
         return paths;
     }
-
-    public static void getPermutations(int n, int[] elements, ArrayList<int[]> permutations) {
-
-        if(n == 1) {
-            int[] newElements = new int[elements.length];
-            for(int i = 0; i < elements.length; i++){
-                newElements[i] = elements[i];
-            }
-            permutations.add(newElements);
-        } else {
-            for(int i = 0; i < n-1; i++) {
-                getPermutations(n - 1, elements, permutations);
-                if(n % 2 == 0) {
-                    swap(elements, i, n-1);
-                } else {
-                    swap(elements, 0, n-1);
-                }
-            }
-            getPermutations(n - 1, elements, permutations);
-        }
-    }
-
-    private static void swap(int[] input, int a, int b) {
-        int tmp = input[a];
-        input[a] = input[b];
-        input[b] = tmp;
-    }
-
-
-
-    /**
-     * Counts the total amount of acceptable paths of a given size n. Must start from the parent satellite and end in the target satellite
-     * @param n : size of paths
-     * @return
-     */
-    private int countPaths(int n){
-        if(n == 2) return 1;
-
-        int n_sats = parentAgent.getSatAddresses().keySet().size()-2;
-        int k_slots = n-2;
-
-        return permutations(n_sats,k_slots);
-    }
 }
@@ -12,83 +12,103 @@ import modules.measurements.MeasurementRequest;
 import modules.measurements.Requirement;
 import modules.measurements.RequirementPerformance;
 import modules.messages.MeasurementMessage;
+import modules.orbitData.AccessTable;
 import modules.orbitData.GPAccess;
 import modules.orbitData.GndAccess;
 import modules.orbitData.OrbitData;
 import modules.simulation.Simulation;
 import org.orekit.frames.TopocentricFrame;
 import org.orekit.time.AbsoluteDate;
-import seakers.orekit.coverage.access.RiseSetTime;
-import seakers.orekit.coverage.access.TimeIntervalArray;
 import seakers.orekit.object.*;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 
 public class FirstPriorityPlanner  extends AbstractPlanner {
     private OrbitData orbitData;
     private HashMap<MeasurementRequest, MeasurementAction> urgentMeasurements;
-    private ArrayList<Integer> cantReach;
+    private HashSet<Integer> cantReach;
+
+    /**
+     * Accesses of the parent satellite with the location of each known request, indexed by request id
+     */
+    private HashMap<Integer, ArrayList<ArrayList<Double>>> accessesByRequest;
 
     public FirstPriorityPlanner(double planningHorizon, int requestThreshold, boolean crosslinks, OrbitData orbitData) {
         super(planningHorizon, requestThreshold, crosslinks);
 
         this.orbitData = orbitData;
         this.urgentMeasurements = new HashMap<>();
-        this.cantReach = new ArrayList<>();
+        this.cantReach = new HashSet<>();
+        this.accessesByRequest = new HashMap<>();
     }
 
     @Override
     public LinkedList<SimulationAction> initPlan() {
+        this.plan = planAccesses(Double.NEGATIVE_INFINITY);
+        return getAvailableActions(0.0);
+    }
+
+    @Override
+    public void extendPlan(double after) {
+        // accesses of known requests may now include windows of the newly loaded access window
+        this.accessesByRequest.clear();
+        this.plan = mergePlans(this.plan, planAccesses(after));
+    }
+
+    /**
+     * Creates measurement and message actions for the ground point and ground station accesses of the parent agent
+     * that start after a given time
+     * @param after : time in seconds from the simulation start date
+     * @return chronologically ordered actions
+     */
+    private ArrayList<SimulationAction> planAccesses(double after){
         // create measurement actions for each ground point access
-        ArrayList<GPAccess> orderGPAccess = parentAgent.orderGPAccesses();
+        ArrayList<GPAccess> orderGPAccess = parentAgent.orderGPAccesses(after, Double.POSITIVE_INFINITY);
         ArrayList<MeasurementAction> measurementActions = new ArrayList<>(orderGPAccess.size());
         for(GPAccess access : orderGPAccess){
             Instrument ins = access.getInstrument();
             if(ins.getName().contains("_FOR")) continue;
 
-            AbsoluteDate startDate = access.getStartDate();
-            AbsoluteDate endDate = access.getEndDate();
+            double startTime = access.getStartTime();
+            double endTime = access.getEndTime();
 
-            if(endDate.durationFrom(startDate) < 1){
-                endDate = startDate.shiftedBy(1);
+            if(endTime - startTime < 1){
+                endTime = startTime + 1;
             }
 
             measurementActions.add( new MeasurementAction(parentAgent, ins, access.getTargetCovDef(),
-                    access.getTarget(), "Nominal Measurement", startDate, endDate) );
+                    access.getTarget(), "Nominal Measurement", parentAgent.getStartDate(), startTime, endTime) );
         }
 
         // Create a message action for each pass over a ground station
         ArrayList<GndAccess> orderedGndAccess = parentAgent.getOrderedGndAccesses();
         ArrayList<MessageAction> messageActions = new ArrayList<>(orderedGndAccess.size());
         for(GndAccess access : orderedGndAccess){
+            if(access.getStartTime() <= after) continue;
 
             GndStation target = access.getGnd();
             AgentAddress targetAddress = parentAgent.getTargetAddress(target);
 
             MeasurementMessage message = new MeasurementMessage(null);
-            AbsoluteDate startDate = access.getStartDate();
-            AbsoluteDate endDate = access.getEndDate();
 
             messageActions.add( new MessageAction(parentAgent, targetAddress,
-                    message, startDate, endDate));
+                    message, parentAgent.getStartDate(), access.getStartTime(), access.getEndTime()));
         }
 
         // merge all plans and order chronologically
-        this.plan = mergePlans(measurementActions, messageActions);
-//        this.plan = new ArrayList(messageActions);
-
-
-        return getAvailableActions(parentAgent.getStartDate());
+        return mergePlans(measurementActions, messageActions);
     }
 
     @Override
-    public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap, SatelliteAgent agent, AbsoluteDate currentDate) throws Exception {
+    public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap, SatelliteAgent agent, double currentTime) throws Exception {
         // updates list of known requests
         ArrayList<MeasurementRequest> newRequests = readRequestMessages(messageMap);
         this.knownRequests.addAll(newRequests);
-        this.activeRequests = checkAvailableRequests(newRequests, currentDate);
+        this.activeRequests = checkAvailableRequests(newRequests, currentTime);
 
         // create measurement actions for urgent measurement requests
         int n_urgent = urgentMeasurements.size();
@@ -116,17 +136,21 @@ public class FirstPriorityPlanner  extends AbstractPlanner {
                 ArrayList<ArrayList<Double>> accesses = getAccesses(parentAgent.getSat(), req);
 
                 for(ArrayList<Double> access : accesses){
-                    AbsoluteDate startDate = parentAgent.getStartDate().shiftedBy(access.get(0));
-                    AbsoluteDate endDate = parentAgent.getStartDate().shiftedBy(access.get(1));
-
-                    MeasurementAction action = new MeasurementAction(parentAgent, ins, req, startDate, endDate);
+                    MeasurementAction action = new MeasurementAction(parentAgent, ins, req,
+                            parentAgent.getStartDate(), access.get(0), access.get(1));
                     urgentMeasurements.put(req, action);
                 }
             }
 //            else if (getEarliestAccess(parentAgent.getSat(), req) == null || !isFirst(req)) {
 //                if (!cantReach.contains(req.getId())) cantReach.add(req.getId());
 //            }
-            if (!cantReach.contains(req.getId())) cantReach.add(req.getId());
+
+            // requests stay open while later access windows may still be loaded
+            if (urgentMeasurements.containsKey(req)
+                    || req.getEndTime() < currentTime
+                    || req.getEndTime() <= parentAgent.getAccesses().getWindowEnd()) {
+                cantReach.add(req.getId());
+            }
         }
         int n_urgent_new = urgentMeasurements.size();
 
@@ -135,7 +159,7 @@ public class FirstPriorityPlanner  extends AbstractPlanner {
         }
 
         // return actions to be performed at this time
-        LinkedList<SimulationAction> outActions = getAvailableActions(currentDate);
+        LinkedList<SimulationAction> outActions = getAvailableActions(currentTime);
 
         if(outActions.size() > 0){
             int x = 1;
@@ -199,152 +223,69 @@ public class FirstPriorityPlanner  extends AbstractPlanner {
      * @return
      */
     private ArrayList<Double> getEarliestAccess(Satellite sat, MeasurementRequest req){
-        ArrayList<Double> access = new ArrayList<>();
-        CoverageDefinition covDef = req.getCovDef();
+        AccessTable insAccess = parentAgent.getAccesses().getAccessesGPIns();
+        int point = orbitData.getPointId(req.getLocation());
+
         for(Instrument ins : sat.getPayload()){
             if(!ins.getName().contains("_FOR")) {
                 continue;
             }
 
-            HashMap<TopocentricFrame, TimeIntervalArray> insAccess = orbitData.getAccessesGPIns().get(covDef).get(sat).get(ins);
-            TopocentricFrame gp = req.getLocation();
-            if(insAccess.containsKey(gp) && insAccess.get(gp).numIntervals() > 0){
-                double rise = 0.0;
-                double set = 0.0;
-
-                for(RiseSetTime riseSetTime : insAccess.get(gp).getRiseSetTimes()){
-                    if(riseSetTime.isRise()){
-                        rise = riseSetTime.getTime();
-                    }
-                    else{
-                        set = riseSetTime.getTime();
-
-                        AbsoluteDate riseDate = parentAgent.getStartDate().shiftedBy(rise);
-                        AbsoluteDate setDate = parentAgent.getStartDate().shiftedBy(set);
-
-                        if( (req.getStartDate().compareTo(riseDate) >= 0 && req.getStartDate().compareTo(setDate) <= 0)
-                                || (req.getEndDate().compareTo(riseDate) >= 0 && req.getEndDate().compareTo(setDate) <= 0)
-                                || (req.getStartDate().compareTo(riseDate) <= 0 && req.getEndDate().compareTo(setDate) >= 0)){
-
-                            access.add(rise);
-                            access.add(set);
-                            return access;
-                        }
-                    }
-                }
+            int sensor = orbitData.getSensorId(sat, ins);
+            int i = insAccess.overlapStart(sensor, point, req.getStartTime());
+            if(i < insAccess.overlapEnd(sensor, point, req.getEndTime())){
+                ArrayList<Double> access = new ArrayList<>();
+                access.add(insAccess.getRise(i));
+                access.add(insAccess.getSet(i));
+                return access;
             }
         }
         return null;
     }
 
+    /**
+     * Returns all access windows of a satellite's field-of-regard instruments with the location of a request that
+     * overlap the request's availability window. Windows are found with a binary search over the access table, and
+     * those of the parent satellite are cached by request id until a new access window is loaded.
+     * @param sat : satellite performing the measurement
+     * @param req : measurement request
+     * @return list of access windows, each with its start and end times in seconds from the simulation start date
+     */
     private ArrayList<ArrayList<Double>> getAccesses(Satellite sat, MeasurementRequest req){
+        boolean cached = sat.equals(parentAgent.getSat());
+        if(cached && accessesByRequest.containsKey(req.getId())) return accessesByRequest.get(req.getId());
+
         ArrayList<ArrayList<Double>> accesses = new ArrayList<>();
+        AccessTable insAccess = parentAgent.getAccesses().getAccessesGPIns();
+        int point = orbitData.getPointId(req.getLocation());
 
-        CoverageDefinition covDef = req.getCovDef();
         for(Instrument ins : sat.getPayload()){
             if(!ins.getName().contains("_FOR")) {
                 continue;
             }
 
-            HashMap<TopocentricFrame, TimeIntervalArray> insAccess = orbitData.getAccessesGPIns().get(covDef).get(sat).get(ins);
-            TopocentricFrame gp = req.getLocation();
-            if(insAccess.containsKey(gp) && insAccess.get(gp).numIntervals() > 0){
-                double rise = 0.0;
-                double set = 0.0;
-                ArrayList<Double> access;
-
-                for(RiseSetTime riseSetTime : insAccess.get(gp).getRiseSetTimes()){
-                    if(riseSetTime.isRise()){
-                        rise = riseSetTime.getTime();
-                    }
-                    else{
-                        set = riseSetTime.getTime();
-
-                        AbsoluteDate riseDate = parentAgent.getStartDate().shiftedBy(rise);
-                        AbsoluteDate setDate = parentAgent.getStartDate().shiftedBy(set);
-
-                        if( (req.getStartDate().compareTo(riseDate) >= 0 && req.getStartDate().compareTo(setDate) <= 0)
-                                || (req.getEndDate().compareTo(riseDate) >= 0 && req.getEndDate().compareTo(setDate) <= 0)
-                                || (req.getStartDate().compareTo(riseDate) <= 0 && req.getEndDate().compareTo(setDate) >= 0)){
-
-                            access = new ArrayList<>();
-                            access.add(rise);
-                            access.add(set);
-                            accesses.add(access);
-                        }
-                    }
-                }
+            int sensor = orbitData.getSensorId(sat, ins);
+            int end = insAccess.overlapEnd(sensor, point, req.getEndTime());
+            for(int i = insAccess.overlapStart(sensor, point, req.getStartTime()); i < end; i++){
+                ArrayList<Double> access = new ArrayList<>();
+                access.add(insAccess.getRise(i));
+                access.add(insAccess.getSet(i));
+                accesses.add(access);
             }
         }
+
+        if(cached) accessesByRequest.put(req.getId(), accesses);
         return accesses;
     }
 
     /**
-     * Merges measurements and message actions into a single chronologically arranged plan
+     * Merges urgent measurements into the current plan in chronological order
      * @return
      */
     private ArrayList<SimulationAction> mergePlans(){
-        ArrayList<MeasurementAction> measurementActions = new ArrayList<>();
-        for(MeasurementRequest req : urgentMeasurements.keySet()){
-            measurementActions.add(urgentMeasurements.get(req));
-        }
-        ArrayList<SimulationAction> oldPlan = new ArrayList<>();
-        for(SimulationAction act : plan){
-            oldPlan.add(act);
-        }
-
-        ArrayList<SimulationAction> merged = new ArrayList<>();
-
-        // arrange actions chronologically
-        while(!measurementActions.isEmpty() || !oldPlan.isEmpty()) {
-            if (measurementActions.isEmpty()) {
-                merged.addAll(oldPlan);
-                break;
-            } else if (oldPlan.isEmpty()) {
-                merged.addAll(measurementActions);
-                break;
-            } else {
-                if (measurementActions.get(0).getStartDate().compareTo(oldPlan.get(0).getStartDate()) <= 0) {
-                    merged.add(measurementActions.get(0));
-                    measurementActions.remove(0);
-                } else {
-                    merged.add(oldPlan.get(0));
-                    oldPlan.remove(0);
-                }
-            }
-        }
-
-        return merged;
-    }
-
-    /**
-     * Merges measurements and message actions into a single chronologically arranged plan
-     * @param measurementActions    : list of nominal measurement actions to be performed by satellite
-     * @param messageActions        : list of possible message actions available to satellite
-     * @return
-     */
-    private ArrayList<SimulationAction> mergePlans(ArrayList<MeasurementAction> measurementActions, ArrayList<MessageAction> messageActions){
-        ArrayList<SimulationAction> merged = new ArrayList<>();
-
-        // arrange actions chronologically
-        while(!measurementActions.isEmpty() || !messageActions.isEmpty()) {
-            if (measurementActions.isEmpty()) {
-                merged.addAll(messageActions);
-                break;
-            } else if (messageActions.isEmpty()) {
-                merged.addAll(measurementActions);
-                break;
-            } else {
-                if (measurementActions.get(0).getStartDate().compareTo(messageActions.get(0).getStartDate()) <= 0) {
-                    merged.add(measurementActions.get(0));
-                    measurementActions.remove(0);
-                } else {
-                    merged.add(messageActions.get(0));
-                    messageActions.remove(0);
-                }
-            }
-        }
+        ArrayList<MeasurementAction> measurementActions = new ArrayList<>(urgentMeasurements.values());
+        measurementActions.sort(Comparator.comparingDouble(MeasurementAction::getStartTime));
 
-        return merged;
+        return mergePlans(measurementActions, plan);
     }
 }
@@ -16,7 +16,6 @@ import modules.messages.MeasurementRequestMessage;
 import modules.orbitData.GPAccess;
 import modules.orbitData.GndAccess;
 import org.orekit.frames.TopocentricFrame;
-import org.orekit.time.AbsoluteDate;
 import seakers.orekit.object.CoverageDefinition;
 import seakers.orekit.object.GndStation;
 import seakers.orekit.object.Instrument;
@@ -44,51 +43,62 @@ public class NominalPlanner extends AbstractPlanner {
 
     @Override
     public LinkedList<SimulationAction> initPlan() {
+        this.plan = planAccesses(Double.NEGATIVE_INFINITY);
+        return getAvailableActions(0.0);
+    }
+
+    @Override
+    public void extendPlan(double after) {
+        this.plan = mergePlans(this.plan, planAccesses(after));
+    }
+
+    /**
+     * Creates measurement and message actions for the ground point and ground station accesses of the parent agent
+     * that start after a given time
+     * @param after : time in seconds from the simulation start date
+     * @return chronologically ordered actions
+     */
+    private ArrayList<SimulationAction> planAccesses(double after){
         // create measurement actions for each ground point access
-        ArrayList<GPAccess> orderGPAccess = parentAgent.orderGPAccesses();
+        ArrayList<GPAccess> orderGPAccess = parentAgent.orderGPAccesses(after, Double.POSITIVE_INFINITY);
         ArrayList<MeasurementAction> measurementActions = new ArrayList<>(orderGPAccess.size());
         for(GPAccess access : orderGPAccess){
             Instrument ins = access.getInstrument();
             if(ins.getName().contains("_FOR")) continue;
 
-            AbsoluteDate startDate = access.getStartDate();
-            AbsoluteDate endDate = access.getEndDate();
-
-            measurementActions.add( new MeasurementAction(parentAgent,ins, null, startDate, endDate) );
+            measurementActions.add( new MeasurementAction(parentAgent,ins, null,
+                    parentAgent.getStartDate(), access.getStartTime(), access.getEndTime()) );
         }
 
         // Create a message action for each pass over a ground station
         ArrayList<GndAccess> orderedGndAccess = parentAgent.getOrderedGndAccesses();
         ArrayList<MessageAction> messageActions = new ArrayList<>(orderedGndAccess.size());
         for(GndAccess access : orderedGndAccess){
+            if(access.getStartTime() <= after) continue;
 
             GndStation target = access.getGnd();
             AgentAddress targetAddress = parentAgent.getTargetAddress(target);
 
             MeasurementMessage message = new MeasurementMessage(null);
-            AbsoluteDate startDate = access.getStartDate();
-            AbsoluteDate endDate = access.getEndDate();
 
             messageActions.add( new MessageAction(parentAgent, targetAddress,
-                    message, startDate, endDate));
+                    message, parentAgent.getStartDate(), access.getStartTime(), access.getEndTime()));
         }
 
         // merge all plans and order chronologically
-        this.plan = mergePlans(measurementActions, messageActions);
-
-        return getAvailableActions(parentAgent.getStartDate());
+        return mergePlans(measurementActions, messageActions);
     }
 
     @Override
     public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap,
-                                                 SatelliteAgent agent, AbsoluteDate currentDate) throws Exception {
+                                                 SatelliteAgent agent, double currentTime) throws Exception {
         // updates list of known requests
         ArrayList<MeasurementRequest> newRequests = readRequestMessages(messageMap);
         this.knownRequests.addAll( newRequests );
-        this.activeRequests = checkActiveRequests(newRequests, currentDate);
+        this.activeRequests = checkActiveRequests(newRequests, currentTime);
 
         // return actions to be performed at this time
-        LinkedList<SimulationAction> outActions = getAvailableActions(currentDate);
+        LinkedList<SimulationAction> outActions = getAvailableActions(currentTime);
 
         // remove performed actions from plan
         this.plan.removeAll(outActions);
@@ -100,35 +110,4 @@ public class NominalPlanner extends AbstractPlanner {
         if(request == null) return NominalUtility;
         return -1;
     }
-
-    /**
-     * Merges measurements and message actions into a single chronologically arranged plan
-     * @param measurementActions    : list of nominal measurement actions to be performed by satellite
-     * @param messageActions        : list of possible message actions available to satellite
-     * @return
-     */
-    private ArrayList<SimulationAction> mergePlans(ArrayList<MeasurementAction> measurementActions, ArrayList<MessageAction> messageActions){
-        ArrayList<SimulationAction> merged = new ArrayList<>();
-
-        // arrange actions chronologically
-        while(!measurementActions.isEmpty() || !messageActions.isEmpty()) {
-            if (measurementActions.isEmpty()) {
-                merged.addAll(messageActions);
-                break;
-            } else if (messageActions.isEmpty()) {
-                merged.addAll(measurementActions);
-                break;
-            } else {
-                if (measurementActions.get(0).getStartDate().compareTo(messageActions.get(0).getStartDate()) <= 0) {
-                    merged.add(measurementActions.get(0));
-                    measurementActions.remove(0);
-                } else {
-                    merged.add(messageActions.get(0));
-                    messageActions.remove(0);
-                }
-            }
-        }
-
-        return merged;
-    }
 }
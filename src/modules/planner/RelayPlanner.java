@@ -10,7 +10,6 @@ import modules.measurements.Requirement;
 import modules.measurements.RequirementPerformance;
 import modules.messages.RelayMessage;
 import modules.messages.MeasurementRequestMessage;
-import org.orekit.time.AbsoluteDate;
 import seakers.orekit.object.Satellite;
 
 import java.util.ArrayList;
@@ -58,7 +57,7 @@ public class RelayPlanner extends AbstractPlanner{
      */
     @Override
     public LinkedList<SimulationAction> makePlan(HashMap<String, ArrayList<Message>> messageMap,
-                                                 SatelliteAgent agent, AbsoluteDate currentDate) throws Exception {
+                                                 SatelliteAgent agent, double currentTime) throws Exception {
 
         // check for new incoming messages
         boolean empty = false;
@@ -77,8 +76,8 @@ public class RelayPlanner extends AbstractPlanner{
             this.plan = mergePlans(this.plan, ordered);
         }
 
-        // return only the actions to be performed in the current date
-        return getAvailableActions(currentDate);
+        // return only the actions to be performed in the current time
+        return getAvailableActions(currentTime);
     }
 
     /**
@@ -107,11 +106,12 @@ public class RelayPlanner extends AbstractPlanner{
 
                         AgentAddress targetAddress = agent.getSatAddresses().get(target);
 
-                        ArrayList<AbsoluteDate> nextAccess = agent.getNextAccess(target);
-                        AbsoluteDate startDate = nextAccess.get(0);
-                        AbsoluteDate endDate = nextAccess.get(1);
+                        ArrayList<Double> nextAccess = agent.getNextAccess(target);
+                        double startTime = nextAccess.get(0);
+                        double endTime = nextAccess.get(1);
 
-                        MessageAction action = new MessageAction(agent, targetAddress, reqMessage, startDate, endDate);
+                        MessageAction action = new MessageAction(agent, targetAddress, reqMessage,
+                                agent.getStartDate(), startTime, endTime);
                         actions.add(action);
                     }
                 }
@@ -123,16 +123,17 @@ public class RelayPlanner extends AbstractPlanner{
                 for(Message message : reqMessages){
                     RelayMessage relayMessage = (RelayMessage) message;
 
-                    Message messageToSend = relayMessage.getMessageToRelay();
                     AgentAddress targetAddress = relayMessage.getNextTarget();
+                    Message messageToSend = relayMessage.getMessageToRelay();
 
                     if(targetAddress == agent.getMyAddress()) throw new Exception("Relay Error. Check intended receiver");
 
-                    ArrayList<AbsoluteDate> nextAccess = agent.getNextAccess(targetAddress);
-                    AbsoluteDate startDate = nextAccess.get(0);
-                    AbsoluteDate endDate = nextAccess.get(1);
+                    ArrayList<Double> nextAccess = agent.getNextAccess(targetAddress);
+                    double startTime = nextAccess.get(0);
+                    double endTime = nextAccess.get(1);
 
-                    MessageAction action = new MessageAction(agent,targetAddress, messageToSend, startDate, endDate);
+                    MessageAction action = new MessageAction(agent,targetAddress, messageToSend,
+                            agent.getStartDate(), startTime, endTime);
                     actions.add(action);
                 }
             }
@@ -160,7 +161,7 @@ public class RelayPlanner extends AbstractPlanner{
 
             int i = 0;
             for(SimulationAction orderedAction : ordered){
-                if(action.getStartDate().compareTo(orderedAction.getStartDate()) <= 0){
+                if(action.getStartTime() <= orderedAction.getStartTime()){
                     ordered.add(i,action);
                     break;
                 }
@@ -193,7 +194,7 @@ public class RelayPlanner extends AbstractPlanner{
                 break;
             }
             else{
-                if(oldPlan.get(0).getStartDate().compareTo(newPlan.getFirst().getStartDate()) <= 0){
+                if(oldPlan.get(0).getStartTime() <= newPlan.getFirst().getStartTime()){
                     plan.add(oldPlan.get(0));
                     oldPlan.remove(0);
                 }
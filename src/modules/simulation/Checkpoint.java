@@ -0,0 +1,252 @@
+package modules.simulation;
+
+import static constants.JSONFields.*;
+
+import madkit.kernel.AbstractAgent;
+import madkit.kernel.AgentAddress;
+import madkit.kernel.Message;
+import modules.agents.Checkpointable;
+import modules.agents.GndStationAgent;
+import modules.agents.SatelliteAgent;
+import modules.environment.Environment;
+import modules.orbitData.OrbitData;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import seakers.orekit.object.CoverageDefinition;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Periodic snapshots of the complete state of a simulation run. Checkpoints are taken between two time steps and
+ * hold the environment's clock, requests, measurements and random generator, every agent's plan, planner, and
+ * pending measurements, and every unread message.
+ *
+ * Scenario data shared by all runs, such as satellites, ground stations, coverage points, instruments and agent
+ * addresses, is not copied into the checkpoint. It is written as a reference to its id in the scenario and bound
+ * to the objects of the run being restored, so a checkpoint can be restored by any run of the same scenario.
+ *
+ * File layout (big endian), written by CheckpointStreams:
+ *   int magic, int version
+ *   gzip compressed java serialization stream:
+ *      input file, time, number of satellites and ground stations, environment state, satellite states,
+ *      ground station states, unread messages of every agent
+ *
+ * @author a.aguilar
+ */
+public class Checkpoint {
+    public static final String PREFIX = "checkpoint_";
+    public static final String EXTENSION = ".bin";
+    public static final int MAGIC = 0x444D4350;
+    public static final int VERSION = 1;
+
+    /**
+     * Types of scenario objects replaced by references
+     */
+    private static final int AGENT = 0;
+    private static final int ADDRESS = 1;
+    private static final int SAT = 2;
+    private static final int STATION = 3;
+    private static final int POINT = 4;
+    private static final int COV_DEF = 5;
+    private static final int INSTRUMENT = 6;
+    private static final int ORBIT_DATA = 7;
+
+    private final JSONObject input;
+    private final OrbitData orbitData;
+    private final Environment environment;
+    private final ArrayList<SatelliteAgent> spaceSegment;
+    private final ArrayList<GndStationAgent> gndSegment;
+    private final String directoryAddress;
+
+    /**
+     * Simulation time between checkpoints in seconds and time of the next checkpoint. No checkpoints are taken if
+     * the interval is 0 or less.
+     */
+    private final double interval;
+    private double nextCheckpoint;
+
+    /**
+     * Every checkpointed agent, indexed by its reference id: satellites, then ground stations, then the environment
+     */
+    private final ArrayList<AbstractAgent> agents;
+
+    /**
+     * Streams writing every scenario object as a reference
+     */
+    private final CheckpointStreams streams;
+
+    /**
+     * Creates the checkpoint manager of a run. Must be created once every agent of the run has been launched.
+     * @param input : JSON input file of the run
+     * @param orbitData : coverage data of the scenario
+     * @param environment : environment of the run
+     * @param spaceSegment : satellite agents of the run
+     * @param gndSegment : ground station agents of the run
+     * @param myGroups : groups of the run
+     * @param directoryAddress : directory where checkpoints are saved
+     */
+    public Checkpoint(JSONObject input, OrbitData orbitData, Environment environment,
+                      ArrayList<SatelliteAgent> spaceSegment, ArrayList<GndStationAgent> gndSegment,
+                      SimGroups myGroups, String directoryAddress){
+        this.input = input;
+        this.orbitData = orbitData;
+        this.environment = environment;
+        this.spaceSegment = spaceSegment;
+        this.gndSegment = gndSegment;
+        this.directoryAddress = directoryAddress;
+
+        Object intervalSetting = ((JSONObject) input.get(SETTINGS)).get(CHECKPOINT_INTERVAL);
+        this.interval = intervalSetting == null ? 0.0 : Double.parseDouble(intervalSetting.toString());
+        this.nextCheckpoint = interval;
+
+        this.streams = new CheckpointStreams(AgentAddress.class);
+        this.agents = new ArrayList<>();
+        for(SatelliteAgent sat : spaceSegment) addAgent(sat, myGroups, SimGroups.SATELLITE);
+        for(GndStationAgent gnd : gndSegment) addAgent(gnd, myGroups, SimGroups.GNDSTAT);
+        addAgent(environment, myGroups, SimGroups.ENVIRONMENT);
+
+        for(int id = 0; id < orbitData.numSats(); id++) streams.register(SAT, id, orbitData.getSat(id));
+        for(int id = 0; id < orbitData.numStations(); id++) streams.register(STATION, id, orbitData.getStation(id));
+        for(int id = 0; id < orbitData.numPoints(); id++) streams.register(POINT, id, orbitData.getPoint(id));
+        for(int id = 0; id < orbitData.numSensors(); id++)
+            streams.register(INSTRUMENT, id, orbitData.getSensorInstrument(id));
+
+        // coverage definitions are sorted by name
+        ArrayList<CoverageDefinition> covDefs = new ArrayList<>(orbitData.getCovDefs());
+        covDefs.sort(Comparator.comparing(CoverageDefinition::getName));
+        for(int id = 0; id < covDefs.size(); id++) streams.register(COV_DEF, id, covDefs.get(id));
+
+        streams.register(ORBIT_DATA, 0, orbitData);
+    }
+
+    private void addAgent(AbstractAgent agent, SimGroups myGroups, String role){
+        int id = agents.size();
+        AgentAddress address = agent.getAgentAddressIn(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, role);
+
+        agents.add(agent);
+        streams.register(AGENT, id, agent);
+        streams.registerValue(ADDRESS, id, address);
+    }
+
+    /**
+     * Checks if a checkpoint is due at the current simulation time
+     * @param GVT : current simulation time in seconds
+     */
+    public boolean isDue(double GVT){
+        if(interval <= 0.0 || GVT < nextCheckpoint) return false;
+        nextCheckpoint = (Math.floor(GVT / interval) + 1) * interval;
+        return true;
+    }
+
+    /**
+     * Saves the state of the run at the current time step. The file is written to a temporary file that is only
+     * moved into place once complete, so an interrupted run always leaves valid checkpoints behind.
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        long tic = System.nanoTime();
+        File file = new File(String.format("%s/%s%010d%s", directoryAddress, PREFIX, environment.getStep(), EXTENSION));
+        File tmp = new File(file.getPath() + ".tmp");
+
+        // unread messages are taken out of every mailbox to be saved and are delivered again once saved
+        ArrayList<List<Message>> mailboxes = new ArrayList<>(agents.size());
+        for(AbstractAgent agent : agents) mailboxes.add(((Checkpointable) agent).drainMailbox());
+
+        try (OutputStream stream = new FileOutputStream(tmp)) {
+            try (ObjectOutputStream out = streams.writer(stream)) {
+                out.writeObject(input.toJSONString());
+                out.writeDouble(environment.getGVT());
+                out.writeInt(spaceSegment.size());
+                out.writeInt(gndSegment.size());
+
+                environment.writeState(out);
+                for(SatelliteAgent sat : spaceSegment) sat.writeState(out);
+                for(GndStationAgent gnd : gndSegment) gnd.writeState(out);
+                for(List<Message> mailbox : mailboxes) out.writeObject(new ArrayList<>(mailbox));
+            }
+        } finally {
+            for(List<Message> mailbox : mailboxes) deliver(mailbox);
+        }
+
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Logger.getGlobal().fine(String.format("Checkpoint %s saved in %.4f sec", file.getPath(),
+                (System.nanoTime() - tic) / 1e9));
+    }
+
+    /**
+     * Replaces the state of the run with the one saved in a checkpoint. Must be called once every agent has been
+     * launched and initialized, and before the simulation starts.
+     * @param file : checkpoint file
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    public void restore(File file) throws Exception {
+        try (InputStream stream = new FileInputStream(file)) {
+            ObjectInputStream in = streams.reader(stream, file.getPath());
+
+            // planners are restored as they were saved, so they cannot be swapped for a different one
+            JSONObject savedInput = (JSONObject) new JSONParser().parse((String) in.readObject());
+            if(!savedInput.get(PLNR).equals(input.get(PLNR)))
+                throw new InputMismatchException("Checkpoint " + file.getPath()
+                        + " was saved with different planner settings. Planner: " + savedInput.get(PLNR));
+
+            double GVT = in.readDouble();
+            if(in.readInt() != spaceSegment.size() || in.readInt() != gndSegment.size())
+                throw new IOException("Checkpoint " + file.getPath() + " does not belong to this scenario");
+
+            // discard anything sent while the run was being set up
+            for(AbstractAgent agent : agents) ((Checkpointable) agent).drainMailbox();
+
+            environment.readState(in);
+            for(SatelliteAgent sat : spaceSegment) sat.readState(in);
+            for(GndStationAgent gnd : gndSegment) gnd.readState(in);
+            for(int i = 0; i < agents.size(); i++) deliver((List<Message>) in.readObject());
+
+            nextCheckpoint = (Math.floor(GVT / interval) + 1) * interval;
+            Logger.getGlobal().info("Resuming " + environment.getParentSimulation().getName() + " from "
+                    + file.getPath() + " at t = " + GVT + " s");
+        }
+    }
+
+    /**
+     * Reads the input file a checkpoint was saved with
+     * @param file : checkpoint file
+     * @return input file of the run that saved the checkpoint
+     * @throws Exception
+     */
+    public static JSONObject readInput(File file) throws Exception {
+        try (InputStream stream = new FileInputStream(file)) {
+            ObjectInputStream in = new CheckpointStreams(AgentAddress.class).reader(stream, file.getPath());
+            return (JSONObject) new JSONParser().parse((String) in.readObject());
+        }
+    }
+
+    /**
+     * Puts messages back into their receiver's mailbox, sent by their original sender
+     */
+    private void deliver(List<Message> messages) throws IOException {
+        for(Message message : messages){
+            int sender = streams.idOf(message.getSender());
+            if(sender < 0) throw new IOException("Message " + message + " was not sent by an agent of this run");
+            ((Checkpointable) agents.get(sender)).deliver(message.getReceiver(), message);
+        }
+    }
+
+    /**
+     * Finds the most recent checkpoint in a directory
+     * @param directoryAddress : directory of a simulation run
+     * @return latest checkpoint, or null if the directory holds no checkpoints
+     */
+    public static File latest(String directoryAddress){
+        File[] files = new File(directoryAddress).listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(EXTENSION));
+        if(files == null || files.length == 0) return null;
+
+        File latest = files[0];
+        for(File file : files) if(file.getName().compareTo(latest.getName()) > 0) latest = file;
+        return latest;
+    }
+}
@@ -0,0 +1,152 @@
+package modules.simulation;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Object streams of checkpoint files. Scenario objects registered with a type and an id are not serialized, but
+ * written as a reference to them. References are bound to the object registered with the same type and id when
+ * read, so a checkpoint written by one run can be read by any run of the same scenario.
+ *
+ * File layout (big endian):
+ *   int magic, int version
+ *   gzip compressed java serialization stream
+ */
+class CheckpointStreams {
+    /**
+     * References of registered objects, by identity for scenario objects and by equality for objects of the value
+     * type, such as agent addresses
+     */
+    private final IdentityHashMap<Object, Ref> refs = new IdentityHashMap<>();
+    private final HashMap<Object, Ref> valueRefs = new HashMap<>();
+    private final Class<?> valueType;
+
+    /**
+     * Registered objects, indexed by type and then by id
+     */
+    private final ArrayList<ArrayList<Object>> objects = new ArrayList<>();
+
+    /**
+     * @param valueType type of the objects that are matched by equality rather than by identity
+     */
+    CheckpointStreams(Class<?> valueType){
+        this.valueType = valueType;
+    }
+
+    /**
+     * Registers an object to be written as a reference. Objects registered more than once keep their first
+     * reference.
+     */
+    void register(int type, int id, Object obj){
+        refs.putIfAbsent(obj, new Ref(type, id));
+        bind(type, id, obj);
+    }
+
+    /**
+     * Registers an object of the value type to be written as a reference whenever an equal object is written
+     */
+    void registerValue(int type, int id, Object obj){
+        if(!valueType.isInstance(obj))
+            throw new IllegalArgumentException(obj + " is not of the value type " + valueType.getName());
+        valueRefs.put(obj, new Ref(type, id));
+        bind(type, id, obj);
+    }
+
+    private void bind(int type, int id, Object obj){
+        while(objects.size() <= type) objects.add(new ArrayList<>());
+        ArrayList<Object> ofType = objects.get(type);
+        while(ofType.size() <= id) ofType.add(null);
+        if(ofType.get(id) == null) ofType.set(id, obj);
+    }
+
+    /**
+     * @return id of an object registered with registerValue, or -1 if no equal object was registered
+     */
+    int idOf(Object value){
+        Ref ref = valueRefs.get(value);
+        return ref == null ? -1 : ref.id;
+    }
+
+    /**
+     * Writes the file header and opens a compressed object stream on it
+     */
+    ObjectOutputStream writer(OutputStream stream) throws IOException {
+        DataOutputStream header = new DataOutputStream(stream);
+        header.writeInt(Checkpoint.MAGIC);
+        header.writeInt(Checkpoint.VERSION);
+        header.flush();
+
+        return new Out(new BufferedOutputStream(new GZIPOutputStream(stream, 1 << 16), 1 << 16));
+    }
+
+    /**
+     * Checks the file header and opens a compressed object stream on it
+     * @param name name of the file, used in error messages
+     * @throws IOException if the stream is not a checkpoint or was written by a different version
+     */
+    ObjectInputStream reader(InputStream stream, String name) throws IOException {
+        DataInputStream header = new DataInputStream(stream);
+        if(header.readInt() != Checkpoint.MAGIC) throw new IOException("File " + name + " is not a checkpoint");
+        int version = header.readInt();
+        if(version != Checkpoint.VERSION) throw new IOException("Checkpoint " + name + " has version " + version
+                + ", expected version " + Checkpoint.VERSION);
+
+        return new In(new BufferedInputStream(new GZIPInputStream(stream, 1 << 16), 1 << 16));
+    }
+
+    /**
+     * Reference to a registered object
+     */
+    private static class Ref implements Serializable {
+        private final int type;
+        private final int id;
+
+        private Ref(int type, int id){
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    private Object resolve(Ref ref) throws InvalidObjectException {
+        if(ref.type >= objects.size() || ref.id >= objects.get(ref.type).size()
+                || objects.get(ref.type).get(ref.id) == null)
+            throw new InvalidObjectException("Unknown checkpoint reference " + ref.type + "/" + ref.id);
+        return objects.get(ref.type).get(ref.id);
+    }
+
+    /**
+     * Writes registered objects as references
+     */
+    private class Out extends ObjectOutputStream {
+        private Out(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            Ref ref = refs.get(obj);
+            if(ref == null && valueType.isInstance(obj)) ref = valueRefs.get(obj);
+            return ref == null ? obj : ref;
+        }
+    }
+
+    /**
+     * Binds references to the registered objects of the run being restored
+     */
+    private class In extends ObjectInputStream {
+        private In(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            return obj instanceof Ref ? resolve((Ref) obj) : obj;
+        }
+    }
+}
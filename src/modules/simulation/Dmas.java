@@ -50,12 +50,12 @@ public class Dmas extends AbstractAgent {
     /**
      * Location of input file directory
      */
-    private static final String inputDir = "./inputs/";
+    protected static final String inputDir = "./inputs/";
 
     /**
      * Location of results directory
      */
-    private static final String resultsDir = "./results/";
+    protected static final String resultsDir = "./results/";
 
     /**
      * Location of coverage data directory
@@ -65,17 +65,17 @@ public class Dmas extends AbstractAgent {
     /**
      * Location of constellation data directory
      */
-    private static final String constellationsDir = "./data/constellations/";
+    protected static final String constellationsDir = "./data/constellations/";
 
     /**
      * Location of database directory
      */
-    private static final String databaseDir = "./data/databases/";
+    protected static final String databaseDir = "./data/databases/";
 
     /**
      * Location of scenario directory
      */
-    private static final String scenarioDir = "./data/scenarios/";
+    protected static final String scenarioDir = "./data/scenarios/";
 
     /**
      * Location of orekit data directory
@@ -117,49 +117,110 @@ public class Dmas extends AbstractAgent {
             createDirectory(input);
 
             // 5- Coverage and Cross Link Calculation
-            double tic = System.nanoTime();
+            orbitData = loadOrbitData(input);
 
-                getLogger().info("Loading constellation and scenario data...");
-                orbitData = new OrbitData(input, orekitDataDir, databaseDir, coverageDir, constellationsDir, scenarioDir);
+            // 6- Generate simulation scenarios
+            int n_sims = readNumberOfRuns(input);
+            if(n_sims == 1) getLogger().info("Generating single scenario...");
+            else getLogger().info("Generating " + n_sims + " scenarios...");
 
-                getLogger().info("Calculating coverage...");
-                orbitData.coverageCalc();
+            // 7- Execute simulations
+            RunPool runPool = new RunPool(readConcurrentRuns(input), n_sims, directoryAddress);
+            launchRuns(input, orbitData, directoryAddress, runPool);
 
-                getLogger().info("Propagating satellite trajectories...");
-                orbitData.trajectoryCalc();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-                getLogger().info("Printing coverage definition ground points...");
-                orbitData.printGP();
+    /**
+     * Loads constellation and scenario data and calculates or loads all coverage, ephemeris, and trajectory data
+     * needed to simulate a scenario
+     * @param input imported JSON input file
+     * @return coverage data to be shared by all simulation runs
+     * @throws Exception
+     */
+    protected OrbitData loadOrbitData(JSONObject input) throws Exception {
+        double tic = System.nanoTime();
 
-            double toc = (System.nanoTime() - tic);
-            getLogger().fine("Coverage metrics loaded. Runtime of " + toc + " ns");
+            getLogger().info("Loading constellation and scenario data...");
+            OrbitData orbitData = new OrbitData(input, orekitDataDir, databaseDir, coverageDir, constellationsDir, scenarioDir);
 
-            // 6- Generate simulation scenarios
-            int n_sims = Integer.parseInt( ((JSONObject) input.get(SIM)).get(N_SIMS).toString() );
-            if(n_sims <= 0) throw new InputMismatchException(
-                    "Invalid value for " + N_SIMS + ". Must run at least once.");
-            else if(n_sims == 1) getLogger().info("Generating single scenario...");
-            else getLogger().info("Generating " + n_sims + " scenarios...");
+            getLogger().info("Calculating coverage...");
+            orbitData.coverageCalc();
 
-            ArrayList<Simulation> sims = new ArrayList<>();
-            for(int i = 0; i < n_sims; i++){
-                sims.add(new Simulation(input, orbitData, directoryAddress, i));
-            }
+            getLogger().info("Propagating satellite ephemerides...");
+            orbitData.ephemerisCalc();
 
-            // 7- Execute simulations
-            for(Simulation sim : sims){
-                boolean createFrame = false;
-                if(sims.indexOf(sim) == 0
-                        && ((JSONObject) input.get(SETTINGS)).get(GUI).equals(true)) createFrame = true;
-                if(sims.indexOf(sim) == 1) launchAgent(sim, createFrame);
-                else launchAgent(sim, false);
-            }
+            getLogger().info("Propagating satellite trajectories...");
+            orbitData.trajectoryCalc();
 
-        } catch (Exception e) {
-            e.printStackTrace();
+            getLogger().info("Printing coverage definition ground points...");
+            orbitData.printGP();
+
+        double toc = (System.nanoTime() - tic);
+        getLogger().fine("Coverage metrics loaded. Runtime of " + toc + " ns");
+
+        return orbitData;
+    }
+
+    /**
+     * Launches all runs of a simulation. Runs are only created once a slot in the run pool is available, and they
+     * all share the same coverage data
+     * @param input imported JSON input file
+     * @param orbitData coverage data of the scenario
+     * @param directoryAddress directory where the results of every run are printed to
+     * @param runPool pool limiting the number of runs executing at once
+     * @throws InterruptedException
+     */
+    protected void launchRuns(JSONObject input, OrbitData orbitData, String directoryAddress, RunPool runPool)
+            throws InterruptedException {
+        int n_sims = readNumberOfRuns(input);
+        for(int i = 0; i < n_sims; i++){
+            RunPool.Slot slot = runPool.acquire();
+            try {
+                launchAgent(createRun(input, orbitData, directoryAddress, i, slot), false);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                slot.failed(i);
+            }
         }
     }
 
+    /**
+     * Creates a single simulation run
+     * @param input imported JSON input file
+     * @param orbitData coverage data of the scenario
+     * @param directoryAddress directory where the results of every run are printed to
+     * @param simID id of the run
+     * @param slot slot of the run in the run pool
+     * @return run to be launched
+     */
+    protected Simulation createRun(JSONObject input, OrbitData orbitData, String directoryAddress, int simID,
+                                   RunPool.Slot slot){
+        return new Simulation(input, orbitData, directoryAddress, simID, slot);
+    }
+
+    /**
+     * Reads the number of runs to be simulated
+     * @param input imported JSON input file
+     */
+    protected int readNumberOfRuns(JSONObject input){
+        int n_sims = Integer.parseInt( ((JSONObject) input.get(SIM)).get(N_SIMS).toString() );
+        if(n_sims <= 0) throw new InputMismatchException(
+                "Invalid value for " + N_SIMS + ". Must run at least once.");
+        return n_sims;
+    }
+
+    /**
+     * Reads the maximum number of runs executing at once. Defaults to one run per available core
+     * @param input imported JSON input file
+     */
+    protected int readConcurrentRuns(JSONObject input){
+        Object runSetting = ((JSONObject) input.get(SETTINGS)).get(CONCURRENT_RUNS);
+        return runSetting == null ? 0 : Integer.parseInt(runSetting.toString());
+    }
+
     /**
      * Prints out welcome message on terminal
      */
@@ -182,7 +243,7 @@ public class Dmas extends AbstractAgent {
      * @throws IOException
      * @throws ParseException
      */
-    private JSONObject parseJSON(String fileName) throws IOException, ParseException {
+    protected JSONObject parseJSON(String fileName) throws IOException, ParseException {
         JSONParser parser = new JSONParser();
         String fileAddress = inputDir + fileName;
         JSONObject input = (JSONObject) parser.parse(new FileReader(fileAddress));
@@ -206,8 +267,9 @@ public class Dmas extends AbstractAgent {
     /**
      * Creates a directory where all runs will save their results
      * @param input imported JSON input file
+     * @return address of the created directory
      */
-    private void createDirectory(JSONObject input){
+    protected String createDirectory(JSONObject input){
         getLogger().info("Creating simulation results directory...");
 
         String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSSS"));
@@ -222,13 +284,15 @@ public class Dmas extends AbstractAgent {
         else{
             getLogger().config("Simulation results directory already exists at\n" + directoryAddress);
         }
+
+        return directoryAddress;
     }
 
     /**
      * Sets logger level for all agents in the simulation
      * @param input imported JSON input file
      */
-    private void setLogger(JSONObject input){
+    protected void setLogger(JSONObject input){
         String lvl = ((JSONObject) input.get(SETTINGS)).get(LEVEL).toString();
 
         switch(lvl){
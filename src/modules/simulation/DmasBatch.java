@@ -0,0 +1,255 @@
+package modules.simulation;
+
+import static constants.JSONFields.*;
+
+import modules.orbitData.OrbitData;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless batch version of DMAS. Loads a single scenario and its coverage data once and simulates every
+ * combination of a set of input parameters within the same process, with no GUI frames or console logging.
+ *
+ * Sweeps are described by a json file in the /inputs folder:
+ *   "input" : name of the base input file
+ *   "sweep" : map of "section.field" to a list of values. The cartesian product of all lists is simulated.
+ *   "cases" : optional list of maps of "section.field" to a single value. Every case is combined with every
+ *             point of the sweep grid.
+ *
+ * Only fields that do not change the coverage of the scenario may be swept: any planner field, the simulation
+ * seed and number of runs, and the time step, time advance mode and agent thread settings.
+ *
+ * Results of case k are saved in case_k of the batch directory together with the input used, and a summary of
+ * every run is appended to the batch directory's run summary.
+ *
+ * Runs can also start from checkpoints instead of the beginning of the simulation:
+ *   "resume" : optional results directory of an earlier batch of the same sweep. Every run continues from the
+ *              latest checkpoint of the matching run, or starts over if that run saved no checkpoints.
+ *   "fork"   : optional checkpoint file, or run directory whose latest checkpoint is used. Every run of every
+ *              case continues from it, so cases share the simulated history up to the checkpoint. Requests
+ *              announced after the checkpoint are generated again from the seed of each run. Planners are
+ *              restored as saved, so every case must have the same planner settings as the checkpoint and only
+ *              the other sweepable fields may differ.
+ *
+ * @author a.aguilar
+ */
+public class DmasBatch extends Dmas {
+    /**
+     * Name of sweep file to be opened
+     */
+    public static String sweepFile = null;
+
+    /**
+     * Fields of the sweep file
+     */
+    public static final String INPUT = "input";
+    public static final String SWEEP = "sweep";
+    public static final String CASES = "cases";
+    public static final String RESUME = "resume";
+    public static final String FORK = "fork";
+
+    /**
+     * Results directory of the batch being resumed, and checkpoint every run is forked from. Null if not used
+     */
+    private String resumeDirectory;
+    private File forkCheckpoint;
+
+    /**
+     * Index of the case whose runs are being launched
+     */
+    private int currentCase;
+
+    /**
+     * Input fields outside of the planner section that may be swept
+     */
+    private static final Set<String> SWEEPABLE = new HashSet<>(Arrays.asList(
+            SIM + "." + SEED, SIM + "." + N_SIMS,
+            SETTINGS + "." + TIMESTEP, SETTINGS + "." + TIME_ADVANCE, SETTINGS + "." + COARSE_STEP,
+            SETTINGS + "." + AGENT_THREADS));
+
+    @Override
+    public void activate(){
+        try {
+            // 0- Silence all console output
+            Logger.getGlobal().setLevel(Level.OFF);
+            getLogger().setLevel(Level.OFF);
+
+            // 1- Read sweep and base input files
+            if(sweepFile == null) throw new InputMismatchException("No sweep file selected.");
+            JSONObject sweep = parseJSON(sweepFile);
+            if(sweep.get(INPUT) == null) throw new InputMismatchException("Sweep file must specify a base " + INPUT);
+
+            JSONObject input = parseJSON(sweep.get(INPUT).toString());
+            ((JSONObject) input.get(SETTINGS)).put(GUI, false);
+            ((JSONObject) input.get(SETTINGS)).put(LEVEL, "OFF");
+
+            // 2- Find checkpoints to start from
+            if(sweep.get(RESUME) != null) resumeDirectory = sweep.get(RESUME).toString();
+            if(sweep.get(FORK) != null) forkCheckpoint = findCheckpoint(sweep.get(FORK).toString());
+
+            // 3- Generate every combination of swept parameters
+            ArrayList<JSONObject> cases = generateCases(sweep, input);
+            if(forkCheckpoint != null) checkForkPlanner(cases);
+
+            // 4- Create batch results directory
+            String batchDirectory = createDirectory(input);
+
+            // 5- Coverage and Cross Link Calculation, shared by all cases
+            OrbitData orbitData = loadOrbitData(input);
+
+            // 6- Execute all cases through a single run pool
+            int n_runs = 0;
+            for(JSONObject caseInput : cases) n_runs += readNumberOfRuns(caseInput);
+            RunPool runPool = new RunPool(readConcurrentRuns(input), n_runs, batchDirectory);
+
+            for(int k = 0; k < cases.size(); k++){
+                String caseDirectory = batchDirectory + "/case_" + k;
+                new File(caseDirectory).mkdir();
+                try(FileWriter writer = new FileWriter(caseDirectory + "/input.json")){
+                    writer.write(cases.get(k).toJSONString());
+                }
+
+                currentCase = k;
+                launchRuns(cases.get(k), orbitData, caseDirectory, runPool);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected Simulation createRun(JSONObject input, OrbitData orbitData, String directoryAddress, int simID,
+                                   RunPool.Slot slot){
+        Simulation run = super.createRun(input, orbitData, directoryAddress, simID, slot);
+
+        if(forkCheckpoint != null) run.forkFrom(forkCheckpoint);
+        else if(resumeDirectory != null){
+            File checkpoint = Checkpoint.latest(resumeDirectory + "/case_" + currentCase + "/run_" + simID);
+            if(checkpoint != null) run.resumeFrom(checkpoint);
+        }
+
+        return run;
+    }
+
+    /**
+     * Finds the checkpoint to fork runs from
+     * @param address checkpoint file or run directory
+     * @return checkpoint file
+     */
+    private File findCheckpoint(String address){
+        File checkpoint = new File(address);
+        if(checkpoint.isDirectory()) checkpoint = Checkpoint.latest(address);
+        if(checkpoint == null || !checkpoint.exists())
+            throw new InputMismatchException("No checkpoint found at " + address);
+        return checkpoint;
+    }
+
+    /**
+     * Checks that every case can be forked from the fork checkpoint. Planners are restored as they were saved, so
+     * no planner field may differ from the input the checkpoint was saved with
+     * @param cases : input files to be simulated
+     * @throws Exception
+     */
+    private void checkForkPlanner(ArrayList<JSONObject> cases) throws Exception {
+        JSONObject savedPlanner = (JSONObject) Checkpoint.readInput(forkCheckpoint).get(PLNR);
+
+        for(int k = 0; k < cases.size(); k++){
+            JSONObject planner = (JSONObject) cases.get(k).get(PLNR);
+            Set<Object> fields = new TreeSet<>(Comparator.comparing(Object::toString));
+            fields.addAll(savedPlanner.keySet());
+            fields.addAll(planner.keySet());
+
+            for(Object field : fields){
+                if(!Objects.equals(savedPlanner.get(field), planner.get(field)))
+                    throw new InputMismatchException("Case " + k + " cannot be forked from " + forkCheckpoint.getPath()
+                            + ": planner field " + field + " is " + planner.get(field) + " but the checkpoint was saved with "
+                            + savedPlanner.get(field) + ". Only non-planner fields may differ from the checkpoint.");
+            }
+        }
+    }
+
+    /**
+     * Creates one input file for every combination of the swept parameters
+     * @param sweep loaded sweep file
+     * @param input base input file
+     * @return list of input files to be simulated
+     * @throws ParseException
+     */
+    private ArrayList<JSONObject> generateCases(JSONObject sweep, JSONObject input) throws ParseException {
+        ArrayList<JSONObject> cases = new ArrayList<>();
+
+        JSONArray listedCases = (JSONArray) sweep.get(CASES);
+        if(listedCases == null || listedCases.isEmpty()){
+            cases.add(copy(input));
+        }
+        else {
+            for(Object listed : listedCases){
+                JSONObject caseInput = copy(input);
+                for(Object field : ((JSONObject) listed).keySet()){
+                    set(caseInput, field.toString(), ((JSONObject) listed).get(field));
+                }
+                cases.add(caseInput);
+            }
+        }
+
+        JSONObject grid = (JSONObject) sweep.get(SWEEP);
+        if(grid == null) return cases;
+
+        // expand the grid one field at a time. JSON objects do not keep the order fields are listed in, so fields
+        // are expanded in alphabetical order to number cases the same way on every run
+        ArrayList<String> fields = new ArrayList<>();
+        for(Object field : grid.keySet()) fields.add(field.toString());
+        Collections.sort(fields);
+
+        for(String field : fields){
+            Object values = grid.get(field);
+            List<?> valueList = values instanceof JSONArray ? (JSONArray) values : Collections.singletonList(values);
+
+            ArrayList<JSONObject> expanded = new ArrayList<>();
+            for(JSONObject caseInput : cases){
+                for(Object value : valueList){
+                    JSONObject expandedInput = copy(caseInput);
+                    set(expandedInput, field, value);
+                    expanded.add(expandedInput);
+                }
+            }
+            cases = expanded;
+        }
+
+        return cases;
+    }
+
+    /**
+     * Sets the value of an input field
+     * @param input input file to be modified
+     * @param field field name in the format "section.field"
+     * @param value new value of the field
+     */
+    private void set(JSONObject input, String field, Object value){
+        String[] path = field.split("\\.");
+        if(path.length != 2) throw new InputMismatchException("Sweep field " + field
+                + " must be in the format section.field");
+        if(!path[0].equals(PLNR) && !SWEEPABLE.contains(field))
+            throw new InputMismatchException("Sweep field " + field + " not supported. Only planner fields and "
+                    + SWEEPABLE + " can be swept over a single scenario");
+
+        ((JSONObject) input.get(path[0])).put(path[1], value);
+    }
+
+    /**
+     * Creates a deep copy of an input file
+     */
+    private JSONObject copy(JSONObject input) throws ParseException {
+        return (JSONObject) new JSONParser().parse(input.toJSONString());
+    }
+}
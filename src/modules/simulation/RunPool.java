@@ -0,0 +1,128 @@
+package modules.simulation;
+
+import org.json.simple.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Bounds the number of simulation runs executing at the same time. A run takes a slot before it is created and
+ * gives it back once its results have been saved and its agents have been killed, so memory use depends on the
+ * number of concurrent runs rather than on the total number of runs.
+ *
+ * The results of every finished run are appended to a summary file in the order in which runs finish.
+ *
+ * @author a.aguilar
+ */
+public class RunPool {
+    public static final String SUMMARY_FILE = "runs.jsonl";
+
+    private final Semaphore slots;
+    private final int nRuns;
+    private final String summaryAddress;
+    private int nFinished;
+
+    /**
+     * Creates a run pool
+     * @param maxConcurrent maximum number of runs executing at once. If 0 or less, one run per available core.
+     * @param nRuns total number of runs to be executed
+     * @param directoryAddress directory where the summary of all runs is saved
+     */
+    public RunPool(int maxConcurrent, int nRuns, String directoryAddress){
+        if(maxConcurrent <= 0) maxConcurrent = Runtime.getRuntime().availableProcessors();
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.nRuns = nRuns;
+        this.summaryAddress = directoryAddress + "/" + SUMMARY_FILE;
+        this.nFinished = 0;
+    }
+
+    /**
+     * Waits until a slot is available for a new run
+     * @return slot of the new run, to be closed once the run finishes or fails
+     * @throws InterruptedException
+     */
+    public Slot acquire() throws InterruptedException {
+        slots.acquire();
+        return new Slot();
+    }
+
+    /**
+     * Frees the slot of a run that could not be completed
+     * @param simID id of the failed run
+     */
+    protected void failed(int simID){
+        synchronized (this) {
+            nFinished++;
+            notifyAll();
+            Logger.getGlobal().severe("Simulation run " + simID + " failed. " + nFinished + "/" + nRuns
+                    + " simulation runs completed");
+        }
+        slots.release();
+    }
+
+    /**
+     * Saves the results of a finished run and frees its slot
+     * @param results performance of the run
+     */
+    protected void finished(JSONObject results){
+        try {
+            synchronized (this) {
+                try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(summaryAddress, true)))) {
+                    writer.println(results.toJSONString());
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+
+                nFinished++;
+                notifyAll();
+                Logger.getGlobal().info(nFinished + "/" + nRuns + " simulation runs completed");
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Slot taken by a single run. Runs can fail at several points of their life, and may report both a failure and
+     * the end of the simulation, so a slot is only given back to the pool the first time it is closed.
+     */
+    public class Slot {
+        private boolean closed = false;
+
+        /**
+         * Saves the results of the run and frees its slot. Ignored if the slot was already closed.
+         * @param results performance of the run
+         */
+        public void finished(JSONObject results){
+            if(close()) RunPool.this.finished(results);
+        }
+
+        /**
+         * Frees the slot of a run that could not be completed. Ignored if the slot was already closed.
+         * @param simID id of the failed run
+         */
+        public void failed(int simID){
+            if(close()) RunPool.this.failed(simID);
+        }
+
+        private synchronized boolean close(){
+            if(closed) return false;
+            closed = true;
+            return true;
+        }
+
+        public synchronized boolean isClosed(){ return closed; }
+    }
+
+    /**
+     * Waits until every run of this pool has either finished or failed
+     * @throws InterruptedException
+     */
+    public synchronized void awaitAll() throws InterruptedException {
+        while(nFinished < nRuns) wait();
+    }
+}
@@ -4,17 +4,52 @@ import madkit.kernel.AbstractAgent;
 import madkit.kernel.Scheduler;
 import madkit.simulation.activator.GenericBehaviorActivator;
 import modules.environment.Environment;
+import org.json.simple.JSONObject;
 import org.orekit.time.AbsoluteDate;
 
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
 public class SimScheduler extends Scheduler {
 
     private SimGroups myGroups;
     private Environment environment;
     protected GenericBehaviorActivator<AbstractAgent> agents;
 
-    public SimScheduler(SimGroups myGroups, AbsoluteDate startDate, AbsoluteDate endDate){
+    /**
+     * Activators that skip idle agents, kept to report how many activations were skipped
+     */
+    private final ArrayList<WakeUpActivator<AbstractAgent>> wakeUpActivators = new ArrayList<>();
+
+    /**
+     * Pool on which agent behaviors are run concurrently. Null if agents are run serially
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Saves the state of the run at regular intervals. Null if the run is never checkpointed
+     */
+    private final Checkpoint checkpoint;
+
+    /**
+     * Creates the scheduler of a simulation
+     * @param myGroups : organization groups and roles available for agents in the simulation
+     * @param environment : environment of the simulation
+     * @param startDate : simulation start date
+     * @param endDate : simulation end date
+     * @param nThreads : number of threads on which the agents of each phase are run. If 1, agents are run
+     *                 serially. If 0 or less, one thread per available core is used.
+     * @param checkpoint : checkpoints of the run, or null
+     */
+    public SimScheduler(SimGroups myGroups, Environment environment, AbsoluteDate startDate, AbsoluteDate endDate,
+                        int nThreads, Checkpoint checkpoint){
         super(endDate.durationFrom(startDate));
         this.myGroups = myGroups;
+        this.environment = environment;
+
+        if(nThreads <= 0) nThreads = Runtime.getRuntime().availableProcessors();
+        this.pool = nThreads > 1 ? new ForkJoinPool(nThreads) : null;
+        this.checkpoint = checkpoint;
     }
 
     @Override
@@ -22,25 +57,21 @@ public class SimScheduler extends Scheduler {
         // 0 : request my role
         requestRole(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SCHEDULER);
 
-        // 1 : make ground stations perform their duties
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "sense");
-        addActivator(agents);
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "think");
-        addActivator(agents);
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "execute");
-        addActivator(agents);
+        // 1 : make ground stations perform their duties. Only agents with work due at the current time step or
+        //     unread messages are activated. Agents of the same phase may run concurrently, and the
+        //     messages they send are delivered once every agent of that phase is done
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "sense").usePool(pool));
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "think").usePool(pool));
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.GNDSTAT, "execute").usePool(pool));
 
         // 2 : make agents listen/sense
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "sense");
-        addActivator(agents);
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "sense").usePool(pool));
 
         // 3 : make agents update/create plans
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "think");
-        addActivator(agents);
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "think").usePool(pool));
 
         // 4 : let agents execute plans
-        agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "execute");
-        addActivator(agents);
+        addWakeUpActivator(new WakeUpActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.SATELLITE, "execute").usePool(pool));
 
         // 5 : update sim time
         agents = new GenericBehaviorActivator<>(myGroups.MY_COMMUNITY, SimGroups.SIMU_GROUP, SimGroups.ENVIRONMENT, "tic");
@@ -52,14 +83,72 @@ public class SimScheduler extends Scheduler {
         setSimulationState(SimulationState.RUNNING);
     }
 
+    /**
+     * Runs a single time step. Any error raised by an agent or by the end of the run stops the run and frees its
+     * slot in the run pool, as the scheduler would otherwise stop without notifying anyone.
+     */
+    @Override
+    public void doSimulationStep(){
+        try {
+            super.doSimulationStep();
+        } catch (RuntimeException e) {
+            stop(e);
+        }
+    }
+
+    /**
+     * Makes sure the run's slot is freed and its threads are stopped however the scheduler stops
+     */
+    @Override
+    protected void end(){
+        stop(new IllegalStateException("Scheduler of " + environment.getParentSimulation().getName()
+                + " stopped before the end of the run"));
+        super.end();
+    }
+
+    private void stop(Throwable cause){
+        shutdownPool();
+        setSimulationState(SimulationState.SHUTDOWN);
+        environment.getParentSimulation().fail(cause);
+    }
+
+    private void shutdownPool(){
+        if(pool != null) pool.shutdown();
+    }
+
+    private void addWakeUpActivator(WakeUpActivator<AbstractAgent> activator){
+        wakeUpActivators.add(activator);
+        agents = activator;
+        addActivator(activator);
+    }
+
     public void tic() throws Exception {
         this.setGVT( environment.getGVT() );
 
         boolean endSim = environment.getStartDate().shiftedBy(environment.getGVT()).compareTo(environment.getEndDate()) >= 0;
 
         if(endSim){
-            environment.printResults();
-            setSimulationState(SimulationState.SHUTDOWN);
+            long activations = 0;
+            long skipped = 0;
+            for(WakeUpActivator<AbstractAgent> activator : wakeUpActivators){
+                activations += activator.getActivations();
+                skipped += activator.getSkipped();
+            }
+            environment.registerActivations(activations, skipped);
+
+            JSONObject results;
+            try {
+                results = environment.printResults();
+            } finally {
+                shutdownPool();
+                setSimulationState(SimulationState.SHUTDOWN);
+            }
+
+            // free this run's agents and let the next run start
+            environment.getParentSimulation().finish(results);
+        }
+        else if(checkpoint != null && checkpoint.isDue(environment.getGVT())){
+            checkpoint.save();
         }
     }
 }
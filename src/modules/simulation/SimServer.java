@@ -0,0 +1,419 @@
+package modules.simulation;
+
+import static constants.JSONFields.*;
+
+import modules.orbitData.OrbitData;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.InputMismatchException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Long-lived DMAS server. Keeps the constellation, coverage, ephemeris and trajectory data of every scenario it
+ * has simulated in memory so that repeated runs on the same scenario skip all data loading and start immediately.
+ *
+ * The server listens on the loopback interface only. Clients send one JSON document per line, and every request
+ * is answered with one JSON document per line:
+ *   - Input files are simulated as if loaded by Dmas. The results of each run are sent back as soon as the run
+ *     finishes as {"type":"result", "results":{...}}, followed by {"type":"done", "directory":..., "runs":n}.
+ *   - {"command":"status"} is answered with the number of scenarios loaded.
+ *   - {"command":"shutdown"} stops accepting clients and new requests, and is answered once all running requests
+ *     are answered.
+ *   - Errors are answered with {"type":"error", "message":...}.
+ *
+ * Scenarios are matched on every input field used to load coverage data and on the modification time of every
+ * workbook read, so requests may differ in any planner, seed, or run setting and still reuse the same scenario,
+ * while edited workbooks are loaded again. Every scenario is loaded once, even if several requests ask for it at
+ * the same time, and requests for other scenarios are not held up while it loads. Once more than maxScenarios are
+ * loaded, the least recently used scenarios that are not being simulated are dropped. Simulations are always run
+ * without a GUI.
+ *
+ * @author a.aguilar
+ */
+public class SimServer extends Dmas {
+    /**
+     * Port to listen on
+     */
+    public static final int DEFAULT_PORT = 5150;
+    public static int port = DEFAULT_PORT;
+
+    /**
+     * Number of scenarios kept in memory
+     */
+    public static final int DEFAULT_MAX_SCENARIOS = 4;
+    public static int maxScenarios = DEFAULT_MAX_SCENARIOS;
+
+    /**
+     * Fields of requests and responses
+     */
+    public static final String COMMAND = "command";
+    public static final String STATUS = "status";
+    public static final String SHUTDOWN = "shutdown";
+    public static final String TYPE = "type";
+    public static final String RESULT = "result";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    /**
+     * Loaded scenarios, indexed by the input fields and workbooks used to load them
+     */
+    private final HashMap<String, Scenario> scenarios = new HashMap<>();
+
+    /**
+     * Number of simulation requests being answered, and whether the server stopped accepting new ones
+     */
+    private final Object requests = new Object();
+    private int runningRequests = 0;
+    private boolean shuttingDown = false;
+
+    /**
+     * Socket accepting new clients
+     */
+    private ServerSocket serverSocket;
+
+    @Override
+    public void activate(){
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            Logger.getGlobal().info("DMAS server listening on " + serverSocket.getLocalSocketAddress());
+
+            while(!serverSocket.isClosed()){
+                Socket client;
+                try {
+                    client = serverSocket.accept();
+                } catch (SocketException e) {
+                    // server socket was closed by a shutdown request
+                    break;
+                }
+
+                Thread handler = new Thread(() -> serve(client), "dmas-client-" + client.getPort());
+                handler.setDaemon(true);
+                handler.start();
+            }
+
+            awaitRequests();
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            releaseScenarios();
+        }
+    }
+
+    /**
+     * Answers every request sent by a client until the client disconnects
+     * @param client connection to the client
+     */
+    private void serve(Socket client){
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))) {
+
+            String line;
+            while((line = in.readLine()) != null){
+                if(line.trim().isEmpty()) continue;
+
+                try {
+                    JSONObject request = (JSONObject) new JSONParser().parse(line);
+                    if(request.containsKey(COMMAND)) command(request, out);
+                    else simulate(request, out);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JSONObject error = new JSONObject();
+                    error.put(TYPE, ERROR);
+                    error.put("message", e.toString());
+                    send(out, error);
+                }
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Executes a server command
+     * @param request command request
+     * @param out stream to the client
+     * @throws Exception
+     */
+    private void command(JSONObject request, PrintWriter out) throws Exception {
+        String command = request.get(COMMAND).toString();
+        JSONObject response = new JSONObject();
+
+        switch (command){
+            case STATUS:
+                response.put(TYPE, STATUS);
+                synchronized (scenarios) {
+                    response.put("scenarios", scenarios.size());
+                }
+                send(out, response);
+                break;
+            case SHUTDOWN:
+                synchronized (requests) {
+                    shuttingDown = true;
+                }
+                serverSocket.close();
+                awaitRequests();
+
+                response.put(TYPE, SHUTDOWN);
+                send(out, response);
+                break;
+            default:
+                throw new InputMismatchException("Server command " + command + " not supported");
+        }
+    }
+
+    /**
+     * Simulates an input file and streams the results of each run back to the client
+     * @param input input file to be simulated
+     * @param out stream to the client
+     * @throws Exception
+     */
+    private void simulate(JSONObject input, PrintWriter out) throws Exception {
+        synchronized (requests) {
+            if(shuttingDown) throw new IllegalStateException("Server is shutting down");
+            runningRequests++;
+        }
+
+        try {
+            ((JSONObject) input.get(SETTINGS)).put(GUI, false);
+
+            Scenario scenario = acquireScenario(input);
+            try {
+                OrbitData orbitData = scenario.data.get();
+                String directoryAddress = createDirectory(input);
+                int n_sims = readNumberOfRuns(input);
+
+                RunPool runPool = new RunPool(readConcurrentRuns(input), n_sims, directoryAddress) {
+                    @Override
+                    protected void finished(JSONObject results) {
+                        JSONObject response = new JSONObject();
+                        response.put(TYPE, RESULT);
+                        response.put("results", results);
+                        send(out, response);
+                        super.finished(results);
+                    }
+                };
+                launchRuns(input, orbitData, directoryAddress, runPool);
+                runPool.awaitAll();
+
+                JSONObject response = new JSONObject();
+                response.put(TYPE, DONE);
+                response.put("directory", directoryAddress);
+                response.put("runs", n_sims);
+                send(out, response);
+            } finally {
+                releaseScenario(scenario);
+            }
+        } finally {
+            synchronized (requests) {
+                runningRequests--;
+                requests.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every running simulation request is answered
+     */
+    private void awaitRequests() throws InterruptedException {
+        synchronized (requests) {
+            while(runningRequests > 0) requests.wait();
+        }
+    }
+
+    /**
+     * Returns the scenario of an input file and marks it as in use, loading its coverage data if it has not been
+     * simulated before. Only the first request for a scenario loads it; later requests wait for it to be loaded.
+     * Scenarios are loaded outside of the lock on the scenario list, so other scenarios can be used meanwhile.
+     * @param input input file
+     * @return scenario in use, to be released with releaseScenario once its simulations are done
+     * @throws Exception if the coverage data of the scenario could not be loaded
+     */
+    private Scenario acquireScenario(JSONObject input) throws Exception {
+        String key = scenarioKey(input);
+
+        Scenario scenario;
+        boolean load;
+        synchronized (scenarios) {
+            scenario = scenarios.get(key);
+            load = scenario == null;
+            if(load){
+                scenario = new Scenario();
+                scenarios.put(key, scenario);
+            }
+            scenario.users++;
+            scenario.lastUsed = System.nanoTime();
+        }
+
+        try {
+            if(load){
+                Logger.getGlobal().info("Loading new scenario " + key);
+                try {
+                    scenario.data.complete(loadOrbitData(input));
+                } catch (Exception e) {
+                    // drop the scenario so that later requests try to load it again
+                    synchronized (scenarios) {
+                        scenarios.remove(key, scenario);
+                    }
+                    scenario.data.completeExceptionally(e);
+                }
+            }
+
+            try {
+                scenario.data.get();
+            } catch (ExecutionException e) {
+                throw new Exception("Scenario " + key + " could not be loaded", e.getCause());
+            }
+            return scenario;
+
+        } catch (Exception e) {
+            releaseScenario(scenario);
+            throw e;
+        }
+    }
+
+    /**
+     * Marks a scenario as no longer used by a request and drops least recently used scenarios that are not in use
+     * until at most maxScenarios are loaded
+     * @param scenario scenario returned by acquireScenario
+     */
+    private void releaseScenario(Scenario scenario){
+        synchronized (scenarios) {
+            scenario.users--;
+
+            while(scenarios.size() > maxScenarios){
+                String oldest = null;
+                for(String key : scenarios.keySet()){
+                    Scenario candidate = scenarios.get(key);
+                    if(candidate.users > 0 || !candidate.data.isDone()) continue;
+                    if(oldest == null || candidate.lastUsed < scenarios.get(oldest).lastUsed) oldest = key;
+                }
+                if(oldest == null) break;
+
+                Logger.getGlobal().info("Dropping scenario " + oldest);
+                release(scenarios.remove(oldest));
+            }
+        }
+    }
+
+    /**
+     * Drops every loaded scenario
+     */
+    private void releaseScenarios(){
+        synchronized (scenarios) {
+            for(Scenario scenario : scenarios.values()) release(scenario);
+            scenarios.clear();
+        }
+    }
+
+    private static void release(Scenario scenario){
+        if(scenario.data.isDone() && !scenario.data.isCompletedExceptionally()){
+            scenario.data.join().releaseCache();
+        }
+    }
+
+    /**
+     * Lists every input field used when loading coverage data
+     * @param input input file
+     * @return key identifying the scenario of the input file
+     */
+    private String scenarioKey(JSONObject input){
+        JSONObject sim = (JSONObject) input.get(SIM);
+        JSONObject settings = (JSONObject) input.get(SETTINGS);
+
+        StringBuilder key = new StringBuilder();
+        for(String field : new String[]{CONS, GND_STATS, SCENARIO, START_DATE, END_DATE})
+            key.append(sim.get(field)).append('|');
+        for(String field : new String[]{TIMESTEP, EPHEMERIS_STEP, CROSS_LINK_MODEL, TRAJ_COMPRESS, TRAJ_CSV,
+                ACCESS_WINDOW})
+            key.append(settings.get(field)).append('|');
+
+        // workbooks read by OrbitData, so that edited workbooks are loaded again
+        File[] workbooks = new File[]{
+                new File(constellationsDir + sim.get(CONS) + ".xls"),
+                new File(scenarioDir + sim.get(SCENARIO) + ".xls"),
+                new File(databaseDir + "GroundStationDatabase.xls"),
+                new File(databaseDir + "InstrumentDatabase.xls")
+        };
+        for(File workbook : workbooks)
+            key.append(workbook.lastModified()).append(':').append(workbook.length()).append('|');
+        return key.toString();
+    }
+
+    /**
+     * Coverage data of a scenario and the number of requests simulating it
+     */
+    private static class Scenario {
+        private final CompletableFuture<OrbitData> data = new CompletableFuture<>();
+        private int users = 0;
+        private long lastUsed;
+    }
+
+    /**
+     * Sends a response to a client. Runs of a request may finish at the same time, so responses are written one
+     * at a time.
+     */
+    private static void send(PrintWriter out, JSONObject response){
+        synchronized (out) {
+            out.println(response.toJSONString());
+            out.flush();
+        }
+    }
+
+    /**
+     * Loopback client used to submit input files to a running server from the command line
+     */
+    public static class Client {
+        /**
+         * Sends every input file to the server and prints every response
+         * @param args names of input files within the /inputs folder, or a server command
+         */
+        public static void main(String[] args) throws IOException, ParseException {
+            int serverPort = Integer.parseInt(System.getProperty("dmas.port", Integer.toString(DEFAULT_PORT)));
+
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), serverPort);
+                 BufferedReader in = new BufferedReader(
+                         new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(new BufferedWriter(
+                         new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))) {
+
+                for(String arg : args){
+                    JSONObject request;
+                    if(arg.equals(STATUS) || arg.equals(SHUTDOWN)){
+                        request = new JSONObject();
+                        request.put(COMMAND, arg);
+                    }
+                    else {
+                        request = (JSONObject) new JSONParser().parse(new FileReader(inputDir + arg));
+                    }
+
+                    long tic = System.nanoTime();
+                    out.println(request.toJSONString());
+                    out.flush();
+
+                    String line;
+                    while((line = in.readLine()) != null){
+                        System.out.println(line);
+                        JSONObject response = (JSONObject) new JSONParser().parse(line);
+                        if(!RESULT.equals(response.get(TYPE))) break;
+                    }
+                    System.out.println(String.format("%s answered in %.4f sec", arg, (System.nanoTime() - tic) / 1e9));
+                }
+            }
+        }
+    }
+}
@@ -44,6 +44,22 @@ public class Simulation extends AbstractAgent{
      */
     private final int simID;
 
+    /**
+     * Seed of the random number generator used to create this run's measurement requests
+     */
+    private final long seed;
+
+    /**
+     * Slot of this run in the pool limiting the number of runs executing at once. Closed when this run finishes or
+     * fails. May be null
+     */
+    private final RunPool.Slot slot;
+
+    /**
+     * True once this run has either finished or failed
+     */
+    private boolean closed = false;
+
     /**
      * JSON input file
      */
@@ -95,6 +111,16 @@ public class Simulation extends AbstractAgent{
      */
     private ArrayList<GndStationAgent> gndSegment;
 
+    /**
+     * Checkpoint this run starts from. Null if the run starts from the beginning of the simulation
+     */
+    private File resumeFile;
+
+    /**
+     * True if the checkpoint was saved by another run, whose future this run does not share
+     */
+    private boolean fork;
+
     /**
      * Creates an instance of a simulation object. Initializes simulation variables using
      * pre-calculated databases and inputs
@@ -102,10 +128,18 @@ public class Simulation extends AbstractAgent{
      * @param orbitData : coverage data of all satellites and ground stations in the scenario
      * @param directoryAddress : directory address of where the results of this simulation will be printed to
      * @param simID : id of this particular simulation
+     * @param slot : slot of this run in the pool limiting the number of concurrent runs, closed when this run
+     *             finishes or fails. May be null
      */
-    public Simulation(JSONObject input, OrbitData orbitData, String directoryAddress, int simID){
+    public Simulation(JSONObject input, OrbitData orbitData, String directoryAddress, int simID, RunPool.Slot slot){
         this.name = ((JSONObject) input.get(SIM)).get(SCENARIO).toString() + "-" + simID;
         this.simID = simID;
+        this.slot = slot;
+
+        // every run draws its requests from its own generator so that runs are reproducible in any order
+        Object seedSetting = ((JSONObject) input.get(SIM)).get(SEED);
+        long baseSeed = seedSetting == null ? 0L : Long.parseLong(seedSetting.toString());
+        this.seed = baseSeed + simID;
         this.input = input;
         this.orbitData = orbitData;
         this.startDate = orbitData.getStartDate();
@@ -151,11 +185,19 @@ public class Simulation extends AbstractAgent{
             // 5 - initialize planners
             for(SatelliteAgent satAgent : spaceSegment) satAgent.initPlanner();
 
-            // 5- launch simulation
-            launchAgent(new SimScheduler(myGroups, startDate, endDate), true);
+            // 6- restore checkpointed state if resuming
+            Checkpoint checkpoint = new Checkpoint(input, orbitData, environment, spaceSegment, gndSegment,
+                    myGroups, simDirectoryAddress);
+            if(resumeFile != null) checkpoint.restore(resumeFile);
+            if(fork) environment.fork();
+
+            // 7- launch simulation
+            Object threadSetting = ((JSONObject) input.get(SETTINGS)).get(AGENT_THREADS);
+            int nThreads = threadSetting == null ? 1 : Integer.parseInt(threadSetting.toString());
+            launchAgent(new SimScheduler(myGroups, environment, startDate, endDate, nThreads, checkpoint), createFrame);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -285,8 +327,6 @@ public class Simulation extends AbstractAgent{
 //                break;
             case AbstractPlanner.CCBBA:
                 boolean syncCommLoops = Boolean.parseBoolean( ((JSONObject) input.get(PLNR)).get(COMMS_LOOPS).toString() );
-                if(!syncCommLoops) throw new Exception("Asynchronous communication loops not yet supported");
-
                 planner = new CCBBAPlanner(planningHorizon, threshold, crossLinks, syncCommLoops);
                 break;
             case AbstractPlanner.FIRST_PRIORITY:
@@ -360,5 +400,68 @@ public class Simulation extends AbstractAgent{
         }
     }
 
+    /**
+     * Kills every agent of this run once its results have been saved so that their memory can be reclaimed, and
+     * frees the run's slot in the run pool
+     * @param results : performance of this run
+     */
+    public synchronized void finish(JSONObject results){
+        if(closed) return;
+        closed = true;
+
+        killAgents();
+        if(slot != null) slot.finished(results);
+        killAgent(this);
+    }
+
+    /**
+     * Stops a run that can not be completed. Kills every agent of the run and frees its slot in the run pool so
+     * that the remaining runs of a batch can still be executed. Ignored if the run already finished.
+     * @param cause : error that stopped the run
+     */
+    public synchronized void fail(Throwable cause){
+        if(closed) return;
+        closed = true;
+
+        getLogger().severe("Simulation run " + simID + " stopped: " + cause);
+        cause.printStackTrace();
+
+        killAgents();
+        if(slot != null) slot.failed(simID);
+        killAgent(this);
+    }
+
+    private void killAgents(){
+        if(spaceSegment != null) for(SatelliteAgent satAgent : spaceSegment) killAgent(satAgent);
+        if(gndSegment != null) for(GndStationAgent gndAgent : gndSegment) killAgent(gndAgent);
+        if(environment != null) killAgent(environment);
+
+        spaceSegment = null;
+        gndSegment = null;
+        environment = null;
+    }
+
+    /**
+     * Makes this run continue from a checkpoint instead of starting from the beginning of the simulation. Must be
+     * called before the run is launched
+     * @param checkpoint : checkpoint file saved by a run of the same scenario and planner
+     */
+    public void resumeFrom(File checkpoint){
+        this.resumeFile = checkpoint;
+        this.fork = false;
+    }
+
+    /**
+     * Makes this run branch off from a checkpoint of another run. The history up to the checkpoint is restored as
+     * saved, while requests announced after it are generated again from this run's own seed. Must be called before
+     * the run is launched
+     * @param checkpoint : checkpoint file saved by a run of the same scenario and planner
+     */
+    public void forkFrom(File checkpoint){
+        this.resumeFile = checkpoint;
+        this.fork = true;
+    }
+
     public JSONObject getInput(){return this.input;}
+    public long getSeed(){return this.seed;}
 }
@@ -0,0 +1,107 @@
+package modules.simulation;
+
+import madkit.kernel.AbstractAgent;
+import madkit.simulation.SimulationException;
+import madkit.simulation.activator.GenericBehaviorActivator;
+import modules.agents.BufferedSender;
+import modules.agents.EventDrivenAgent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Behavior activator that only triggers agents that have work to do at the current time step. Agents that do not
+ * implement EventDrivenAgent are always activated.
+ *
+ * The number of triggered and skipped behaviors is counted so that the savings of skipping idle agents can be
+ * reported.
+ *
+ * If given a thread pool, the behavior of all awake agents is run concurrently and the activator waits for all of
+ * them to finish before returning. Messages held back by agents implementing BufferedSender are delivered once the
+ * phase ends, in the same order in which a serial run would have sent them.
+ *
+ * @author a.aguilar
+ */
+public class WakeUpActivator<A extends AbstractAgent> extends GenericBehaviorActivator<A> {
+    private ForkJoinPool pool;
+
+    /**
+     * Behavior method of each agent class, looked up once and shared across threads
+     */
+    private final ConcurrentHashMap<Class<?>, Method> behaviors = new ConcurrentHashMap<>();
+
+    /**
+     * Number of agent behaviors triggered and skipped so far
+     */
+    private long activations = 0;
+    private long skipped = 0;
+
+    public WakeUpActivator(String community, String group, String role, String behavior){
+        super(community, group, role, behavior);
+        this.pool = null;
+    }
+
+    /**
+     * Runs the behavior of awake agents concurrently on a given pool
+     * @param pool thread pool shared by all activators of a simulation, or null to run agents serially
+     */
+    public WakeUpActivator<A> usePool(ForkJoinPool pool){
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public void execute(List<A> agents, Object... args) {
+        List<A> awake = new ArrayList<>(agents.size());
+        for(A agent : agents){
+            if(!(agent instanceof EventDrivenAgent) || ((EventDrivenAgent) agent).isAwake()) awake.add(agent);
+        }
+        activations += awake.size();
+        skipped += agents.size() - awake.size();
+        if(awake.isEmpty()) return;
+
+        if(pool == null || awake.size() == 1){
+            super.execute(awake, args);
+        }
+        else {
+            try {
+                pool.submit(() -> awake.parallelStream().forEach(agent -> behave(agent, args))).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new SimulationException(toString(), e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        // phase barrier: deliver messages in agent order
+        for(A agent : awake){
+            if(agent instanceof BufferedSender) ((BufferedSender) agent).flushMessages();
+        }
+    }
+
+    public long getActivations(){ return activations; }
+    public long getSkipped(){ return skipped; }
+
+    /**
+     * Triggers the behavior of a single agent. Safe to call from multiple threads.
+     */
+    private void behave(A agent, Object... args){
+        if(!agent.isAlive()) return;
+
+        try {
+            Method behavior = behaviors.get(agent.getClass());
+            if(behavior == null){
+                behavior = findMethodOn(agent.getClass(), getBehaviorName());
+                behaviors.putIfAbsent(agent.getClass(), behavior);
+            }
+            behavior.invoke(agent, args);
+        } catch (InvocationTargetException e) {
+            throw new SimulationException(toString() + " on " + agent, e.getCause());
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new SimulationException(toString(), e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package modules.utils;
+
+import java.util.Arrays;
+
+/**
+ * Chronologically ordered set of disjoint time intervals stored in primitive arrays, together with the interval
+ * algebra used by coverage statistics and access ordering. Every operation sorts its input once and then performs
+ * a single linear sweep over it.
+ *
+ * Times are expressed in seconds from the simulation start date.
+ */
+public class Intervals {
+    private final double[] start;
+    private final double[] end;
+    private final int[] source;
+    private final int size;
+
+    private Intervals(double[] start, double[] end, int[] source, int size){
+        this.start = start;
+        this.end = end;
+        this.source = source;
+        this.size = size;
+    }
+
+    /**
+     * Returns the order in which a list of intervals should be visited to be sorted by start time. Intervals with
+     * equal start times are ordered by end time, and then by their position in the input.
+     * @param start start times
+     * @param end end times
+     * @param n number of intervals
+     * @return indices of the input intervals in chronological order
+     */
+    public static int[] order(double[] start, double[] end, int n){
+        return order(start, end, 0, n);
+    }
+
+    /**
+     * Returns the order in which a range of a list of intervals should be visited to be sorted by start time
+     * @param start start times
+     * @param end end times
+     * @param from index of the first interval in the range
+     * @param to index after the last interval in the range
+     * @return indices of the input intervals in chronological order
+     */
+    public static int[] order(double[] start, double[] end, int from, int to){
+        int n = to - from;
+        int[] order = new int[n];
+        for(int i = 0; i < n; i++) order[i] = from + i;
+
+        int[] buffer = new int[n];
+        mergeSort(order, buffer, 0, n, start, end);
+        return order;
+    }
+
+    private static void mergeSort(int[] order, int[] buffer, int lo, int hi, double[] start, double[] end){
+        if(hi - lo < 16){
+            // insertion sort for short runs
+            for(int i = lo + 1; i < hi; i++){
+                int k = order[i];
+                int j = i - 1;
+                while(j >= lo && before(k, order[j], start, end)){
+                    order[j+1] = order[j];
+                    j--;
+                }
+                order[j+1] = k;
+            }
+            return;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        mergeSort(order, buffer, lo, mid, start, end);
+        mergeSort(order, buffer, mid, hi, start, end);
+        if(!before(order[mid], order[mid-1], start, end)) return;
+
+        System.arraycopy(order, lo, buffer, lo, hi - lo);
+        int i = lo;
+        int j = mid;
+        for(int k = lo; k < hi; k++){
+            if(j >= hi || (i < mid && !before(buffer[j], buffer[i], start, end))) order[k] = buffer[i++];
+            else order[k] = buffer[j++];
+        }
+    }
+
+    private static boolean before(int a, int b, double[] start, double[] end){
+        if(start[a] != start[b]) return start[a] < start[b];
+        return end[a] < end[b];
+    }
+
+    /**
+     * Calculates the union of a list of intervals in any order. Overlapping and touching intervals are merged.
+     * @param start start times
+     * @param end end times
+     * @param n number of intervals
+     * @return disjoint intervals covering the same times as the input
+     */
+    public static Intervals union(double[] start, double[] end, int n){
+        return union(start, end, 0, n);
+    }
+
+    /**
+     * Calculates the union of a range of a list of intervals in any order
+     * @param start start times
+     * @param end end times
+     * @param from index of the first interval in the range
+     * @param to index after the last interval in the range
+     * @return disjoint intervals covering the same times as the input range
+     */
+    public static Intervals union(double[] start, double[] end, int from, int to){
+        int[] order = order(start, end, from, to);
+        int n = order.length;
+
+        double[] outStart = new double[n];
+        double[] outEnd = new double[n];
+        int[] outSource = new int[n];
+        int size = 0;
+        for(int k = 0; k < n; k++){
+            int i = order[k];
+            if(size > 0 && start[i] <= outEnd[size-1]){
+                if(end[i] > outEnd[size-1]) outEnd[size-1] = end[i];
+            }
+            else{
+                outStart[size] = start[i];
+                outEnd[size] = end[i];
+                outSource[size] = i;
+                size++;
+            }
+        }
+
+        return new Intervals(outStart, outEnd, outSource, size);
+    }
+
+    /**
+     * Calculates the intersection of two sets of disjoint intervals
+     * @param a first set
+     * @param b second set
+     * @return times covered by both sets. Sources refer to the intervals of the first set.
+     */
+    public static Intervals intersection(Intervals a, Intervals b){
+        int n = a.size + b.size;
+        double[] outStart = new double[n];
+        double[] outEnd = new double[n];
+        int[] outSource = new int[n];
+        int size = 0;
+
+        int i = 0;
+        int j = 0;
+        while(i < a.size && j < b.size){
+            double lo = Math.max(a.start[i], b.start[j]);
+            double hi = Math.min(a.end[i], b.end[j]);
+            if(lo < hi){
+                outStart[size] = lo;
+                outEnd[size] = hi;
+                outSource[size] = a.source[i];
+                size++;
+            }
+
+            if(a.end[i] < b.end[j]) i++;
+            else j++;
+        }
+
+        return new Intervals(outStart, outEnd, outSource, size);
+    }
+
+    /**
+     * Calculates the times within a time span not covered by this set
+     * @param from start of the time span
+     * @param to end of the time span
+     * @return disjoint gaps in chronological order. Sources are set to -1.
+     */
+    public Intervals gaps(double from, double to){
+        double[] outStart = new double[size + 1];
+        double[] outEnd = new double[size + 1];
+        int[] outSource = new int[size + 1];
+        int n = 0;
+
+        double t = from;
+        for(int i = 0; i < size && t < to; i++){
+            if(start[i] > t){
+                outStart[n] = t;
+                outEnd[n] = Math.min(start[i], to);
+                n++;
+            }
+            if(end[i] > t) t = end[i];
+        }
+        if(t < to){
+            outStart[n] = t;
+            outEnd[n] = to;
+            n++;
+        }
+
+        Arrays.fill(outSource, 0, n, -1);
+        return new Intervals(outStart, outEnd, outSource, n);
+    }
+
+    /**
+     * Calculates the revisit times of this set, being the durations between the end of each interval and the
+     * start of the next one
+     * @return revisit times in chronological order
+     */
+    public double[] revisitTimes(){
+        double[] out = new double[Math.max(size - 1, 0)];
+        for(int i = 0; i < out.length; i++) out[i] = start[i+1] - end[i];
+        return out;
+    }
+
+    /**
+     * @return total time covered by this set
+     */
+    public double duration(){
+        double out = 0.0;
+        for(int i = 0; i < size; i++) out += end[i] - start[i];
+        return out;
+    }
+
+    /**
+     * Getters
+     */
+    public int size(){ return size; }
+    public double getStart(int i){ return start[i]; }
+    public double getEnd(int i){ return end[i]; }
+
+    /**
+     * @param i index of an interval of this set
+     * @return index of the input interval that opened it
+     */
+    public int getSource(int i){ return source[i]; }
+}
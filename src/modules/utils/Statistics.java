@@ -41,6 +41,44 @@ public class Statistics {
         return Math.sqrt( sum/v.size() );
     }
 
+    public static double getMax(double[] v){
+        double max = Double.NEGATIVE_INFINITY;
+        for(double x : v){
+            if(x > max) max = x;
+        }
+
+        if(max == Double.NEGATIVE_INFINITY) return Double.NaN;
+        return max;
+    }
+
+    public static double getMin(double[] v){
+        double min = Double.POSITIVE_INFINITY;
+        for(double x : v){
+            if(x < min) min = x;
+        }
+        if(min == Double.POSITIVE_INFINITY) return Double.NaN;
+        return min;
+    }
+
+    public static double getMean(double[] v){
+        double mean = 0.0;
+        for(double x : v){
+            mean += x;
+        }
+        return mean/v.length;
+    }
+
+    public static double getStd(double[] v){
+        double mean = getMean(v);
+
+        double sum = 0.0;
+        for(double x : v){
+            sum += (x - mean) * (x - mean);
+        }
+
+        return Math.sqrt( sum/v.length );
+    }
+
     public static int permutations(int n, int r){
         return factorial(n)/factorial(n-r);
     }
@@ -0,0 +1,109 @@
+package modules.orbitData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AccessTableTest {
+    @Test
+    public void buildGroupsIntervalsByPairInChronologicalOrder(){
+        AccessTable table = new AccessTable.Builder(3, 4)
+                .add(2, 1, 50.0, 60.0)
+                .add(0, 3, 30.0, 40.0)
+                .add(0, 1, 70.0, 80.0)
+                .add(0, 1, 10.0, 20.0)
+                .add(0, 3, 5.0, 8.0)
+                .build();
+
+        assertEquals(3, table.numPairs());
+        assertEquals(5, table.numIntervals());
+
+        // source 1 has no pairs, and pairs of each source are sorted by target
+        assertEquals(2, table.pairsEnd(0) - table.pairsStart(0));
+        assertEquals(0, table.pairsEnd(1) - table.pairsStart(1));
+        assertEquals(1, table.getTarget(table.pairsStart(0)));
+        assertEquals(3, table.getTarget(table.pairsStart(0) + 1));
+        assertEquals(-1, table.getPair(1, 1));
+        assertEquals(-1, table.getPair(0, 2));
+
+        int pair = table.getPair(0, 1);
+        assertEquals(2, table.intervalsEnd(pair) - table.intervalsStart(pair));
+        assertEquals(10.0, table.getRise(table.intervalsStart(pair)), 0.0);
+        assertEquals(80.0, table.getSet(table.intervalsStart(pair) + 1), 0.0);
+
+        pair = table.getPair(0, 3);
+        assertEquals(5.0, table.getRise(table.intervalsStart(pair)), 0.0);
+        assertEquals(30.0, table.getRise(table.intervalsStart(pair) + 1), 0.0);
+
+        for(int i = 0; i < table.numIntervals(); i++){
+            int p = table.getPairOfInterval(i);
+            assertTrue(table.intervalsStart(p) <= i && i < table.intervalsEnd(p));
+        }
+    }
+
+    @Test
+    public void buildSortsLongPairsOutOfOrder(){
+        AccessTable.Builder builder = new AccessTable.Builder(1, 1);
+        int n = 100;
+        for(int i = 0; i < n; i++){
+            int k = (37*i) % n;
+            builder.add(0, 0, 10.0*k, 10.0*k + 5.0);
+        }
+        AccessTable table = builder.build();
+
+        for(int i = 0; i < n; i++){
+            assertEquals(10.0*i, table.getRise(i), 0.0);
+            assertEquals(10.0*i + 5.0, table.getSet(i), 0.0);
+        }
+    }
+
+    @Test
+    public void overlapQueriesBoundWindows(){
+        AccessTable table = new AccessTable.Builder(1, 1)
+                .add(0, 0, 0.0, 10.0)
+                .add(0, 0, 20.0, 30.0)
+                .add(0, 0, 40.0, 50.0)
+                .build();
+
+        // windows overlapping [25, 45] are the second and third
+        assertEquals(1, table.overlapStart(0, 0, 25.0));
+        assertEquals(3, table.overlapEnd(0, 0, 45.0));
+
+        // no window overlaps [12, 18]
+        assertEquals(table.overlapStart(0, 0, 12.0), table.overlapEnd(0, 0, 18.0));
+
+        assertEquals(1, table.nextWindow(0, 0, 10.5));
+        assertEquals(-1, table.nextWindow(0, 0, 50.5));
+    }
+
+    @Test
+    public void seamJoinsWindowsSplitBetweenSpans(){
+        AccessTable table = new AccessTable.Builder(2, 2).joinAt(100.0)
+                // window open across the seam, reported once by each span
+                .add(0, 1, 90.0, 100.0)
+                .add(0, 1, 100.0, 120.0)
+                // windows that only touch the seam on one side stay apart
+                .add(1, 0, 80.0, 100.0)
+                .add(1, 0, 130.0, 140.0)
+                .build();
+
+        int pair = table.getPair(0, 1);
+        assertEquals(1, table.intervalsEnd(pair) - table.intervalsStart(pair));
+        assertEquals(90.0, table.getRise(table.intervalsStart(pair)), 0.0);
+        assertEquals(120.0, table.getSet(table.intervalsStart(pair)), 0.0);
+
+        pair = table.getPair(1, 0);
+        assertEquals(2, table.intervalsEnd(pair) - table.intervalsStart(pair));
+        assertEquals(3, table.numIntervals());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pairOfIntervalFailsOnEmptyTable(){
+        new AccessTable.Builder(1, 1).build().getPairOfInterval(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addFailsOutsideOfTableBounds(){
+        new AccessTable.Builder(1, 1).add(1, 0, 0.0, 1.0);
+    }
+}
@@ -0,0 +1,76 @@
+package modules.orbitData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AccessWindowTest {
+    /**
+     * Loader with a single ground point access per second that counts how many windows it loaded
+     */
+    private static class CountingLoader implements AccessWindow.Loader {
+        private int loads = 0;
+
+        @Override
+        public AccessTable[] load(double from, double to){
+            loads++;
+            AccessTable[] tables = new AccessTable[4];
+            for(int section = 0; section < tables.length; section++){
+                AccessTable.Builder builder = new AccessTable.Builder(1, 1);
+                if(section == AccessFile.GP){
+                    for(double t = Math.ceil(Math.max(from, 0.0)); t <= to; t++) builder.add(0, 0, t, t + 0.5);
+                }
+                tables[section] = builder.build();
+            }
+            return tables;
+        }
+    }
+
+    @Test
+    public void windowIsNotReloadedDuringTheFirstMargin(){
+        CountingLoader loader = new CountingLoader();
+        AccessWindow window = new AccessWindow(loader, 1000.0, 60.0, 100.0);
+        assertEquals(1, loader.loads);
+
+        for(double t = 0.0; t < 60.0; t += 1.0) assertFalse("reloaded at t=" + t, window.advance(t));
+        assertEquals(1, loader.loads);
+        assertEquals(0.0, window.getWindowStart(), 0.0);
+    }
+
+    @Test
+    public void windowIsReloadedOnceItsRefreshTimeIsReached(){
+        CountingLoader loader = new CountingLoader();
+        AccessWindow window = new AccessWindow(loader, 1000.0, 60.0, 100.0);
+
+        // the first window spans [0, 220] and refreshes one margin before its planning horizon runs out
+        assertEquals(220.0, window.getWindowEnd(), 0.0);
+        assertEquals(60.0, window.getRefreshTime(), 0.0);
+        assertFalse(window.advance(59.0));
+        assertTrue(window.advance(60.0));
+        assertEquals(2, loader.loads);
+        assertEquals(0.0, window.getWindowStart(), 0.0);
+        assertEquals(280.0, window.getWindowEnd(), 0.0);
+
+        for(double t = 60.0; t < 120.0; t += 1.0) assertFalse(window.advance(t));
+        assertEquals(2, loader.loads);
+        assertTrue(window.advance(120.0));
+        assertEquals(60.0, window.getWindowStart(), 0.0);
+    }
+
+    @Test
+    public void lastWindowReachesTheEndOfTheSimulation(){
+        CountingLoader loader = new CountingLoader();
+        AccessWindow window = new AccessWindow(loader, 300.0, 60.0, 100.0);
+
+        assertTrue(window.advance(60.0));
+        assertTrue(window.advance(120.0));
+        assertEquals(300.0, window.getWindowEnd(), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, window.getRefreshTime(), 0.0);
+        assertFalse(window.advance(299.0));
+        assertEquals(3, loader.loads);
+
+        double[] times = window.accessTimes();
+        assertEquals(60.0, times[0], 0.0);
+        assertEquals(300.5, times[times.length - 1], 0.0);
+    }
+}
@@ -0,0 +1,101 @@
+package modules.orbitData;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class CoverageCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String coverageDir(){
+        return folder.getRoot().getAbsolutePath() + "/";
+    }
+
+    /**
+     * Leases an entry and fills it with a file of a given size
+     */
+    private static File write(CoverageCache cache, File entry, int size, long lastUsed) throws IOException {
+        cache.lease(entry);
+        Files.write(new File(entry, "data.bin").toPath(), new byte[size]);
+        entry.setLastModified(lastUsed);
+        return entry;
+    }
+
+    @Test
+    public void keysDependOnEveryValueAndItsOrder(){
+        String key = new CoverageCache.Key("cl").add("sat").add(1.5).add(new double[]{1.0, 2.0}).build();
+
+        assertTrue(key.matches("cl_[0-9a-f]{32}"));
+        assertEquals(key, new CoverageCache.Key("cl").add("sat").add(1.5).add(new double[]{1.0, 2.0}).build());
+        assertNotEquals(key, new CoverageCache.Key("fov").add("sat").add(1.5).add(new double[]{1.0, 2.0}).build());
+        assertNotEquals(key, new CoverageCache.Key("cl").add("sat").add(1.5).add(new double[]{2.0, 1.0}).build());
+        assertNotEquals(key, new CoverageCache.Key("cl").add(1.5).add("sat").add(new double[]{1.0, 2.0}).build());
+
+        // values are length-prefixed, so different splits of the same characters do not collide
+        assertNotEquals(new CoverageCache.Key("cl").add("ab").add("c").build(),
+                new CoverageCache.Key("cl").add("a").add("bc").build());
+
+        // doubles are hashed by their bit pattern
+        assertNotEquals(new CoverageCache.Key("cl").add(0.0).build(), new CoverageCache.Key("cl").add(-0.0).build());
+    }
+
+    @Test
+    public void lookupsHaveNoSideEffects(){
+        CoverageCache cache = new CoverageCache(coverageDir(), 1);
+        String key = new CoverageCache.Key("cl").add(1).build();
+
+        assertFalse(cache.getEntry(key).exists());
+        assertFalse(cache.getShard(key).exists());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesAcrossEntriesAndShards() throws IOException {
+        CoverageCache writer = new CoverageCache(coverageDir(), 0);
+        File oldest = write(writer, writer.getShard(new CoverageCache.Key("cl").add(1).build()), 100, 1000000L);
+        File middle = write(writer, writer.getEntry(new CoverageCache.Key("cl").add(2).build()), 100, 2000000L);
+        File newest = write(writer, writer.getShard(new CoverageCache.Key("fov").add(3).build()), 100, 3000000L);
+        File other = new File(folder.getRoot(), "inputs");
+        assertTrue(other.mkdirs());
+        writer.release();
+
+        // entries and shards share one budget of two entries
+        CoverageCache cache = new CoverageCache(coverageDir(), 250);
+        cache.evict();
+        assertFalse(oldest.exists());
+        assertTrue(middle.exists());
+        assertTrue(newest.exists());
+        assertTrue(other.exists());
+
+        // disabled caps never evict
+        new CoverageCache(coverageDir(), 0).evict();
+        assertTrue(middle.exists());
+    }
+
+    @Test
+    public void leasedEntriesAreNotEvicted() throws IOException {
+        CoverageCache user = new CoverageCache(coverageDir(), 0);
+        File leased = write(user, user.getEntry(new CoverageCache.Key("cl").add(1).build()), 100, 1000000L);
+        File free = write(user, user.getEntry(new CoverageCache.Key("cl").add(2).build()), 100, 2000000L);
+        user.release();
+        user.lease(leased);
+        leased.setLastModified(1000000L);
+
+        // another store, as used by another scenario, skips the entry leased by the first one
+        CoverageCache cache = new CoverageCache(coverageDir(), 50);
+        cache.evict();
+        assertTrue(leased.exists());
+        assertFalse(free.exists());
+
+        user.release();
+        cache.evict();
+        assertFalse(leased.exists());
+    }
+}
@@ -0,0 +1,88 @@
+package modules.orbitData;
+
+import modules.utils.Statistics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CoverageStatsTest {
+    private static final int POINTS = 20;
+    private static final int SATS = 3;
+
+    /**
+     * Random accesses of every satellite to every ground point within [0, 10000]. The last point is never covered.
+     * @return {point id, sat id, rise, set} of every access
+     */
+    private static ArrayList<double[]> accesses(Random random){
+        ArrayList<double[]> out = new ArrayList<>();
+        for(int point = 0; point < POINTS - 1; point++){
+            for(int sat = 0; sat < SATS; sat++){
+                double t = 500.0 * random.nextDouble();
+                while(t < 10000.0){
+                    double set = t + 20.0 + 200.0 * random.nextDouble();
+                    out.add(new double[]{point, sat, t, set});
+                    t = set + 1000.0 * random.nextDouble();
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Builds the table of the accesses overlapping [from, to], as read from mapped access files
+     */
+    private static AccessTable span(ArrayList<double[]> accesses, double from, double to){
+        AccessTable.Builder builder = new AccessTable.Builder(POINTS, SATS);
+        for(double[] access : accesses){
+            if(access[3] >= from && access[2] <= to) builder.add((int) access[0], (int) access[1], access[2], access[3]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void spansMatchTheWholeSimulation(){
+        ArrayList<double[]> accesses = accesses(new Random(7));
+
+        // revisit times of every point over the whole simulation
+        AccessTable all = span(accesses, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        ArrayList<Double> revisits = new ArrayList<>();
+        for(int point = 0; point < POINTS; point++){
+            if(all.pairsStart(point) == all.pairsEnd(point)) continue;
+            for(double revTime : all.union(point).revisitTimes()) revisits.add(revTime);
+        }
+        double[] expected = new double[revisits.size()];
+        for(int i = 0; i < expected.length; i++) expected[i] = revisits.get(i);
+
+        for(double length : new double[]{Double.POSITIVE_INFINITY, 3000.0, 250.0, 37.0}){
+            CoverageStats stats = new CoverageStats(POINTS);
+            double from = Double.NEGATIVE_INFINITY;
+            for(int k = 1; from < Double.POSITIVE_INFINITY; k++){
+                double to = k * length >= 10000.0 ? Double.POSITIVE_INFINITY : k * length;
+                stats.add(span(accesses, from, to));
+                from = to;
+            }
+
+            assertEquals(Statistics.getMax(expected), stats.getMaxRevTime(), 1e-9);
+            assertEquals(Statistics.getMin(expected), stats.getMinRevTime(), 1e-9);
+            assertEquals(Statistics.getMean(expected), stats.getAvgRevTime(), 1e-6);
+            assertEquals(Statistics.getStd(expected), stats.getStdRevTime(), 1e-6);
+            assertEquals((POINTS - 1.0) / POINTS, stats.getCoveragePercentage(), 0.0);
+        }
+    }
+
+    @Test
+    public void pointsWithoutRevisitsHaveUndefinedStatistics(){
+        AccessTable.Builder builder = new AccessTable.Builder(2, 1);
+        builder.add(0, 0, 10.0, 20.0);
+        CoverageStats stats = new CoverageStats(2);
+        stats.add(builder.build());
+
+        assertTrue(Double.isNaN(stats.getMaxRevTime()));
+        assertTrue(Double.isNaN(stats.getAvgRevTime()));
+        assertTrue(Double.isNaN(stats.getStdRevTime()));
+        assertEquals(0.5, stats.getCoveragePercentage(), 0.0);
+    }
+}
@@ -0,0 +1,241 @@
+package modules.planner.CCBBA;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BidResultsTest {
+    /**
+     * Minimum time between two measurements of the synthetic bidding model
+     */
+    private static final double SEP = 10.0;
+
+    /**
+     * Synthetic subtasks that can be measured at any time within [start, end]. Like the planner's bids, a bid is
+     * placed at the earliest feasible time of the earliest gap of the path it fits in, and scores decrease with time.
+     */
+    private double[] start;
+    private double[] end;
+
+    /**
+     * Time of the last measurement performed, which constrains the first gap of the path like the planner's last roll
+     */
+    private double lastTime = Double.NEGATIVE_INFINITY;
+
+    private double[] calcBid(ArrayList<Integer> path, double[] times, int j, double now){
+        for(int p = 0; p <= path.size(); p++){
+            double prev = p == 0 ? Math.max(now, lastTime + SEP) : times[path.get(p-1)] + SEP;
+            double next = p == path.size() ? Double.POSITIVE_INFINITY : times[path.get(p)] - SEP;
+
+            double t = Math.max(prev, start[j]);
+            if(t <= Math.min(next, end[j])) return new double[]{1000.0 - t, p, t};
+        }
+        return new double[]{0.0, -1, Double.NaN};
+    }
+
+    private void rebidStale(BidResults results, ArrayList<Integer> path, double[] times, boolean[] won, double now){
+        for(int j = 0; j < results.size(); j++){
+            if(won[j] || !results.isStale(j)) continue;
+            double[] bid = calcBid(path, times, j, now);
+            results.setBid(j, bid[0], (int) bid[1], 0, bid[2], 0.0);
+        }
+    }
+
+    /**
+     * Every bid that is not marked stale must match the bid a full recalculation would give
+     */
+    private void assertMatchesFullRebid(BidResults results, ArrayList<Integer> path, double[] times, boolean[] won,
+                                        double now){
+        for(int j = 0; j < results.size(); j++){
+            if(won[j] || results.isStale(j)) continue;
+            double[] bid = calcBid(path, times, j, now);
+            assertEquals("bid of subtask " + j, bid[0], results.getBid(j), 1e-9);
+            assertEquals("position of subtask " + j, (int) bid[1], results.getInsertAt(j));
+        }
+    }
+
+    @Test
+    public void incrementalInvalidationMatchesFullRebid(){
+        Random random = new Random(42);
+        int n = 200;
+        start = new double[n];
+        end = new double[n];
+        for(int j = 0; j < n; j++){
+            start[j] = 2000.0 * random.nextDouble();
+            end[j] = start[j] + 5.0 + 60.0 * random.nextDouble();
+        }
+
+        BidResults results = new BidResults(4);
+        for(int j = 0; j < n; j++) assertEquals(j, results.addRow());
+
+        ArrayList<Integer> path = new ArrayList<>();
+        double[] times = new double[n];
+        boolean[] won = new boolean[n];
+        double now = 0.0;
+
+        for(int step = 0; step < 300; step++){
+            rebidStale(results, path, times, won, now);
+            assertMatchesFullRebid(results, path, times, won, now);
+
+            if(!path.isEmpty() && random.nextInt(3) == 0){
+                // perform the first measurement of the path and move time forward
+                int first = path.remove(0);
+                now = times[first];
+                lastTime = now;
+                results.close(first);
+                results.removedFirst();
+                results.invalidateGap(0);
+            }
+            else{
+                int best = -1;
+                for(int j = 0; j < n; j++){
+                    if(won[j] || results.getInsertAt(j) < 0) continue;
+                    if(best < 0 || results.getBid(j) > results.getBid(best)) best = j;
+                }
+                if(best < 0) break;
+
+                int position = results.getInsertAt(best);
+                path.add(position, best);
+                times[best] = results.getBidTime(best);
+                won[best] = true;
+                results.inserted(position);
+            }
+            assertMatchesFullRebid(results, path, times, won, now);
+        }
+        assertFalse(path.isEmpty());
+    }
+
+    @Test
+    public void infeasibleSubtasksAreRebidOnPathChanges(){
+        BidResults results = new BidResults(2);
+        int j = results.addRow();
+        int k = results.addRow();
+        results.setBid(j, 0.0, -1, -1, Double.NaN, Double.NaN);
+        results.setBid(k, 5.0, 2, 0, 100.0, 0.0);
+
+        results.inserted(0);
+        assertTrue(results.isStale(j));
+        assertFalse(results.isStale(k));
+        assertEquals(3, results.getInsertAt(k));
+
+        results.setBid(j, 0.0, -1, -1, Double.NaN, Double.NaN);
+        results.removedFirst();
+        assertTrue(results.isStale(j));
+        assertEquals(2, results.getInsertAt(k));
+
+        results.setBid(j, 0.0, -1, -1, Double.NaN, Double.NaN);
+        results.invalidateGap(0);
+        assertTrue(results.isStale(j));
+        assertFalse(results.isStale(k));
+    }
+
+    @Test
+    public void drainChangedReturnsEachRowOnce(){
+        BidResults results = new BidResults(1);
+        for(int i = 0; i < 5; i++) results.addRow();
+
+        results.setWinner(3, 1, 2.0, 10.0, 1.0);
+        results.setWinner(1, 2, 3.0, 20.0, 1.0);
+        results.setWinner(3, 2, 4.0, 10.0, 2.0);
+        assertArrayEquals(new int[]{3, 1}, results.drainChanged());
+        assertArrayEquals(new int[0], results.drainChanged());
+
+        results.release(3, 3.0);
+        assertArrayEquals(new int[]{3}, results.drainChanged());
+        assertEquals(-1, results.getWinner(3));
+        assertEquals(3.0, results.getTimestamp(3), 0.0);
+    }
+
+    /**
+     * Row received from another planner
+     */
+    private static SubtaskResult received(int z, double y, double s){
+        return new SubtaskResult(null, 0, z, y, 100.0 + z, s);
+    }
+
+    @Test
+    public void consensusKeepsTheHighestBid(){
+        BidResults results = new BidResults(1);
+        int j = results.addRow();
+
+        assertFalse(results.merge(j, received(3, 0.0, 1.0), 3, 0));
+        assertTrue(results.merge(j, received(3, 5.0, 1.0), 3, 0));
+        assertFalse(results.merge(j, received(4, 4.0, 2.0), 4, 0));
+        assertTrue(results.merge(j, received(4, 6.0, 2.0), 4, 0));
+
+        // ties go to the lower satellite id
+        assertFalse(results.merge(j, received(5, 6.0, 3.0), 5, 0));
+        assertTrue(results.merge(j, received(2, 6.0, 3.0), 5, 0));
+        assertEquals(2, results.getWinner(j));
+        assertEquals(6.0, results.getWinningBid(j), 0.0);
+        assertEquals(102.0, results.getMeasurementTime(j), 0.0);
+        assertEquals(3.0, results.getTimestamp(j), 0.0);
+    }
+
+    @Test
+    public void consensusKeepsTheNewestInformationAboutAWinner(){
+        BidResults results = new BidResults(1);
+        int j = results.addRow();
+        results.setWinner(j, 2, 5.0, 102.0, 4.0);
+
+        // a lower bid from the same winner replaces the row only if it is newer
+        assertFalse(results.merge(j, received(2, 3.0, 3.0), 3, 0));
+        assertTrue(results.merge(j, received(2, 3.0, 5.0), 3, 0));
+        assertEquals(3.0, results.getWinningBid(j), 0.0);
+
+        // releases are only accepted from the winner itself
+        assertFalse(results.merge(j, received(-1, 0.0, 6.0), 3, 0));
+        assertFalse(results.merge(j, received(-1, 0.0, 4.0), 2, 0));
+        assertTrue(results.merge(j, received(-1, 0.0, 6.0), 2, 0));
+        assertEquals(-1, results.getWinner(j));
+        assertEquals(6.0, results.getTimestamp(j), 0.0);
+    }
+
+    @Test
+    public void consensusLeavesOwnAndClosedRowsAlone(){
+        BidResults results = new BidResults(2);
+        int j = results.addRow();
+        int k = results.addRow();
+        results.setWinner(j, 0, 5.0, 100.0, 1.0);
+        results.close(k);
+
+        assertFalse(results.merge(j, received(0, 9.0, 2.0), 3, 0));
+        assertEquals(5.0, results.getWinningBid(j), 0.0);
+        assertFalse(results.merge(k, received(3, 9.0, 2.0), 3, 0));
+        assertEquals(-1, results.getWinner(k));
+    }
+
+    @Test
+    public void consensusConvergesToTheSameWinner(){
+        double[] bids = new double[]{3.0, 7.0, 7.0, 5.0};
+        int n = bids.length;
+        BidResults[] tables = new BidResults[n];
+        for(int i = 0; i < n; i++){
+            tables[i] = new BidResults(1);
+            tables[i].addRow();
+            tables[i].setWinner(0, i, bids[i], 100.0 + i, 0.0);
+        }
+
+        boolean updated = true;
+        for(int round = 0; updated; round++){
+            assertTrue("consensus did not converge", round < n);
+            updated = false;
+            for(int sender = 0; sender < n; sender++){
+                SubtaskResult row = new SubtaskResult(null, 0, tables[sender].getWinner(0),
+                        tables[sender].getWinningBid(0), tables[sender].getMeasurementTime(0),
+                        tables[sender].getTimestamp(0));
+                for(int receiver = 0; receiver < n; receiver++){
+                    if(receiver != sender && tables[receiver].merge(0, row, sender, receiver)) updated = true;
+                }
+            }
+        }
+
+        for(BidResults table : tables){
+            assertEquals(1, table.getWinner(0));
+            assertEquals(7.0, table.getWinningBid(0), 0.0);
+        }
+    }
+}
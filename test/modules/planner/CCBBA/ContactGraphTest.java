@@ -0,0 +1,94 @@
+package modules.planner.CCBBA;
+
+import modules.orbitData.AccessTable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class ContactGraphTest {
+    /**
+     * Adds a cross link window in both directions
+     */
+    private static void link(AccessTable.Builder builder, int a, int b, double rise, double set){
+        builder.add(a, b, rise, set);
+        builder.add(b, a, rise, set);
+    }
+
+    /**
+     * Four satellites where 0 reaches 3 directly at t=50, through 1 while both links are open at [5,10], and
+     * through 2 only if the second link is crossed after the first one closes
+     */
+    private static ContactGraph graph(boolean[] commsSats, boolean crossLinks){
+        AccessTable.Builder builder = new AccessTable.Builder(4, 4);
+        link(builder, 0, 1, 0.0, 10.0);
+        link(builder, 1, 3, 5.0, 15.0);
+        link(builder, 0, 2, 20.0, 30.0);
+        link(builder, 2, 3, 35.0, 40.0);
+        link(builder, 0, 3, 50.0, 60.0);
+        return new ContactGraph(builder.build(), commsSats, crossLinks);
+    }
+
+    private static ContactGraph graph(){
+        return graph(new boolean[]{true, true, true, true}, true);
+    }
+
+    @Test
+    public void synchronousPathsNeedAllLinksOpenAtOnce(){
+        HashMap<Integer, ArrayList<int[]>> paths = graph().paths(0, 3, 3, 2, true);
+
+        assertEquals(2, paths.size());
+        assertEquals(1, paths.get(2).size());
+        assertArrayEquals(new int[]{0, 3}, paths.get(2).get(0));
+        assertEquals(1, paths.get(3).size());
+        assertArrayEquals(new int[]{0, 1, 3}, paths.get(3).get(0));
+    }
+
+    @Test
+    public void asynchronousPathsAreFoundInOrderOfArrival(){
+        HashMap<Integer, ArrayList<int[]>> paths = graph().paths(0, 3, 3, 2, false);
+
+        assertEquals(2, paths.size());
+        assertArrayEquals(new int[]{0, 3}, paths.get(2).get(0));
+        assertEquals(2, paths.get(3).size());
+        assertArrayEquals(new int[]{0, 1, 3}, paths.get(3).get(0));
+        assertArrayEquals(new int[]{0, 2, 3}, paths.get(3).get(1));
+    }
+
+    @Test
+    public void pathsAreLimitedByHopsAndCount(){
+        HashMap<Integer, ArrayList<int[]>> paths = graph().paths(0, 3, 1, 2, false);
+        assertEquals(1, paths.size());
+        assertArrayEquals(new int[]{0, 3}, paths.get(2).get(0));
+
+        paths = graph().paths(0, 3, 3, 1, false);
+        assertEquals(1, paths.get(3).size());
+        assertArrayEquals(new int[]{0, 1, 3}, paths.get(3).get(0));
+    }
+
+    @Test
+    public void linksBetweenSensingSatellitesRequireCrossLinks(){
+        boolean[] commsSats = new boolean[]{false, true, true, false};
+
+        HashMap<Integer, ArrayList<int[]>> paths = graph(commsSats, false).paths(0, 3, 3, 2, false);
+        assertFalse(paths.containsKey(2));
+        assertEquals(2, paths.get(3).size());
+
+        paths = graph(commsSats, true).paths(0, 3, 3, 2, false);
+        assertArrayEquals(new int[]{0, 3}, paths.get(2).get(0));
+    }
+
+    @Test
+    public void linksClosedBeforeArrivalAreNotCrossed(){
+        AccessTable.Builder builder = new AccessTable.Builder(3, 3);
+        link(builder, 0, 1, 20.0, 30.0);
+        link(builder, 1, 2, 0.0, 10.0);
+        ContactGraph graph = new ContactGraph(builder.build(), new boolean[]{true, true, true}, true);
+
+        assertTrue(graph.paths(0, 2, 2, 2, false).isEmpty());
+        assertTrue(graph.paths(0, 2, 2, 2, true).isEmpty());
+        assertArrayEquals(new int[]{2, 1, 0}, graph.paths(2, 0, 2, 2, false).get(3).get(0));
+    }
+}
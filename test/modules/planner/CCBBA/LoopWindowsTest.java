@@ -0,0 +1,74 @@
+package modules.planner.CCBBA;
+
+import modules.orbitData.AccessTable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class LoopWindowsTest {
+    /**
+     * Four satellites in a chain 0-1-2-3
+     */
+    private static AccessTable chain(){
+        return new AccessTable.Builder(4, 4)
+                .add(0, 1, 0.0, 10.0)
+                .add(0, 1, 20.0, 30.0)
+                .add(0, 1, 40.0, 50.0)
+                .add(1, 2, 5.0, 8.0)
+                .add(1, 2, 22.0, 35.0)
+                .add(2, 3, 6.0, 7.0)
+                .add(2, 3, 24.0, 45.0)
+                .build();
+    }
+
+    @Test
+    public void synchronousWindowsIntersectEveryLink(){
+        ArrayList<double[]> windows = new LoopWindows(chain()).synchronousWindows(new int[]{0, 1, 2});
+
+        assertEquals(2, windows.size());
+        assertArrayEquals(new double[]{5.0, 8.0, 0.0, 10.0, 5.0, 8.0}, windows.get(0), 0.0);
+        assertArrayEquals(new double[]{22.0, 30.0, 20.0, 30.0, 22.0, 35.0}, windows.get(1), 0.0);
+    }
+
+    @Test
+    public void asynchronousWindowsChainEveryLink(){
+        ArrayList<double[]> windows = new LoopWindows(chain()).asynchronousWindows(new int[]{0, 1, 2, 3});
+
+        // the departure at t=40 reaches 1 after its last link with 2 closes
+        assertEquals(2, windows.size());
+        assertArrayEquals(new double[]{0.0, 6.0, 0.0, 10.0, 5.0, 8.0, 6.0, 7.0}, windows.get(0), 0.0);
+        assertArrayEquals(new double[]{20.0, 24.0, 20.0, 30.0, 22.0, 35.0, 24.0, 45.0}, windows.get(1), 0.0);
+    }
+
+    @Test
+    public void cachedPrefixesMatchFreshEvaluations(){
+        int[] shortPath = new int[]{0, 1, 2};
+        int[] longPath = new int[]{0, 1, 2, 3};
+
+        LoopWindows cached = new LoopWindows(chain());
+        cached.synchronousWindows(shortPath);
+        cached.asynchronousWindows(shortPath);
+
+        LoopWindows fresh = new LoopWindows(chain());
+        assertWindowsEqual(fresh.synchronousWindows(longPath), cached.synchronousWindows(longPath));
+        assertWindowsEqual(fresh.asynchronousWindows(longPath), cached.asynchronousWindows(longPath));
+        assertWindowsEqual(new LoopWindows(chain()).asynchronousWindows(shortPath), cached.asynchronousWindows(shortPath));
+    }
+
+    @Test
+    public void pathsWithoutLinksHaveNoWindows(){
+        LoopWindows loops = new LoopWindows(chain());
+
+        assertTrue(loops.synchronousWindows(new int[]{0}).isEmpty());
+        assertTrue(loops.asynchronousWindows(new int[]{0}).isEmpty());
+        assertTrue(loops.synchronousWindows(new int[]{0, 2}).isEmpty());
+        assertTrue(loops.asynchronousWindows(new int[]{0, 2, 3}).isEmpty());
+    }
+
+    private static void assertWindowsEqual(ArrayList<double[]> expected, ArrayList<double[]> actual){
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) assertArrayEquals(expected.get(i), actual.get(i), 0.0);
+    }
+}
@@ -0,0 +1,169 @@
+package modules.simulation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class CheckpointStreamsTest {
+    private static final int SCENARIO = 0;
+    private static final int ADDRESS = 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Scenario object that cannot be serialized, as satellites and coverage points
+     */
+    private static class ScenarioObject {
+        private final String name;
+
+        private ScenarioObject(String name){
+            this.name = name;
+        }
+    }
+
+    /**
+     * Serializable value matched by equality, as agent addresses
+     */
+    private static class Address implements Serializable {
+        private final int id;
+
+        private Address(int id){
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            return obj instanceof Address && ((Address) obj).id == id;
+        }
+
+        @Override
+        public int hashCode(){
+            return id;
+        }
+    }
+
+    /**
+     * State of a run holding references to scenario objects
+     */
+    private static class State implements Serializable {
+        private final double time;
+        private final ArrayList<Object> targets = new ArrayList<>();
+        private Object sender;
+
+        private State(double time){
+            this.time = time;
+        }
+    }
+
+    /**
+     * Streams of one run, registering two scenario objects and two addresses
+     */
+    private static CheckpointStreams streams(ScenarioObject a, ScenarioObject b){
+        CheckpointStreams streams = new CheckpointStreams(Address.class);
+        streams.register(SCENARIO, 0, a);
+        streams.register(SCENARIO, 1, b);
+        streams.registerValue(ADDRESS, 0, new Address(10));
+        streams.registerValue(ADDRESS, 1, new Address(11));
+        return streams;
+    }
+
+    private File write(CheckpointStreams streams, Object obj) throws IOException {
+        File file = folder.newFile();
+        try (OutputStream stream = new FileOutputStream(file); ObjectOutputStream out = streams.writer(stream)) {
+            out.writeObject(obj);
+        }
+        return file;
+    }
+
+    private static Object read(CheckpointStreams streams, File file) throws Exception {
+        try (InputStream stream = new FileInputStream(file)) {
+            return streams.reader(stream, file.getPath()).readObject();
+        }
+    }
+
+    @Test
+    public void referencesAreBoundToTheObjectsOfTheRestoringRun() throws Exception {
+        ScenarioObject a = new ScenarioObject("a");
+        ScenarioObject b = new ScenarioObject("b");
+        State state = new State(42.5);
+        state.targets.add(b);
+        state.targets.add(a);
+        state.targets.add(b);
+        state.sender = new Address(11);
+        File file = write(streams(a, b), state);
+
+        ScenarioObject a2 = new ScenarioObject("a");
+        ScenarioObject b2 = new ScenarioObject("b");
+        State restored = (State) read(streams(a2, b2), file);
+
+        assertEquals(42.5, restored.time, 0.0);
+        assertEquals(3, restored.targets.size());
+        assertSame(b2, restored.targets.get(0));
+        assertSame(a2, restored.targets.get(1));
+        assertSame(b2, restored.targets.get(2));
+        assertEquals(new Address(11), restored.sender);
+    }
+
+    @Test
+    public void valuesAreLookedUpByEquality(){
+        CheckpointStreams streams = streams(new ScenarioObject("a"), new ScenarioObject("b"));
+
+        assertEquals(1, streams.idOf(new Address(11)));
+        assertEquals(-1, streams.idOf(new Address(12)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valuesMustBeOfTheValueType(){
+        new CheckpointStreams(Address.class).registerValue(ADDRESS, 0, new ScenarioObject("a"));
+    }
+
+    @Test
+    public void unknownReferencesAreRejected() throws Exception {
+        ArrayList<Object> targets = new ArrayList<>();
+        targets.add(new ScenarioObject("c"));
+        CheckpointStreams streams = new CheckpointStreams(Address.class);
+        streams.register(SCENARIO, 2, targets.get(0));
+        File file = write(streams, targets);
+
+        try {
+            read(streams(new ScenarioObject("a"), new ScenarioObject("b")), file);
+            fail("Reference to an object missing from the run was resolved");
+        } catch (InvalidObjectException e) {
+            assertTrue(e.getMessage().contains("0/2"));
+        }
+    }
+
+    @Test
+    public void headersAreChecked() throws Exception {
+        File other = folder.newFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(other))) {
+            out.writeInt(0);
+            out.writeInt(Checkpoint.VERSION);
+        }
+        File version = folder.newFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(version))) {
+            out.writeInt(Checkpoint.MAGIC);
+            out.writeInt(Checkpoint.VERSION + 1);
+        }
+
+        CheckpointStreams streams = new CheckpointStreams(Address.class);
+        try {
+            read(streams, other);
+            fail("File without the checkpoint magic number was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("is not a checkpoint"));
+        }
+        try {
+            read(streams, version);
+            fail("Checkpoint of another version was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("has version " + (Checkpoint.VERSION + 1)));
+        }
+    }
+}
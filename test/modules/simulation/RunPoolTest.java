@@ -0,0 +1,82 @@
+package modules.simulation;
+
+import org.json.simple.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RunPoolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Launches runs the same way Dmas.launchRuns does, failing every other run after it was launched. Failed runs
+     * also report the end of the run, as a scheduler stopping after a failure does, which must not free their slot
+     * twice.
+     */
+    @Test(timeout = 10000)
+    public void batchCompletesWhenRunsFail() throws Exception {
+        int nRuns = 6;
+        RunPool pool = new RunPool(2, nRuns, folder.getRoot().getAbsolutePath());
+
+        List<Thread> runs = new ArrayList<>();
+        for(int i = 0; i < nRuns; i++){
+            int simID = i;
+            RunPool.Slot slot = pool.acquire();
+
+            Thread run = new Thread(() -> {
+                try {
+                    if(simID % 2 == 1) throw new IllegalStateException("injected failure of run " + simID);
+                    HashMap<String, Object> results = new HashMap<>();
+                    results.put("run", simID);
+                    slot.finished(new JSONObject(results));
+                } catch (IllegalStateException e) {
+                    slot.failed(simID);
+                    slot.finished(new JSONObject());
+                }
+            });
+            run.start();
+            runs.add(run);
+        }
+
+        pool.awaitAll();
+        for(Thread run : runs) run.join();
+
+        List<String> summary = Files.readAllLines(new File(folder.getRoot(), RunPool.SUMMARY_FILE).toPath());
+        assertEquals(nRuns / 2, summary.size());
+    }
+
+    @Test
+    public void slotIsOnlyClosedOnce() throws Exception {
+        RunPool pool = new RunPool(1, 2, folder.getRoot().getAbsolutePath());
+
+        RunPool.Slot slot = pool.acquire();
+        assertFalse(slot.isClosed());
+        slot.failed(0);
+        slot.failed(0);
+        assertTrue(slot.isClosed());
+
+        // the first slot was only given back once, so the pool still waits for the second run
+        RunPool.Slot next = pool.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.awaitAll();
+            } catch (InterruptedException ignored) {}
+        });
+        waiter.start();
+        waiter.join(200);
+        assertTrue(waiter.isAlive());
+
+        next.finished(new JSONObject());
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+    }
+}
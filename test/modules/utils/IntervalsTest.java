@@ -0,0 +1,74 @@
+package modules.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntervalsTest {
+    /**
+     * Checks that a set of intervals matches a list of {start, end} pairs
+     */
+    private static void assertIntervals(Intervals actual, double... expected){
+        assertEquals(expected.length / 2, actual.size());
+        for(int i = 0; i < actual.size(); i++){
+            assertEquals("start of interval " + i, expected[2*i], actual.getStart(i), 0.0);
+            assertEquals("end of interval " + i, expected[2*i + 1], actual.getEnd(i), 0.0);
+        }
+    }
+
+    @Test
+    public void orderSortsByStartThenEnd(){
+        double[] start = {5.0, 1.0, 5.0, 3.0};
+        double[] end = {9.0, 2.0, 6.0, 4.0};
+        assertArrayEquals(new int[]{1, 3, 2, 0}, Intervals.order(start, end, 4));
+        assertArrayEquals(new int[]{3, 2}, Intervals.order(start, end, 2, 4));
+    }
+
+    @Test
+    public void unionMergesOverlappingAndTouchingIntervals(){
+        double[] start = {10.0, 0.0, 4.0, 20.0, 12.0};
+        double[] end = {15.0, 5.0, 8.0, 25.0, 14.0};
+        Intervals union = Intervals.union(start, end, start.length);
+
+        assertIntervals(union, 0.0, 8.0, 10.0, 15.0, 20.0, 25.0);
+        assertEquals(1, union.getSource(0));
+        assertEquals(0, union.getSource(1));
+        assertEquals(3, union.getSource(2));
+        assertEquals(18.0, union.duration(), 0.0);
+        assertArrayEquals(new double[]{2.0, 5.0}, union.revisitTimes(), 0.0);
+    }
+
+    @Test
+    public void unionOfRangeOnlyUsesRange(){
+        double[] start = {0.0, 10.0, 20.0};
+        double[] end = {30.0, 12.0, 22.0};
+        assertIntervals(Intervals.union(start, end, 1, 3), 10.0, 12.0, 20.0, 22.0);
+        assertIntervals(Intervals.union(start, end, 1, 1));
+    }
+
+    @Test
+    public void intersectionKeepsCommonTimes(){
+        Intervals a = Intervals.union(new double[]{0.0, 10.0, 20.0}, new double[]{5.0, 15.0, 30.0}, 3);
+        Intervals b = Intervals.union(new double[]{3.0, 15.0, 25.0}, new double[]{12.0, 20.0, 35.0}, 3);
+
+        Intervals both = Intervals.intersection(a, b);
+        // windows that only touch, such as [10,15] and [15,20], do not intersect
+        assertIntervals(both, 3.0, 5.0, 10.0, 12.0, 25.0, 30.0);
+        assertEquals(0, both.getSource(0));
+        assertEquals(1, both.getSource(1));
+        assertEquals(2, both.getSource(2));
+
+        assertIntervals(Intervals.intersection(a, Intervals.union(new double[0], new double[0], 0)));
+    }
+
+    @Test
+    public void gapsCoverTheRestOfTheSpan(){
+        Intervals covered = Intervals.union(new double[]{2.0, 6.0, 12.0}, new double[]{4.0, 8.0, 20.0}, 3);
+
+        assertIntervals(covered.gaps(0.0, 10.0), 0.0, 2.0, 4.0, 6.0, 8.0, 10.0);
+        assertIntervals(covered.gaps(3.0, 15.0), 4.0, 6.0, 8.0, 12.0);
+        assertIntervals(covered.gaps(12.0, 18.0));
+        assertIntervals(Intervals.union(new double[0], new double[0], 0).gaps(0.0, 5.0), 0.0, 5.0);
+        assertEquals(-1, covered.gaps(0.0, 10.0).getSource(0));
+    }
+}